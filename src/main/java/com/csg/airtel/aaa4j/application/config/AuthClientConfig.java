@@ -0,0 +1,128 @@
+package com.csg.airtel.aaa4j.application.config;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.util.Optional;
+
+/**
+ * Configuration for the auth-management service client.
+ */
+@ConfigMapping(prefix = "auth.client")
+public interface AuthClientConfig {
+
+    /**
+     * Local cache of authorization decisions
+     */
+    CacheConfig cache();
+
+    /**
+     * Whether concurrent authentications with identical credentials share one backend call
+     */
+    @WithDefault("true")
+    boolean coalesce();
+
+    /**
+     * Micro-batching of backend calls
+     */
+    BatchConfig batch();
+
+    /**
+     * In-node PAP/CHAP verification against cached subscriber credentials
+     */
+    LocalVerifyConfig localVerify();
+
+    interface LocalVerifyConfig {
+        /**
+         * Whether credentials are verified in-process; the auth service is then only called on a miss
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Credential endpoint, called as GET {url}/{username}; defaults to auth.service.url + "/credentials"
+         */
+        Optional<String> url();
+
+        /**
+         * Maximum subscribers whose credentials are held
+         */
+        @WithDefault("100000")
+        long maxEntries();
+
+        /**
+         * How long credentials and profile are used before they must be fetched again, in seconds
+         */
+        @WithDefault("300")
+        int profileTtlSeconds();
+
+        /**
+         * Age after which a lookup also reloads the profile in the background, in seconds
+         */
+        @WithDefault("240")
+        int profileRefreshSeconds();
+
+        /**
+         * Credential fetch timeout, in milliseconds
+         */
+        @WithDefault("2000")
+        int fetchTimeoutMs();
+    }
+
+    interface BatchConfig {
+        /**
+         * Whether backend calls are gathered into batch POSTs
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Batch endpoint; defaults to auth.service.url + "/batch"
+         */
+        Optional<String> url();
+
+        /**
+         * Requests per batch; a full batch is sent immediately
+         */
+        @WithDefault("64")
+        int maxSize();
+
+        /**
+         * Longest a request waits for others to join its batch, in milliseconds
+         */
+        @WithDefault("2")
+        long lingerMs();
+    }
+
+    interface CacheConfig {
+        /**
+         * Whether decisions are cached in-process
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Maximum cached decisions; eviction beyond this is frequency-aware (W-TinyLFU)
+         */
+        @WithDefault("100000")
+        long maxEntries();
+
+        /**
+         * How long an Access-Accept decision is reused, in seconds
+         */
+        @WithDefault("300")
+        int acceptTtlSeconds();
+
+        /**
+         * How long a reject decision (unauthorized, inactive or out of balance) is reused, in seconds
+         */
+        @WithDefault("5")
+        int rejectTtlSeconds();
+
+        /**
+         * Fraction of the accept TTL after which a hit also triggers a background reload
+         */
+        @WithDefault("0.8")
+        double refreshAheadFactor();
+    }
+}
@@ -4,6 +4,9 @@ package com.csg.airtel.aaa4j.application.config;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
+import java.util.List;
+import java.util.Optional;
+
 @ConfigMapping(prefix = "radius")
 public interface RadiusServerConfig {
 
@@ -25,12 +28,225 @@ public interface RadiusServerConfig {
     @WithDefault("sharedsecret")
     String sharedSecret();
 
+    /**
+     * RFC 5080 duplicate-request cache
+     */
+    DuplicateCacheConfig duplicateCache();
+
+    /**
+     * Active-session table maintained from accounting
+     */
+    SessionsConfig sessions();
+
+    /**
+     * Per-NAS client definitions
+     */
+    ClientsConfig clients();
+
+    /**
+     * Pooled CoA / Disconnect client towards the NASes
+     */
+    CoaConfig coa();
+
+    /**
+     * Vendor attribute dictionaries
+     */
+    DictionaryConfig dictionary();
+
+    /**
+     * Operations HTTP endpoints under /admin
+     */
+    AdminConfig admin();
+
+    /**
+     * UDP server engine: AAA4J (blocking aaa4j handlers) or VERTX (event-loop datagram sockets
+     * with async handlers)
+     */
+    @WithDefault("aaa4j")
+    Engine engine();
+
     /**
      * Whether to fail application startup if any RADIUS server fails to start
      */
     @WithDefault("true")
     boolean failOnStartupError();
 
+    enum Engine {
+        AAA4J,
+        VERTX
+    }
+
+    interface DuplicateCacheConfig {
+        /**
+         * How long a completed response is kept for retransmits, in seconds
+         */
+        @WithDefault("30")
+        int windowSeconds();
+
+        /**
+         * Maximum tracked requests per server; new requests beyond this are not tracked
+         */
+        @WithDefault("100000")
+        int maxEntries();
+    }
+
+    interface SessionsConfig {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Most sessions tracked; each takes a 336-byte off-heap slot, allocated as the table
+         * grows, so large tables need -XX:MaxDirectMemorySize to match
+         */
+        @WithDefault("2000000")
+        int maxSessions();
+
+        InterimCoalescingConfig interimCoalescing();
+    }
+
+    interface InterimCoalescingConfig {
+        /**
+         * Hold back interim updates of tracked sessions that moved little traffic; needs sessions enabled
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Input plus output octets since the last published update below which an interim is held back
+         */
+        @WithDefault("1048576")
+        long minDeltaBytes();
+
+        /**
+         * Seconds after the last published update when the next interim goes out regardless of traffic
+         */
+        @WithDefault("900")
+        int windowSeconds();
+    }
+
+    interface CoaConfig {
+        /**
+         * UDP sockets per NAS; each carries up to 256 requests in flight, one per Identifier
+         */
+        @WithDefault("1")
+        int socketsPerNas();
+
+        /**
+         * Local address the client sockets bind to
+         */
+        @WithDefault("0.0.0.0")
+        String bindAddress();
+
+        /**
+         * Wait for a response before the request is sent again
+         */
+        @WithDefault("2000")
+        long timeoutMs();
+
+        /**
+         * Times a request is sent again before it fails with a timeout
+         */
+        @WithDefault("2")
+        int retransmits();
+
+        /**
+         * Requests per NAS waiting for a free Identifier before new ones are rejected
+         */
+        @WithDefault("10000")
+        int maxPending();
+
+        /**
+         * Resolution of the retransmit timer wheel
+         */
+        @WithDefault("50")
+        long tickMs();
+
+        /**
+         * Bulk Disconnect / CoA jobs
+         */
+        BulkConfig bulk();
+    }
+
+    interface BulkConfig {
+        /**
+         * Requests sent per second to each NAS; a job may ask for less, never more
+         */
+        @WithDefault("5000")
+        int ratePerNas();
+
+        /**
+         * Pacing resolution; each tick releases the requests due since the last one
+         */
+        @WithDefault("10")
+        long pacingTickMs();
+
+        /**
+         * Most sessions one job may target
+         */
+        @WithDefault("500000")
+        int maxTargets();
+
+        /**
+         * Finished jobs whose progress is kept for queries
+         */
+        @WithDefault("100")
+        int retainedJobs();
+    }
+
+    interface AdminConfig {
+        /**
+         * Whether the /admin endpoints are served; they expose subscriber data and act on
+         * sessions, so they are off unless an operator turns them on
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Key callers send in the X-Api-Key header; required when the endpoints are enabled
+         */
+        Optional<String> apiKey();
+    }
+
+    interface DictionaryConfig {
+        /**
+         * FreeRADIUS-format dictionary files or classpath resources, loaded in order; a later
+         * definition of the same attribute name wins
+         */
+        @WithDefault("dictionary/dictionary.alcatel.sr,dictionary/dictionary.cisco,dictionary/dictionary.huawei")
+        List<String> files();
+    }
+
+    interface ClientsConfig {
+        /**
+         * Where client definitions come from: NONE (any address, shared-secret), FILE or REDIS
+         */
+        @WithDefault("none")
+        Source source();
+
+        /**
+         * JSON array of client definitions, required for source FILE
+         */
+        Optional<String> filePath();
+
+        /**
+         * Redis hash holding one JSON definition per client address, for source REDIS
+         */
+        @WithDefault("radius:nas-clients")
+        String redisKey();
+
+        /**
+         * How often definitions are reloaded, in seconds; 0 disables periodic reload
+         */
+        @WithDefault("60")
+        int reloadIntervalSeconds();
+
+        enum Source {
+            NONE,
+            FILE,
+            REDIS
+        }
+    }
+
     interface AuthConfig {
         @WithDefault("true")
         boolean enabled();
@@ -40,6 +256,55 @@ public interface RadiusServerConfig {
 
         @WithDefault("0.0.0.0")
         String bindAddress();
+
+        /**
+         * Number of SO_REUSEPORT sockets opened on the port. 1 keeps the single aaa4j
+         * UdpRadiusServer, 0 opens one socket per available processor.
+         */
+        @WithDefault("1")
+        int shards();
+
+        /**
+         * Handler threads per shard socket
+         */
+        @WithDefault("4")
+        int shardWorkerThreads();
+
+        /**
+         * Pending packets per shard before datagrams are dropped
+         */
+        @WithDefault("10000")
+        int shardQueueCapacity();
+
+        /**
+         * How long the NAS waits for an Access-Accept/Reject before retransmitting, in milliseconds
+         */
+        @WithDefault("3000")
+        int nasTimeoutMs();
+
+        /**
+         * Retransmits the NAS sends before giving up on a request
+         */
+        @WithDefault("2")
+        int nasRetransmits();
+
+        /**
+         * Subtracted from the NAS retransmit budget to get the auth backend deadline, in milliseconds
+         */
+        @WithDefault("500")
+        int backendDeadlineMarginMs();
+
+        /**
+         * Maximum compiled Access-Accept templates, one per distinct authorization profile
+         */
+        @WithDefault("4096")
+        int replyTemplateCacheSize();
+
+        /**
+         * Vendor attribute that carries the subscriber's rule in Access-Accepts
+         */
+        @WithDefault("Alc-Subsc-Prof-Str")
+        String ruleAttribute();
     }
 
     interface AccountingConfig {
@@ -51,6 +316,185 @@ public interface RadiusServerConfig {
 
         @WithDefault("127.0.0.1")
         String bindAddress();
+
+        /**
+         * Number of SO_REUSEPORT sockets opened on the port. 1 keeps the single aaa4j
+         * UdpRadiusServer, 0 opens one socket per available processor.
+         */
+        @WithDefault("1")
+        int shards();
+
+        /**
+         * Handler threads per shard socket
+         */
+        @WithDefault("4")
+        int shardWorkerThreads();
+
+        /**
+         * Pending packets per shard before datagrams are dropped
+         */
+        @WithDefault("10000")
+        int shardQueueCapacity();
+
+        /**
+         * Batched publishing of accounting events to Kafka
+         */
+        PublishConfig publish();
+
+        /**
+         * On-disk spool for events Kafka could not take
+         */
+        SpoolConfig spool();
+
+        /**
+         * Content-based filter for accounting retransmits
+         */
+        DedupConfig dedup();
+    }
+
+    interface DedupConfig {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Seconds a request is remembered for at least; up to twice this before it is forgotten
+         */
+        @WithDefault("120")
+        int windowSeconds();
+
+        /**
+         * Requests remembered per window; a window that fills up is rotated early
+         */
+        @WithDefault("500000")
+        int maxEntries();
+    }
+
+    interface PublishConfig {
+        /**
+         * Most events the publisher hands to Kafka in one batch
+         */
+        @WithDefault("256")
+        int maxBatchSize();
+
+        /**
+         * Batches handed to Kafka and not yet completed before the publisher waits; while it
+         * waits, events queue in the lanes, where priority and interim overflow apply
+         */
+        @WithDefault("4")
+        int maxInFlightBatches();
+
+        /**
+         * How the publisher picks between the session and interim lanes
+         */
+        @WithDefault("weighted")
+        LaneScheduling scheduling();
+
+        /**
+         * What happens to interim updates the interim lane cannot take as they are
+         */
+        @WithDefault("coalesce")
+        InterimOverflow interimOverflow();
+
+        /**
+         * Capacity and weight of each publish lane
+         */
+        LanesConfig lanes();
+
+        enum LaneScheduling {
+            /**
+             * Always the session lane first while it has events, then interims
+             */
+            STRICT,
+            /**
+             * Lanes share each batch in proportion to their weights, so interims keep moving
+             */
+            WEIGHTED
+        }
+
+        enum InterimOverflow {
+            /**
+             * A queued interim is replaced by a newer one of its session, or dropped for its
+             * STOP; a full lane sheds new sessions' interims
+             */
+            COALESCE,
+            /**
+             * Every queued interim is kept until its session's STOP; a full lane sheds new
+             * interims
+             */
+            SHED
+        }
+    }
+
+    interface LanesConfig {
+        /**
+         * STARTs, STOPs and Accounting-On/Off resets waiting to be published, in one FIFO,
+         * before new ones are rejected
+         */
+        @WithDefault("40000")
+        int sessionCapacity();
+
+        @WithDefault("8")
+        int sessionWeight();
+
+        /**
+         * Interim updates waiting to be published before {@code interim-overflow} applies
+         */
+        @WithDefault("100000")
+        int interimCapacity();
+
+        @WithDefault("1")
+        int interimWeight();
+    }
+
+    interface SpoolConfig {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("spool/accounting")
+        String directory();
+
+        /**
+         * Size of each memory-mapped segment file
+         */
+        @WithDefault("64")
+        int segmentSizeMb();
+
+        /**
+         * Disk space the spool may use before further events are dropped
+         */
+        @WithDefault("4096")
+        long maxSizeMb();
+
+        /**
+         * Interval at which appended events and the replay checkpoint are forced to disk
+         */
+        @WithDefault("1000")
+        long syncIntervalMs();
+
+        ReplayConfig replay();
+    }
+
+    interface ReplayConfig {
+        /**
+         * Upper bound on replayed events per second, so a backlog does not starve live traffic
+         */
+        @WithDefault("2000")
+        int ratePerSecond();
+
+        @WithDefault("256")
+        int batchSize();
+
+        @WithDefault("5000")
+        long timeoutMs();
+
+        /**
+         * Delay after a failed replay, doubled on each further failure up to max-backoff-ms
+         */
+        @WithDefault("1000")
+        long initialBackoffMs();
+
+        @WithDefault("60000")
+        long maxBackoffMs();
     }
 
 
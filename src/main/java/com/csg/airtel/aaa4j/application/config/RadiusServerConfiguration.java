@@ -1,10 +1,16 @@
 package com.csg.airtel.aaa4j.application.config;
 
+import com.csg.airtel.aaa4j.application.server.RadiusDuplicateCache;
+import com.csg.airtel.aaa4j.application.server.ShardedUdpRadiusServer;
+import com.csg.airtel.aaa4j.application.server.VertxRadiusServer;
 import com.csg.airtel.aaa4j.common.constant.ResponseCodeEnum;
+import com.csg.airtel.aaa4j.domain.service.AsyncRadiusHandler;
 import com.csg.airtel.aaa4j.domain.service.RadiusAccountingHandler;
 import com.csg.airtel.aaa4j.domain.service.RadiusAuthenticationHandler;
 import com.csg.airtel.aaa4j.exception.BaseException;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.runtime.Startup;
+import io.vertx.core.Vertx;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -15,6 +21,7 @@ import org.aaa4j.radius.server.servers.UdpRadiusServer;
 import org.jboss.logging.Logger;
 
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,6 +34,8 @@ public class RadiusServerConfiguration {
     private final RadiusServerConfig config;
     private final RadiusAuthenticationHandler radiusAuthenticationHandler;
     private final RadiusAccountingHandler accountingHandler;
+    private final MeterRegistry meterRegistry;
+    private final Vertx vertx;
 
     private RadiusServer radiusServer;
     private RadiusServer accountingServer;
@@ -34,10 +43,12 @@ public class RadiusServerConfiguration {
     @Inject
     public RadiusServerConfiguration(
             RadiusServerConfig config,RadiusAuthenticationHandler radiusAuthenticationHandler,
-            RadiusAccountingHandler accountingHandler) {
+            RadiusAccountingHandler accountingHandler, MeterRegistry meterRegistry, Vertx vertx) {
         this.config = config;
         this.radiusAuthenticationHandler = radiusAuthenticationHandler;
         this.accountingHandler = accountingHandler;
+        this.meterRegistry = meterRegistry;
+        this.vertx = vertx;
     }
 
     @PostConstruct
@@ -79,10 +90,12 @@ public class RadiusServerConfiguration {
 
     private void logConfiguration() {
         logger.infof("RADIUS Configuration:");
-        logger.infof("  Auth Server    : enabled={}, port={}, bind={}",
-                config.auth().enabled(), config.auth().port(), config.auth().bindAddress());
-        logger.infof("  Accounting     : enabled={}, port={}, bind={}",
-                config.accounting().enabled(), config.accounting().port(), config.accounting().bindAddress());
+        logger.infof("  Auth Server    : enabled=%s, port=%d, bind=%s, shards=%d",
+                config.auth().enabled(), config.auth().port(), config.auth().bindAddress(), config.auth().shards());
+        logger.infof("  Accounting     : enabled=%s, port=%d, bind=%s, shards=%d",
+                config.accounting().enabled(), config.accounting().port(), config.accounting().bindAddress(),
+                config.accounting().shards());
+        logger.infof("  Engine         : %s", config.engine());
         logger.infof("  Fail on Error  : {}", config.failOnStartupError());
     }
 
@@ -106,10 +119,10 @@ public class RadiusServerConfiguration {
         logger.infof("Starting Authentication RADIUS server on {}:{}",
                 config.auth().bindAddress(), config.auth().port());
 
-        radiusServer = UdpRadiusServer.newBuilder()
-                .bindAddress(new InetSocketAddress("0.0.0.0", 1812))
-                .handler(radiusAuthenticationHandler)
-                .build();
+        radiusServer = buildServer("auth",
+                new InetSocketAddress(config.auth().bindAddress(), config.auth().port()),
+                config.auth().shards(), config.auth().shardWorkerThreads(), config.auth().shardQueueCapacity(),
+                radiusAuthenticationHandler);
 
         radiusServer.start();
         logger.infof("Authentication RADIUS server started successfully on {}:{}",
@@ -120,16 +133,58 @@ public class RadiusServerConfiguration {
         logger.infof("Starting Accounting RADIUS server on {}:{}",
                 config.accounting().bindAddress(), config.accounting().port());
 
-        accountingServer = UdpRadiusServer.newBuilder()
-                .bindAddress(new InetSocketAddress(config.accounting().bindAddress(), config.accounting().port()))
-                .handler(accountingHandler)
-                .build();
+        accountingServer = buildServer("accounting",
+                new InetSocketAddress(config.accounting().bindAddress(), config.accounting().port()),
+                config.accounting().shards(), config.accounting().shardWorkerThreads(),
+                config.accounting().shardQueueCapacity(), accountingHandler);
 
         accountingServer.start();
         logger.infof("Accounting RADIUS server started successfully on {}:{}",
                 config.accounting().bindAddress(), config.accounting().port());
     }
 
+    /**
+     * Builds the server for the configured engine. For the aaa4j engine a single shard keeps the
+     * aaa4j UdpRadiusServer, otherwise a SO_REUSEPORT sharded server is used.
+     */
+    private <H extends RadiusServer.Handler & AsyncRadiusHandler> RadiusServer buildServer(
+            String name, InetSocketAddress bindAddress, int shards, int workerThreads, int queueCapacity, H handler) {
+        RadiusDuplicateCache duplicateCache = new RadiusDuplicateCache(name,
+                Duration.ofSeconds(config.duplicateCache().windowSeconds()),
+                config.duplicateCache().maxEntries(), meterRegistry);
+
+        if (config.engine() == RadiusServerConfig.Engine.VERTX) {
+            return VertxRadiusServer.newBuilder()
+                    .name(name)
+                    .vertx(vertx)
+                    .bindAddress(bindAddress)
+                    .sockets(shards)
+                    .handler(handler)
+                    .duplicationStrategy(duplicateCache)
+                    .meterRegistry(meterRegistry)
+                    .build();
+        }
+
+        if (shards == 1) {
+            return UdpRadiusServer.newBuilder()
+                    .bindAddress(bindAddress)
+                    .handler(handler)
+                    .duplicationStrategy(duplicateCache)
+                    .build();
+        }
+
+        return ShardedUdpRadiusServer.newBuilder()
+                .name(name)
+                .bindAddress(bindAddress)
+                .shards(shards)
+                .workerThreads(workerThreads)
+                .queueCapacity(queueCapacity)
+                .handler(handler)
+                .duplicationStrategy(duplicateCache)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
     @PreDestroy
     void shutdown() throws InterruptedException {
         if (radiusServer != null) {
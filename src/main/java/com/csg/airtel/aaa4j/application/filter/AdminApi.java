@@ -0,0 +1,18 @@
+package com.csg.airtel.aaa4j.application.filter;
+
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks operations endpoints that are served only when {@code radius.admin.enabled} is set
+ * and only to callers presenting the configured API key; see {@link AdminApiKeyFilter}.
+ */
+@NameBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdminApi {
+}
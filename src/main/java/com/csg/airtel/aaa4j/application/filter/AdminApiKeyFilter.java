@@ -0,0 +1,66 @@
+package com.csg.airtel.aaa4j.application.filter;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.logging.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards {@link AdminApi} endpoints. While {@code radius.admin.enabled} is off they answer
+ * 404 as if they did not exist; once on, a request without the configured
+ * {@code radius.admin.api-key} in the {@value #API_KEY_HEADER} header gets 401. Enabling the
+ * endpoints without a key refuses every call rather than leaving them open.
+ */
+@Provider
+@AdminApi
+@Priority(Priorities.AUTHENTICATION)
+public class AdminApiKeyFilter implements ContainerRequestFilter {
+
+    private static final Logger logger = Logger.getLogger(AdminApiKeyFilter.class);
+
+    static final String API_KEY_HEADER = "X-Api-Key";
+
+    private final boolean enabled;
+    private final byte[] apiKey;
+
+    @Inject
+    public AdminApiKeyFilter(RadiusServerConfig config) {
+        RadiusServerConfig.AdminConfig adminConfig = config.admin();
+        this.enabled = adminConfig.enabled();
+        this.apiKey = adminConfig.apiKey()
+                .filter(key -> !key.isBlank())
+                .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                .orElse(null);
+        if (enabled && apiKey == null) {
+            logger.warn("radius.admin.enabled is set without radius.admin.api-key; refusing all admin calls");
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!enabled) {
+            requestContext.abortWith(Response.status(Response.Status.NOT_FOUND).build());
+            return;
+        }
+        if (apiKey == null) {
+            requestContext.abortWith(Response.status(Response.Status.FORBIDDEN).build());
+            return;
+        }
+
+        String presented = requestContext.getHeaderString(API_KEY_HEADER);
+        // Constant-time comparison so the key cannot be guessed byte by byte from response times
+        if (presented == null || !MessageDigest.isEqual(apiKey, presented.getBytes(StandardCharsets.UTF_8))) {
+            logger.warnf("Rejected admin call %s %s without a valid API key",
+                    requestContext.getMethod(), requestContext.getUriInfo().getPath());
+            requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+    }
+}
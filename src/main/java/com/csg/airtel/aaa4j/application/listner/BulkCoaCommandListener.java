@@ -0,0 +1,45 @@
+package com.csg.airtel.aaa4j.application.listner;
+
+import com.csg.airtel.aaa4j.domain.bulk.BulkCoaService;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaProgress;
+import io.smallrye.common.annotation.Blocking;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.jboss.logging.Logger;
+
+/**
+ * Starts bulk Disconnect / CoA jobs from the {@code bulk-coa-commands} topic. Expanding a
+ * command reads the session table, so it runs on a worker thread. The table only holds this
+ * replica's sessions, so each replica consumes in a group of its own and runs its own job
+ * for every command.
+ */
+@ApplicationScoped
+public class BulkCoaCommandListener {
+
+    private static final Logger logger = Logger.getLogger(BulkCoaCommandListener.class);
+
+    private final BulkCoaService bulkCoaService;
+
+    @Inject
+    public BulkCoaCommandListener(BulkCoaService bulkCoaService) {
+        this.bulkCoaService = bulkCoaService;
+    }
+
+    @Incoming("bulk-coa-commands")
+    @Blocking
+    public void consume(BulkCoaCommand command) {
+        if (command == null) {
+            logger.warn("Skipping unreadable bulk CoA command");
+            return;
+        }
+        try {
+            BulkCoaProgress progress = bulkCoaService.submit(command);
+            logger.infof("Bulk %s job %s started from Kafka for %d sessions",
+                    progress.action(), progress.jobId(), progress.targets());
+        } catch (IllegalArgumentException e) {
+            logger.warnf("Rejected bulk CoA command %s: %s", command, e.getMessage());
+        }
+    }
+}
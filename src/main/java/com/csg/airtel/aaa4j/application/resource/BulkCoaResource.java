@@ -0,0 +1,96 @@
+package com.csg.airtel.aaa4j.application.resource;
+
+import com.csg.airtel.aaa4j.application.filter.AdminApi;
+import com.csg.airtel.aaa4j.domain.bulk.BulkCoaService;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaProgress;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.List;
+
+/**
+ * Bulk Disconnect / CoA jobs for operations: start one, follow its progress, cancel it.
+ * Every route, including cancel, is disabled unless {@code radius.admin.enabled} is set,
+ * and then API-key protected.
+ * <p>
+ * Sessions are held in each replica's own table, so a job started here only reaches the
+ * sessions of the replica that took the request, and its progress, including COMPLETED,
+ * covers those alone; jobs are likewise only visible and cancellable on that replica. Behind
+ * a load balancer with several replicas, publish to the {@code bulk-coa-commands} topic
+ * instead, which every replica consumes in its own group.
+ */
+@Path("/admin/coa/bulk")
+@AdminApi
+@Produces(MediaType.APPLICATION_JSON)
+public class BulkCoaResource {
+
+    private static final long MIN_INTERVAL_MS = 100;
+
+    private final BulkCoaService bulkCoaService;
+
+    @Inject
+    public BulkCoaResource(BulkCoaService bulkCoaService) {
+        this.bulkCoaService = bulkCoaService;
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response submit(BulkCoaCommand command) {
+        try {
+            return Response.accepted(bulkCoaService.submit(command)).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    @GET
+    public List<BulkCoaProgress> jobs() {
+        return bulkCoaService.jobs();
+    }
+
+    @GET
+    @Path("/{jobId}")
+    public BulkCoaProgress progress(@PathParam("jobId") String jobId) {
+        return orNotFound(bulkCoaService.progress(jobId));
+    }
+
+    /**
+     * Server-sent progress events until the job finishes
+     */
+    @GET
+    @Path("/{jobId}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<BulkCoaProgress> events(@PathParam("jobId") String jobId,
+                                         @QueryParam("intervalMs") @DefaultValue("1000") long intervalMs) {
+        return orNotFound(bulkCoaService.watch(jobId, Math.max(intervalMs, MIN_INTERVAL_MS)));
+    }
+
+    @DELETE
+    @Path("/{jobId}")
+    public BulkCoaProgress cancel(@PathParam("jobId") String jobId) {
+        return orNotFound(bulkCoaService.cancel(jobId));
+    }
+
+    private static <T> T orNotFound(T value) {
+        if (value == null) {
+            throw new NotFoundException("No such bulk job");
+        }
+        return value;
+    }
+}
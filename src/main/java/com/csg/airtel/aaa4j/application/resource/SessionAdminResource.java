@@ -0,0 +1,76 @@
+package com.csg.airtel.aaa4j.application.resource;
+
+import com.csg.airtel.aaa4j.application.filter.AdminApi;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of the active-session table for operations. Disabled unless
+ * {@code radius.admin.enabled} is set, and then API-key protected.
+ */
+@Path("/admin/sessions")
+@AdminApi
+@Produces(MediaType.APPLICATION_JSON)
+public class SessionAdminResource {
+
+    private static final int MAX_LIMIT = 10_000;
+
+    private final SessionRegistry sessionRegistry;
+
+    @Inject
+    public SessionAdminResource(SessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @GET
+    public Map<String, Integer> summary() {
+        return Map.of("active", sessionRegistry.size());
+    }
+
+    @GET
+    @Path("/nas/{nasIp}/{sessionId}")
+    public UserSession session(@PathParam("nasIp") String nasIp, @PathParam("sessionId") String sessionId) {
+        return orNotFound(sessionRegistry.find(sessionId, nasIp));
+    }
+
+    @GET
+    @Path("/user/{username}")
+    public List<UserSession> byUsername(@PathParam("username") String username) {
+        return sessionRegistry.findByUsername(username);
+    }
+
+    @GET
+    @Path("/framed-ip/{framedIp}")
+    public UserSession byFramedIp(@PathParam("framedIp") String framedIp) {
+        return orNotFound(sessionRegistry.findByFramedIp(framedIp));
+    }
+
+    @GET
+    @Path("/nas/{nasIp}")
+    public Map<String, Object> byNas(@PathParam("nasIp") String nasIp,
+                                     @QueryParam("limit") @DefaultValue("100") int limit) {
+        return Map.of(
+                "total", sessionRegistry.countByNas(nasIp),
+                "sessions", sessionRegistry.findByNas(nasIp, Math.min(limit, MAX_LIMIT))
+        );
+    }
+
+    private static UserSession orNotFound(UserSession session) {
+        if (session == null) {
+            throw new NotFoundException("No active session");
+        }
+        return session;
+    }
+}
@@ -0,0 +1,177 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.server.DuplicationStrategy;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded RFC 5080 duplicate-request cache.
+ * <p>
+ * Requests are keyed on (source IP, source port, Identifier, Request Authenticator). A
+ * retransmit that arrives while the original is still being handled is attached to it and
+ * not handed to the handler again; a retransmit that arrives after the original completed
+ * is answered from the cached response. Servers that support it also store the encoded
+ * response bytes so a cached reply is sent without re-encoding.
+ * <p>
+ * Unlike aaa4j's {@code TimedDuplicationStrategy} (synchronized, unbounded, full scan on every
+ * request) lookups are lock-free and expiry walks an insertion-ordered queue, so the cost per
+ * request stays constant regardless of cache size.
+ */
+public final class RadiusDuplicateCache implements DuplicationStrategy {
+
+    private static final Result NEW = new Result(Result.State.NEW_REQUEST, null);
+    private static final Result IN_PROGRESS = new Result(Result.State.IN_PROGRESS_REQUEST, null);
+
+    private final long windowNanos;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Key> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    private final Counter hitCounter;
+    private final Counter attachCounter;
+    private final Counter overflowCounter;
+
+    public RadiusDuplicateCache(String name, Duration window, int maxEntries, MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.maxEntries = maxEntries;
+        this.hitCounter = meterRegistry.counter("radius.duplicate.hits", "server", name);
+        this.attachCounter = meterRegistry.counter("radius.duplicate.attached", "server", name);
+        this.overflowCounter = meterRegistry.counter("radius.duplicate.overflow", "server", name);
+        meterRegistry.gaugeMapSize("radius.duplicate.size", Tags.of("server", name), entries);
+    }
+
+    @Override
+    public Result handleRequest(InetSocketAddress clientAddress, Packet requestPacket, byte[] inBytes) {
+        long now = System.nanoTime();
+        sweep(now);
+
+        Key key = Key.of(clientAddress, requestPacket);
+        Entry existing = entries.get(key);
+        if (existing != null && existing.isExpired(now)) {
+            entries.remove(key, existing);
+            existing = null;
+        }
+
+        if (existing == null) {
+            if (entries.size() >= maxEntries) {
+                overflowCounter.increment();
+                return NEW;
+            }
+            Entry created = new Entry(now + windowNanos);
+            existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                expiryQueue.offer(key);
+                return NEW;
+            }
+        }
+
+        Packet response = existing.response;
+        if (response != null) {
+            hitCounter.increment();
+            return new Result(Result.State.CACHED_RESPONSE, response);
+        }
+        attachCounter.increment();
+        return IN_PROGRESS;
+    }
+
+    @Override
+    public void handleResponse(InetSocketAddress clientAddress, Packet requestPacket, byte[] inBytes,
+                               Packet responsePacket) {
+        Entry entry = entries.get(Key.of(clientAddress, requestPacket));
+        if (entry != null) {
+            entry.expiresAt = System.nanoTime() + windowNanos;
+            entry.response = responsePacket;
+        }
+    }
+
+    @Override
+    public void unhandleRequest(InetSocketAddress clientAddress, Packet requestPacket, byte[] inBytes) {
+        entries.remove(Key.of(clientAddress, requestPacket));
+    }
+
+    /**
+     * Returns the encoded reply previously stored for this request, or {@code null}.
+     */
+    public byte[] cachedResponseBytes(InetSocketAddress clientAddress, Packet requestPacket) {
+        Entry entry = entries.get(Key.of(clientAddress, requestPacket));
+        return entry != null ? entry.responseBytes : null;
+    }
+
+    /**
+     * Stores the encoded reply so later retransmits are answered without re-encoding.
+     */
+    public void cacheResponseBytes(InetSocketAddress clientAddress, Packet requestPacket, byte[] responseBytes) {
+        Entry entry = entries.get(Key.of(clientAddress, requestPacket));
+        if (entry != null) {
+            entry.responseBytes = responseBytes;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes expired entries from the head of the insertion queue. Only one thread sweeps at a
+     * time; others skip rather than wait.
+     */
+    private void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            Key head;
+            while ((head = expiryQueue.peek()) != null) {
+                Entry entry = entries.get(head);
+                if (entry != null && !entry.isExpired(now)) {
+                    // A response can extend the head by at most one window, which only delays the sweep
+                    break;
+                }
+                expiryQueue.poll();
+                if (entry != null) {
+                    entries.remove(head, entry);
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        volatile long expiresAt;
+        volatile Packet response;
+        volatile byte[] responseBytes;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private record Key(InetAddress address, int port, int identifier, long authenticatorHigh,
+                       long authenticatorLow) {
+
+        static Key of(InetSocketAddress clientAddress, Packet requestPacket) {
+            Packet.ReceivedFields fields = requestPacket.getReceivedFields();
+            ByteBuffer authenticator = ByteBuffer.wrap(fields.getAuthenticator());
+            return new Key(clientAddress.getAddress(), clientAddress.getPort(), fields.getIdentifier(),
+                    authenticator.getLong(), authenticator.getLong());
+        }
+    }
+}
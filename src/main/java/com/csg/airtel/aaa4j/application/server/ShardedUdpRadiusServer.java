@@ -0,0 +1,341 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.PacketCodecException;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.aaa4j.radius.server.DuplicationStrategy;
+import org.aaa4j.radius.server.RadiusServer;
+import org.aaa4j.radius.server.TimedDuplicationStrategy;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UDP RADIUS server that opens several sockets on the same port using SO_REUSEPORT.
+ * <p>
+ * The kernel hashes incoming datagrams across the sockets, so each shard gets its own
+ * receive queue, receive loop and handler executor instead of every packet funnelling
+ * through a single socket. Packet handling mirrors aaa4j's {@code UdpRadiusServer}
+ * (client secret lookup, decode, duplicate detection, handler, encode) so the existing
+ * {@link RadiusServer.Handler} implementations are used unchanged.
+ */
+public final class ShardedUdpRadiusServer implements RadiusServer {
+
+    private static final Logger logger = Logger.getLogger(ShardedUdpRadiusServer.class);
+
+    private static final int MAX_PACKET_SIZE = 4096;
+
+    private final String name;
+    private final InetSocketAddress bindAddress;
+    private final int shardCount;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final RadiusServer.Handler handler;
+    private final DuplicationStrategy duplicationStrategy;
+    private final RadiusDuplicateCache responseCache;
+    private final PacketCodec packetCodec;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Shard> shards = new ArrayList<>();
+    private volatile boolean running;
+
+    private ShardedUdpRadiusServer(Builder builder) {
+        this.name = Objects.requireNonNull(builder.name);
+        this.bindAddress = Objects.requireNonNull(builder.bindAddress);
+        this.handler = Objects.requireNonNull(builder.handler);
+        this.meterRegistry = Objects.requireNonNull(builder.meterRegistry);
+        this.shardCount = builder.shards > 0 ? builder.shards : Runtime.getRuntime().availableProcessors();
+        this.workerThreads = Math.max(1, builder.workerThreads);
+        this.queueCapacity = Math.max(1, builder.queueCapacity);
+        this.duplicationStrategy = builder.duplicationStrategy != null
+                ? builder.duplicationStrategy
+                : new TimedDuplicationStrategy(Duration.ofSeconds(30));
+        this.responseCache = duplicationStrategy instanceof RadiusDuplicateCache cache ? cache : null;
+        this.packetCodec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public synchronized void start() throws InterruptedException {
+        if (running) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                Shard shard = new Shard(i);
+                shards.add(shard);
+                shard.start();
+            }
+        } catch (IOException e) {
+            stop();
+            throw new IllegalStateException(
+                    String.format("Failed to bind %s shard socket on %s", name, bindAddress), e);
+        }
+
+        running = true;
+        logger.infof("%s RADIUS server listening on %s with %d SO_REUSEPORT shard(s)", name, bindAddress, shardCount);
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        for (Shard shard : shards) {
+            shard.awaitTermination();
+        }
+        shards.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Encodes the reply, reusing the bytes cached for an earlier copy of the same request when
+     * the duplicate cache is in use.
+     */
+    private byte[] encodeResponse(InetSocketAddress clientAddress, byte[] secret, Packet requestPacket,
+                                  Packet responsePacket) throws PacketCodecException {
+        byte[] outBytes = responseCache != null ? responseCache.cachedResponseBytes(clientAddress, requestPacket) : null;
+        if (outBytes == null) {
+            outBytes = packetCodec.encodeResponse(responsePacket, secret,
+                    requestPacket.getReceivedFields().getIdentifier(),
+                    requestPacket.getReceivedFields().getAuthenticator());
+            if (responseCache != null) {
+                responseCache.cacheResponseBytes(clientAddress, requestPacket, outBytes);
+            }
+        }
+        return outBytes;
+    }
+
+    /**
+     * One SO_REUSEPORT socket with its own receive loop and handler executor.
+     */
+    private final class Shard {
+
+        private final int index;
+        private final Counter packetCounter;
+        private final Counter dropCounter;
+
+        private DatagramChannel channel;
+        private ThreadPoolExecutor executor;
+        private Thread receiver;
+
+        Shard(int index) {
+            this.index = index;
+            String shardTag = String.valueOf(index);
+            this.packetCounter = meterRegistry.counter("radius.listener.packets", "server", name, "shard", shardTag);
+            this.dropCounter = meterRegistry.counter("radius.listener.drops", "server", name, "shard", shardTag);
+        }
+
+        void start() throws IOException {
+            channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            channel.bind(bindAddress);
+
+            executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "radius-" + name + "-shard-" + index + "-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+
+            receiver = new Thread(this::receiveLoop, "radius-" + name + "-shard-" + index + "-receiver");
+            receiver.setDaemon(true);
+            receiver.start();
+        }
+
+        void stop() {
+            if (receiver != null) {
+                receiver.interrupt();
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warnf("Error closing %s shard %d socket: %s", name, index, e.getMessage());
+                }
+            }
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        void awaitTermination() throws InterruptedException {
+            if (receiver != null) {
+                receiver.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            if (executor != null && !executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+
+        private void receiveLoop() {
+            // Only this thread receives into the buffer; each datagram is copied out before hand-off
+            ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+            while (channel.isOpen() && !Thread.currentThread().isInterrupted()) {
+                try {
+                    buffer.clear();
+                    InetSocketAddress clientAddress = (InetSocketAddress) channel.receive(buffer);
+                    if (clientAddress == null) {
+                        continue;
+                    }
+                    packetCounter.increment();
+                    buffer.flip();
+                    byte[] inBytes = new byte[buffer.remaining()];
+                    buffer.get(inBytes);
+
+                    try {
+                        executor.execute(() -> handleDatagram(clientAddress, inBytes));
+                    } catch (RejectedExecutionException e) {
+                        dropCounter.increment();
+                    }
+                } catch (AsynchronousCloseException e) {
+                    break;
+                } catch (IOException e) {
+                    handler.handleException(e);
+                }
+            }
+        }
+
+        private void handleDatagram(InetSocketAddress clientAddress, byte[] inBytes) {
+            try {
+                byte[] secret = handler.handleClient(clientAddress.getAddress());
+                if (secret == null) {
+                    dropCounter.increment();
+                    return;
+                }
+
+                Packet requestPacket = packetCodec.decodeRequest(inBytes, secret);
+                DuplicationStrategy.Result result = duplicationStrategy.handleRequest(clientAddress, requestPacket, inBytes);
+
+                Packet responsePacket;
+                switch (result.getState()) {
+                    case NEW_REQUEST -> {
+                        responsePacket = handler.handlePacket(clientAddress.getAddress(), requestPacket);
+                        if (responsePacket == null) {
+                            duplicationStrategy.unhandleRequest(clientAddress, requestPacket, inBytes);
+                            return;
+                        }
+                        duplicationStrategy.handleResponse(clientAddress, requestPacket, inBytes, responsePacket);
+                    }
+                    case CACHED_RESPONSE -> responsePacket = result.getResponsePacket();
+                    default -> {
+                        // IN_PROGRESS_REQUEST: the original is still being handled
+                        return;
+                    }
+                }
+
+                byte[] outBytes = encodeResponse(clientAddress, secret, requestPacket, responsePacket);
+                channel.send(ByteBuffer.wrap(outBytes), clientAddress);
+            } catch (PacketCodecException e) {
+                dropCounter.increment();
+                handler.handleException(e);
+            } catch (Exception e) {
+                handler.handleException(e);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private String name = "radius";
+        private InetSocketAddress bindAddress;
+        private int shards;
+        private int workerThreads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 10000;
+        private RadiusServer.Handler handler;
+        private DuplicationStrategy duplicationStrategy;
+        private MeterRegistry meterRegistry;
+
+        private Builder() {
+        }
+
+        /**
+         * Name used for thread names and the {@code server} metric tag (e.g. auth, accounting).
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder bindAddress(InetSocketAddress bindAddress) {
+            this.bindAddress = bindAddress;
+            return this;
+        }
+
+        /**
+         * Number of sockets to open on the port; zero or less means one per available processor.
+         */
+        public Builder shards(int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        /**
+         * Handler threads per shard.
+         */
+        public Builder workerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * Pending packets per shard before new datagrams are dropped and counted.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder handler(RadiusServer.Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        public Builder duplicationStrategy(DuplicationStrategy duplicationStrategy) {
+            this.duplicationStrategy = duplicationStrategy;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public ShardedUdpRadiusServer build() {
+            return new ShardedUdpRadiusServer(this);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import com.csg.airtel.aaa4j.domain.service.AsyncRadiusHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.datagram.DatagramPacket;
+import io.vertx.core.datagram.DatagramSocket;
+import io.vertx.core.datagram.DatagramSocketOptions;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.PacketCodecException;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.aaa4j.radius.server.DuplicationStrategy;
+import org.aaa4j.radius.server.RadiusServer;
+import org.aaa4j.radius.server.TimedDuplicationStrategy;
+import org.jboss.logging.Logger;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking RADIUS server engine on Vert.x/Netty datagram sockets (epoll when
+ * {@code quarkus.vertx.prefer-native-transport} is enabled).
+ * <p>
+ * Each socket is pinned to one event loop. Datagrams are decoded on that event loop and
+ * handed to an {@link AsyncRadiusHandler}; the reply is encoded and written back on the
+ * same event loop when the handler's stage completes. In-flight requests therefore cost
+ * a pending future rather than a parked thread. With more than one socket, SO_REUSEPORT
+ * lets the kernel spread datagrams across event loops.
+ */
+public final class VertxRadiusServer implements RadiusServer {
+
+    private static final Logger logger = Logger.getLogger(VertxRadiusServer.class);
+
+    private static final long START_TIMEOUT_SECONDS = 10;
+
+    private final String name;
+    private final Vertx vertx;
+    private final InetSocketAddress bindAddress;
+    private final int socketCount;
+    private final AsyncRadiusHandler handler;
+    private final DuplicationStrategy duplicationStrategy;
+    private final RadiusDuplicateCache responseCache;
+    private final PacketCodec packetCodec;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final List<Listener> listeners = new ArrayList<>();
+    private volatile boolean running;
+
+    private VertxRadiusServer(Builder builder) {
+        this.name = Objects.requireNonNull(builder.name);
+        this.vertx = Objects.requireNonNull(builder.vertx);
+        this.bindAddress = Objects.requireNonNull(builder.bindAddress);
+        this.handler = Objects.requireNonNull(builder.handler);
+        this.meterRegistry = Objects.requireNonNull(builder.meterRegistry);
+        this.socketCount = builder.sockets > 0 ? builder.sockets : Runtime.getRuntime().availableProcessors();
+        this.duplicationStrategy = builder.duplicationStrategy != null
+                ? builder.duplicationStrategy
+                : new TimedDuplicationStrategy(Duration.ofSeconds(30));
+        this.responseCache = duplicationStrategy instanceof RadiusDuplicateCache cache ? cache : null;
+        this.packetCodec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+        meterRegistry.gauge("radius.listener.inflight", Tags.of("server", name), inFlight);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public synchronized void start() throws InterruptedException {
+        if (running) {
+            return;
+        }
+
+        DatagramSocketOptions options = new DatagramSocketOptions()
+                .setReuseAddress(true)
+                .setReusePort(socketCount > 1);
+
+        try {
+            for (int i = 0; i < socketCount; i++) {
+                Listener listener = new Listener(i);
+                listeners.add(listener);
+                listener.start(options).get(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            stop();
+            throw new IllegalStateException(
+                    String.format("Failed to bind %s datagram socket on %s", name, bindAddress), e);
+        }
+
+        running = true;
+        logger.infof("%s RADIUS server (vertx engine) listening on %s with %d socket(s)", name, bindAddress, socketCount);
+    }
+
+    @Override
+    public synchronized void stop() throws InterruptedException {
+        for (Listener listener : listeners) {
+            listener.stop();
+        }
+        listeners.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Encodes the reply, reusing the bytes cached for an earlier copy of the same request when
+     * the duplicate cache is in use.
+     */
+    private byte[] encodeResponse(InetSocketAddress clientAddress, byte[] secret, Packet requestPacket,
+                                  Packet responsePacket) throws PacketCodecException {
+        byte[] outBytes = responseCache != null ? responseCache.cachedResponseBytes(clientAddress, requestPacket) : null;
+        if (outBytes == null) {
+            outBytes = packetCodec.encodeResponse(responsePacket, secret,
+                    requestPacket.getReceivedFields().getIdentifier(),
+                    requestPacket.getReceivedFields().getAuthenticator());
+            if (responseCache != null) {
+                responseCache.cacheResponseBytes(clientAddress, requestPacket, outBytes);
+            }
+        }
+        return outBytes;
+    }
+
+    /**
+     * One datagram socket bound to its own event-loop context.
+     */
+    private final class Listener {
+
+        private final int index;
+        private final Counter packetCounter;
+        private final Counter dropCounter;
+
+        private Context context;
+        private DatagramSocket socket;
+
+        Listener(int index) {
+            this.index = index;
+            String shardTag = String.valueOf(index);
+            this.packetCounter = meterRegistry.counter("radius.listener.packets", "server", name, "shard", shardTag);
+            this.dropCounter = meterRegistry.counter("radius.listener.drops", "server", name, "shard", shardTag);
+        }
+
+        CompletableFuture<DatagramSocket> start(DatagramSocketOptions options) {
+            // Called from a non Vert.x thread, so every listener gets a fresh event-loop context
+            context = vertx.getOrCreateContext();
+            Promise<DatagramSocket> promise = Promise.promise();
+            context.runOnContext(v -> {
+                socket = vertx.createDatagramSocket(options);
+                socket.handler(this::onDatagram);
+                socket.listen(bindAddress.getPort(), bindAddress.getHostString()).onComplete(promise);
+            });
+            return promise.future().toCompletionStage().toCompletableFuture();
+        }
+
+        void stop() {
+            if (socket != null) {
+                socket.close().onFailure(e ->
+                        logger.warnf("Error closing %s socket %d: %s", name, index, e.getMessage()));
+            }
+        }
+
+        private void onDatagram(DatagramPacket datagram) {
+            packetCounter.increment();
+
+            InetSocketAddress clientAddress;
+            try {
+                clientAddress = new InetSocketAddress(
+                        InetAddress.getByName(datagram.sender().hostAddress()), datagram.sender().port());
+            } catch (UnknownHostException e) {
+                dropCounter.increment();
+                return;
+            }
+
+            byte[] secret = handler.handleClient(clientAddress.getAddress());
+            if (secret == null) {
+                dropCounter.increment();
+                return;
+            }
+
+            byte[] inBytes = datagram.data().getBytes();
+            Packet requestPacket;
+            try {
+                requestPacket = packetCodec.decodeRequest(inBytes, secret);
+            } catch (PacketCodecException e) {
+                dropCounter.increment();
+                logger.debugf("Dropping undecodable packet from %s: %s", clientAddress, e.getMessage());
+                return;
+            }
+
+            DuplicationStrategy.Result result = duplicationStrategy.handleRequest(clientAddress, requestPacket, inBytes);
+            switch (result.getState()) {
+                case NEW_REQUEST -> dispatch(clientAddress, secret, inBytes, requestPacket);
+                case CACHED_RESPONSE -> reply(clientAddress, secret, requestPacket, result.getResponsePacket());
+                default -> {
+                    // IN_PROGRESS_REQUEST: the original is still being handled
+                }
+            }
+        }
+
+        private void dispatch(InetSocketAddress clientAddress, byte[] secret, byte[] inBytes, Packet requestPacket) {
+            inFlight.incrementAndGet();
+            try {
+                handler.handlePacketAsync(clientAddress.getAddress(), requestPacket)
+                        .whenComplete((responsePacket, throwable) -> context.runOnContext(v -> {
+                            inFlight.decrementAndGet();
+                            if (throwable != null || responsePacket == null) {
+                                if (throwable != null) {
+                                    logger.errorf(throwable, "%s handler failed for packet from %s", name, clientAddress);
+                                }
+                                duplicationStrategy.unhandleRequest(clientAddress, requestPacket, inBytes);
+                                return;
+                            }
+                            duplicationStrategy.handleResponse(clientAddress, requestPacket, inBytes, responsePacket);
+                            reply(clientAddress, secret, requestPacket, responsePacket);
+                        }));
+            } catch (Exception e) {
+                inFlight.decrementAndGet();
+                duplicationStrategy.unhandleRequest(clientAddress, requestPacket, inBytes);
+                logger.errorf(e, "%s handler failed for packet from %s", name, clientAddress);
+            }
+        }
+
+        private void reply(InetSocketAddress clientAddress, byte[] secret, Packet requestPacket, Packet responsePacket) {
+            try {
+                byte[] outBytes = encodeResponse(clientAddress, secret, requestPacket, responsePacket);
+                socket.send(Buffer.buffer(outBytes), clientAddress.getPort(), clientAddress.getAddress().getHostAddress())
+                        .onFailure(e -> logger.warnf("Failed to send %s reply to %s: %s", name, clientAddress, e.getMessage()));
+            } catch (PacketCodecException e) {
+                logger.errorf(e, "Failed to encode %s reply for %s", name, clientAddress);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private String name = "radius";
+        private Vertx vertx;
+        private InetSocketAddress bindAddress;
+        private int sockets = 1;
+        private AsyncRadiusHandler handler;
+        private DuplicationStrategy duplicationStrategy;
+        private MeterRegistry meterRegistry;
+
+        private Builder() {
+        }
+
+        /**
+         * Name used for log messages and the {@code server} metric tag (e.g. auth, accounting).
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder vertx(Vertx vertx) {
+            this.vertx = vertx;
+            return this;
+        }
+
+        public Builder bindAddress(InetSocketAddress bindAddress) {
+            this.bindAddress = bindAddress;
+            return this;
+        }
+
+        /**
+         * Number of sockets (one event loop each); zero or less means one per available processor.
+         */
+        public Builder sockets(int sockets) {
+            this.sockets = sockets;
+            return this;
+        }
+
+        public Builder handler(AsyncRadiusHandler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        public Builder duplicationStrategy(DuplicationStrategy duplicationStrategy) {
+            this.duplicationStrategy = duplicationStrategy;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public VertxRadiusServer build() {
+            return new VertxRadiusServer(this);
+        }
+    }
+}
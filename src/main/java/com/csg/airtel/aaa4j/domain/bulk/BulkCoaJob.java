@@ -0,0 +1,226 @@
+package com.csg.airtel.aaa4j.domain.bulk;
+
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaProgress;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.external.coa.CoaClientPool;
+import io.micrometer.core.instrument.Counter;
+import org.aaa4j.radius.core.packet.Packet;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * One bulk Disconnect / CoA run: a {@link NasFanOut} per NAS, all sending in parallel.
+ * <p>
+ * The pacing timer calls {@link #tick()}, and every response releases the next request of
+ * its NAS straight away, so a NAS that answers quickly runs at its rate instead of at one
+ * concurrency window per tick. Requests are sent outside the lock.
+ */
+final class BulkCoaJob {
+
+    private static final Logger logger = Logger.getLogger(BulkCoaJob.class);
+
+    private static final int DISCONNECT_ACK = 41;
+    private static final int COA_ACK = 44;
+
+    enum Result {
+        ACK,
+        NAK,
+        TIMEOUT,
+        FAILED
+    }
+
+    final String id;
+    private final BulkCoaCommand.Action action;
+    private final List<NasFanOut> fanOuts;
+    private final Function<UserSession, Packet> requests;
+    private final CoaClientPool coaClientPool;
+    private final Map<Result, Counter> resultCounters;
+    private final LongSupplier clock;
+    private final Consumer<BulkCoaJob> onFinish;
+    private final Instant startedAt = Instant.now();
+    private final int targets;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private BulkCoaProgress.State state = BulkCoaProgress.State.RUNNING;
+    private Instant finishedAt;
+    private int sent;
+    private int acked;
+    private int naked;
+    private int timedOut;
+    private int failed;
+
+    /**
+     * @param unreachable targets counted as failed up front, e.g. sessions of an unknown NAS
+     * @param onFinish    called once, outside the lock, when the job completes or is cancelled
+     */
+    BulkCoaJob(String id, BulkCoaCommand.Action action, List<NasFanOut> fanOuts, int unreachable,
+               Function<UserSession, Packet> requests, CoaClientPool coaClientPool,
+               Map<Result, Counter> resultCounters, LongSupplier clock, Consumer<BulkCoaJob> onFinish) {
+        this.id = id;
+        this.action = action;
+        this.fanOuts = fanOuts;
+        this.requests = requests;
+        this.coaClientPool = coaClientPool;
+        this.resultCounters = resultCounters;
+        this.clock = clock;
+        this.onFinish = onFinish;
+        this.failed = unreachable;
+        int total = unreachable;
+        for (NasFanOut fanOut : fanOuts) {
+            total += fanOut.size();
+        }
+        this.targets = total;
+        resultCounters.get(Result.FAILED).increment(unreachable);
+    }
+
+    /**
+     * Refills every NAS's credit and sends what is due.
+     */
+    void tick() {
+        List<NasFanOut> due = new ArrayList<>();
+        List<UserSession> sessions = new ArrayList<>();
+        boolean finished;
+        lock.lock();
+        try {
+            if (state != BulkCoaProgress.State.RUNNING) {
+                return;
+            }
+            long now = clock.getAsLong();
+            for (NasFanOut fanOut : fanOuts) {
+                fanOut.refill(now);
+                drain(fanOut, due, sessions);
+            }
+            finished = finishIfDone();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(due, sessions);
+        if (finished) {
+            onFinish.accept(this);
+        }
+    }
+
+    /**
+     * Stops sending; requests already in flight are still tallied.
+     *
+     * @return false if the job had already finished
+     */
+    boolean cancel() {
+        lock.lock();
+        try {
+            if (state != BulkCoaProgress.State.RUNNING) {
+                return false;
+            }
+            state = BulkCoaProgress.State.CANCELLED;
+            finishedAt = Instant.now();
+        } finally {
+            lock.unlock();
+        }
+        logger.infof("Bulk %s job %s cancelled", action, id);
+        onFinish.accept(this);
+        return true;
+    }
+
+    BulkCoaProgress progress() {
+        lock.lock();
+        try {
+            return new BulkCoaProgress(id, action, state, targets, sent, acked, naked, timedOut, failed,
+                    startedAt, finishedAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isRunning() {
+        lock.lock();
+        try {
+            return state == BulkCoaProgress.State.RUNNING;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain(NasFanOut fanOut, List<NasFanOut> due, List<UserSession> sessions) {
+        UserSession session;
+        while ((session = fanOut.poll()) != null) {
+            due.add(fanOut);
+            sessions.add(session);
+            sent++;
+        }
+    }
+
+    private void dispatch(List<NasFanOut> due, List<UserSession> sessions) {
+        for (int i = 0; i < due.size(); i++) {
+            NasFanOut fanOut = due.get(i);
+            Packet request;
+            try {
+                request = requests.apply(sessions.get(i));
+            } catch (RuntimeException e) {
+                logger.debugf(e, "Bulk job %s could not build the request for a session on %s", id, fanOut.nasIp);
+                complete(fanOut, Result.FAILED);
+                continue;
+            }
+            coaClientPool.send(fanOut.address, fanOut.secret, request)
+                    .subscribe().with(
+                            response -> complete(fanOut, isAck(response) ? Result.ACK : Result.NAK),
+                            failure -> complete(fanOut,
+                                    failure instanceof TimeoutException ? Result.TIMEOUT : Result.FAILED));
+        }
+    }
+
+    private void complete(NasFanOut fanOut, Result result) {
+        resultCounters.get(result).increment();
+        List<NasFanOut> due = new ArrayList<>();
+        List<UserSession> sessions = new ArrayList<>();
+        boolean finished;
+        lock.lock();
+        try {
+            fanOut.inFlight--;
+            switch (result) {
+                case ACK -> acked++;
+                case NAK -> naked++;
+                case TIMEOUT -> timedOut++;
+                case FAILED -> failed++;
+            }
+            if (state != BulkCoaProgress.State.RUNNING) {
+                return;
+            }
+            fanOut.refill(clock.getAsLong());
+            drain(fanOut, due, sessions);
+            finished = finishIfDone();
+        } finally {
+            lock.unlock();
+        }
+        dispatch(due, sessions);
+        if (finished) {
+            onFinish.accept(this);
+        }
+    }
+
+    private boolean finishIfDone() {
+        for (NasFanOut fanOut : fanOuts) {
+            if (!fanOut.isDone()) {
+                return false;
+            }
+        }
+        state = BulkCoaProgress.State.COMPLETED;
+        finishedAt = Instant.now();
+        logger.infof("Bulk %s job %s completed: %d targets, %d acked, %d naked, %d timed out, %d failed",
+                action, id, targets, acked, naked, timedOut, failed);
+        return true;
+    }
+
+    private static boolean isAck(Packet response) {
+        return response.getCode() == DISCONNECT_ACK || response.getCode() == COA_ACK;
+    }
+}
@@ -0,0 +1,332 @@
+package com.csg.airtel.aaa4j.domain.bulk;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaProgress;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
+import com.csg.airtel.aaa4j.external.coa.CoaClientPool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.Ipv4AddrData;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.attribute.attributes.FramedIpAddress;
+import org.aaa4j.radius.core.attribute.attributes.NasIpAddress;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.packet.Packet;
+import org.jboss.logging.Logger;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Bulk Disconnect / CoA: a command naming a NAS, a list of users, or both, is expanded
+ * against the {@link SessionRegistry} and fanned out through the {@link CoaClientPool}.
+ * <p>
+ * Every NAS gets its own {@link NasFanOut}, paced to {@code rate-per-nas} requests per second
+ * and held to the {@code coaConcurrency} of its {@link NasClient} in flight, so a large job
+ * runs all NASes in parallel without flooding any one of them. Sessions of an address with no
+ * NAS client are counted as failed. A job is only as fresh as the session table: a session
+ * that stopped after expansion gets a NAK from the NAS.
+ * <p>
+ * Jobs are kept while running and the last {@code retained-jobs} after they finish. Metrics:
+ * {@code radius.coa.bulk.requests} by action and result, {@code radius.coa.bulk.jobs.active}.
+ */
+@ApplicationScoped
+public class BulkCoaService {
+
+    private static final Logger logger = Logger.getLogger(BulkCoaService.class);
+
+    private static final int DISCONNECT_REQUEST = 40;
+    private static final int COA_REQUEST = 43;
+
+    private final Vertx vertx;
+    private final RadiusServerConfig.BulkConfig config;
+    private final SessionRegistry sessionRegistry;
+    private final NasClientRegistry nasClientRegistry;
+    private final CoaClientPool coaClientPool;
+    private final VendorDictionary dictionary;
+    private final String ruleAttribute;
+    private final LongSupplier clock;
+
+    private final Map<String, BulkCoaJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Map<BulkCoaCommand.Action, Map<BulkCoaJob.Result, Counter>> resultCounters =
+            new EnumMap<>(BulkCoaCommand.Action.class);
+
+    @Inject
+    public BulkCoaService(Vertx vertx, RadiusServerConfig config, SessionRegistry sessionRegistry,
+                          NasClientRegistry nasClientRegistry, CoaClientPool coaClientPool,
+                          VendorDictionary dictionary, MeterRegistry meterRegistry) {
+        this(vertx, config.coa().bulk(), sessionRegistry, nasClientRegistry, coaClientPool, dictionary,
+                config.auth().ruleAttribute(), () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()),
+                meterRegistry);
+    }
+
+    BulkCoaService(Vertx vertx, RadiusServerConfig.BulkConfig config, SessionRegistry sessionRegistry,
+                   NasClientRegistry nasClientRegistry, CoaClientPool coaClientPool, VendorDictionary dictionary,
+                   String ruleAttribute, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.vertx = vertx;
+        this.config = config;
+        this.sessionRegistry = sessionRegistry;
+        this.nasClientRegistry = nasClientRegistry;
+        this.coaClientPool = coaClientPool;
+        this.dictionary = dictionary;
+        this.ruleAttribute = ruleAttribute;
+        this.clock = clock;
+        for (BulkCoaCommand.Action action : BulkCoaCommand.Action.values()) {
+            Map<BulkCoaJob.Result, Counter> counters = new EnumMap<>(BulkCoaJob.Result.class);
+            for (BulkCoaJob.Result result : BulkCoaJob.Result.values()) {
+                counters.put(result, meterRegistry.counter("radius.coa.bulk.requests",
+                        "action", action.name().toLowerCase(Locale.ROOT),
+                        "result", result.name().toLowerCase(Locale.ROOT)));
+            }
+            resultCounters.put(action, counters);
+        }
+        meterRegistry.gauge("radius.coa.bulk.jobs.active", active);
+    }
+
+    /**
+     * Expands the command's targets and starts sending.
+     *
+     * @return the job's progress at the start
+     * @throws IllegalArgumentException if the command names no targets, a COA carries nothing
+     *                                  to change, an attribute is unknown, or the targets exceed
+     *                                  {@code max-targets}
+     */
+    public BulkCoaProgress submit(BulkCoaCommand command) {
+        BulkCoaCommand.Action action = command.action();
+        if (action == null) {
+            throw new IllegalArgumentException("action is required");
+        }
+        boolean byNas = command.nasIp() != null && !command.nasIp().isBlank();
+        boolean byUser = command.usernames() != null && !command.usernames().isEmpty();
+        if (!byNas && !byUser) {
+            throw new IllegalArgumentException("nasIp or usernames is required");
+        }
+        List<Attribute<?>> changes = action == BulkCoaCommand.Action.COA ? changes(command) : List.of();
+
+        Map<String, List<UserSession>> targets = byUser
+                ? expandUsers(command.usernames(), byNas ? command.nasIp() : null)
+                : expandNas(command.nasIp());
+
+        String id = UUID.randomUUID().toString();
+        long rate = command.ratePerNas() != null && command.ratePerNas() > 0
+                ? Math.min(command.ratePerNas(), config.ratePerNas())
+                : config.ratePerNas();
+        long now = clock.getAsLong();
+        List<NasFanOut> fanOuts = new ArrayList<>(targets.size());
+        int unreachable = 0;
+        for (Map.Entry<String, List<UserSession>> entry : targets.entrySet()) {
+            NasClient client = client(entry.getKey());
+            if (client == null) {
+                logger.warnf("Bulk job %s: no NAS client for %s, %d sessions not sent",
+                        id, entry.getKey(), entry.getValue().size());
+                unreachable += entry.getValue().size();
+                continue;
+            }
+            InetSocketAddress address = new InetSocketAddress(entry.getKey(), client.coaPort());
+            fanOuts.add(new NasFanOut(entry.getKey(), address, client.secret(), entry.getValue(),
+                    client.coaConcurrency(), rate, config.pacingTickMs(), now));
+        }
+
+        int code = action == BulkCoaCommand.Action.DISCONNECT ? DISCONNECT_REQUEST : COA_REQUEST;
+        BulkCoaJob job = new BulkCoaJob(id, action, fanOuts, unreachable,
+                session -> new Packet(code, attributes(session, changes)), coaClientPool,
+                resultCounters.get(action), clock, this::finish);
+        jobs.put(id, job);
+        active.incrementAndGet();
+        logger.infof("Bulk %s job %s started: %d sessions on %d NAS(es), %d requests/s per NAS",
+                action, id, job.progress().targets(), fanOuts.size(), rate);
+        vertx.setPeriodic(Math.max(1, config.pacingTickMs()), timer -> {
+            if (job.isRunning()) {
+                job.tick();
+            } else {
+                vertx.cancelTimer(timer);
+            }
+        });
+        job.tick();
+        return job.progress();
+    }
+
+    /**
+     * The job's progress, or {@code null} if it is unknown or no longer retained.
+     */
+    public BulkCoaProgress progress(String jobId) {
+        BulkCoaJob job = jobs.get(jobId);
+        return job != null ? job.progress() : null;
+    }
+
+    public List<BulkCoaProgress> jobs() {
+        List<BulkCoaProgress> progress = new ArrayList<>(jobs.size());
+        for (BulkCoaJob job : jobs.values()) {
+            progress.add(job.progress());
+        }
+        return progress;
+    }
+
+    /**
+     * Stops the job sending; responses to requests in flight are still counted.
+     *
+     * @return the job's progress, or {@code null} if it is unknown
+     */
+    public BulkCoaProgress cancel(String jobId) {
+        BulkCoaJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.cancel();
+        return job.progress();
+    }
+
+    /**
+     * The job's progress every {@code intervalMs} until it finishes, ending with the final
+     * tally; {@code null} if the job is unknown.
+     */
+    public Multi<BulkCoaProgress> watch(String jobId, long intervalMs) {
+        BulkCoaJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        return Multi.createFrom().emitter(emitter -> {
+            BulkCoaProgress first = job.progress();
+            emitter.emit(first);
+            if (first.state() != BulkCoaProgress.State.RUNNING) {
+                emitter.complete();
+                return;
+            }
+            long timerId = vertx.setPeriodic(intervalMs, timer -> {
+                BulkCoaProgress progress = job.progress();
+                emitter.emit(progress);
+                if (progress.state() != BulkCoaProgress.State.RUNNING) {
+                    emitter.complete();
+                }
+            });
+            emitter.onTermination(() -> vertx.cancelTimer(timerId));
+        });
+    }
+
+    private void finish(BulkCoaJob job) {
+        active.decrementAndGet();
+        finished.add(job.id);
+        while (finished.size() > config.retainedJobs()) {
+            String evicted = finished.poll();
+            if (evicted != null) {
+                jobs.remove(evicted);
+            }
+        }
+    }
+
+    private Map<String, List<UserSession>> expandNas(String nasIp) {
+        List<UserSession> sessions = sessionRegistry.findByNas(nasIp, config.maxTargets() + 1);
+        checkTargets(sessions.size());
+        Map<String, List<UserSession>> byNas = new LinkedHashMap<>();
+        if (!sessions.isEmpty()) {
+            byNas.put(nasIp, new ArrayList<>(sessions));
+        }
+        return byNas;
+    }
+
+    private Map<String, List<UserSession>> expandUsers(Collection<String> usernames, String nasIp) {
+        Map<String, List<UserSession>> byNas = new LinkedHashMap<>();
+        int count = 0;
+        for (String username : new LinkedHashSet<>(usernames)) {
+            for (UserSession session : sessionRegistry.findByUsername(username)) {
+                if (nasIp == null || nasIp.equals(session.getNasIP())) {
+                    byNas.computeIfAbsent(session.getNasIP(), nas -> new ArrayList<>()).add(session);
+                    checkTargets(++count);
+                }
+            }
+        }
+        return byNas;
+    }
+
+    private void checkTargets(int count) {
+        if (count > config.maxTargets()) {
+            throw new IllegalArgumentException("Command targets more than " + config.maxTargets() + " sessions");
+        }
+    }
+
+    private NasClient client(String nasIp) {
+        try {
+            return nasClientRegistry.find(InetAddress.getByName(nasIp));
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The attributes a COA changes, encoded once for the whole job.
+     */
+    private List<Attribute<?>> changes(BulkCoaCommand command) {
+        List<Attribute<?>> changes = new ArrayList<>();
+        if (command.attributes() != null) {
+            command.attributes().forEach((name, value) -> changes.add(dictionary.require(name).attribute(value)));
+        }
+        if (command.rule() != null) {
+            changes.add(dictionary.require(ruleAttribute).attribute(command.rule()));
+        }
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("COA needs a rule or attributes to change");
+        }
+        return List.copyOf(changes);
+    }
+
+    /**
+     * Session identification as in a single disconnect, followed by the COA changes.
+     */
+    static List<Attribute<?>> attributes(UserSession session, List<Attribute<?>> changes) {
+        List<Attribute<?>> attributes = new ArrayList<>(4 + changes.size());
+        if (session.getUsername() != null) {
+            attributes.add(new UserName(new TextData(session.getUsername())));
+        }
+        attributes.add(new AcctSessionId(new TextData(session.getSessionId())));
+        Inet4Address nasIp = ipv4(session.getNasIP());
+        if (nasIp != null) {
+            attributes.add(new NasIpAddress(new Ipv4AddrData(nasIp)));
+        }
+        Inet4Address framedIp = ipv4(session.getFramedIPAddress());
+        if (framedIp != null) {
+            attributes.add(new FramedIpAddress(new Ipv4AddrData(framedIp)));
+        }
+        attributes.addAll(changes);
+        return attributes;
+    }
+
+    private static Inet4Address ipv4(String address) {
+        if (address == null || address.isEmpty()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address) instanceof Inet4Address inet4Address ? inet4Address : null;
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.csg.airtel.aaa4j.domain.bulk;
+
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * The sessions of one NAS in a {@link BulkCoaJob}, released to the NAS by a token bucket of
+ * {@code ratePerSecond} and at most {@code concurrency} requests in flight.
+ * <p>
+ * Credit is counted in thousandths of a request, so that a rate times elapsed milliseconds
+ * adds up exactly; it is capped at one pacing tick's worth, so a NAS that was held back by
+ * its concurrency limit does not get a burst once responses come in.
+ * <p>
+ * Not thread-safe: the job guards it with its lock.
+ */
+final class NasFanOut {
+
+    private static final long ONE_REQUEST = 1000;
+
+    final String nasIp;
+    final InetSocketAddress address;
+    final byte[] secret;
+    private final List<UserSession> sessions;
+    private final int concurrency;
+    private final long ratePerSecond;
+    private final long maxCredit;
+
+    private int cursor;
+    int inFlight;
+    private long credit;
+    private long refilledAt;
+
+    NasFanOut(String nasIp, InetSocketAddress address, byte[] secret, List<UserSession> sessions, int concurrency,
+              long ratePerSecond, long pacingTickMs, long nowMillis) {
+        this.nasIp = nasIp;
+        this.address = address;
+        this.secret = secret;
+        this.sessions = sessions;
+        this.concurrency = Math.max(1, concurrency);
+        this.ratePerSecond = Math.max(1, ratePerSecond);
+        this.maxCredit = Math.max(ONE_REQUEST, this.ratePerSecond * pacingTickMs);
+        this.credit = maxCredit;
+        this.refilledAt = nowMillis;
+    }
+
+    void refill(long nowMillis) {
+        long elapsed = nowMillis - refilledAt;
+        if (elapsed > 0) {
+            credit = Math.min(maxCredit, credit + elapsed * ratePerSecond);
+            refilledAt = nowMillis;
+        }
+    }
+
+    /**
+     * The next session if pacing and the concurrency limit allow one more request now, which
+     * is then counted in flight; otherwise {@code null}.
+     */
+    UserSession poll() {
+        if (cursor >= sessions.size() || inFlight >= concurrency || credit < ONE_REQUEST) {
+            return null;
+        }
+        credit -= ONE_REQUEST;
+        inFlight++;
+        UserSession session = sessions.get(cursor);
+        // Release the session for GC as the job goes
+        sessions.set(cursor++, null);
+        return session;
+    }
+
+    boolean isDone() {
+        return cursor >= sessions.size() && inFlight == 0;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+}
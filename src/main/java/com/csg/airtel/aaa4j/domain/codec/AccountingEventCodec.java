@@ -0,0 +1,111 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+
+import java.time.Instant;
+
+/**
+ * Binary schema of {@link AccountingEvent}.
+ * <p>
+ * Version 2: a varint bitmap of the non-null reference fields (bit n for the n-th of eventId,
+ * sessionId, nasIP, username, actionType, timestamp, nasPortId, framedIPAddress and
+ * nasIdentifier), those fields in that order as in version 1, then the raw counters as
+ * unsigned varints: inputOctets, outputOctets, inputGigaWords, outputGigaWords, sessionTime
+ * and delayTime. The 64-bit totals are not written; the reader combines them again.
+ * <p>
+ * Version 1 records, the {@link AccountingRequestCodec} schema, are still read, so spooled
+ * events from before the upgrade replay.
+ */
+public final class AccountingEventCodec implements WireCodec<AccountingEvent> {
+
+    static final int VERSION = 2;
+
+    private final AccountingRequestCodec v1 = new AccountingRequestCodec();
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(AccountingEvent value, WireWriter out) {
+        int present = 0;
+        present |= bit(0, value.eventId());
+        present |= bit(1, value.sessionId());
+        present |= bit(2, value.nasIP());
+        present |= bit(3, value.username());
+        present |= bit(4, value.actionType());
+        present |= bit(5, value.timestamp());
+        present |= bit(6, value.nasPortId());
+        present |= bit(7, value.framedIPAddress());
+        present |= bit(8, value.nasIdentifier());
+        out.writeVarInt(present);
+
+        writeString(out, value.eventId());
+        writeString(out, value.sessionId());
+        writeString(out, value.nasIP());
+        writeString(out, value.username());
+        if (value.actionType() != null) {
+            out.writeByte(AccountingRequestCodec.actionCode(value.actionType()));
+        }
+        if (value.timestamp() != null) {
+            out.writeSignedVarLong(value.timestamp().getEpochSecond());
+            out.writeVarInt(value.timestamp().getNano());
+        }
+        writeString(out, value.nasPortId());
+        writeString(out, value.framedIPAddress());
+        writeString(out, value.nasIdentifier());
+
+        out.writeVarInt(value.inputOctets());
+        out.writeVarInt(value.outputOctets());
+        out.writeVarInt(value.inputGigaWords());
+        out.writeVarInt(value.outputGigaWords());
+        out.writeVarInt(value.sessionTime());
+        out.writeVarInt(value.delayTime());
+    }
+
+    @Override
+    public AccountingEvent read(WireReader in, int version) {
+        if (version == AccountingRequestCodec.VERSION) {
+            return AccountingEvent.of(v1.read(in, version));
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported AccountingEvent schema version " + version);
+        }
+        int present = in.readVarInt();
+        String eventId = has(present, 0) ? in.readString() : null;
+        String sessionId = has(present, 1) ? in.readString() : null;
+        String nasIp = has(present, 2) ? in.readString() : null;
+        String username = has(present, 3) ? in.readString() : null;
+        AccountingRequestDto.ActionType actionType = has(present, 4) ? AccountingRequestCodec.action(in.readByte()) : null;
+        Instant timestamp = has(present, 5) ? Instant.ofEpochSecond(in.readSignedVarLong(), in.readVarInt()) : null;
+        String nasPortId = has(present, 6) ? in.readString() : null;
+        String framedIp = has(present, 7) ? in.readString() : null;
+        String nasIdentifier = has(present, 8) ? in.readString() : null;
+
+        int inputOctets = in.readVarInt();
+        int outputOctets = in.readVarInt();
+        int inputGigaWords = in.readVarInt();
+        int outputGigaWords = in.readVarInt();
+        int sessionTime = in.readVarInt();
+        int delayTime = in.readVarInt();
+        return new AccountingEvent(eventId, sessionId, nasIp, username, actionType, inputOctets, outputOctets,
+                sessionTime, timestamp, nasPortId, framedIp, delayTime, inputGigaWords, outputGigaWords,
+                nasIdentifier);
+    }
+
+    private static void writeString(WireWriter out, String value) {
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+
+    private static int bit(int index, Object field) {
+        return field != null ? 1 << index : 0;
+    }
+
+    private static boolean has(int present, int index) {
+        return (present & (1 << index)) != 0;
+    }
+}
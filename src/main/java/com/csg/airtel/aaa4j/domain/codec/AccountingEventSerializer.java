@@ -0,0 +1,72 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * {@code value.serializer} of the {@code accounting-events} channel.
+ * <p>
+ * Writes {@link AccountingEvent} in the schema version set by {@value #SCHEMA_VERSION_CONFIG}:
+ * {@code 1} (the default) publishes the {@link AccountingRequestDto} form existing consumers
+ * read, {@code 2} the event itself with its 64-bit totals. Either way the
+ * {@value WireSerializer#FORMAT_CONFIG} setting picks JSON or binary.
+ */
+public class AccountingEventSerializer implements Serializer<AccountingEvent> {
+
+    public static final String SCHEMA_VERSION_CONFIG = "schema.version";
+
+    private final WireSerializer<AccountingRequestDto> v1Serializer;
+    private final WireSerializer<AccountingEvent> v2Serializer;
+    private int schemaVersion = 1;
+
+    public AccountingEventSerializer() {
+        this(new AccountingRequestSerializer(), new WireSerializer<>(new AccountingEventCodec()));
+    }
+
+    AccountingEventSerializer(WireSerializer<AccountingRequestDto> v1Serializer,
+                              WireSerializer<AccountingEvent> v2Serializer) {
+        this.v1Serializer = v1Serializer;
+        this.v2Serializer = v2Serializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        v1Serializer.configure(configs, isKey);
+        v2Serializer.configure(configs, isKey);
+        Object version = configs.get(SCHEMA_VERSION_CONFIG);
+        schemaVersion = version == null || version.toString().isBlank() ? 1 : Integer.parseInt(version.toString().trim());
+        if (schemaVersion != 1 && schemaVersion != AccountingEvent.SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported accounting schema version " + schemaVersion);
+        }
+    }
+
+    public int schemaVersion() {
+        return schemaVersion;
+    }
+
+    @Override
+    public byte[] serialize(String topic, AccountingEvent data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, AccountingEvent data) {
+        if (data == null) {
+            return null;
+        }
+        if (schemaVersion == 1) {
+            return v1Serializer.serialize(topic, headers, data.toRequestDto());
+        }
+        return v2Serializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        v1Serializer.close();
+        v2Serializer.close();
+    }
+}
@@ -0,0 +1,132 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+
+import java.time.Instant;
+
+/**
+ * Binary schema of {@link AccountingRequestDto}.
+ * <p>
+ * Version 1: a varint bitmap of the non-null fields (bit n for the record's n-th component),
+ * then each present field in component order. Strings are length-prefixed UTF-8, counters
+ * unsigned varints, the action type one byte (the Acct-Status-Type value) and the timestamp
+ * zigzag epoch seconds plus a nanosecond varint.
+ */
+public final class AccountingRequestCodec implements WireCodec<AccountingRequestDto> {
+
+    static final int VERSION = 1;
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(AccountingRequestDto value, WireWriter out) {
+        int present = 0;
+        present |= bit(0, value.eventId());
+        present |= bit(1, value.sessionId());
+        present |= bit(2, value.nasIP());
+        present |= bit(3, value.username());
+        present |= bit(4, value.actionType());
+        present |= bit(5, value.inputOctets());
+        present |= bit(6, value.outputOctets());
+        present |= bit(7, value.sessionTime());
+        present |= bit(8, value.timestamp());
+        present |= bit(9, value.nasPortId());
+        present |= bit(10, value.framedIPAddress());
+        present |= bit(11, value.delayTime());
+        present |= bit(12, value.inputGigaWords());
+        present |= bit(13, value.outputGigaWords());
+        present |= bit(14, value.nasIdentifier());
+        out.writeVarInt(present);
+
+        // Absent fields are only marked in the bitmap
+        writeString(out, value.eventId());
+        writeString(out, value.sessionId());
+        writeString(out, value.nasIP());
+        writeString(out, value.username());
+        if (value.actionType() != null) {
+            out.writeByte(actionCode(value.actionType()));
+        }
+        writeCounter(out, value.inputOctets());
+        writeCounter(out, value.outputOctets());
+        writeCounter(out, value.sessionTime());
+        if (value.timestamp() != null) {
+            out.writeSignedVarLong(value.timestamp().getEpochSecond());
+            out.writeVarInt(value.timestamp().getNano());
+        }
+        writeString(out, value.nasPortId());
+        writeString(out, value.framedIPAddress());
+        writeCounter(out, value.delayTime());
+        writeCounter(out, value.inputGigaWords());
+        writeCounter(out, value.outputGigaWords());
+        writeString(out, value.nasIdentifier());
+    }
+
+    @Override
+    public AccountingRequestDto read(WireReader in, int version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported AccountingRequestDto schema version " + version);
+        }
+        int present = in.readVarInt();
+        return new AccountingRequestDto(
+                has(present, 0) ? in.readString() : null,
+                has(present, 1) ? in.readString() : null,
+                has(present, 2) ? in.readString() : null,
+                has(present, 3) ? in.readString() : null,
+                has(present, 4) ? action(in.readByte()) : null,
+                has(present, 5) ? in.readVarInt() : null,
+                has(present, 6) ? in.readVarInt() : null,
+                has(present, 7) ? in.readVarInt() : null,
+                has(present, 8) ? Instant.ofEpochSecond(in.readSignedVarLong(), in.readVarInt()) : null,
+                has(present, 9) ? in.readString() : null,
+                has(present, 10) ? in.readString() : null,
+                has(present, 11) ? in.readVarInt() : null,
+                has(present, 12) ? in.readVarInt() : null,
+                has(present, 13) ? in.readVarInt() : null,
+                has(present, 14) ? in.readString() : null
+        );
+    }
+
+    private static void writeString(WireWriter out, String value) {
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+
+    private static void writeCounter(WireWriter out, Integer value) {
+        if (value != null) {
+            out.writeVarInt(value);
+        }
+    }
+
+    private static int bit(int index, Object field) {
+        return field != null ? 1 << index : 0;
+    }
+
+    private static boolean has(int present, int index) {
+        return (present & (1 << index)) != 0;
+    }
+
+    static int actionCode(AccountingRequestDto.ActionType actionType) {
+        return switch (actionType) {
+            case START -> 1;
+            case STOP -> 2;
+            case INTERIM_UPDATE -> 3;
+            case ACCOUNTING_ON -> 7;
+            case ACCOUNTING_OFF -> 8;
+        };
+    }
+
+    static AccountingRequestDto.ActionType action(int code) {
+        return switch (code) {
+            case 1 -> AccountingRequestDto.ActionType.START;
+            case 2 -> AccountingRequestDto.ActionType.STOP;
+            case 3 -> AccountingRequestDto.ActionType.INTERIM_UPDATE;
+            case 7 -> AccountingRequestDto.ActionType.ACCOUNTING_ON;
+            case 8 -> AccountingRequestDto.ActionType.ACCOUNTING_OFF;
+            default -> throw new IllegalArgumentException("Unknown action type code " + code);
+        };
+    }
+}
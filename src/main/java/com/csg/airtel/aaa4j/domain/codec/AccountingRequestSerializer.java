@@ -0,0 +1,13 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+
+/**
+ * {@code value.serializer} of the {@code accounting-events} channel
+ */
+public class AccountingRequestSerializer extends WireSerializer<AccountingRequestDto> {
+
+    public AccountingRequestSerializer() {
+        super(new AccountingRequestCodec());
+    }
+}
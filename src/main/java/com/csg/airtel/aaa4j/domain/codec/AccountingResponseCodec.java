@@ -0,0 +1,152 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary schema of {@link AccountingResponseEvent}.
+ * <p>
+ * Version 1: a varint bitmap of the non-null fields, then each present field in component
+ * order. Enums are one byte each, the event time is the local date-time as zigzag seconds
+ * (read as UTC) plus a nanosecond varint, the quota balance a zigzag varint, and the QoS
+ * parameters a varint entry count followed by key/value strings.
+ */
+public final class AccountingResponseCodec implements WireCodec<AccountingResponseEvent> {
+
+    static final int VERSION = 1;
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(AccountingResponseEvent value, WireWriter out) {
+        int present = 0;
+        present |= bit(0, value.eventId());
+        present |= bit(1, value.eventType());
+        present |= bit(2, value.eventTime());
+        present |= bit(3, value.sessionId());
+        present |= bit(4, value.action());
+        present |= bit(5, value.message());
+        present |= bit(6, value.totalQuotaBalance());
+        present |= bit(7, value.qosParameters());
+        out.writeVarInt(present);
+
+        // Absent fields are only marked in the bitmap
+        writeString(out, value.eventId());
+        if (value.eventType() != null) {
+            out.writeByte(eventTypeCode(value.eventType()));
+        }
+        if (value.eventTime() != null) {
+            out.writeSignedVarLong(value.eventTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeVarInt(value.eventTime().getNano());
+        }
+        writeString(out, value.sessionId());
+        if (value.action() != null) {
+            out.writeByte(actionCode(value.action()));
+        }
+        writeString(out, value.message());
+        if (value.totalQuotaBalance() != null) {
+            out.writeSignedVarLong(value.totalQuotaBalance());
+        }
+        if (value.qosParameters() != null) {
+            out.writeVarInt(value.qosParameters().size());
+            value.qosParameters().forEach((key, parameter) -> {
+                out.writeString(key);
+                out.writeString(parameter);
+            });
+        }
+    }
+
+    @Override
+    public AccountingResponseEvent read(WireReader in, int version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported AccountingResponseEvent schema version " + version);
+        }
+        int present = in.readVarInt();
+        return new AccountingResponseEvent(
+                has(present, 0) ? in.readString() : null,
+                has(present, 1) ? eventType(in.readByte()) : null,
+                has(present, 2) ? readDateTime(in) : null,
+                has(present, 3) ? in.readString() : null,
+                has(present, 4) ? action(in.readByte()) : null,
+                has(present, 5) ? in.readString() : null,
+                has(present, 6) ? in.readSignedVarLong() : null,
+                has(present, 7) ? readMap(in) : null
+        );
+    }
+
+    private static LocalDateTime readDateTime(WireReader in) {
+        return LocalDateTime.ofEpochSecond(in.readSignedVarLong(), in.readVarInt(), ZoneOffset.UTC);
+    }
+
+    private static Map<String, String> readMap(WireReader in) {
+        int size = in.readVarInt();
+        // Each entry takes at least two bytes, so a corrupt count cannot size a huge map
+        if (size < 0 || size > in.remaining() / 2) {
+            throw new IllegalArgumentException("Invalid map size " + size);
+        }
+        Map<String, String> map = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readString(), in.readString());
+        }
+        return map;
+    }
+
+    private static void writeString(WireWriter out, String value) {
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+
+    private static int bit(int index, Object field) {
+        return field != null ? 1 << index : 0;
+    }
+
+    private static boolean has(int present, int index) {
+        return (present & (1 << index)) != 0;
+    }
+
+    private static int eventTypeCode(AccountingResponseEvent.EventType eventType) {
+        return switch (eventType) {
+            case COA -> 1;
+            case CONTINUE -> 2;
+            case NO_RESPONSE -> 3;
+        };
+    }
+
+    private static AccountingResponseEvent.EventType eventType(int code) {
+        return switch (code) {
+            case 1 -> AccountingResponseEvent.EventType.COA;
+            case 2 -> AccountingResponseEvent.EventType.CONTINUE;
+            case 3 -> AccountingResponseEvent.EventType.NO_RESPONSE;
+            default -> throw new IllegalArgumentException("Unknown event type code " + code);
+        };
+    }
+
+    private static int actionCode(AccountingResponseEvent.ResponseAction action) {
+        return switch (action) {
+            case DISCONNECT -> 1;
+            case FUP_APPLY -> 2;
+            case INTERNAL_ERROR -> 3;
+            case IGNORE_PROCESSING -> 4;
+            case SUCCESS -> 5;
+        };
+    }
+
+    private static AccountingResponseEvent.ResponseAction action(int code) {
+        return switch (code) {
+            case 1 -> AccountingResponseEvent.ResponseAction.DISCONNECT;
+            case 2 -> AccountingResponseEvent.ResponseAction.FUP_APPLY;
+            case 3 -> AccountingResponseEvent.ResponseAction.INTERNAL_ERROR;
+            case 4 -> AccountingResponseEvent.ResponseAction.IGNORE_PROCESSING;
+            case 5 -> AccountingResponseEvent.ResponseAction.SUCCESS;
+            default -> throw new IllegalArgumentException("Unknown response action code " + code);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * {@code value.deserializer} of the {@code accounting-resp-events} channel
+ */
+public class AccountingResponseDeserializer extends WireDeserializer<AccountingResponseEvent> {
+
+    public AccountingResponseDeserializer() {
+        super(new AccountingResponseCodec(), new ObjectMapperDeserializer<>(AccountingResponseEvent.class));
+    }
+}
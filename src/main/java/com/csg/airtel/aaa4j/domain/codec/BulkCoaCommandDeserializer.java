@@ -0,0 +1,14 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * {@code value.deserializer} of the {@code bulk-coa-commands} channel
+ */
+public class BulkCoaCommandDeserializer extends ObjectMapperDeserializer<BulkCoaCommand> {
+
+    public BulkCoaCommandDeserializer() {
+        super(BulkCoaCommand.class);
+    }
+}
@@ -0,0 +1,23 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+/**
+ * Binary encoding of one record type.
+ * <p>
+ * The serializer frames every record with {@link WireFormat#MAGIC} and the schema version
+ * it was written with. A codec writes its current {@link #version()} and must keep reading
+ * every older version, so consumers can be upgraded before producers.
+ */
+public interface WireCodec<T> {
+
+    /**
+     * Schema version written by {@link #write}, 1 to 255
+     */
+    int version();
+
+    void write(T value, WireWriter out);
+
+    /**
+     * @throws IllegalArgumentException if the version is unknown or the record is malformed
+     */
+    T read(WireReader in, int version);
+}
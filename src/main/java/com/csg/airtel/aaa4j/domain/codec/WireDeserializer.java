@@ -0,0 +1,63 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka deserializer accepting both formats a {@link WireSerializer} can write, decided per
+ * record by {@link WireFormat#of}, so consumers can be switched before their producers.
+ * Binary records are decoded in place through a per-thread {@link WireReader}.
+ */
+public class WireDeserializer<T> implements Deserializer<T> {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final ThreadLocal<WireReader> READERS = ThreadLocal.withInitial(WireReader::new);
+
+    private final WireCodec<T> codec;
+    private final Deserializer<T> jsonDeserializer;
+
+    protected WireDeserializer(WireCodec<T> codec, Deserializer<T> jsonDeserializer) {
+        this.codec = codec;
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (WireFormat.of(headers, data) == WireFormat.JSON) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        WireReader in = READERS.get().reset(data);
+        try {
+            if ((byte) in.readByte() != WireFormat.MAGIC) {
+                throw new IllegalArgumentException("Missing binary record marker");
+            }
+            return codec.read(in, in.readByte());
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to decode binary record from " + topic + ": " + e.getMessage(), e);
+        } finally {
+            // Do not keep the record's array reachable from the thread
+            in.reset(EMPTY);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
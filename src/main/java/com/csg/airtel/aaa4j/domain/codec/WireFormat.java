@@ -0,0 +1,67 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Payload formats of the Kafka channels, announced in the record's {@code content-type}
+ * header so a channel can move from JSON to binary one side at a time.
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    BINARY("application/vnd.csg.radius+binary");
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    /**
+     * First byte of every binary record; never the first byte of a JSON document
+     */
+    public static final byte MAGIC = (byte) 0xA5;
+
+    private final String contentType;
+    private final byte[] contentTypeBytes;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+        this.contentTypeBytes = contentType.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * Header value; shared between records, so never modified
+     */
+    byte[] contentTypeBytes() {
+        return contentTypeBytes;
+    }
+
+    /**
+     * Parses the {@code wire.format} serializer setting; unset means JSON.
+     *
+     * @throws IllegalArgumentException for an unknown format
+     */
+    public static WireFormat fromConfig(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return JSON;
+        }
+        return valueOf(value.toString().trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Format of a received record: the {@code content-type} header when present, otherwise
+     * the magic byte, which covers records from producers that do not set the header yet.
+     */
+    public static WireFormat of(Headers headers, byte[] data) {
+        Header header = headers != null ? headers.lastHeader(CONTENT_TYPE_HEADER) : null;
+        if (header != null && header.value() != null) {
+            return Arrays.equals(header.value(), BINARY.contentTypeBytes) ? BINARY : JSON;
+        }
+        return data.length > 0 && data[0] == MAGIC ? BINARY : JSON;
+    }
+}
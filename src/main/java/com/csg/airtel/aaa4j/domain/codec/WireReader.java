@@ -0,0 +1,96 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads values written by {@link WireWriter} straight from the record's byte array.
+ * Readers are reusable through {@link #reset(byte[])}. Every read throws
+ * {@link IllegalArgumentException} if the input is truncated or malformed.
+ */
+public final class WireReader {
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    public WireReader() {
+        this(new byte[0]);
+    }
+
+    public WireReader(byte[] buffer) {
+        reset(buffer);
+    }
+
+    public WireReader reset(byte[] buffer) {
+        return reset(buffer, buffer.length);
+    }
+
+    /**
+     * Reads only the first {@code length} bytes, for scratch arrays larger than the record.
+     */
+    public WireReader reset(byte[] buffer, int length) {
+        this.buffer = buffer;
+        this.position = 0;
+        this.limit = length;
+        return this;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 5 bytes at " + position);
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes at " + position);
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            if (length == -1) {
+                return null;
+            }
+            throw new IllegalArgumentException("Invalid string length at " + position);
+        }
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void require(int length) {
+        if (length > limit - position) {
+            throw new IllegalArgumentException("Truncated record: need " + length + " bytes at " + position
+                    + ", have " + (limit - position));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer writing either the existing Jackson JSON or the binary {@link WireCodec}
+ * format, chosen per channel with the {@value #FORMAT_CONFIG} property ({@code json} by
+ * default, or {@code binary}). Each record carries its format in the {@code content-type}
+ * header. Binary records are built in a per-thread {@link WireWriter} and copied out once.
+ */
+public class WireSerializer<T> implements Serializer<T> {
+
+    public static final String FORMAT_CONFIG = "wire.format";
+
+    private static final ThreadLocal<WireWriter> WRITERS = ThreadLocal.withInitial(() -> new WireWriter(256));
+
+    private final WireCodec<T> codec;
+    private final Serializer<T> jsonSerializer;
+    private WireFormat format = WireFormat.JSON;
+
+    protected WireSerializer(WireCodec<T> codec) {
+        this(codec, new ObjectMapperSerializer<>());
+    }
+
+    protected WireSerializer(WireCodec<T> codec, Serializer<T> jsonSerializer) {
+        this.codec = codec;
+        this.jsonSerializer = jsonSerializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        format = WireFormat.fromConfig(configs.get(FORMAT_CONFIG));
+    }
+
+    public WireFormat format() {
+        return format;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (headers != null) {
+            headers.remove(WireFormat.CONTENT_TYPE_HEADER);
+            headers.add(WireFormat.CONTENT_TYPE_HEADER, format.contentTypeBytes());
+        }
+        if (format == WireFormat.JSON) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+        try {
+            WireWriter out = WRITERS.get().reset();
+            out.writeByte(WireFormat.MAGIC);
+            out.writeByte(codec.version());
+            codec.write(data, out);
+            return out.toByteArray();
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to encode " + data.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,124 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Growable output buffer for the binary wire format, meant to be reused: {@link #reset()}
+ * keeps the backing array unless an unusually large record made it grow past
+ * {@value #MAX_RETAINED_CAPACITY} bytes.
+ * <p>
+ * Integers are written as base-128 varints, low group first. {@link #writeVarInt(int)}
+ * treats the value as unsigned 32 bits, which suits RADIUS counters carried in Java ints;
+ * {@link #writeSignedVarLong(long)} zigzag-encodes so small negative values stay short.
+ * Strings are a varint length plus one, 0 meaning {@code null}, followed by UTF-8 bytes.
+ */
+public final class WireWriter {
+
+    static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final int initialCapacity;
+    private byte[] buffer;
+    private int position;
+
+    public WireWriter(int initialCapacity) {
+        this.initialCapacity = Math.max(16, initialCapacity);
+        this.buffer = new byte[this.initialCapacity];
+    }
+
+    public WireWriter reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[initialCapacity];
+        }
+        position = 0;
+        return this;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    /**
+     * Copies the written bytes into an array of exactly their size.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Copies the written bytes into the target at its position.
+     */
+    public void copyTo(ByteBuffer target) {
+        target.put(buffer, 0, position);
+    }
+
+    public void update(Checksum checksum) {
+        checksum.update(buffer, 0, position);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        int length = value.length();
+        // Short ASCII strings, the usual case, are copied without an intermediate byte array
+        if (length < 127 && isAscii(value)) {
+            ensureCapacity(1 + length);
+            buffer[position++] = (byte) (length + 1);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.csg.airtel.aaa4j.domain.dedup;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Filters accounting requests a NAS sent again because our response was late or lost.
+ * <p>
+ * The RFC 5080 duplicate cache in front of the handlers only matches a retransmit with the
+ * same Identifier and Request Authenticator, but a NAS that bumps Acct-Delay-Time must pick a
+ * new Identifier, so those arrive as new requests. Here a request is identified by content:
+ * the 64-bit fingerprint read back from its {@link EventIdGenerator} id, which a retransmit
+ * shares, so two requests share a fingerprint whenever they share an id and the request is
+ * not hashed twice. A request is checked with {@link #seen} on arrival but only
+ * {@link #record recorded} once it is queued, so one that failed on the way in is not
+ * acknowledged as a duplicate when the NAS sends it again.
+ * <p>
+ * Fingerprints go into two generations of {@link FingerprintSet}s. Every {@code window} the
+ * older one is cleared and becomes the current one, so a request is remembered for one to two
+ * windows in bounded memory. A generation that reaches {@code maxEntries} is rotated early,
+ * which can only shorten the memory, never report a request seen that was not: two distinct
+ * requests collide with probability about n / 2^64.
+ */
+@ApplicationScoped
+public class AccountingDeduplicator {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private FingerprintSet current;
+    private FingerprintSet previous;
+    private long rotatedAt;
+
+    private final Map<String, Counter> duplicateCounters = new ConcurrentHashMap<>();
+    private final Counter overflowCounter;
+
+    @Inject
+    public AccountingDeduplicator(RadiusServerConfig config, MeterRegistry meterRegistry) {
+        this(config.accounting().dedup().enabled(),
+                TimeUnit.SECONDS.toNanos(config.accounting().dedup().windowSeconds()),
+                config.accounting().dedup().maxEntries(),
+                System::nanoTime,
+                meterRegistry);
+    }
+
+    AccountingDeduplicator(boolean enabled, long windowNanos, int maxEntries, LongSupplier clock,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.current = new FingerprintSet(enabled ? maxEntries : 1);
+        this.previous = new FingerprintSet(enabled ? maxEntries : 1);
+        this.rotatedAt = clock.getAsLong();
+        this.overflowCounter = meterRegistry.counter("radius.accounting.dedup.overflow");
+        meterRegistry.gauge("radius.accounting.dedup.entries", this, AccountingDeduplicator::entries);
+    }
+
+    /**
+     * Tells whether the request was already {@link #record recorded}, without recording it.
+     *
+     * @return true if the request is a retransmit, counted for its NAS
+     */
+    public boolean seen(AccountingEvent event) {
+        if (!enabled) {
+            return false;
+        }
+        long fingerprint = EventIdGenerator.fingerprint(event.eventId());
+        boolean duplicate;
+        lock.lock();
+        try {
+            rotateIfDue(clock.getAsLong());
+            duplicate = previous.contains(fingerprint) || current.contains(fingerprint);
+        } finally {
+            lock.unlock();
+        }
+        if (duplicate) {
+            String nasIp = event.nasIP() != null ? event.nasIP() : "unknown";
+            duplicateCounters.computeIfAbsent(nasIp,
+                    nas -> meterRegistry.counter("radius.accounting.duplicates", "nas", nas)).increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Remembers the request as handled. Called once it is queued for publishing (or coalesced),
+     * so a request that failed on the way, and was not acknowledged, is not taken for a
+     * retransmit when the NAS sends it again.
+     */
+    public void record(AccountingEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long fingerprint = EventIdGenerator.fingerprint(event.eventId());
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            rotateIfDue(now);
+            if (current.isFull()) {
+                overflowCounter.increment();
+                rotate(now);
+            }
+            current.add(fingerprint);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - rotatedAt >= windowNanos) {
+            rotate(now);
+        }
+    }
+
+    private void rotate(long now) {
+        FingerprintSet expired = previous;
+        previous = current;
+        expired.clear();
+        current = expired;
+        rotatedAt = now;
+    }
+
+    int entries() {
+        lock.lock();
+        try {
+            return current.size() + previous.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.csg.airtel.aaa4j.domain.dedup;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Deterministic accounting event ids derived from the request content.
+ * <p>
+ * The id is MurmurHash3 x64 128 (seed 0) over the event key, as 22 URL-safe base64 characters
+ * without padding. The key is, in order: NAS IP and Acct-Session-Id, each as UTF-8 followed
+ * by 0xFF (or the single byte 0xFE for none); the Acct-Status-Type byte; the input and output
+ * 64-bit octet totals and the Acct-Session-Time as little-endian 8-byte values; and the event
+ * origin from {@link #originSeconds}, likewise. Accounting-On/Off events carry no session, but
+ * their key holds the packet's Acct-Session-Id all the same, so two reboots of a NAS differ
+ * even where the origin cannot tell them apart. A NAS retransmit and a spool replay therefore
+ * carry the same id, and consumers can drop repeats with a set lookup instead of comparing
+ * payloads.
+ * <p>
+ * The key is assembled in a per-thread buffer, so an id costs its String and nothing else.
+ */
+public final class EventIdGenerator {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECODE = new byte[128];
+    private static final int ID_LENGTH = 22;
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    /**
+     * Width of the buckets the origin of a request without Event-Timestamp is rounded down to,
+     * wide enough for the whole-second Acct-Delay-Time and the network to move it a little.
+     */
+    static final long ORIGIN_BUCKET_SECONDS = 30;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private EventIdGenerator() {
+        // Utility class; do not instantiate
+    }
+
+    /**
+     * When the request was first sent, the same on every retransmit: the Event-Timestamp in
+     * epoch seconds, which RFC 2869 has the NAS keep while it raises Acct-Delay-Time, or else
+     * the arrival time less Acct-Delay-Time, rounded down to {@value #ORIGIN_BUCKET_SECONDS}
+     * seconds.
+     */
+    public static long originSeconds(Instant eventTimestamp, int delayTime, Instant arrival) {
+        if (eventTimestamp != null) {
+            return eventTimestamp.getEpochSecond();
+        }
+        long sentAt = arrival.getEpochSecond() - Integer.toUnsignedLong(delayTime);
+        return Math.floorDiv(sentAt, ORIGIN_BUCKET_SECONDS) * ORIGIN_BUCKET_SECONDS;
+    }
+
+    /**
+     * Id of the event with the given content.
+     */
+    public static String eventId(String nasIp, String sessionId, AccountingRequestDto.ActionType actionType,
+                                 long totalInputBytes, long totalOutputBytes, int sessionTime, long originSeconds) {
+        Scratch scratch = SCRATCH.get();
+        hash(scratch, nasIp, sessionId, actionType, totalInputBytes, totalOutputBytes, sessionTime, originSeconds);
+        byte[] id = scratch.id;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            id[i] = ALPHABET[sixBits(scratch.h1, scratch.h2, i * 6)];
+        }
+        return new String(id, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * First 64 bits of the id's hash, for in-process deduplication.
+     */
+    public static long fingerprint(String nasIp, String sessionId, AccountingRequestDto.ActionType actionType,
+                                   long totalInputBytes, long totalOutputBytes, int sessionTime, long originSeconds) {
+        Scratch scratch = SCRATCH.get();
+        hash(scratch, nasIp, sessionId, actionType, totalInputBytes, totalOutputBytes, sessionTime, originSeconds);
+        return scratch.h1;
+    }
+
+    /**
+     * The {@link #fingerprint} an id was made with, read back from its first 64 bits.
+     *
+     * @throws IllegalArgumentException if the id is not one of ours
+     */
+    public static long fingerprint(String eventId) {
+        if (eventId == null || eventId.length() != ID_LENGTH) {
+            throw new IllegalArgumentException("Not an event id: " + eventId);
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < 10; i++) {
+            fingerprint = (fingerprint << 6) | sixBitsOf(eventId.charAt(i));
+        }
+        // 60 bits so far; the top 4 of the eleventh character complete the 64
+        return (fingerprint << 4) | (sixBitsOf(eventId.charAt(10)) >>> 2);
+    }
+
+    private static int sixBitsOf(char c) {
+        if (c >= DECODE.length || (DECODE[c] == 0 && c != ALPHABET[0])) {
+            throw new IllegalArgumentException("Not an event id character: " + c);
+        }
+        return DECODE[c];
+    }
+
+    private static void hash(Scratch scratch, String nasIp, String sessionId,
+                             AccountingRequestDto.ActionType actionType, long totalInputBytes,
+                             long totalOutputBytes, int sessionTime, long originSeconds) {
+        scratch.length = 0;
+        scratch.putString(nasIp);
+        scratch.putString(sessionId);
+        scratch.putByte(actionType != null ? actionType.statusType() : 0);
+        scratch.putLong(totalInputBytes);
+        scratch.putLong(totalOutputBytes);
+        scratch.putLong(Integer.toUnsignedLong(sessionTime));
+        scratch.putLong(originSeconds);
+        murmur3(scratch);
+    }
+
+    /**
+     * MurmurHash3_x64_128 of the scratch key with seed 0, into {@code h1} and {@code h2}.
+     */
+    static void murmur3(Scratch scratch) {
+        byte[] data = scratch.key;
+        int length = scratch.length;
+        long h1 = 0;
+        long h2 = 0;
+
+        int blocks = length >>> 4;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = (long) LONG_LE.get(data, i << 4);
+            long k2 = (long) LONG_LE.get(data, (i << 4) + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+
+        int tail = blocks << 4;
+        int remaining = length & 15;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = remaining - 1; i >= 0; i--) {
+            long b = data[tail + i] & 0xFFL;
+            if (i >= 8) {
+                k2 |= b << ((i - 8) * 8);
+            } else {
+                k1 |= b << (i * 8);
+            }
+        }
+        if (remaining > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (remaining > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        scratch.h1 = h1;
+        scratch.h2 = h2;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Six bits of {@code high:low} from the top, zero-padded past bit 128.
+     */
+    private static int sixBits(long high, long low, int position) {
+        if (position + 6 <= 64) {
+            return (int) (high >>> (58 - position)) & 63;
+        }
+        if (position < 64) {
+            int fromLow = position + 6 - 64;
+            return (int) ((high << fromLow) | (low >>> (64 - fromLow))) & 63;
+        }
+        int offset = position - 64;
+        if (offset + 6 <= 64) {
+            return (int) (low >>> (58 - offset)) & 63;
+        }
+        return (int) (low << (offset + 6 - 64)) & 63;
+    }
+
+    static final class Scratch {
+
+        byte[] key = new byte[128];
+        int length;
+        final byte[] id = new byte[ID_LENGTH];
+        long h1;
+        long h2;
+
+        void putByte(int value) {
+            ensure(1);
+            key[length++] = (byte) value;
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            LONG_LE.set(key, length, value);
+            length += 8;
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putByte(0xFE);
+                return;
+            }
+            int n = value.length();
+            ensure(n + 1);
+            for (int i = 0; i < n; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Rare non-ASCII value: encode the whole string properly
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    length -= i;
+                    ensure(utf8.length + 1);
+                    System.arraycopy(utf8, 0, key, length, utf8.length);
+                    length += utf8.length;
+                    key[length++] = (byte) 0xFF;
+                    return;
+                }
+                key[length++] = (byte) c;
+            }
+            key[length++] = (byte) 0xFF;
+        }
+
+        private void ensure(int bytes) {
+            if (length + bytes > key.length) {
+                key = Arrays.copyOf(key, Math.max(length + bytes, key.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.csg.airtel.aaa4j.domain.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity open-addressing set of 64-bit fingerprints with linear probing. Entries are
+ * never removed one by one, only all at once by {@link #clear()}; fingerprint 0 marks an
+ * empty entry and is stored as 1.
+ */
+final class FingerprintSet {
+
+    private final long[] table;
+    private final int mask;
+    private final int capacity;
+    private int size;
+
+    /**
+     * @param capacity entries the set takes before {@link #isFull()}; the table is sized to
+     *                 keep the load factor at or below 1/2
+     */
+    FingerprintSet(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        int tableSize = Integer.highestOneBit(Math.max(16, this.capacity) * 4 - 1);
+        this.table = new long[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size >= capacity;
+    }
+
+    long bytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    boolean contains(long fingerprint) {
+        long value = fingerprint != 0 ? fingerprint : 1;
+        for (int i = (int) value & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the fingerprint was already in the set
+     */
+    boolean add(long fingerprint) {
+        long value = fingerprint != 0 ? fingerprint : 1;
+        int i = (int) value & mask;
+        while (table[i] != 0) {
+            if (table[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        size++;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+}
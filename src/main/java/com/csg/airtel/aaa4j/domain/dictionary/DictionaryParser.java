@@ -0,0 +1,183 @@
+package com.csg.airtel.aaa4j.domain.dictionary;
+
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads vendor attributes from FreeRADIUS-format dictionary files.
+ * <p>
+ * Supported: {@code VENDOR}, {@code BEGIN-VENDOR}/{@code END-VENDOR}, {@code ATTRIBUTE}
+ * (inside a vendor block, or with the vendor name as the fourth field), {@code VALUE} and
+ * {@code $INCLUDE} relative to the including file. Attributes outside any vendor are standard
+ * ones and are left to aaa4j. Only the 1-byte type, 1-byte length vendor format is supported;
+ * encrypted attributes are skipped.
+ * <p>
+ * A location is a file path, or else a classpath resource.
+ */
+final class DictionaryParser {
+
+    private static final Logger logger = Logger.getLogger(DictionaryParser.class);
+
+    private final Map<String, Integer> vendors = new HashMap<>();
+    private final Map<String, PendingAttribute> attributes = new LinkedHashMap<>();
+    private final Set<String> parsed = new HashSet<>();
+
+    private DictionaryParser() {
+    }
+
+    /**
+     * Parses the dictionaries in order; a later definition of the same name replaces an earlier one.
+     *
+     * @throws IOException              if a dictionary cannot be read
+     * @throws IllegalArgumentException if a line is malformed, with the file and line number
+     */
+    static List<VsaDefinition> parse(List<String> locations) throws IOException {
+        DictionaryParser parser = new DictionaryParser();
+        for (String location : locations) {
+            parser.parseLocation(location.trim());
+        }
+        List<VsaDefinition> definitions = new ArrayList<>(parser.attributes.size());
+        for (PendingAttribute attribute : parser.attributes.values()) {
+            definitions.add(new VsaDefinition(attribute.name, attribute.vendorId, attribute.vendorType,
+                    attribute.type, Map.copyOf(attribute.values)));
+        }
+        return definitions;
+    }
+
+    private void parseLocation(String location) throws IOException {
+        if (!parsed.add(location)) {
+            return;
+        }
+        try (BufferedReader reader = open(location)) {
+            String vendor = null;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+                if (fields[0].isEmpty()) {
+                    continue;
+                }
+                try {
+                    vendor = parseLine(location, fields, vendor);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(location + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies one line and returns the vendor block in effect after it.
+     */
+    private String parseLine(String location, String[] fields, String vendor) throws IOException {
+        switch (fields[0]) {
+            case "VENDOR" -> {
+                require(fields, 3);
+                if (fields.length > 3 && !fields[3].equals("format=1,1")) {
+                    throw new IllegalArgumentException("unsupported vendor " + fields[3]);
+                }
+                vendors.put(fields[1], Integer.parseInt(fields[2]));
+            }
+            case "BEGIN-VENDOR" -> {
+                require(fields, 2);
+                vendorId(fields[1]);
+                return fields[1];
+            }
+            case "END-VENDOR" -> {
+                return null;
+            }
+            case "ATTRIBUTE" -> parseAttribute(fields, vendor);
+            case "VALUE" -> {
+                require(fields, 4);
+                PendingAttribute attribute = attributes.get(fields[1]);
+                if (attribute != null && attribute.type.numeric()) {
+                    attribute.values.put(fields[2], Long.decode(fields[3]));
+                }
+            }
+            case "$INCLUDE" -> {
+                require(fields, 2);
+                parseLocation(resolve(location, fields[1]));
+            }
+            default -> logger.debugf("Ignoring dictionary keyword %s in %s", fields[0], location);
+        }
+        return vendor;
+    }
+
+    private void parseAttribute(String[] fields, String vendor) {
+        require(fields, 4);
+        String vendorName = vendor;
+        String flags = null;
+        if (fields.length > 4) {
+            if (vendor == null && vendors.containsKey(fields[4])) {
+                vendorName = fields[4];
+            } else {
+                flags = fields[4];
+            }
+        }
+        if (vendorName == null) {
+            return;
+        }
+        if (flags != null && flags.contains("encrypt")) {
+            logger.warnf("Skipping encrypted vendor attribute %s", fields[1]);
+            return;
+        }
+        int vendorType = Integer.decode(fields[2]);
+        if (vendorType < 1 || vendorType > 255) {
+            throw new IllegalArgumentException("vendor type " + vendorType + " out of range");
+        }
+        attributes.put(fields[1], new PendingAttribute(fields[1], vendorId(vendorName), vendorType,
+                VsaType.fromDictionary(fields[3].toLowerCase(Locale.ROOT)), new HashMap<>()));
+    }
+
+    private int vendorId(String vendorName) {
+        Integer vendorId = vendors.get(vendorName);
+        if (vendorId == null) {
+            throw new IllegalArgumentException("unknown vendor " + vendorName);
+        }
+        return vendorId;
+    }
+
+    private static void require(String[] fields, int count) {
+        if (fields.length < count) {
+            throw new IllegalArgumentException(fields[0] + " needs " + (count - 1) + " fields");
+        }
+    }
+
+    private static String resolve(String including, String included) {
+        int slash = including.lastIndexOf('/');
+        return slash < 0 || included.startsWith("/") ? included : including.substring(0, slash + 1) + included;
+    }
+
+    private static BufferedReader open(String location) throws IOException {
+        Path path = Path.of(location);
+        if (Files.isRegularFile(path)) {
+            return Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        }
+        InputStream resource = Thread.currentThread().getContextClassLoader().getResourceAsStream(location);
+        if (resource == null) {
+            throw new IOException("Dictionary not found: " + location);
+        }
+        return new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8));
+    }
+
+    private record PendingAttribute(String name, int vendorId, int vendorType, VsaType type,
+                                    Map<String, Long> values) {
+    }
+}
@@ -0,0 +1,266 @@
+package com.csg.airtel.aaa4j.domain.dictionary;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.common.constant.ResponseCodeEnum;
+import com.csg.airtel.aaa4j.exception.BaseException;
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.StringData;
+import org.aaa4j.radius.core.attribute.VsaData;
+import org.aaa4j.radius.core.packet.Packet;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vendor-Specific attribute dictionary compiled from FreeRADIUS-format files at startup.
+ * <p>
+ * Definitions are held in flat tables: the vendor id is found in a small open-addressed
+ * int table, and the vendor type indexes a 256-entry array for that vendor, so decoding a
+ * VSA is two array reads. Names are only for resolving definitions once; encode through the
+ * {@link VsaDefinition} and decode with {@link #value(Packet, VsaDefinition)}.
+ * <p>
+ * aaa4j hands VSAs over either as a typed {@code Vendor-Specific} with one sub-attribute or,
+ * when it cannot parse them, as a raw type-26 attribute with the whole vendor payload; both
+ * are read here.
+ */
+@ApplicationScoped
+@Startup
+public class VendorDictionary {
+
+    private static final Logger logger = Logger.getLogger(VendorDictionary.class);
+
+    private static final int VENDOR_TYPES = 256;
+    private static final int EMPTY = -1;
+
+    private final int[] vendorKeys;
+    private final VsaDefinition[][] vendorTables;
+    private final int slotMask;
+    private final Map<String, VsaDefinition> byName;
+
+    @Inject
+    public VendorDictionary(RadiusServerConfig config) {
+        this(load(config.dictionary().files()));
+    }
+
+    public VendorDictionary(List<VsaDefinition> definitions) {
+        int vendorCount = (int) definitions.stream().mapToInt(VsaDefinition::vendorId).distinct().count();
+        int slots = Integer.highestOneBit(Math.max(1, vendorCount) * 4 - 1) << 1;
+        this.vendorKeys = new int[slots];
+        Arrays.fill(vendorKeys, EMPTY);
+        this.vendorTables = new VsaDefinition[slots][];
+        this.slotMask = slots - 1;
+        this.byName = new HashMap<>();
+
+        for (VsaDefinition definition : definitions) {
+            int slot = slot(definition.vendorId());
+            if (vendorKeys[slot] == EMPTY) {
+                vendorKeys[slot] = definition.vendorId();
+                vendorTables[slot] = new VsaDefinition[VENDOR_TYPES];
+            }
+            vendorTables[slot][definition.vendorType()] = definition;
+            byName.put(definition.name(), definition);
+        }
+    }
+
+    /**
+     * Parses the dictionaries, failing startup if any cannot be read or is malformed.
+     */
+    public static List<VsaDefinition> load(List<String> locations) {
+        try {
+            List<VsaDefinition> definitions = DictionaryParser.parse(locations);
+            logger.infof("Loaded %d vendor attributes from %s", definitions.size(), locations);
+            return definitions;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BaseException(
+                    "Failed to load RADIUS dictionaries: " + e.getMessage(),
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.description(),
+                    Response.Status.INTERNAL_SERVER_ERROR,
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.code(),
+                    e.getStackTrace()
+            );
+        }
+    }
+
+    public Optional<VsaDefinition> definition(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    /**
+     * Returns the named definition.
+     *
+     * @throws IllegalArgumentException if no loaded dictionary defines it
+     */
+    public VsaDefinition require(String name) {
+        VsaDefinition definition = byName.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Vendor attribute " + name + " is not in any loaded dictionary");
+        }
+        return definition;
+    }
+
+    /**
+     * Returns the definition for a vendor attribute, or {@code null} if it is not known.
+     */
+    public VsaDefinition definition(int vendorId, int vendorType) {
+        int slot = find(vendorId);
+        return slot < 0 || vendorType < 0 || vendorType >= VENDOR_TYPES ? null : vendorTables[slot][vendorType];
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    /**
+     * Returns the first value of the attribute in the packet, decoded per its type, or {@code null}.
+     */
+    public Object value(Packet packet, VsaDefinition definition) {
+        return value(packet.getAttributes(), definition);
+    }
+
+    /**
+     * Returns the first value of the attribute among the given attributes, or {@code null}.
+     */
+    public Object value(List<Attribute<?>> attributes, VsaDefinition definition) {
+        for (Attribute<?> attribute : attributes) {
+            if (attribute.getType().at(0) != VsaDefinition.VENDOR_SPECIFIC) {
+                continue;
+            }
+            if (attribute.getData() instanceof VsaData vsa) {
+                if (vsa.getVendorId() == definition.vendorId() && vsa.getVendorType() == definition.vendorType()) {
+                    byte[] value = vsa.getVsaData();
+                    return decode(definition, value, 0, value.length);
+                }
+            } else if (attribute.getData() instanceof StringData raw) {
+                Object value = rawValue(raw.getValue(), definition);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the numeric attribute's first value in the packet, or {@code absent}.
+     */
+    public long longValue(Packet packet, VsaDefinition definition, long absent) {
+        Object value = value(packet, definition);
+        return value instanceof Long number ? number : absent;
+    }
+
+    private static Object rawValue(byte[] payload, VsaDefinition definition) {
+        if (payload.length < 4) {
+            return null;
+        }
+        int vendorId = ((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16)
+                | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+        if (vendorId != definition.vendorId()) {
+            return null;
+        }
+        int offset = 4;
+        while (offset + 2 <= payload.length) {
+            int type = payload[offset] & 0xFF;
+            int length = payload[offset + 1] & 0xFF;
+            if (length < 2 || offset + length > payload.length) {
+                return null;
+            }
+            if (type == definition.vendorType()) {
+                return decode(definition, payload, offset + 2, length - 2);
+            }
+            offset += length;
+        }
+        return null;
+    }
+
+    /**
+     * Decodes every known vendor attribute in the packet, keyed by name; for logs and events.
+     */
+    public Map<String, Object> values(Packet packet) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Attribute<?> attribute : packet.getAttributes()) {
+            if (attribute.getType().at(0) != VsaDefinition.VENDOR_SPECIFIC) {
+                continue;
+            }
+            if (attribute.getData() instanceof VsaData vsa) {
+                VsaDefinition definition = definition(vsa.getVendorId(), vsa.getVendorType());
+                if (definition != null) {
+                    byte[] value = vsa.getVsaData();
+                    putIfDecoded(values, definition, decode(definition, value, 0, value.length));
+                }
+            } else if (attribute.getData() instanceof StringData raw) {
+                rawValues(raw.getValue(), values);
+            }
+        }
+        return values;
+    }
+
+    private void rawValues(byte[] payload, Map<String, Object> values) {
+        if (payload.length < 4) {
+            return;
+        }
+        int vendorId = ((payload[0] & 0xFF) << 24) | ((payload[1] & 0xFF) << 16)
+                | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+        int slot = find(vendorId);
+        if (slot < 0) {
+            return;
+        }
+        int offset = 4;
+        while (offset + 2 <= payload.length) {
+            int length = payload[offset + 1] & 0xFF;
+            if (length < 2 || offset + length > payload.length) {
+                return;
+            }
+            VsaDefinition definition = vendorTables[slot][payload[offset] & 0xFF];
+            if (definition != null) {
+                putIfDecoded(values, definition, decode(definition, payload, offset + 2, length - 2));
+            }
+            offset += length;
+        }
+    }
+
+    private static void putIfDecoded(Map<String, Object> values, VsaDefinition definition, Object value) {
+        if (value != null) {
+            values.putIfAbsent(definition.name(), value);
+        }
+    }
+
+    /**
+     * Decodes one value; a value that does not fit its type is treated as absent.
+     */
+    private static Object decode(VsaDefinition definition, byte[] buffer, int offset, int length) {
+        try {
+            return definition.type().decode(buffer, offset, length);
+        } catch (IllegalArgumentException e) {
+            logger.debugf("Ignoring malformed %s: %s", definition.name(), e.getMessage());
+            return null;
+        }
+    }
+
+    private int slot(int vendorId) {
+        int slot = mix(vendorId) & slotMask;
+        while (vendorKeys[slot] != EMPTY && vendorKeys[slot] != vendorId) {
+            slot = (slot + 1) & slotMask;
+        }
+        return slot;
+    }
+
+    private int find(int vendorId) {
+        int slot = slot(vendorId);
+        return vendorKeys[slot] == vendorId ? slot : -1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
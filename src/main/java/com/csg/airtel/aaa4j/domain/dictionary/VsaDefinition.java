@@ -0,0 +1,53 @@
+package com.csg.airtel.aaa4j.domain.dictionary;
+
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.RawAttribute;
+
+import java.util.Map;
+
+/**
+ * One vendor attribute from a dictionary. Resolve definitions by name once, at startup, and
+ * keep them: encoding through a definition is a direct call with no lookups.
+ *
+ * @param values named values declared with {@code VALUE} lines, for numeric attributes
+ */
+public record VsaDefinition(String name, int vendorId, int vendorType, VsaType type, Map<String, Long> values) {
+
+    static final int VENDOR_SPECIFIC = 26;
+
+    /**
+     * Largest value that fits one VSA: 255 less the attribute, vendor and sub-attribute headers
+     */
+    static final int MAX_VALUE_LENGTH = 255 - 2 - 4 - 2;
+
+    /**
+     * Builds the Vendor-Specific attribute carrying the value, already in wire form.
+     * A numeric attribute also accepts one of its {@code VALUE} names.
+     *
+     * @throws IllegalArgumentException if the value does not fit the type or a single VSA
+     */
+    public Attribute<?> attribute(String value) {
+        Long named = values.get(value);
+        return attribute(named != null ? type.encodeLong(named) : type.encode(value));
+    }
+
+    public Attribute<?> attribute(long value) {
+        return attribute(type.encodeLong(value));
+    }
+
+    private Attribute<?> attribute(byte[] encoded) {
+        if (encoded.length > MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException(name + " value is " + encoded.length + " bytes, at most "
+                    + MAX_VALUE_LENGTH + " fit");
+        }
+        byte[] data = new byte[6 + encoded.length];
+        data[0] = (byte) (vendorId >>> 24);
+        data[1] = (byte) (vendorId >>> 16);
+        data[2] = (byte) (vendorId >>> 8);
+        data[3] = (byte) vendorId;
+        data[4] = (byte) vendorType;
+        data[5] = (byte) (2 + encoded.length);
+        System.arraycopy(encoded, 0, data, 6, encoded.length);
+        return new RawAttribute(VENDOR_SPECIFIC, data);
+    }
+}
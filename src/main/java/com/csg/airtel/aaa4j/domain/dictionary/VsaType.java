@@ -0,0 +1,143 @@
+package com.csg.airtel.aaa4j.domain.dictionary;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Value codecs for the FreeRADIUS dictionary data types used by vendor attributes.
+ * <p>
+ * Text values (from profiles and configuration) are encoded with {@link #encode(String)}.
+ * Decoding returns {@code String} for string, {@code byte[]} for octets, {@code Long} for
+ * every numeric type including date, and {@code InetAddress} for addresses; numeric values
+ * can also be read unboxed with {@link #decodeLong(byte[], int, int)}.
+ */
+public enum VsaType {
+    STRING,
+    OCTETS,
+    BYTE,
+    SHORT,
+    INTEGER,
+    DATE,
+    INTEGER64,
+    IPADDR,
+    IPV6ADDR;
+
+    /**
+     * Maps a dictionary type name to its codec; types without one are carried as octets.
+     */
+    static VsaType fromDictionary(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "string" -> STRING;
+            case "byte" -> BYTE;
+            case "short" -> SHORT;
+            case "integer" -> INTEGER;
+            case "date" -> DATE;
+            case "integer64" -> INTEGER64;
+            case "ipaddr" -> IPADDR;
+            case "ipv6addr" -> IPV6ADDR;
+            default -> OCTETS;
+        };
+    }
+
+    public boolean numeric() {
+        return this == BYTE || this == SHORT || this == INTEGER || this == DATE || this == INTEGER64;
+    }
+
+    /**
+     * Encodes a textual value. Octets are given as hex, optionally prefixed with {@code 0x}.
+     *
+     * @throws IllegalArgumentException if the value does not fit the type
+     */
+    public byte[] encode(String value) {
+        return switch (this) {
+            case STRING -> value.getBytes(StandardCharsets.UTF_8);
+            case OCTETS -> HexFormat.of().parseHex(value.startsWith("0x") ? value.substring(2) : value);
+            case IPADDR, IPV6ADDR -> encodeAddress(value);
+            default -> encodeLong(Long.parseLong(value.trim()));
+        };
+    }
+
+    /**
+     * Encodes a numeric value in the type's width.
+     *
+     * @throws IllegalArgumentException if the type is not numeric or the value does not fit
+     */
+    public byte[] encodeLong(long value) {
+        int width = width();
+        if (width == 0) {
+            throw new IllegalArgumentException(this + " is not numeric");
+        }
+        if (width < Long.BYTES && (value >>> (width * 8)) != 0) {
+            throw new IllegalArgumentException(value + " does not fit " + this);
+        }
+        byte[] bytes = new byte[width];
+        for (int i = width - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    public Object decode(byte[] buffer, int offset, int length) {
+        return switch (this) {
+            case STRING -> new String(buffer, offset, length, StandardCharsets.UTF_8);
+            case OCTETS -> Arrays.copyOfRange(buffer, offset, offset + length);
+            case IPADDR, IPV6ADDR -> decodeAddress(buffer, offset, length);
+            default -> decodeLong(buffer, offset, length);
+        };
+    }
+
+    /**
+     * Reads a numeric value without boxing. Values are unsigned except integer64.
+     *
+     * @throws IllegalArgumentException if the length does not match the type
+     */
+    public long decodeLong(byte[] buffer, int offset, int length) {
+        if (length != width() || length == 0) {
+            throw new IllegalArgumentException(this + " value has length " + length);
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private int width() {
+        return switch (this) {
+            case BYTE -> 1;
+            case SHORT -> 2;
+            case INTEGER, DATE -> 4;
+            case INTEGER64 -> 8;
+            default -> 0;
+        };
+    }
+
+    private byte[] encodeAddress(String value) {
+        byte[] address;
+        try {
+            address = InetAddress.getByName(value.trim()).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an address: " + value, e);
+        }
+        if (address.length != (this == IPADDR ? 4 : 16)) {
+            throw new IllegalArgumentException(value + " is not a valid " + this);
+        }
+        return address;
+    }
+
+    private InetAddress decodeAddress(byte[] buffer, int offset, int length) {
+        if (length != (this == IPADDR ? 4 : 16)) {
+            throw new IllegalArgumentException(this + " value has length " + length);
+        }
+        try {
+            return InetAddress.getByAddress(Arrays.copyOfRange(buffer, offset, offset + length));
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
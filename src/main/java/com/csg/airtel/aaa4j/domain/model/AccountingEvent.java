@@ -0,0 +1,129 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+
+/**
+ * Accounting event as published to the {@code accounting-events} channel, schema version
+ * {@value #SCHEMA_VERSION}.
+ * <p>
+ * Counters are primitives, so building an event on the accounting path boxes nothing, and
+ * the 32-bit Acct-*-Octets and Acct-*-Gigawords are combined into the 64-bit
+ * {@code totalInputBytes} and {@code totalOutputBytes} once, here, rather than by every
+ * consumer. The raw attributes are kept alongside, unsigned as sent by the NAS and written
+ * to JSON as such through {@link UnsignedInt}. Absent counters, including all of them on
+ * Accounting-On/Off, are 0.
+ * <p>
+ * Consumers still on {@link AccountingRequestDto} get it from {@link #toRequestDto()}, which
+ * is what the serializer publishes until the channel is switched to this schema.
+ */
+@JsonIgnoreProperties(value = "schemaVersion", allowGetters = true)
+public record AccountingEvent(
+        @JsonProperty("eventId") String eventId,
+        @JsonProperty("sessionId") String sessionId,
+        @JsonProperty("nasIP") String nasIP,
+        @JsonProperty("username") String username,
+        @JsonProperty("actionType") AccountingRequestDto.ActionType actionType,
+        @JsonProperty("inputOctets") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int inputOctets,
+        @JsonProperty("outputOctets") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int outputOctets,
+        @JsonProperty("sessionTime") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int sessionTime,
+        @JsonProperty("timestamp") Instant timestamp,
+        @JsonProperty("nasPortId") String nasPortId,
+        @JsonProperty("framedIPAddress") String framedIPAddress,
+        @JsonProperty("delayTime") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int delayTime,
+        @JsonProperty("inputGigaWords") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int inputGigaWords,
+        @JsonProperty("outputGigaWords") @JsonSerialize(using = UnsignedInt.Serializer.class)
+        @JsonDeserialize(using = UnsignedInt.Deserializer.class) int outputGigaWords,
+        @JsonProperty("nasIdentifier") String nasIdentifier,
+        @JsonProperty("totalInputBytes") long totalInputBytes,
+        @JsonProperty("totalOutputBytes") long totalOutputBytes
+) {
+
+    public static final int SCHEMA_VERSION = 2;
+
+    /**
+     * Event with the totals combined from the raw octets and gigawords
+     */
+    public AccountingEvent(String eventId, String sessionId, String nasIP, String username,
+                           AccountingRequestDto.ActionType actionType, int inputOctets, int outputOctets,
+                           int sessionTime, Instant timestamp, String nasPortId, String framedIPAddress,
+                           int delayTime, int inputGigaWords, int outputGigaWords, String nasIdentifier) {
+        this(eventId, sessionId, nasIP, username, actionType, inputOctets, outputOctets, sessionTime, timestamp,
+                nasPortId, framedIPAddress, delayTime, inputGigaWords, outputGigaWords, nasIdentifier,
+                total(inputGigaWords, inputOctets), total(outputGigaWords, outputOctets));
+    }
+
+    @JsonProperty("schemaVersion")
+    public int schemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    /**
+     * 64-bit byte count of an Acct-*-Gigawords / Acct-*-Octets pair, both unsigned
+     */
+    public static long total(int gigawords, int octets) {
+        return (Integer.toUnsignedLong(gigawords) << 32) | Integer.toUnsignedLong(octets);
+    }
+
+    /**
+     * The event in schema version 1 form, with the counters Accounting-On/Off do not carry as
+     * {@code null} as that schema had them.
+     */
+    public AccountingRequestDto toRequestDto() {
+        boolean nasReset = actionType == AccountingRequestDto.ActionType.ACCOUNTING_ON
+                || actionType == AccountingRequestDto.ActionType.ACCOUNTING_OFF;
+        return new AccountingRequestDto(
+                eventId,
+                sessionId,
+                nasIP,
+                username,
+                actionType,
+                nasReset ? null : inputOctets,
+                nasReset ? null : outputOctets,
+                nasReset ? null : sessionTime,
+                timestamp,
+                nasPortId,
+                framedIPAddress,
+                delayTime,
+                nasReset ? null : inputGigaWords,
+                nasReset ? null : outputGigaWords,
+                nasIdentifier
+        );
+    }
+
+    /**
+     * Event from its schema version 1 form, absent counters read as 0
+     */
+    public static AccountingEvent of(AccountingRequestDto request) {
+        return new AccountingEvent(
+                request.eventId(),
+                request.sessionId(),
+                request.nasIP(),
+                request.username(),
+                request.actionType(),
+                orZero(request.inputOctets()),
+                orZero(request.outputOctets()),
+                orZero(request.sessionTime()),
+                request.timestamp(),
+                request.nasPortId(),
+                request.framedIPAddress(),
+                orZero(request.delayTime()),
+                orZero(request.inputGigaWords()),
+                orZero(request.outputGigaWords()),
+                request.nasIdentifier()
+        );
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -22,8 +22,29 @@ public record AccountingRequestDto(
         @JsonProperty("nasIdentifier") String nasIdentifier
 ) {
     public enum ActionType {
-        START,
-        INTERIM_UPDATE,
-        STOP
+        START(1),
+        INTERIM_UPDATE(3),
+        STOP(2),
+        /**
+         * NAS (re)started: every session it had open is gone. The event carries no session.
+         */
+        ACCOUNTING_ON(7),
+        /**
+         * NAS is shutting down and closes every session it has open. The event carries no session.
+         */
+        ACCOUNTING_OFF(8);
+
+        private final int statusType;
+
+        ActionType(int statusType) {
+            this.statusType = statusType;
+        }
+
+        /**
+         * Acct-Status-Type value of the action
+         */
+        public int statusType() {
+            return statusType;
+        }
     }
 }
\ No newline at end of file
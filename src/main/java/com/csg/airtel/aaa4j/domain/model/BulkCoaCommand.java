@@ -0,0 +1,29 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk Disconnect or CoA over the active sessions of a NAS, of a list of users, or of those
+ * users on one NAS when both are given.
+ *
+ * @param rule       for COA, the subscriber rule sent in the configured rule attribute
+ * @param attributes for COA, further vendor attributes by dictionary name
+ * @param ratePerNas requests per second to each NAS, capped at the configured rate; null for
+ *                   the configured rate
+ */
+public record BulkCoaCommand(
+        @JsonProperty("action") Action action,
+        @JsonProperty("nasIp") String nasIp,
+        @JsonProperty("usernames") List<String> usernames,
+        @JsonProperty("rule") String rule,
+        @JsonProperty("attributes") Map<String, String> attributes,
+        @JsonProperty("ratePerNas") Integer ratePerNas
+) {
+    public enum Action {
+        DISCONNECT,
+        COA
+    }
+}
@@ -0,0 +1,33 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * Progress of a bulk Disconnect / CoA job. {@code acked + naked + timedOut + failed} requests
+ * are done; a cancelled job leaves the rest unsent.
+ */
+public record BulkCoaProgress(
+        @JsonProperty("jobId") String jobId,
+        @JsonProperty("action") BulkCoaCommand.Action action,
+        @JsonProperty("state") State state,
+        @JsonProperty("targets") int targets,
+        @JsonProperty("sent") int sent,
+        @JsonProperty("acked") int acked,
+        @JsonProperty("naked") int naked,
+        @JsonProperty("timedOut") int timedOut,
+        @JsonProperty("failed") int failed,
+        @JsonProperty("startedAt") Instant startedAt,
+        @JsonProperty("finishedAt") Instant finishedAt
+) {
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED
+    }
+
+    public int done() {
+        return acked + naked + timedOut + failed;
+    }
+}
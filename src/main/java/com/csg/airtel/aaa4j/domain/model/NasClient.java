@@ -0,0 +1,15 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+/**
+ * Compiled NAS client. The shared secret is encoded once at load time so the
+ * per-packet client lookup hands out the same byte[] without allocating.
+ */
+public record NasClient(
+        String name,
+        String address,
+        byte[] secret,
+        String vendor,
+        int coaPort,
+        int coaConcurrency
+) {
+}
@@ -0,0 +1,17 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * NAS client entry as stored in the client file or the Redis hash.
+ * {@code address} is either an exact IP or a CIDR range.
+ */
+public record NasClientDefinition(
+        @JsonProperty("name") String name,
+        @JsonProperty("address") String address,
+        @JsonProperty("secret") String secret,
+        @JsonProperty("vendor") String vendor,
+        @JsonProperty("coaPort") Integer coaPort,
+        @JsonProperty("coaConcurrency") Integer coaConcurrency
+) {
+}
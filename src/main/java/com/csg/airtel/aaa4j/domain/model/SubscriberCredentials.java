@@ -0,0 +1,29 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Credential material and authorization profile of a subscriber, as served by the
+ * auth-management service for in-node verification.
+ * <p>
+ * {@code papHash} is the hex digest of {@code papSalt || password} using {@code papAlgorithm}
+ * (a {@link java.security.MessageDigest} name, e.g. SHA-256). {@code chapSecret} is the
+ * cleartext-equivalent secret and is only present when policy allows CHAP to be verified
+ * outside the auth service.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SubscriberCredentials(
+        @JsonProperty("username") String username,
+        @JsonProperty("papAlgorithm") String papAlgorithm,
+        @JsonProperty("papSalt") String papSalt,
+        @JsonProperty("papHash") String papHash,
+        @JsonProperty("chapSecret") String chapSecret,
+        @JsonProperty("isActive") boolean isActive,
+        @JsonProperty("isEnoughBalance") boolean isEnoughBalance,
+        @JsonProperty("rule") String rule,
+        @JsonProperty("attributes") Map<String, String> attributes
+) {
+}
@@ -0,0 +1,45 @@
+package com.csg.airtel.aaa4j.domain.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * JSON form of the 32-bit unsigned RADIUS integers an {@link AccountingEvent} keeps in an
+ * {@code int}: written as the unsigned value, so a counter past 2^31 is not published as a
+ * negative number, and read back from either the unsigned or the signed form.
+ */
+public final class UnsignedInt {
+
+    private UnsignedInt() {
+    }
+
+    public static class Serializer extends StdSerializer<Integer> {
+
+        public Serializer() {
+            super(Integer.class);
+        }
+
+        @Override
+        public void serialize(Integer value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(Integer.toUnsignedLong(value));
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<Integer> {
+
+        public Deserializer() {
+            super(Integer.class);
+        }
+
+        @Override
+        public Integer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return (int) parser.getValueAsLong();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.csg.airtel.aaa4j.domain.packet;
+
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.Data;
+import org.aaa4j.radius.core.attribute.EnumData;
+import org.aaa4j.radius.core.attribute.IntegerData;
+import org.aaa4j.radius.core.attribute.Ipv4AddrData;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.TimeData;
+import org.aaa4j.radius.core.packet.Packet;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index over a packet's attributes, built in one pass, for extractors that read many of them.
+ * <p>
+ * Each indexed attribute type maps to a slot in a small per-packet array holding its first
+ * occurrence, the same one {@link Packet#getAttribute(Class)} returns. Vendor-Specific
+ * attributes are collected separately for {@link #vendorValue}. Accessors return primitives
+ * or plain values with a caller-supplied default, so reading an attribute is an array load
+ * and a type check, with no scan, class matching or {@code Optional}.
+ */
+public final class AttributeIndex {
+
+    public static final int USER_NAME = 1;
+    public static final int NAS_IP_ADDRESS = 4;
+    public static final int NAS_PORT = 5;
+    public static final int FRAMED_IP_ADDRESS = 8;
+    public static final int CLASS = 25;
+    public static final int CALLED_STATION_ID = 30;
+    public static final int CALLING_STATION_ID = 31;
+    public static final int NAS_IDENTIFIER = 32;
+    public static final int ACCT_STATUS_TYPE = 40;
+    public static final int ACCT_DELAY_TIME = 41;
+    public static final int ACCT_INPUT_OCTETS = 42;
+    public static final int ACCT_OUTPUT_OCTETS = 43;
+    public static final int ACCT_SESSION_ID = 44;
+    public static final int ACCT_SESSION_TIME = 46;
+    public static final int ACCT_INPUT_PACKETS = 47;
+    public static final int ACCT_OUTPUT_PACKETS = 48;
+    public static final int ACCT_TERMINATE_CAUSE = 49;
+    public static final int ACCT_MULTI_SESSION_ID = 50;
+    public static final int ACCT_INPUT_GIGAWORDS = 52;
+    public static final int ACCT_OUTPUT_GIGAWORDS = 53;
+    public static final int EVENT_TIMESTAMP = 55;
+    public static final int NAS_PORT_TYPE = 61;
+    public static final int NAS_PORT_ID = 87;
+
+    private static final int VENDOR_SPECIFIC = 26;
+    private static final int[] INDEXED_TYPES = {
+            USER_NAME, NAS_IP_ADDRESS, NAS_PORT, FRAMED_IP_ADDRESS, CLASS, CALLED_STATION_ID, CALLING_STATION_ID,
+            NAS_IDENTIFIER, ACCT_STATUS_TYPE, ACCT_DELAY_TIME, ACCT_INPUT_OCTETS, ACCT_OUTPUT_OCTETS,
+            ACCT_SESSION_ID, ACCT_SESSION_TIME, ACCT_INPUT_PACKETS, ACCT_OUTPUT_PACKETS, ACCT_TERMINATE_CAUSE,
+            ACCT_MULTI_SESSION_ID, ACCT_INPUT_GIGAWORDS, ACCT_OUTPUT_GIGAWORDS, EVENT_TIMESTAMP, NAS_PORT_TYPE,
+            NAS_PORT_ID
+    };
+
+    /**
+     * Attribute type to slot + 1; 0 means the type is not indexed
+     */
+    private static final byte[] SLOTS = new byte[256];
+
+    static {
+        for (int i = 0; i < INDEXED_TYPES.length; i++) {
+            SLOTS[INDEXED_TYPES[i]] = (byte) (i + 1);
+        }
+    }
+
+    private static final Attribute<?>[] NO_VSAS = new Attribute<?>[0];
+
+    private final Attribute<?>[] slots = new Attribute<?>[INDEXED_TYPES.length];
+    private Attribute<?>[] vendorSpecific = NO_VSAS;
+    private int vendorSpecificCount;
+
+    private AttributeIndex() {
+    }
+
+    public static AttributeIndex of(Packet packet) {
+        AttributeIndex index = new AttributeIndex();
+        List<Attribute<?>> attributes = packet.getAttributes();
+        for (int i = 0, n = attributes.size(); i < n; i++) {
+            index.add(attributes.get(i));
+        }
+        return index;
+    }
+
+    private void add(Attribute<?> attribute) {
+        int type = attribute.getType().head();
+        if (type == VENDOR_SPECIFIC) {
+            if (vendorSpecificCount == vendorSpecific.length) {
+                vendorSpecific = Arrays.copyOf(vendorSpecific, Math.max(4, vendorSpecificCount * 2));
+            }
+            vendorSpecific[vendorSpecificCount++] = attribute;
+            return;
+        }
+        int slot = type >= 0 && type < SLOTS.length ? SLOTS[type] - 1 : -1;
+        if (slot >= 0 && slots[slot] == null) {
+            slots[slot] = attribute;
+        }
+    }
+
+    public boolean has(int type) {
+        return data(type) != null;
+    }
+
+    /**
+     * Returns a text attribute's value, or {@code absent}.
+     */
+    public String text(int type, String absent) {
+        return data(type) instanceof TextData text ? text.getValue() : absent;
+    }
+
+    /**
+     * Returns an integer or enumerated attribute's value, or {@code absent}.
+     */
+    public int integer(int type, int absent) {
+        Data data = data(type);
+        if (data instanceof IntegerData integer) {
+            return integer.getValue();
+        }
+        return data instanceof EnumData enumerated ? enumerated.getValue() : absent;
+    }
+
+    /**
+     * Returns an IPv4 address attribute's value, or {@code null}.
+     */
+    public InetAddress address(int type) {
+        return data(type) instanceof Ipv4AddrData address ? address.getValue() : null;
+    }
+
+    /**
+     * Returns a time attribute's value, or {@code absent}.
+     */
+    public Instant time(int type, Instant absent) {
+        return data(type) instanceof TimeData time ? time.getValue() : absent;
+    }
+
+    /**
+     * Returns the first value of the vendor attribute, decoded per its type, or {@code null}.
+     */
+    public Object vendorValue(VendorDictionary dictionary, VsaDefinition definition) {
+        return vendorSpecificCount == 0
+                ? null
+                : dictionary.value(Arrays.asList(vendorSpecific).subList(0, vendorSpecificCount), definition);
+    }
+
+    private Data data(int type) {
+        int slot = type >= 0 && type < SLOTS.length ? SLOTS[type] - 1 : -1;
+        if (slot < 0) {
+            throw new IllegalArgumentException("Attribute type " + type + " is not indexed");
+        }
+        Attribute<?> attribute = slots[slot];
+        return attribute == null ? null : attribute.getData();
+    }
+}
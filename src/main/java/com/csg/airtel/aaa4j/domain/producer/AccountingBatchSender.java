@@ -0,0 +1,210 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.spool.AccountingSpool;
+import com.csg.airtel.aaa4j.domain.spool.SpoolReplayer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sends batches drained by {@link RadiusAccountingProducer} to the {@code accounting-events} channel.
+ * <p>
+ * Events are grouped by partition key so records for one session go out back to back with
+ * one shared key metadata. Each event's future completes as soon as Kafka acks it, and the
+ * batch settles once every event is acked or nacked. There is no timeout: a send cannot be
+ * taken back, so a stalled event fails when the producer's {@code delivery.timeout.ms} nacks it.
+ * Circuit breaker and fallback apply to the batch as a whole. The fallback writes the events
+ * Kafka has not acked to the {@link AccountingSpool}, from which {@link SpoolReplayer} sends
+ * them again through {@link #replay} once Kafka is back; the accounting response stands
+ * either way.
+ */
+@ApplicationScoped
+public class AccountingBatchSender {
+
+    private static final Logger logger = Logger.getLogger(AccountingBatchSender.class);
+    private static final CompletionStage<Void> DONE = CompletableFuture.completedStage(null);
+
+    private final Emitter<AccountingEvent> accountingEmitter;
+    private final AccountingSpool spool;
+    private final Counter failureCounter;
+    private final Counter fallbackCounter;
+    private final AtomicLong consecutiveFailures = new AtomicLong(0);
+
+    @Inject
+    public AccountingBatchSender(
+            @Channel("accounting-events") Emitter<AccountingEvent> accountingEmitter,
+            AccountingSpool spool,
+            MeterRegistry meterRegistry) {
+        this.accountingEmitter = accountingEmitter;
+        this.spool = spool;
+        this.failureCounter = meterRegistry.counter("accounting.publish.failures");
+        this.fallbackCounter = meterRegistry.counter("accounting.publish.fallback");
+    }
+
+    /**
+     * Sends the batch, completing each event's future when Kafka acks it. The returned stage
+     * completes once every event is acked, or fails once every event is settled and at least
+     * one was rejected, so the fallback sees which ones Kafka took.
+     */
+    @CircuitBreaker(
+            requestVolumeThreshold = 10,
+            failureRatio = 0.5,
+            delay = 30000,
+            successThreshold = 3
+    )
+    @Fallback(fallbackMethod = "fallbackSend")
+    public CompletionStage<Void> send(List<PendingAccountingEvent> batch) {
+        return emit(batch, PendingAccountingEvent::request, event -> event.future().complete(null));
+    }
+
+    /**
+     * Sends events replayed from the spool. Not guarded by the circuit breaker or fallback:
+     * a failed replay leaves the events in the spool and the replayer backs off.
+     */
+    public CompletionStage<Void> replay(List<AccountingEvent> requests) {
+        return emit(requests, Function.identity(), request -> { });
+    }
+
+    /**
+     * Fallback method for circuit breaker - spools the events Kafka has not acked for replay,
+     * without blocking the callers. Acked events already have their future completed and are
+     * not sent twice.
+     */
+    public CompletionStage<Void> fallbackSend(List<PendingAccountingEvent> batch) {
+        List<PendingAccountingEvent> unacked = new ArrayList<>(batch.size());
+        for (PendingAccountingEvent event : batch) {
+            if (!event.future().isDone()) {
+                unacked.add(event);
+            }
+        }
+        if (unacked.isEmpty()) {
+            return DONE;
+        }
+        fallbackCounter.increment(unacked.size());
+        long failures = consecutiveFailures.get();
+
+        int spooled = 0;
+        for (PendingAccountingEvent event : unacked) {
+            if (spool.append(event.request())) {
+                spooled++;
+            }
+        }
+        logger.warnf("Circuit breaker activated - spooling %d of accounting batch of %d, first SessionId: %s, NasIP: %s (consecutive failures: %d)",
+                unacked.size(), batch.size(), unacked.get(0).request().sessionId(), unacked.get(0).request().nasIP(),
+                failures);
+        if (spooled < unacked.size()) {
+            logger.errorf("Dropped %d of %d accounting events the spool could not take",
+                    unacked.size() - spooled, unacked.size());
+        }
+        return DONE;
+    }
+
+    private <T> CompletionStage<Void> emit(List<T> items, Function<T, AccountingEvent> toRequest, Consumer<T> onAck) {
+        BatchAck ack = new BatchAck(items.size());
+        int sent = 0;
+        try {
+            for (Map.Entry<String, List<T>> group : groupByPartitionKey(items, toRequest).entrySet()) {
+                Metadata metadata = Metadata.of(OutgoingKafkaRecordMetadata.<String>builder()
+                        .withKey(group.getKey())
+                        .build());
+                for (T item : group.getValue()) {
+                    accountingEmitter.send(Message.of(toRequest.apply(item), metadata,
+                            () -> {
+                                onAck.accept(item);
+                                return ack.acked();
+                            },
+                            ack::nacked));
+                    sent++;
+                }
+            }
+        } catch (Exception e) {
+            long failures = consecutiveFailures.incrementAndGet();
+            failureCounter.increment();
+            logger.errorf(e, "Error producing accounting batch of %d (consecutive: %d)", items.size(), failures);
+            // Events already handed to the emitter still settle on their own
+            ack.rejected(items.size() - sent, e);
+        }
+        return ack.future;
+    }
+
+    static <T> Map<String, List<T>> groupByPartitionKey(List<T> items, Function<T, AccountingEvent> toRequest) {
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            String partitionKey = PendingAccountingEvent.partitionKey(toRequest.apply(item));
+            groups.computeIfAbsent(partitionKey, key -> new ArrayList<>(1)).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Settles one batch once every event in it is acked or nacked; fails with the first
+     * rejection if there was one
+     */
+    private final class BatchAck {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final AtomicInteger remaining;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        BatchAck(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+
+        CompletionStage<Void> acked() {
+            settle(1);
+            return DONE;
+        }
+
+        CompletionStage<Void> nacked(Throwable throwable) {
+            long failures = consecutiveFailures.incrementAndGet();
+            failureCounter.increment();
+            logger.errorf("Failed accounting event (consecutive: %d): %s", failures, throwable.getMessage());
+            failure.compareAndSet(null, throwable);
+            settle(1);
+            return DONE;
+        }
+
+        /**
+         * Settles events the emitter refused
+         */
+        void rejected(int count, Throwable throwable) {
+            failure.compareAndSet(null, throwable);
+            settle(count);
+        }
+
+        private void settle(int count) {
+            if (count == 0 || remaining.addAndGet(-count) != 0) {
+                return;
+            }
+            Throwable cause = failure.get();
+            if (cause == null) {
+                consecutiveFailures.set(0);
+                future.complete(null);
+            } else {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+}
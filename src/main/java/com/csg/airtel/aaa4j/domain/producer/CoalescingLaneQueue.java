@@ -0,0 +1,74 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Interim lane that holds at most one event per session.
+ * <p>
+ * Interim counters are cumulative, so an interim still waiting when the session's next one
+ * arrives says nothing the newer one does not: the newer event takes its place in line and the
+ * older one's future completes without it being sent. The queue holds session keys in arrival
+ * order and the map the current event of each; a key whose event was superseded or already
+ * taken is skipped when polled.
+ */
+class CoalescingLaneQueue extends LaneQueue {
+
+    private final Map<String, PendingAccountingEvent> latest = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    CoalescingLaneQueue(PublishLane lane, int capacity, int weight) {
+        super(lane, capacity, weight);
+    }
+
+    @Override
+    Admission offer(PendingAccountingEvent event) {
+        String key = PendingAccountingEvent.partitionKey(event.request());
+        while (true) {
+            PendingAccountingEvent queued = latest.get(key);
+            if (queued != null) {
+                if (latest.replace(key, queued, event)) {
+                    queued.future().complete(null);
+                    return Admission.COALESCED;
+                }
+                // Taken by the publisher or replaced meanwhile; look again
+                continue;
+            }
+            if (depth.incrementAndGet() > capacity) {
+                depth.decrementAndGet();
+                return Admission.FULL;
+            }
+            if (latest.putIfAbsent(key, event) == null) {
+                order.offer(key);
+                return Admission.QUEUED;
+            }
+            depth.decrementAndGet();
+        }
+    }
+
+    @Override
+    PendingAccountingEvent poll() {
+        String key;
+        while ((key = order.poll()) != null) {
+            PendingAccountingEvent event = latest.remove(key);
+            if (event != null) {
+                depth.decrementAndGet();
+                return event;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    int supersede(String partitionKey) {
+        PendingAccountingEvent queued = latest.remove(partitionKey);
+        if (queued == null) {
+            return 0;
+        }
+        depth.decrementAndGet();
+        queued.future().complete(null);
+        return 1;
+    }
+}
@@ -0,0 +1,69 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interim lane that keeps every queued update, for {@code interim-overflow: shed}.
+ * <p>
+ * Only a session's STOP supersedes its queued interims. Rather than searching the queue, the
+ * lane counts the queued interims of each session and {@link #supersede} marks the session;
+ * its interims are dropped, futures completed, as the publisher reaches them, and count
+ * towards the depth until then.
+ */
+class InterimLaneQueue extends LaneQueue {
+
+    private final Map<String, Integer> queued = new ConcurrentHashMap<>();
+    private final Set<String> superseded = ConcurrentHashMap.newKeySet();
+
+    InterimLaneQueue(PublishLane lane, int capacity, int weight) {
+        super(lane, capacity, weight);
+    }
+
+    @Override
+    Admission offer(PendingAccountingEvent event) {
+        String key = PendingAccountingEvent.partitionKey(event.request());
+        queued.merge(key, 1, Integer::sum);
+        Admission admission = super.offer(event);
+        if (admission == Admission.FULL) {
+            release(key);
+        }
+        return admission;
+    }
+
+    @Override
+    PendingAccountingEvent poll() {
+        PendingAccountingEvent event;
+        while ((event = super.poll()) != null) {
+            String key = PendingAccountingEvent.partitionKey(event.request());
+            boolean dropped = superseded.contains(key);
+            release(key);
+            if (!dropped) {
+                return event;
+            }
+            event.future().complete(null);
+        }
+        return null;
+    }
+
+    @Override
+    int supersede(String partitionKey) {
+        Integer count = queued.get(partitionKey);
+        if (count == null) {
+            return 0;
+        }
+        superseded.add(partitionKey);
+        if (!queued.containsKey(partitionKey)) {
+            // The last of them was taken meanwhile; do not hold the mark for a later session
+            superseded.remove(partitionKey);
+        }
+        return count;
+    }
+
+    private void release(String key) {
+        if (queued.compute(key, (k, count) -> count == null || count <= 1 ? null : count - 1) == null) {
+            superseded.remove(key);
+        }
+    }
+}
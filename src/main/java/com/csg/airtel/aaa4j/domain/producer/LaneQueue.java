@@ -0,0 +1,65 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded lock-free FIFO of one {@link PublishLane}. Any thread may offer; only the publisher
+ * thread polls.
+ */
+class LaneQueue {
+
+    enum Admission {
+        QUEUED,
+        /**
+         * Took the place of a queued event of the same session, whose future was completed
+         */
+        COALESCED,
+        FULL
+    }
+
+    final PublishLane lane;
+    final int capacity;
+    final int weight;
+    final AtomicInteger depth = new AtomicInteger();
+    private final Queue<PendingAccountingEvent> queue = new ConcurrentLinkedQueue<>();
+
+    LaneQueue(PublishLane lane, int capacity, int weight) {
+        this.lane = lane;
+        this.capacity = Math.max(1, capacity);
+        this.weight = Math.max(1, weight);
+    }
+
+    Admission offer(PendingAccountingEvent event) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return Admission.FULL;
+        }
+        queue.offer(event);
+        return Admission.QUEUED;
+    }
+
+    PendingAccountingEvent poll() {
+        PendingAccountingEvent event = queue.poll();
+        if (event != null) {
+            depth.decrementAndGet();
+        }
+        return event;
+    }
+
+    /**
+     * Drops the queued events of the session, completing their futures, because a later event
+     * carries everything they would have. Interim lanes override it; the session lane keeps
+     * its events.
+     *
+     * @return how many were dropped
+     */
+    int supersede(String partitionKey) {
+        return 0;
+    }
+
+    int depth() {
+        return depth.get();
+    }
+}
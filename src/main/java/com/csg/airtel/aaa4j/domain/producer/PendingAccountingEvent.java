@@ -0,0 +1,23 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Accounting event waiting in the publish queue, with the future its caller holds
+ *
+ * @param enqueuedAt {@link System#nanoTime()} when it was queued, for end-to-end publish latency
+ */
+public record PendingAccountingEvent(AccountingEvent request, long enqueuedAt,
+                                     CompletableFuture<Void> future) {
+
+    /**
+     * Kafka key: events of one session on one NAS go to the same partition, in order
+     */
+    static String partitionKey(AccountingEvent request) {
+        String sessionId = request.sessionId();
+        String nasIp = request.nasIP();
+        return (sessionId != null ? sessionId : "unknown") + '-' + (nasIp != null ? nasIp : "unknown");
+    }
+}
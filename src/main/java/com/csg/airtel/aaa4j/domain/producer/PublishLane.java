@@ -0,0 +1,37 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+
+/**
+ * Publish queue an accounting event waits in, in priority order. START, STOP and the session
+ * resets of Accounting-On/Off share one FIFO lane, so a session's STOP never overtakes its
+ * START and a NAS reset follows the STOPs queued for it; that lane goes out ahead of interims,
+ * which are the events that can wait.
+ */
+enum PublishLane {
+    SESSION("session"),
+    INTERIM("interim");
+
+    private final String tag;
+
+    PublishLane(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Metric tag value
+     */
+    String tag() {
+        return tag;
+    }
+
+    static PublishLane of(AccountingRequestDto.ActionType actionType) {
+        if (actionType == null) {
+            return INTERIM;
+        }
+        return switch (actionType) {
+            case START, STOP, ACCOUNTING_ON, ACCOUNTING_OFF -> SESSION;
+            case INTERIM_UPDATE -> INTERIM;
+        };
+    }
+}
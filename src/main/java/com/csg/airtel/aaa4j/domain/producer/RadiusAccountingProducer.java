@@ -1,119 +1,310 @@
 package com.csg.airtel.aaa4j.domain.producer;
 
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
 import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Fallback;
-import org.eclipse.microprofile.faulttolerance.Timeout;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
-import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicLong;
-
-import static io.quarkus.arc.ComponentsProvider.LOG;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Front of the accounting publish pipeline.
+ * <p>
+ * Handler threads only append the event to a lock-free queue and get a future back. A
+ * dedicated publisher thread drains up to {@code max-batch-size} events at a time and hands
+ * them to {@link AccountingBatchSender}, which sends them to Kafka grouped by partition key;
+ * the per-event futures are completed from the batch result. At most
+ * {@code max-in-flight-batches} batches are outstanding at once; the publisher waits for one
+ * to complete before draining the next, so when Kafka slows down the backlog builds in the
+ * lanes, where priority, coalescing and shedding apply, rather than in the emitter. Batches
+ * form on their own under load: the publisher takes whatever queued while the previous batch
+ * was being sent, so a quiet server still publishes each event immediately.
+ * <p>
+ * Each {@link PublishLane} has its own bounded queue, so when Kafka slows down the STOPs
+ * billing closes on are not stuck behind, or refused because of, a backlog of interims.
+ * STARTs, STOPs and NAS resets share the session lane in arrival order, so a STOP cannot
+ * overtake its session's START. The publisher fills a batch either strictly by lane priority
+ * or by smooth weighted round robin over the non-empty lanes. A full session lane rejects new
+ * events. Interims are the ones given up first: a queued interim is dropped when its
+ * session's STOP is queued, with {@code interim-overflow: coalesce} it is also replaced by its
+ * session's next one, and a full interim lane sheds new interims under either policy.
+ */
 @ApplicationScoped
 public class RadiusAccountingProducer {
 
+    private static final Logger logger = Logger.getLogger(RadiusAccountingProducer.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final AccountingBatchSender batchSender;
+    private final int maxBatchSize;
+    private final boolean strictPriority;
+    private final boolean coalesceInterims;
+    /**
+     * One permit per batch that may be handed to the sender before an earlier one completes
+     */
+    private final Semaphore inFlight;
+
+    /**
+     * Indexed by {@link PublishLane#ordinal()}
+     */
+    private final LaneQueue[] lanes;
+    private final Counter[] rejectedCounters;
+    /**
+     * Smooth weighted round robin credit per lane; publisher thread only
+     */
+    private final long[] credits;
 
-    private static final ThreadLocal<StringBuilder> PARTITION_KEY_BUILDER =
-            ThreadLocal.withInitial(() -> new StringBuilder(128));
+    private final Counter shedCounter;
+    private final Counter coalescedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer publishLatencyTimer;
 
-    private final Emitter<AccountingRequestDto> accountingEmitter;
-    private final Counter failureCounter;
-    private final Counter fallbackCounter;
-    private final AtomicLong consecutiveFailures = new AtomicLong(0);
+    private volatile boolean running;
+    private volatile boolean publisherParked;
+    private Thread publisher;
 
     @Inject
-    public RadiusAccountingProducer(
-            @Channel("accounting-events") Emitter<AccountingRequestDto> accountingEmitter,
-            MeterRegistry meterRegistry) {
-        this.accountingEmitter = accountingEmitter;
-        this.failureCounter = meterRegistry.counter("accounting.publish.failures");
-        this.fallbackCounter = meterRegistry.counter("accounting.publish.fallback");
+    public RadiusAccountingProducer(AccountingBatchSender batchSender, RadiusServerConfig config,
+                                    MeterRegistry meterRegistry) {
+        RadiusServerConfig.PublishConfig publishConfig = config.accounting().publish();
+        RadiusServerConfig.LanesConfig lanesConfig = publishConfig.lanes();
+        this.batchSender = batchSender;
+        this.maxBatchSize = Math.max(1, publishConfig.maxBatchSize());
+        this.strictPriority = publishConfig.scheduling() == RadiusServerConfig.PublishConfig.LaneScheduling.STRICT;
+        this.coalesceInterims =
+                publishConfig.interimOverflow() == RadiusServerConfig.PublishConfig.InterimOverflow.COALESCE;
+        this.inFlight = new Semaphore(Math.max(1, publishConfig.maxInFlightBatches()));
+
+        PublishLane[] laneValues = PublishLane.values();
+        this.lanes = new LaneQueue[laneValues.length];
+        this.rejectedCounters = new Counter[laneValues.length];
+        this.credits = new long[laneValues.length];
+        lanes[PublishLane.SESSION.ordinal()] =
+                new LaneQueue(PublishLane.SESSION, lanesConfig.sessionCapacity(), lanesConfig.sessionWeight());
+        lanes[PublishLane.INTERIM.ordinal()] = coalesceInterims
+                ? new CoalescingLaneQueue(PublishLane.INTERIM, lanesConfig.interimCapacity(), lanesConfig.interimWeight())
+                : new InterimLaneQueue(PublishLane.INTERIM, lanesConfig.interimCapacity(), lanesConfig.interimWeight());
+        for (LaneQueue lane : lanes) {
+            Tags tags = Tags.of("lane", lane.lane.tag());
+            rejectedCounters[lane.lane.ordinal()] = meterRegistry.counter("accounting.publish.rejected", tags);
+            meterRegistry.gauge("accounting.publish.lane.depth", tags, lane, LaneQueue::depth);
+        }
+        this.shedCounter = meterRegistry.counter("accounting.publish.shed", "lane", PublishLane.INTERIM.tag());
+        this.coalescedCounter = meterRegistry.counter("accounting.publish.coalesced", "lane", PublishLane.INTERIM.tag());
+        this.batchSizeSummary = DistributionSummary.builder("accounting.publish.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publishLatencyTimer = Timer.builder("accounting.publish.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("accounting.publish.queue.depth", this, RadiusAccountingProducer::queueDepth);
     }
 
-    @Timeout(3000) // 3 second timeout for Kafka publish operations
-    @CircuitBreaker(
-            requestVolumeThreshold = 10,
-            failureRatio = 0.5,
-            delay = 30000,
-            successThreshold = 3
-    )
-    @Fallback(fallbackMethod = "fallbackProduceAccountingEvent")
-    public CompletionStage<Void> produceAccountingEvent(AccountingRequestDto request) {
+    @PostConstruct
+    void start() {
+        running = true;
+        publisher = new Thread(this::publishLoop, "accounting-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    /**
+     * Stops taking new batches once the queue is drained, waiting a bounded time for it
+     */
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (publisher == null) {
+            return;
+        }
+        LockSupport.unpark(publisher);
         try {
-            long startTime = System.currentTimeMillis();
-            String partitionKey = buildPartitionKey(request.sessionId(), request.nasIP());
-
-            var metadata = OutgoingKafkaRecordMetadata.<String>builder()
-                    .withKey(partitionKey)
-                    .build();
-            CompletableFuture<Void> future = new CompletableFuture<>();
-
-            var message = Message.of(request)
-                    .addMetadata(metadata)
-                    .withAck(() -> {
-                        consecutiveFailures.set(0);
-                        future.complete(null);
-                        LOG.infof("Sending account event completed in %s ms", System.currentTimeMillis()-startTime);
-                        return CompletableFuture.completedFuture(null);
-                    })
-                    .withNack(throwable -> {
-                        long failures = consecutiveFailures.incrementAndGet();
-                        failureCounter.increment();
-                        LOG.errorf("Failed accounting event (consecutive: %d): %s", failures, throwable.getMessage());
-                        future.completeExceptionally(throwable);
-                        return CompletableFuture.completedFuture(null);
-                    });
-
-            accountingEmitter.send(message);
-            return future;
-
-        } catch (Exception e) {
-            long failures = consecutiveFailures.incrementAndGet();
-            failureCounter.increment();
-            LOG.errorf(e, "Error producing accounting event (consecutive: %d): %s", failures, request.sessionId());
-            return CompletableFuture.failedFuture(e);
+            publisher.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Still waiting on batches that never completed
+        publisher.interrupt();
+        if (!isEmpty()) {
+            logger.warnf("Accounting publisher stopped with %d events still queued", queueDepth());
         }
-
     }
 
     /**
-     * Fallback method for circuit breaker - provides alternative path when Kafka is unavailable
-     * Logs failure details without blocking the caller
+     * Queues the event in its lane for a coming batch. The stage completes once its batch has
+     * been published (or handled by the sender's fallback), or once a newer interim of the
+     * session or its STOP took its place; it fails straight away if the lane is full.
      */
-    public CompletionStage<Void> fallbackProduceAccountingEvent(AccountingRequestDto request) {
-        fallbackCounter.increment();
-        long failures = consecutiveFailures.get();
+    public CompletionStage<Void> produceAccountingEvent(AccountingEvent request) {
+        PublishLane lane = PublishLane.of(request.actionType());
+        LaneQueue queue = lanes[lane.ordinal()];
+        PendingAccountingEvent event = new PendingAccountingEvent(request, System.nanoTime(), new CompletableFuture<>());
+        switch (queue.offer(event)) {
+            case FULL -> {
+                return refuse(queue);
+            }
+            case COALESCED -> coalescedCounter.increment();
+            case QUEUED -> {
+                if (request.actionType() == AccountingRequestDto.ActionType.STOP) {
+                    // The STOP carries the session's final counters
+                    coalescedCounter.increment(
+                            lanes[PublishLane.INTERIM.ordinal()].supersede(PendingAccountingEvent.partitionKey(request)));
+                }
+            }
+        }
+        if (publisherParked) {
+            LockSupport.unpark(publisher);
+        }
+        return event.future();
+    }
 
-        LOG.warnf("Circuit breaker activated - Fallback for accounting event - SessionId: %s, NasIP: %s, Action: %s (consecutive failures: %d)",
-                request.sessionId(), request.nasIP(), request.actionType(), failures);
-        return CompletableFuture.completedFuture(null);
+    private CompletionStage<Void> refuse(LaneQueue queue) {
+        if (queue.lane == PublishLane.INTERIM) {
+            shedCounter.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Interim update shed, publish lane is full (" + queue.capacity + " events)"));
+        }
+        rejectedCounters[queue.lane.ordinal()].increment();
+        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Accounting publish lane " + queue.lane.tag() + " is full (" + queue.capacity + " events)"));
+    }
+
+    int queueDepth() {
+        int depth = 0;
+        for (LaneQueue lane : lanes) {
+            depth += lane.depth();
+        }
+        return depth;
+    }
+
+    int laneDepth(PublishLane lane) {
+        return lanes[lane.ordinal()].depth();
+    }
+
+    private boolean isEmpty() {
+        return queueDepth() == 0;
+    }
+
+    private void publishLoop() {
+        while (running || !isEmpty()) {
+            try {
+                // Wait for a batch to complete so the backlog stays in the lanes
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            List<PendingAccountingEvent> batch = drain();
+            if (batch.isEmpty()) {
+                inFlight.release();
+                publisherParked = true;
+                // Re-check after announcing the park so an event offered in between is not missed
+                if (isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                publisherParked = false;
+                continue;
+            }
+            publish(batch);
+        }
+    }
+
+    private List<PendingAccountingEvent> drain() {
+        List<PendingAccountingEvent> batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(1, queueDepth())));
+        // Lanes found empty this round; a lane can count an event a moment before it can be polled
+        int exhausted = 0;
+        while (batch.size() < maxBatchSize) {
+            int lane = strictPriority ? highestLane(exhausted) : weightedLane(exhausted);
+            if (lane < 0) {
+                break;
+            }
+            PendingAccountingEvent event = lanes[lane].poll();
+            if (event == null) {
+                exhausted |= 1 << lane;
+            } else {
+                batch.add(event);
+            }
+        }
+        return batch;
+    }
+
+    private int highestLane(int exhausted) {
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if ((exhausted & (1 << lane)) == 0 && lanes[lane].depth() > 0) {
+                return lane;
+            }
+        }
+        return -1;
     }
 
     /**
-     * Optimized partition key builder - uses ThreadLocal StringBuilder to avoid allocations
-     * This is called in the hot path for every accounting event
+     * Smooth weighted round robin: every non-empty lane earns its weight, the richest is picked
+     * and pays back the weights earned in the round, so lanes interleave in weight proportion
+     * rather than in runs.
      */
-    private String buildPartitionKey(String sessionId, String nasIp) {
-        StringBuilder sb = PARTITION_KEY_BUILDER.get();
+    private int weightedLane(int exhausted) {
+        int picked = -1;
+        long earned = 0;
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if ((exhausted & (1 << lane)) != 0 || lanes[lane].depth() == 0) {
+                continue;
+            }
+            credits[lane] += lanes[lane].weight;
+            earned += lanes[lane].weight;
+            if (picked < 0 || credits[lane] > credits[picked]) {
+                picked = lane;
+            }
+        }
+        if (picked >= 0) {
+            credits[picked] -= earned;
+        }
+        return picked;
+    }
+
+    private void publish(List<PendingAccountingEvent> batch) {
+        batchSizeSummary.record(batch.size());
+        CompletionStage<Void> result;
         try {
-            sb.setLength(0); // Clear previous content
-            sb.append(sessionId != null ? sessionId : "unknown")
-              .append('-')
-              .append(nasIp != null ? nasIp : "unknown");
-            return sb.toString();
-        } finally {
-            PARTITION_KEY_BUILDER.remove();
+            result = batchSender.send(batch);
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Error publishing accounting batch of %d", batch.size());
+            result = CompletableFuture.failedFuture(e);
         }
+        result.whenComplete((ignored, throwable) -> {
+            try {
+                complete(batch, throwable);
+            } finally {
+                inFlight.release();
+            }
+        });
     }
 
+    private void complete(List<PendingAccountingEvent> batch, Throwable throwable) {
+        long now = System.nanoTime();
+        for (PendingAccountingEvent event : batch) {
+            publishLatencyTimer.record(now - event.enqueuedAt(), TimeUnit.NANOSECONDS);
+            if (throwable == null) {
+                event.future().complete(null);
+            } else {
+                event.future().completeExceptionally(throwable);
+            }
+        }
+    }
 }
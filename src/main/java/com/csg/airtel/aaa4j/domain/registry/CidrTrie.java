@@ -0,0 +1,248 @@
+package com.csg.airtel.aaa4j.domain.registry;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable longest-prefix-match table for IPv4 and IPv6 addresses.
+ * <p>
+ * A multibit trie with an 8-bit stride: each node is a 256-slot row in flat arrays and
+ * prefixes that end inside a byte are expanded over the slots they cover. A lookup walks
+ * at most one row per address byte, remembering the last value seen, so an IPv4 lookup is
+ * at most four array hops and allocates nothing. Instances are built once through
+ * {@link Builder} and never modified, so they can be shared across threads without locking.
+ */
+public final class CidrTrie<V> {
+
+    private static final int STRIDE = 8;
+    private static final int FANOUT = 1 << STRIDE;
+
+    private final Table ipv4;
+    private final Table ipv6;
+    private final int size;
+
+    private CidrTrie(Table ipv4, Table ipv6, int size) {
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.size = size;
+    }
+
+    public static <V> Builder<V> newBuilder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the value of the longest prefix containing the address, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V lookup(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself, which avoids the getAddress() copy
+            return (V) ipv4.lookup(address.hashCode());
+        }
+        return (V) ipv6.lookup(address.getAddress());
+    }
+
+    /**
+     * Number of prefixes in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Flattened trie for one address family. Row {@code n} occupies slots
+     * {@code [n * 256, n * 256 + 255]}; child index 0 means no child since the root is never a child.
+     */
+    private static final class Table {
+
+        private final int[] children;
+        private final Object[] values;
+
+        Table(int[] children, Object[] values) {
+            this.children = children;
+            this.values = values;
+        }
+
+        Object lookup(int address) {
+            Object best = null;
+            int node = 0;
+            for (int shift = 24; shift >= 0; shift -= STRIDE) {
+                int slot = (node << STRIDE) | ((address >>> shift) & 0xFF);
+                Object value = values[slot];
+                if (value != null) {
+                    best = value;
+                }
+                node = children[slot];
+                if (node == 0) {
+                    break;
+                }
+            }
+            return best;
+        }
+
+        Object lookup(byte[] address) {
+            Object best = null;
+            int node = 0;
+            for (byte b : address) {
+                int slot = (node << STRIDE) | (b & 0xFF);
+                Object value = values[slot];
+                if (value != null) {
+                    best = value;
+                }
+                node = children[slot];
+                if (node == 0) {
+                    break;
+                }
+            }
+            return best;
+        }
+    }
+
+    public static final class Builder<V> {
+
+        private final BuildNode ipv4Root = new BuildNode();
+        private final BuildNode ipv6Root = new BuildNode();
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an exact address ({@code 10.1.2.3}) or a CIDR range ({@code 10.1.0.0/16}).
+         * Only IP literals are accepted; host names are rejected rather than resolved.
+         *
+         * @throws IllegalArgumentException if the address or prefix length is invalid
+         */
+        public Builder<V> add(String cidr, V value) {
+            if (cidr == null || cidr.isBlank()) {
+                throw new IllegalArgumentException("Client address must not be blank");
+            }
+            String trimmed = cidr.trim();
+            int slash = trimmed.indexOf('/');
+            String host = slash < 0 ? trimmed : trimmed.substring(0, slash);
+            if (!isIpLiteral(host)) {
+                throw new IllegalArgumentException("Not an IP address: " + cidr);
+            }
+
+            byte[] address;
+            try {
+                address = InetAddress.getByName(host).getAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Not an IP address: " + cidr, e);
+            }
+
+            int maxLength = address.length * 8;
+            int prefixLength;
+            try {
+                prefixLength = slash < 0 ? maxLength : Integer.parseInt(trimmed.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length: " + cidr, e);
+            }
+            if (prefixLength < 0 || prefixLength > maxLength) {
+                throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+            }
+            return add(address, prefixLength, value);
+        }
+
+        /**
+         * Adds a prefix given as raw address bytes (4 or 16) and a prefix length.
+         */
+        public Builder<V> add(byte[] address, int prefixLength, V value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value must not be null");
+            }
+            BuildNode node = address.length == 4 ? ipv4Root : ipv6Root;
+
+            // Level whose byte holds the last bit of the prefix; /0 lives in the root row
+            int level = prefixLength == 0 ? 0 : (prefixLength - 1) / STRIDE;
+            for (int i = 0; i < level; i++) {
+                node = node.child(address[i] & 0xFF);
+            }
+
+            int bitsInLevel = prefixLength - level * STRIDE;
+            int span = 1 << (STRIDE - bitsInLevel);
+            int start = (address[level] & 0xFF) & ~(span - 1);
+            for (int slot = start; slot < start + span; slot++) {
+                // Longer prefixes win when expanded slots overlap
+                if (node.values[slot] == null || node.lengths[slot] <= prefixLength) {
+                    node.values[slot] = value;
+                    node.lengths[slot] = prefixLength;
+                }
+            }
+            size++;
+            return this;
+        }
+
+        public CidrTrie<V> build() {
+            return new CidrTrie<>(flatten(ipv4Root), flatten(ipv6Root), size);
+        }
+
+        private static boolean isIpLiteral(String host) {
+            if (host.indexOf(':') >= 0) {
+                return true;
+            }
+            for (int i = 0; i < host.length(); i++) {
+                char c = host.charAt(i);
+                if (c != '.' && (c < '0' || c > '9')) {
+                    return false;
+                }
+            }
+            return !host.isEmpty();
+        }
+
+        private static Table flatten(BuildNode root) {
+            List<BuildNode> order = new ArrayList<>();
+            Map<BuildNode, Integer> ids = new IdentityHashMap<>();
+            Deque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            ids.put(root, 0);
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                order.add(node);
+                for (BuildNode child : node.children) {
+                    if (child != null) {
+                        ids.put(child, ids.size());
+                        queue.add(child);
+                    }
+                }
+            }
+
+            int[] children = new int[order.size() * FANOUT];
+            Object[] values = new Object[order.size() * FANOUT];
+            for (int n = 0; n < order.size(); n++) {
+                BuildNode node = order.get(n);
+                int base = n * FANOUT;
+                for (int slot = 0; slot < FANOUT; slot++) {
+                    values[base + slot] = node.values[slot];
+                    if (node.children[slot] != null) {
+                        children[base + slot] = ids.get(node.children[slot]);
+                    }
+                }
+            }
+            return new Table(children, values);
+        }
+    }
+
+    private static final class BuildNode {
+        final BuildNode[] children = new BuildNode[FANOUT];
+        final Object[] values = new Object[FANOUT];
+        final int[] lengths = new int[FANOUT];
+
+        BuildNode child(int slot) {
+            BuildNode child = children[slot];
+            if (child == null) {
+                child = new BuildNode();
+                children[slot] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.csg.airtel.aaa4j.domain.registry;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.common.constant.ResponseCodeEnum;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
+import com.csg.airtel.aaa4j.domain.model.NasClientDefinition;
+import com.csg.airtel.aaa4j.exception.BaseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.runtime.Startup;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of known NAS clients, keyed by exact IP or CIDR range.
+ * <p>
+ * Definitions are compiled into an immutable {@link CidrTrie} of {@link NasClient}s whose
+ * secrets are already encoded, and published through a single volatile reference. Listener
+ * threads therefore look clients up without locks or allocation, and a reload builds a
+ * new table off to the side and swaps it in atomically; a reload that fails validation
+ * leaves the current table in place.
+ * <p>
+ * With {@code radius.clients.source=none} every address maps to a single client carrying
+ * {@code radius.shared-secret}, which is the behaviour before per-NAS clients existed.
+ */
+@ApplicationScoped
+@Startup
+public class NasClientRegistry {
+
+    private static final Logger logger = Logger.getLogger(NasClientRegistry.class);
+
+    static final int DEFAULT_COA_PORT = 3799;
+    static final int DEFAULT_COA_CONCURRENCY = 8;
+
+    private static final TypeReference<List<NasClientDefinition>> DEFINITION_LIST = new TypeReference<>() {
+    };
+
+    private final RadiusServerConfig config;
+    private final Instance<RedisDataSource> redisDataSource;
+    private final ObjectMapper objectMapper;
+    private final Vertx vertx;
+    private final Counter unknownClientCounter;
+
+    private volatile CidrTrie<NasClient> clients = CidrTrie.<NasClient>newBuilder().build();
+    private long reloadTimerId = -1;
+
+    @Inject
+    public NasClientRegistry(RadiusServerConfig config, Instance<RedisDataSource> redisDataSource,
+                             ObjectMapper objectMapper, Vertx vertx, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.redisDataSource = redisDataSource;
+        this.objectMapper = objectMapper;
+        this.vertx = vertx;
+        this.unknownClientCounter = meterRegistry.counter("radius.clients.unknown");
+        meterRegistry.gauge("radius.clients.size", this, NasClientRegistry::size);
+    }
+
+    @PostConstruct
+    void init() throws BaseException {
+        RadiusServerConfig.ClientsConfig clientsConfig = config.clients();
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            throw new BaseException(
+                    "Failed to load NAS clients: " + e.getMessage(),
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.description(),
+                    Response.Status.INTERNAL_SERVER_ERROR,
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.code(),
+                    e.getStackTrace()
+            );
+        }
+
+        if (clientsConfig.source() != RadiusServerConfig.ClientsConfig.Source.NONE
+                && clientsConfig.reloadIntervalSeconds() > 0) {
+            long intervalMs = clientsConfig.reloadIntervalSeconds() * 1000L;
+            // File and Redis reads block, so the reload runs on a worker rather than the timer's event loop
+            reloadTimerId = vertx.setPeriodic(intervalMs, id -> vertx.executeBlocking(() -> {
+                reloadQuietly();
+                return null;
+            }, false));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (reloadTimerId >= 0) {
+            vertx.cancelTimer(reloadTimerId);
+        }
+    }
+
+    /**
+     * Returns the client whose address or range most specifically contains the address, or
+     * {@code null} when the address is not a known client.
+     */
+    public NasClient find(InetAddress address) {
+        return clients.lookup(address);
+    }
+
+    /**
+     * Returns the pre-encoded shared secret for the client, or {@code null} (counted) so the
+     * listener drops the packet before decoding it.
+     */
+    public byte[] secretFor(InetAddress address) {
+        NasClient client = clients.lookup(address);
+        if (client == null) {
+            unknownClientCounter.increment();
+            logger.debugf("Dropping packet from unknown NAS client %s", address);
+            return null;
+        }
+        return client.secret();
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    /**
+     * Loads the definitions from the configured source and atomically replaces the table.
+     *
+     * @return number of clients now loaded
+     * @throws IllegalArgumentException if any definition is invalid; the current table is kept
+     */
+    public int reload() throws IOException {
+        RadiusServerConfig.ClientsConfig clientsConfig = config.clients();
+        List<NasClientDefinition> definitions = switch (clientsConfig.source()) {
+            case NONE -> List.of(
+                    new NasClientDefinition("default", "0.0.0.0/0", config.sharedSecret(), null, null, null),
+                    new NasClientDefinition("default", "::/0", config.sharedSecret(), null, null, null));
+            case FILE -> loadFromFile(clientsConfig);
+            case REDIS -> loadFromRedis(clientsConfig);
+        };
+
+        CidrTrie<NasClient> compiled = compile(definitions);
+        clients = compiled;
+        logger.infof("Loaded %d NAS client definition(s) from %s", compiled.size(), clientsConfig.source());
+        return compiled.size();
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            logger.errorf("NAS client reload failed, keeping %d existing client(s): %s", size(), e.getMessage());
+        }
+    }
+
+    static CidrTrie<NasClient> compile(List<NasClientDefinition> definitions) {
+        CidrTrie.Builder<NasClient> builder = CidrTrie.newBuilder();
+        for (NasClientDefinition definition : definitions) {
+            if (definition.secret() == null || definition.secret().isEmpty()) {
+                throw new IllegalArgumentException("NAS client " + definition.address() + " has no secret");
+            }
+            NasClient client = new NasClient(
+                    definition.name() != null ? definition.name() : definition.address(),
+                    definition.address(),
+                    definition.secret().getBytes(StandardCharsets.UTF_8),
+                    definition.vendor(),
+                    definition.coaPort() != null ? definition.coaPort() : DEFAULT_COA_PORT,
+                    definition.coaConcurrency() != null ? definition.coaConcurrency() : DEFAULT_COA_CONCURRENCY);
+            builder.add(definition.address(), client);
+        }
+        return builder.build();
+    }
+
+    private List<NasClientDefinition> loadFromFile(RadiusServerConfig.ClientsConfig clientsConfig) throws IOException {
+        String filePath = clientsConfig.filePath()
+                .orElseThrow(() -> new IllegalArgumentException("radius.clients.file-path is required for source FILE"));
+        try (InputStream in = Files.newInputStream(Path.of(filePath))) {
+            return objectMapper.readValue(in, DEFINITION_LIST);
+        }
+    }
+
+    private List<NasClientDefinition> loadFromRedis(RadiusServerConfig.ClientsConfig clientsConfig) {
+        // Hash field is the client address, value is the JSON definition
+        Map<String, NasClientDefinition> entries = redisDataSource.get()
+                .hash(NasClientDefinition.class)
+                .hgetall(clientsConfig.redisKey());
+
+        List<NasClientDefinition> definitions = new ArrayList<>(entries.size());
+        entries.forEach((address, definition) -> definitions.add(definition.address() != null
+                ? definition
+                : new NasClientDefinition(definition.name(), address, definition.secret(), definition.vendor(),
+                        definition.coaPort(), definition.coaConcurrency())));
+        return definitions;
+    }
+}
@@ -0,0 +1,87 @@
+package com.csg.airtel.aaa4j.domain.reply;
+
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.RawAttribute;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.MessageAuthenticator;
+import org.aaa4j.radius.core.attribute.attributes.ReplyMessage;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Access-Accept attributes of one authorization profile (rule plus reply attributes),
+ * compiled once and shared by every subscriber on that profile.
+ * <p>
+ * Compilation parses and validates the profile values and encodes every attribute straight
+ * to its wire form, so building a reply only adds the per-user attributes in front of the
+ * shared block. Besides the timeouts, a profile attribute named after a vendor attribute in
+ * the {@link VendorDictionary} (e.g. {@code Alc-SLA-Prof-Str}) is sent as that VSA.
+ * Attribute instances are immutable and safe to share between packets.
+ */
+public final class ReplyTemplate {
+
+    static final int SESSION_TIMEOUT = 27;
+    static final int IDLE_TIMEOUT = 28;
+
+    private static final int PER_USER_ATTRIBUTES = 3;
+
+    private final List<Attribute<?>> profileAttributes;
+
+    private ReplyTemplate(List<Attribute<?>> profileAttributes) {
+        this.profileAttributes = profileAttributes;
+    }
+
+    /**
+     * Compiles a profile. Attribute order matches the reply the handler used to build.
+     *
+     * @param ruleAttribute the VSA that carries the rule
+     * @throws IllegalArgumentException if a value does not fit its attribute
+     */
+    public static ReplyTemplate compile(String rule, Map<String, String> attributes, VendorDictionary dictionary,
+                                        VsaDefinition ruleAttribute) {
+        List<Attribute<?>> compiled = new ArrayList<>();
+        if (attributes != null) {
+            attributes.forEach((key, value) -> {
+                switch (key.toUpperCase(Locale.ROOT)) {
+                    case "SESSION_TIMEOUT" -> compiled.add(integerAttribute(SESSION_TIMEOUT, value));
+                    case "IDLE_TIMEOUT" -> compiled.add(integerAttribute(IDLE_TIMEOUT, value));
+                    default -> dictionary.definition(key)
+                            .ifPresent(definition -> compiled.add(definition.attribute(value)));
+                }
+            });
+        }
+        if (rule != null) {
+            compiled.add(ruleAttribute.attribute(rule));
+        }
+        return new ReplyTemplate(List.copyOf(compiled));
+    }
+
+    /**
+     * Builds the Access-Accept for a subscriber on this profile.
+     */
+    public AccessAccept accept(String username) {
+        List<Attribute<?>> attributes = new ArrayList<>(PER_USER_ATTRIBUTES + profileAttributes.size());
+        attributes.add(new MessageAuthenticator());
+        attributes.add(new ReplyMessage(new TextData("Welcome, " + username + "!")));
+        attributes.add(new UserName(new TextData(username)));
+        attributes.addAll(profileAttributes);
+        return new AccessAccept(attributes);
+    }
+
+    List<Attribute<?>> profileAttributes() {
+        return profileAttributes;
+    }
+
+    private static Attribute<?> integerAttribute(int type, String value) {
+        int parsed = Integer.parseInt(value);
+        return new RawAttribute(type, new byte[]{
+                (byte) (parsed >>> 24), (byte) (parsed >>> 16), (byte) (parsed >>> 8), (byte) parsed});
+    }
+}
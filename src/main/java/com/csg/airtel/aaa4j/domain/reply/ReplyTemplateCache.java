@@ -0,0 +1,71 @@
+package com.csg.airtel.aaa4j.domain.reply;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled {@link ReplyTemplate}s keyed by authorization profile.
+ * <p>
+ * Subscribers share a small set of profiles, so after warm-up an Access-Accept costs one
+ * lookup and a few per-user attributes. The stored key is a private copy of the profile
+ * attributes, so callers may keep mutating the map they passed in. Cache metrics are
+ * published with {@code cache=reply-templates}.
+ */
+@ApplicationScoped
+public class ReplyTemplateCache {
+
+    static final String CACHE_NAME = "reply-templates";
+
+    private final VendorDictionary dictionary;
+    private final VsaDefinition ruleAttribute;
+    private final Cache<ProfileKey, ReplyTemplate> cache;
+
+    @Inject
+    public ReplyTemplateCache(RadiusServerConfig config, VendorDictionary dictionary, MeterRegistry meterRegistry) {
+        this.dictionary = dictionary;
+        this.ruleAttribute = dictionary.require(config.auth().ruleAttribute());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.auth().replyTemplateCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Builds the Access-Accept for the subscriber from their profile's template.
+     */
+    public AccessAccept accept(UserDetails userDetails) {
+        return template(userDetails.getRule(), userDetails.getAttributes()).accept(userDetails.getUsername());
+    }
+
+    ReplyTemplate template(String rule, Map<String, String> attributes) {
+        ReplyTemplate template = cache.getIfPresent(new ProfileKey(rule, attributes));
+        if (template != null) {
+            return template;
+        }
+        Map<String, String> copy = attributes == null ? null : Collections.unmodifiableMap(new HashMap<>(attributes));
+        return cache.get(new ProfileKey(rule, copy),
+                key -> ReplyTemplate.compile(key.rule(), key.attributes(), dictionary, ruleAttribute));
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private record ProfileKey(String rule, Map<String, String> attributes) {
+    }
+}
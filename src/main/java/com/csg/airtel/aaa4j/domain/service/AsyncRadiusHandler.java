@@ -0,0 +1,27 @@
+package com.csg.airtel.aaa4j.domain.service;
+
+import org.aaa4j.radius.core.packet.Packet;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking counterpart of {@link org.aaa4j.radius.server.RadiusServer.Handler}.
+ * <p>
+ * Used by the event-loop server engine: the request is decoded on the event loop and the
+ * reply is written back from the event loop once the returned stage completes, so no thread
+ * is held while the handler waits on a backend.
+ */
+public interface AsyncRadiusHandler {
+
+    /**
+     * Returns the shared secret for the client, or {@code null} to drop the packet.
+     */
+    byte[] handleClient(InetAddress clientAddress);
+
+    /**
+     * Handles a decoded request. The stage completes with the response packet, or with
+     * {@code null} when no response should be sent.
+     */
+    CompletionStage<Packet> handlePacketAsync(InetAddress clientAddress, Packet requestPacket);
+}
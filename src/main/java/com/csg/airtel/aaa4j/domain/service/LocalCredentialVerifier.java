@@ -0,0 +1,162 @@
+package com.csg.airtel.aaa4j.domain.service;
+
+import com.csg.airtel.aaa4j.domain.model.SubscriberCredentials;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.csg.airtel.aaa4j.external.client.SubscriberCredentialClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies PAP and CHAP credentials in-process against cached subscriber credential material,
+ * so a repeat authentication is a digest comparison instead of a backend round trip.
+ * <p>
+ * PAP is checked against the salted hash; CHAP is checked per RFC 1994 as
+ * {@code MD5(CHAP ident || secret || challenge)} and needs the cleartext-equivalent secret.
+ * When the material for the method in use is missing, or the subscriber is unknown, the
+ * result is a {@code null} item and the caller falls back to the auth service. Digests are
+ * pooled per thread, and comparisons are constant-time.
+ */
+@ApplicationScoped
+public class LocalCredentialVerifier {
+
+    private static final Logger logger = Logger.getLogger(LocalCredentialVerifier.class);
+
+    private static final int CHAP_PASSWORD_LENGTH = 17;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Map<String, ThreadLocal<MessageDigest>> DIGESTS = new ConcurrentHashMap<>();
+
+    private final SubscriberCredentialClient credentialClient;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter unverifiableCounter;
+
+    @Inject
+    public LocalCredentialVerifier(SubscriberCredentialClient credentialClient, MeterRegistry meterRegistry) {
+        this.credentialClient = credentialClient;
+        this.acceptedCounter = meterRegistry.counter("auth.local.verifications", "result", "match");
+        this.rejectedCounter = meterRegistry.counter("auth.local.verifications", "result", "mismatch");
+        this.unverifiableCounter = meterRegistry.counter("auth.local.verifications", "result", "unverifiable");
+    }
+
+    public boolean enabled() {
+        return credentialClient.enabled();
+    }
+
+    /**
+     * Returns the decision for the presented credentials, or a {@code null} item when they
+     * cannot be verified locally.
+     *
+     * @param papPassword   decrypted User-Password, or {@code null}
+     * @param chapPassword  raw CHAP-Password (ident followed by the 16-byte response), or {@code null}
+     * @param chapChallenge CHAP-Challenge, or the Request Authenticator when the attribute is absent
+     */
+    public Uni<UserDetails> authenticate(String username, byte[] papPassword, byte[] chapPassword,
+                                         byte[] chapChallenge) {
+        return credentialClient.get(username)
+                .map(credentials -> decide(username, credentials, papPassword, chapPassword, chapChallenge));
+    }
+
+    UserDetails decide(String username, SubscriberCredentials credentials, byte[] papPassword, byte[] chapPassword,
+                       byte[] chapChallenge) {
+        Boolean match = null;
+        if (credentials != null) {
+            if (chapPassword != null) {
+                match = verifyChap(credentials, chapPassword, chapChallenge);
+            } else if (papPassword != null) {
+                match = verifyPap(credentials, papPassword);
+            }
+        }
+
+        if (match == null) {
+            unverifiableCounter.increment();
+            return null;
+        }
+        (match ? acceptedCounter : rejectedCounter).increment();
+        return new UserDetails(username, match, credentials.isActive(), credentials.isEnoughBalance(),
+                credentials.rule(), credentials.attributes());
+    }
+
+    /**
+     * Returns whether the password matches, or {@code null} if there is no usable PAP hash.
+     */
+    static Boolean verifyPap(SubscriberCredentials credentials, byte[] password) {
+        if (credentials.papHash() == null || credentials.papAlgorithm() == null) {
+            return null;
+        }
+        MessageDigest digest = digest(credentials.papAlgorithm());
+        if (digest == null) {
+            return null;
+        }
+        try {
+            if (credentials.papSalt() != null) {
+                digest.update(HEX.parseHex(credentials.papSalt()));
+            }
+            digest.update(password);
+            return MessageDigest.isEqual(digest.digest(), HEX.parseHex(credentials.papHash()));
+        } catch (IllegalArgumentException e) {
+            logger.warnf("Malformed PAP hash for user %s: %s", credentials.username(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the CHAP response matches, or {@code null} if there is no CHAP secret.
+     */
+    static Boolean verifyChap(SubscriberCredentials credentials, byte[] chapPassword, byte[] challenge) {
+        if (credentials.chapSecret() == null || challenge == null) {
+            return null;
+        }
+        if (chapPassword.length != CHAP_PASSWORD_LENGTH) {
+            return false;
+        }
+        MessageDigest md5 = digest("MD5");
+        md5.update(chapPassword[0]);
+        md5.update(credentials.chapSecret().getBytes(StandardCharsets.UTF_8));
+        md5.update(challenge);
+        byte[] expected = md5.digest();
+
+        int diff = 0;
+        for (int i = 0; i < expected.length; i++) {
+            diff |= expected[i] ^ chapPassword[i + 1];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Returns this thread's reset digest for the algorithm, or {@code null} if it is not supported.
+     */
+    private static MessageDigest digest(String algorithm) {
+        ThreadLocal<MessageDigest> pool = DIGESTS.computeIfAbsent(algorithm, name -> {
+            try {
+                MessageDigest.getInstance(name);
+            } catch (NoSuchAlgorithmException e) {
+                logger.warnf("Unsupported PAP hash algorithm %s", name);
+                return null;
+            }
+            return ThreadLocal.withInitial(() -> {
+                try {
+                    return MessageDigest.getInstance(name);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        });
+        if (pool == null) {
+            return null;
+        }
+        MessageDigest digest = pool.get();
+        digest.reset();
+        return digest;
+    }
+}
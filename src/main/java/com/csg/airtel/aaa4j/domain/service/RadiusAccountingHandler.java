@@ -1,43 +1,58 @@
 package com.csg.airtel.aaa4j.domain.service;
 
+import com.csg.airtel.aaa4j.domain.dedup.AccountingDeduplicator;
+import com.csg.airtel.aaa4j.domain.dedup.EventIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
 import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.packet.AttributeIndex;
 import com.csg.airtel.aaa4j.domain.producer.RadiusAccountingProducer;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
+import io.quarkus.runtime.ShutdownEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import org.aaa4j.radius.core.attribute.TextData;
 import org.aaa4j.radius.core.attribute.attributes.*;
 import org.aaa4j.radius.core.packet.Packet;
 import org.aaa4j.radius.core.packet.packets.AccountingRequest;
 import org.aaa4j.radius.core.packet.packets.AccountingResponse;
 import org.aaa4j.radius.server.RadiusServer;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import org.slf4j.MDC;
 
 import java.net.InetAddress;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
 
 
 @ApplicationScoped
-public class RadiusAccountingHandler implements RadiusServer.Handler {
+public class RadiusAccountingHandler implements RadiusServer.Handler, AsyncRadiusHandler {
     private static final Logger logger = Logger.getLogger(RadiusAccountingHandler.class);
 
-    @ConfigProperty(name = "radius.shared-secret")
-    String sharedSecret;
-
     private final RadiusAccountingProducer radiusAccountingProducer;
+    private final NasClientRegistry nasClientRegistry;
+    private final SessionRegistry sessionRegistry;
+    private final AccountingDeduplicator deduplicator;
 
 
-    public RadiusAccountingHandler(RadiusAccountingProducer radiusAccountingProducer) {
+    public RadiusAccountingHandler(RadiusAccountingProducer radiusAccountingProducer,
+                                   NasClientRegistry nasClientRegistry,
+                                   SessionRegistry sessionRegistry,
+                                   AccountingDeduplicator deduplicator) {
         this.radiusAccountingProducer = radiusAccountingProducer;
+        this.nasClientRegistry = nasClientRegistry;
+        this.sessionRegistry = sessionRegistry;
+        this.deduplicator = deduplicator;
     }
 
     @Override
     public byte[] handleClient(InetAddress clientAddress) {
-        // Return cached shared secret
-        return sharedSecret.getBytes(StandardCharsets.UTF_8);
+        // Pre-encoded per-NAS secret; null drops packets from unknown clients
+        return nasClientRegistry.secretFor(clientAddress);
     }
 
 
@@ -52,24 +67,45 @@ public class RadiusAccountingHandler implements RadiusServer.Handler {
         }
 
         try {
-            var statusOpt = packet.getAttribute(AcctStatusType.class);
-            if (statusOpt.isEmpty()) {
+            AttributeIndex attributes = AttributeIndex.of(packet);
+            int statusType = attributes.integer(AttributeIndex.ACCT_STATUS_TYPE, -1);
+            if (statusType < 0) {
                 logger.warnf("TraceId : %s Missing AcctStatusType attribute in packet from %s",
                         traceId, clientAddress.getHostAddress());
                 return null;
             }
 
-            AccountingRequestDto.ActionType actionType = determineActionType(statusOpt.get());
+            AccountingRequestDto.ActionType actionType = determineActionType(statusType);
             // Extract common attributes
-            CommonAttributes commonAttrs = extractCommonAttributes(packet, clientAddress);
+            CommonAttributes commonAttrs = extractCommonAttributes(attributes, clientAddress);
             // Extract scenario-specific attributes based on action type
-            AccountingRequestDto accountingRequest = switch (actionType) {
-                case START -> buildStartRequest(traceId, commonAttrs, packet);
-                case INTERIM_UPDATE -> buildInterimRequest(traceId, commonAttrs, packet);
-                case STOP -> buildStopRequest(traceId, commonAttrs, packet);
+            AccountingEvent accountingRequest = switch (actionType) {
+                case START -> buildStartRequest(commonAttrs, attributes);
+                case INTERIM_UPDATE -> buildInterimRequest(commonAttrs, attributes);
+                case STOP -> buildStopRequest(commonAttrs, attributes);
+                case ACCOUNTING_ON, ACCOUNTING_OFF -> buildNasResetRequest(commonAttrs, actionType);
             };
 
+            if (deduplicator.seen(accountingRequest)) {
+                // Retransmit of a request already published: ACK it again, publish nothing
+                logger.debugf("TraceId : %s Duplicate accounting request for session %s from %s",
+                        traceId, commonAttrs.sessionId, commonAttrs.nasIp);
+                return createAccountingResponse(commonAttrs.sessionId);
+            }
+            if (actionType == AccountingRequestDto.ActionType.ACCOUNTING_ON
+                    || actionType == AccountingRequestDto.ActionType.ACCOUNTING_OFF) {
+                // Sessions that held back octets get no later event, so their last counters go out as interims
+                for (AccountingEvent heldBack : sessionRegistry.closeNas(commonAttrs.nasIp, commonAttrs.eventTime)) {
+                    publish(traceId, heldBack);
+                }
+            } else if (sessionRegistry.onAccounting(accountingRequest)) {
+                // Coalesced interim: its usage goes out with the session's next published event
+                deduplicator.record(accountingRequest);
+                return createAccountingResponse(commonAttrs.sessionId);
+            }
             Packet response = publishEventAndCreateResponse(traceId, actionType, commonAttrs, accountingRequest);
+            // Only now that it is queued: a request that failed before is unACKed and must get through on retransmit
+            deduplicator.record(accountingRequest);
             logger.infof("complete process account in %d ms", System.currentTimeMillis() - start );
             return response;
         } catch (Exception e) {
@@ -80,160 +116,136 @@ public class RadiusAccountingHandler implements RadiusServer.Handler {
     }
 
     /**
-     * Optimized attribute extraction - minimizes Optional overhead and allocations
+     * Publishes the usage held back from coalesced interims before the server goes away, since
+     * a restarted server starts with an empty session table.
      */
-    private CommonAttributes extractCommonAttributes(Packet packet, InetAddress clientAddress) {
-        // Pre-compute client address string to avoid repeated calls
-        String clientAddressStr = clientAddress.getHostAddress();
-
-        // Extract session ID (required attribute, fast path)
-        String sessionId = packet.getAttribute(AcctSessionId.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(null);
-
-        // Extract NAS IP with fallback to client address
-        String nasIp = packet.getAttribute(NasIpAddress.class)
-                .map(attr -> attr.getData().getValue().getHostAddress())
-                .orElse(clientAddressStr);
-
-        // Extract username (required for accounting)
-        String userName = packet.getAttribute(UserName.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(null);
-
-        // Extract optional port identification attributes
-        String nasPortId = packet.getAttribute(NasPortId.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(null);
+    void onShutdown(@Observes ShutdownEvent event) {
+        List<AccountingEvent> heldBack = sessionRegistry.drainHeldBackUsage();
+        if (!heldBack.isEmpty()) {
+            logger.infof("Publishing %d held-back interim update(s) before shutdown", heldBack.size());
+            heldBack.forEach(update -> publish(null, update));
+        }
+    }
 
-        String nasIdentifier = packet.getAttribute(NasIdentifier.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(null);
+    /**
+     * Async entry point for the event-loop engine. Accounting already acknowledges without
+     * waiting for Kafka, so the packet is handled inline on the calling event loop.
+     */
+    @Override
+    public CompletionStage<Packet> handlePacketAsync(InetAddress clientAddress, Packet packet) {
+        return CompletableFuture.completedFuture(handlePacket(clientAddress, packet));
+    }
 
-        Integer nasPortType = packet.getAttribute(NasPortType.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(null);
+    /**
+     * Reads the attributes every accounting packet carries from the packet's index
+     */
+    private CommonAttributes extractCommonAttributes(AttributeIndex attributes, InetAddress clientAddress) {
+        String clientAddressStr = clientAddress.getHostAddress();
 
-        // Extract timing attributes with sensible defaults
-        int delayTime = packet.getAttribute(AcctDelayTime.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(0);
+        // NAS IP falls back to the client address
+        InetAddress nasIpAddress = attributes.address(AttributeIndex.NAS_IP_ADDRESS);
+        String nasIp = nasIpAddress != null ? nasIpAddress.getHostAddress() : clientAddressStr;
 
-        Instant eventTime = packet.getAttribute(EventTimestamp.class)
-                .map(attr -> attr.getData().getValue())
-                .orElse(Instant.now());
+        int nasPortType = attributes.integer(AttributeIndex.NAS_PORT_TYPE, -1);
+        int delayTime = attributes.integer(AttributeIndex.ACCT_DELAY_TIME, 0);
+        Instant eventTime = attributes.time(AttributeIndex.EVENT_TIMESTAMP, null);
+        Instant arrival = Instant.now();
 
         return new CommonAttributes(
                 clientAddressStr,
-                sessionId,
+                attributes.text(AttributeIndex.ACCT_SESSION_ID, null),
                 nasIp,
-                userName,
-                nasPortId,
-                nasIdentifier,
-                nasPortType,
+                attributes.text(AttributeIndex.USER_NAME, null),
+                attributes.text(AttributeIndex.NAS_PORT_ID, null),
+                attributes.text(AttributeIndex.NAS_IDENTIFIER, null),
+                nasPortType >= 0 ? nasPortType : null,
                 delayTime,
-                eventTime
+                eventTime != null ? eventTime : arrival,
+                // The NAS keeps Event-Timestamp on retransmits and only raises Acct-Delay-Time
+                EventIdGenerator.originSeconds(eventTime, delayTime, arrival)
         );
     }
 
     /**
      * Build START accounting request with START-specific attributes
      */
-    private AccountingRequestDto buildStartRequest(String traceId, CommonAttributes common, Packet packet) {
-        var framedIpAttr = packet.getAttribute(FramedIpAddress.class).orElse(null);
-        String framedIp = framedIpAttr != null ? framedIpAttr.getData().getValue().getHostAddress() : null;
-
-        return new AccountingRequestDto(
-                traceId,
-                common.sessionId,
-                common.nasIp,
-                common.userName,
-                AccountingRequestDto.ActionType.START,
-                0,  // inputOctets - not present in START
-                0,  // outputOctets - not present in START
-                0,  // sessionTime - not present in START
-                common.eventTime,
-                common.nasPortId,
-                framedIp,
-                common.delayTime,
-                0,  // inputGigaWords - not present in START
-                0,   // outputGigaWords - not present in START
-                common.nasIdentifier
-        );
+    private AccountingEvent buildStartRequest(CommonAttributes common, AttributeIndex attributes) {
+        // Counters and gigawords are not present in START
+        return buildEvent(common, AccountingRequestDto.ActionType.START, 0, 0, 0, framedIp(attributes), 0, 0);
     }
 
     /**
      * Build INTERIM accounting request with INTERIM-specific attributes (usage data)
      */
-    private AccountingRequestDto buildInterimRequest(String traceId, CommonAttributes common, Packet packet) {
-        var framedIpAttr = packet.getAttribute(FramedIpAddress.class).orElse(null);
-        String framedIp = framedIpAttr != null ? framedIpAttr.getData().getValue().getHostAddress() : null;
-
-        var inputOctetsAttr = packet.getAttribute(AcctInputOctets.class).orElse(null);
-        int inputOctets = inputOctetsAttr != null ? inputOctetsAttr.getData().getValue() : 0;
-
-        var outputOctetsAttr = packet.getAttribute(AcctOutputOctets.class).orElse(null);
-        int outputOctets = outputOctetsAttr != null ? outputOctetsAttr.getData().getValue() : 0;
-
-        var sessionTimeAttr = packet.getAttribute(AcctSessionTime.class).orElse(null);
-        int sessionTime = sessionTimeAttr != null ? sessionTimeAttr.getData().getValue() : 0;
-
-        var inputGigaWordsAttr = packet.getAttribute(AcctInputGigawords.class).orElse(null);
-        int inputGigaWords = inputGigaWordsAttr != null ? inputGigaWordsAttr.getData().getValue() : 0;
+    private AccountingEvent buildInterimRequest(CommonAttributes common, AttributeIndex attributes) {
+        return buildEvent(common, AccountingRequestDto.ActionType.INTERIM_UPDATE,
+                attributes.integer(AttributeIndex.ACCT_INPUT_OCTETS, 0),
+                attributes.integer(AttributeIndex.ACCT_OUTPUT_OCTETS, 0),
+                attributes.integer(AttributeIndex.ACCT_SESSION_TIME, 0),
+                framedIp(attributes),
+                attributes.integer(AttributeIndex.ACCT_INPUT_GIGAWORDS, 0),
+                attributes.integer(AttributeIndex.ACCT_OUTPUT_GIGAWORDS, 0));
+    }
 
-        var outputGigaWordsAttr = packet.getAttribute(AcctOutputGigawords.class).orElse(null);
-        int outputGigaWords = outputGigaWordsAttr != null ? outputGigaWordsAttr.getData().getValue() : 0;
+    /**
+     * Build STOP accounting request with STOP-specific attributes
+     */
+    private AccountingEvent buildStopRequest(CommonAttributes common, AttributeIndex attributes) {
+        return buildEvent(common, AccountingRequestDto.ActionType.STOP,
+                attributes.integer(AttributeIndex.ACCT_INPUT_OCTETS, 0),
+                attributes.integer(AttributeIndex.ACCT_OUTPUT_OCTETS, 0),
+                attributes.integer(AttributeIndex.ACCT_SESSION_TIME, 0),
+                null,  // framedIp - not always present in STOP
+                attributes.integer(AttributeIndex.ACCT_INPUT_GIGAWORDS, 0),
+                attributes.integer(AttributeIndex.ACCT_OUTPUT_GIGAWORDS, 0));
+    }
 
-        return new AccountingRequestDto(
-                traceId,
-                common.sessionId,
+    /**
+     * Build the single event standing for all sessions of a NAS on Accounting-On/Off. The
+     * Acct-Session-Id of these packets names no user session, so the event leaves it out, but
+     * it still goes into the id: with the origin it tells one reboot of the NAS from the next.
+     */
+    private AccountingEvent buildNasResetRequest(CommonAttributes common, AccountingRequestDto.ActionType actionType) {
+        return new AccountingEvent(
+                EventIdGenerator.eventId(common.nasIp, common.sessionId, actionType, 0, 0, 0, common.originSeconds),
+                null,
                 common.nasIp,
-                common.userName,
-                AccountingRequestDto.ActionType.INTERIM_UPDATE,
-                inputOctets,
-                outputOctets,
-                sessionTime,
+                null,
+                actionType,
+                0,
+                0,
+                0,
                 common.eventTime,
-                common.nasPortId,
-                framedIp,
+                null,
+                null,
                 common.delayTime,
-                inputGigaWords,
-                outputGigaWords,
+                0,
+                0,
                 common.nasIdentifier
         );
     }
 
     /**
-     * Build STOP accounting request with STOP-specific attributes
+     * Event of one session, with its id derived from the content so a retransmit gets the same one
      */
-    private AccountingRequestDto buildStopRequest(String traceId, CommonAttributes common, Packet packet) {
-        var inputOctetsAttr = packet.getAttribute(AcctInputOctets.class).orElse(null);
-        int inputOctets = inputOctetsAttr != null ? inputOctetsAttr.getData().getValue() : 0;
-
-        var outputOctetsAttr = packet.getAttribute(AcctOutputOctets.class).orElse(null);
-        int outputOctets = outputOctetsAttr != null ? outputOctetsAttr.getData().getValue() : 0;
-
-        var sessionTimeAttr = packet.getAttribute(AcctSessionTime.class).orElse(null);
-        int sessionTime = sessionTimeAttr != null ? sessionTimeAttr.getData().getValue() : 0;
-
-        var inputGigaWordsAttr = packet.getAttribute(AcctInputGigawords.class).orElse(null);
-        int inputGigaWords = inputGigaWordsAttr != null ? inputGigaWordsAttr.getData().getValue() : 0;
-
-        var outputGigaWordsAttr = packet.getAttribute(AcctOutputGigawords.class).orElse(null);
-        int outputGigaWords = outputGigaWordsAttr != null ? outputGigaWordsAttr.getData().getValue() : 0;
-
-        return new AccountingRequestDto(
-                traceId,
+    private static AccountingEvent buildEvent(CommonAttributes common, AccountingRequestDto.ActionType actionType,
+                                              int inputOctets, int outputOctets, int sessionTime, String framedIp,
+                                              int inputGigaWords, int outputGigaWords) {
+        String eventId = EventIdGenerator.eventId(common.nasIp, common.sessionId, actionType,
+                AccountingEvent.total(inputGigaWords, inputOctets), AccountingEvent.total(outputGigaWords, outputOctets),
+                sessionTime, common.originSeconds);
+        return new AccountingEvent(
+                eventId,
                 common.sessionId,
                 common.nasIp,
                 common.userName,
-                AccountingRequestDto.ActionType.STOP,
+                actionType,
                 inputOctets,
                 outputOctets,
                 sessionTime,
                 common.eventTime,
                 common.nasPortId,
-                null,  // framedIp - not always present in STOP
+                framedIp,
                 common.delayTime,
                 inputGigaWords,
                 outputGigaWords,
@@ -241,13 +253,18 @@ public class RadiusAccountingHandler implements RadiusServer.Handler {
         );
     }
 
-    private AccountingRequestDto.ActionType determineActionType(AcctStatusType statusType) {
-        int statusValue = statusType.getData().getValue();
+    private static String framedIp(AttributeIndex attributes) {
+        InetAddress framedIp = attributes.address(AttributeIndex.FRAMED_IP_ADDRESS);
+        return framedIp != null ? framedIp.getHostAddress() : null;
+    }
 
+    private AccountingRequestDto.ActionType determineActionType(int statusValue) {
         return switch (statusValue) {
             case 1 -> AccountingRequestDto.ActionType.START;
             case 2 -> AccountingRequestDto.ActionType.STOP;
             case 3 -> AccountingRequestDto.ActionType.INTERIM_UPDATE;
+            case 7 -> AccountingRequestDto.ActionType.ACCOUNTING_ON;
+            case 8 -> AccountingRequestDto.ActionType.ACCOUNTING_OFF;
             default -> {
                 logger.warnf("Unknown Acct-Status-Type: %d, treating as START", statusValue);
                 yield AccountingRequestDto.ActionType.START;
@@ -260,18 +277,27 @@ public class RadiusAccountingHandler implements RadiusServer.Handler {
      * Fire-and-forget pattern - Kafka publish happens in background without blocking.
      */
     private Packet publishEventAndCreateResponse(String traceId, AccountingRequestDto.ActionType actionType,
-                                                  CommonAttributes commonAttrs, AccountingRequestDto accountingRequest) {
+                                                  CommonAttributes commonAttrs, AccountingEvent accountingRequest) {
+
+        publish(traceId, accountingRequest);
+        return createAccountingResponse(commonAttrs.sessionId);
+    }
 
-        radiusAccountingProducer.produceAccountingEvent(accountingRequest)
+    private void publish(String traceId, AccountingEvent event) {
+        radiusAccountingProducer.produceAccountingEvent(event)
                 .whenComplete((result, throwable) -> {
-                    if (throwable != null) {
-                        logger.errorf(throwable, "[TraceId : %s] Async accounting event publish failed for session %s",
-                                traceId, commonAttrs.sessionId);
+                    if (throwable == null) {
+                        return;
                     }
+                    if (throwable instanceof RejectedExecutionException
+                            && event.actionType() == AccountingRequestDto.ActionType.INTERIM_UPDATE) {
+                        // Shed under load by design and counted on accounting.publish.shed
+                        logger.debugf("[TraceId : %s] Interim update shed for session %s", traceId, event.sessionId());
+                        return;
+                    }
+                    logger.errorf(throwable, "[TraceId : %s] Async accounting event publish failed for session %s",
+                            traceId, event.sessionId());
                 });
-
-
-        return createAccountingResponse(commonAttrs.sessionId);
     }
 
     private AccountingResponse createAccountingResponse(String sessionId) {
@@ -289,6 +315,7 @@ public class RadiusAccountingHandler implements RadiusServer.Handler {
          * Inner class to hold common attributes extracted from all accounting packets
          */
         private record CommonAttributes(String clientAddress, String sessionId, String nasIp, String userName,
-                                        String nasPortId, String nasIdentifier, Integer nasPortType, int delayTime,Instant eventTime) {
+                                        String nasPortId, String nasIdentifier, Integer nasPortType, int delayTime,Instant eventTime,
+                                        long originSeconds) {
     }
 }
\ No newline at end of file
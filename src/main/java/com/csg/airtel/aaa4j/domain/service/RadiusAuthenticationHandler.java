@@ -1,21 +1,20 @@
 package com.csg.airtel.aaa4j.domain.service;
 
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
 import com.csg.airtel.aaa4j.common.constant.AuthServiceConstants;
 import com.csg.airtel.aaa4j.common.util.TraceIdGenerator;
-import com.csg.airtel.aaa4j.domain.dictionary.NokiaDictionary;
 import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.reply.ReplyTemplateCache;
 import com.csg.airtel.aaa4j.external.client.AuthManagementServiceClient;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.aaa4j.radius.core.attribute.Attribute;
-import org.aaa4j.radius.core.attribute.IntegerData;
 import org.aaa4j.radius.core.attribute.TextData;
 import org.aaa4j.radius.core.attribute.attributes.*;
 import org.aaa4j.radius.core.packet.Packet;
-import org.aaa4j.radius.core.packet.packets.AccessAccept;
 import org.aaa4j.radius.core.packet.packets.AccessReject;
 import org.aaa4j.radius.core.packet.packets.AccessRequest;
 import org.aaa4j.radius.server.RadiusServer;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import org.slf4j.MDC;
 
@@ -25,23 +24,45 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @ApplicationScoped
-public class RadiusAuthenticationHandler implements RadiusServer.Handler {
+public class RadiusAuthenticationHandler implements RadiusServer.Handler, AsyncRadiusHandler {
     private static final Logger logger = Logger.getLogger(RadiusAuthenticationHandler.class);
 
-    @ConfigProperty(name = "radius.shared-secret")
-    String sharedSecret;
+    private static final String MSG_INTERNAL_ERROR = "Internal server error occurred. Please try again later.";
 
     final AuthManagementServiceClient authManagementServiceClient;
-
-    public RadiusAuthenticationHandler(AuthManagementServiceClient authManagementServiceClient) {
+    final NasClientRegistry nasClientRegistry;
+    final LocalCredentialVerifier localCredentialVerifier;
+    final ReplyTemplateCache replyTemplateCache;
+
+    /**
+     * Backend deadline: the NAS keeps accepting a reply until its last retransmit times out,
+     * less a safety margin for the reply to get back. It runs from packet arrival and is shared
+     * by local verification and the auth service call, each getting only the time left.
+     */
+    final Duration backendDeadline;
+
+    public RadiusAuthenticationHandler(AuthManagementServiceClient authManagementServiceClient,
+                                       NasClientRegistry nasClientRegistry, RadiusServerConfig config,
+                                       LocalCredentialVerifier localCredentialVerifier,
+                                       ReplyTemplateCache replyTemplateCache) {
         this.authManagementServiceClient = authManagementServiceClient;
+        this.nasClientRegistry = nasClientRegistry;
+        this.localCredentialVerifier = localCredentialVerifier;
+        this.replyTemplateCache = replyTemplateCache;
+        RadiusServerConfig.AuthConfig authConfig = config.auth();
+        long budgetMs = (long) authConfig.nasTimeoutMs() * (authConfig.nasRetransmits() + 1);
+        this.backendDeadline = Duration.ofMillis(Math.max(1, budgetMs - authConfig.backendDeadlineMarginMs()));
     }
 
     @Override
     public byte[] handleClient(InetAddress clientAddress) {
-        return sharedSecret.getBytes(StandardCharsets.UTF_8);
+        return nasClientRegistry.secretFor(clientAddress);
     }
 
     @Override
@@ -50,6 +71,7 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
         MDC.put(AuthServiceConstants.TRACE_ID, traceId);
 
         Instant startTime = Instant.now();
+        long deadlineNanos = System.nanoTime() + backendDeadline.toNanos();
         logger.infof("[%s] [RADIUS_TIMING] [AUTHENTICATION] Request started at: %s", traceId, startTime);
 
         try {
@@ -61,7 +83,7 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
                 return null;
             }
 
-            return handleAccessRequest(traceId, (AccessRequest) requestPacket);
+            return handleAccessRequest(traceId, (AccessRequest) requestPacket, deadlineNanos);
 
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
@@ -70,7 +92,7 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
 
         } catch (Exception e) {
             logger.errorf("[%s] Error while processing packet: %s", traceId, e.getMessage(), e);
-            return buildAccessReject("Internal server error occurred. Please try again later.");
+            return buildAccessReject(MSG_INTERNAL_ERROR);
         } finally {
             Instant endTime = Instant.now();
             long durationMs = Duration.between(startTime, endTime).toMillis();
@@ -81,30 +103,195 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
         }
     }
 
+    /**
+     * Async entry point for the event-loop engine. Validation runs inline and the backend call
+     * is composed on rather than waited for, so no thread is held while the backend answers.
+     * If the deadline passes the stage completes with {@code null}: the NAS has stopped
+     * retransmitting and a late reply would be discarded anyway.
+     */
+    @Override
+    public CompletionStage<Packet> handlePacketAsync(InetAddress clientAddress, Packet requestPacket) {
+        String traceId = TraceIdGenerator.generateTraceId();
+        MDC.put(AuthServiceConstants.TRACE_ID, traceId);
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + backendDeadline.toNanos();
+
+        try {
+            logPacketReceived(traceId, clientAddress, requestPacket);
+
+            if (!(requestPacket instanceof AccessRequest accessRequest)) {
+                logger.warnf("[%s] Unsupported packet type received: %s", traceId, requestPacket.getClass().getSimpleName());
+                return CompletableFuture.completedFuture(null);
+            }
+
+            Packet rejection = validateAccessRequest(traceId, accessRequest);
+            if (rejection != null) {
+                return CompletableFuture.completedFuture(rejection);
+            }
+
+            Credentials credentials = extractCredentials(accessRequest);
+            logger.infof("[%s] Authentication request for user: %s", traceId, credentials.username());
+
+            return authenticateAsync(traceId, credentials, deadlineNanos)
+                    .map(userDetails -> buildAuthenticationResponse(traceId, credentials.username(), userDetails))
+                    .onFailure().recoverWithItem(throwable -> {
+                        if (throwable instanceof TimeoutException) {
+                            logger.warnf("[%s] Auth backend exceeded %d ms deadline, not answering",
+                                    traceId, backendDeadline.toMillis());
+                            return null;
+                        }
+                        logger.errorf("[%s] Error while processing packet: %s", traceId, throwable.getMessage(), throwable);
+                        return buildAccessReject(MSG_INTERNAL_ERROR);
+                    })
+                    .onTermination().invoke(() -> logger.infof("[%s] [RADIUS_TIMING] [AUTHENTICATION] Duration: %d ms",
+                            traceId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)))
+                    .subscribeAsCompletionStage();
+        } catch (Exception e) {
+            logger.errorf("[%s] Error while processing packet: %s", traceId, e.getMessage(), e);
+            return CompletableFuture.completedFuture(buildAccessReject(MSG_INTERNAL_ERROR));
+        } finally {
+            MDC.remove(AuthServiceConstants.TRACE_ID);
+            MDC.remove(AuthServiceConstants.PARAM_USER_NAME);
+        }
+    }
+
     private void logPacketReceived(String traceId, InetAddress clientAddress, Packet packet) {
         logger.infof("[%s] Received packet from %s: %s",
                 traceId, clientAddress.getHostAddress(), packet.getClass().getSimpleName());
     }
 
-    private Packet handleAccessRequest(String traceId, AccessRequest requestPacket) throws InterruptedException {
+    private Packet handleAccessRequest(String traceId, AccessRequest requestPacket, long deadlineNanos)
+            throws InterruptedException {
+        Packet rejection = validateAccessRequest(traceId, requestPacket);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        Credentials credentials = extractCredentials(requestPacket);
+        logger.infof("[%s] Authentication request for user: %s", traceId, credentials.username());
+
+        UserDetails userDetails = null;
+        if (localCredentialVerifier.enabled()) {
+            Duration remaining = remaining(deadlineNanos);
+            if (remaining != null) {
+                userDetails = verifyLocally(traceId, credentials)
+                        .ifNoItem().after(remaining).recoverWithItem((UserDetails) null)
+                        .await().indefinitely();
+            }
+        }
+        if (userDetails == null) {
+            Duration remaining = remaining(deadlineNanos);
+            if (remaining == null) {
+                logger.warnf("[%s] Auth deadline of %d ms passed before the auth service call, not answering",
+                        traceId, backendDeadline.toMillis());
+                return null;
+            }
+            userDetails = authManagementServiceClient.authenticate(credentials.username(), credentials.password(),
+                    credentials.chapChallenge(), credentials.chapPassword(), credentials.nasIpAddress(), remaining);
+            if (userDetails == null) {
+                logger.warnf("[%s] Auth backend exceeded %d ms deadline, not answering",
+                        traceId, backendDeadline.toMillis());
+                return null;
+            }
+        }
+        return buildAuthenticationResponse(traceId, credentials.username(), userDetails);
+    }
+
+    /**
+     * Verifies in-process when possible, otherwise asks the auth service with whatever time
+     * local verification left.
+     */
+    private Uni<UserDetails> authenticateAsync(String traceId, Credentials credentials, long deadlineNanos) {
+        if (!localCredentialVerifier.enabled()) {
+            return callAuthService(credentials, deadlineNanos);
+        }
+        Duration remaining = remaining(deadlineNanos);
+        if (remaining == null) {
+            return deadlinePassed();
+        }
+        return verifyLocally(traceId, credentials)
+                .ifNoItem().after(remaining).failWith(this::deadlineExceeded)
+                .onItem().ifNull().switchTo(() -> callAuthService(credentials, deadlineNanos));
+    }
+
+    private Uni<UserDetails> callAuthService(Credentials credentials, long deadlineNanos) {
+        Duration remaining = remaining(deadlineNanos);
+        if (remaining == null) {
+            return deadlinePassed();
+        }
+        return authManagementServiceClient.authenticateAsync(credentials.username(), credentials.password(),
+                credentials.chapChallenge(), credentials.chapPassword(), credentials.nasIpAddress(), remaining);
+    }
+
+    /**
+     * Time left until the deadline, or {@code null} once it has passed.
+     */
+    private static Duration remaining(long deadlineNanos) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return remainingMs > 0 ? Duration.ofMillis(remainingMs) : null;
+    }
+
+    private Uni<UserDetails> deadlinePassed() {
+        return Uni.createFrom().failure(deadlineExceeded());
+    }
+
+    private TimeoutException deadlineExceeded() {
+        return new TimeoutException(String.format("Auth deadline of %d ms passed", backendDeadline.toMillis()));
+    }
+
+    /**
+     * Completes with {@code null} when the credentials cannot be verified locally, including
+     * when the credential fetch fails.
+     */
+    private Uni<UserDetails> verifyLocally(String traceId, Credentials credentials) {
+        return localCredentialVerifier.authenticate(credentials.username(), credentials.rawPassword(),
+                        credentials.rawChapPassword(), credentials.rawChapChallenge())
+                .onFailure().recoverWithItem(throwable -> {
+                    logger.warnf("[%s] Local credential check unavailable, asking auth service: %s",
+                            traceId, throwable.getMessage());
+                    return null;
+                })
+                .invoke(userDetails -> {
+                    if (userDetails != null) {
+                        logger.debugf("[%s] Credentials verified in-process for user: %s", traceId, credentials.username());
+                    }
+                });
+    }
+
+    /**
+     * Returns an Access-Reject for a request that cannot be authenticated, or {@code null} if it is valid.
+     */
+    private Packet validateAccessRequest(String traceId, AccessRequest requestPacket) {
         if (isMissingMessageAuthenticator(requestPacket)) {
             logger.warnf("[%s] Rejecting request without Message-Authenticator", traceId);
             return buildAccessReject("Missing Message-Authenticator");
         }
 
-        Optional<UserName> userNameAttr = requestPacket.getAttribute(UserName.class);
-        Optional<ChapChallenge> chapChallengeAttribute = requestPacket.getAttribute(ChapChallenge.class);
-        Optional<ChapPassword> chapPasswordAttribute = requestPacket.getAttribute(ChapPassword.class);
-        Optional<NasIpAddress> nasIpAddressAttribute = requestPacket.getAttribute(NasIpAddress.class);
-
-        if (userNameAttr.isEmpty()) {
+        if (requestPacket.getAttribute(UserName.class).isEmpty()) {
             logger.warnf("[%s] Missing required attributes in request", traceId);
             return buildAccessReject("Missing required attributes");
         }
+        return null;
+    }
 
-        String username = userNameAttr.get().getData().getValue();
+    private Credentials extractCredentials(AccessRequest requestPacket) {
+        String username = requestPacket.getAttribute(UserName.class).orElseThrow().getData().getValue();
         MDC.put(AuthServiceConstants.PARAM_USER_NAME, username);
 
+        Optional<ChapChallenge> chapChallengeAttribute = requestPacket.getAttribute(ChapChallenge.class);
+        Optional<ChapPassword> chapPasswordAttribute = requestPacket.getAttribute(ChapPassword.class);
+        Optional<NasIpAddress> nasIpAddressAttribute = requestPacket.getAttribute(NasIpAddress.class);
+
+        byte[] rawPassword = requestPacket.getAttribute(UserPassword.class)
+                .map(attr -> attr.getData().getValue())
+                .orElse(null);
+        byte[] rawChapPassword = chapPasswordAttribute.map(attr -> attr.getData().getValue()).orElse(null);
+        // RFC 2865: without a CHAP-Challenge attribute the Request Authenticator is the challenge
+        byte[] rawChapChallenge = chapChallengeAttribute.map(attr -> attr.getData().getValue())
+                .orElseGet(() -> requestPacket.getReceivedFields() != null
+                        ? requestPacket.getReceivedFields().getAuthenticator()
+                        : null);
+
         String password = extractUserPassword(requestPacket);
         String chapChallenge = chapChallengeAttribute.map(attr -> bytesToHex(attr.getData().getValue())).orElse(null);
         String chapPassword = chapPasswordAttribute.map(attr -> bytesToHex(attr.getData().getValue())).orElse(null);
@@ -112,14 +299,11 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
                 .map(attr -> ((Inet4Address) attr.getData().getValue()).getHostAddress())
                 .orElse(null);
 
-        logger.infof("[%s] Authentication request for user: %s", traceId, username);
-        return authenticateUser(traceId, username, password, chapChallenge, chapPassword, nasIpAddress);
+        return new Credentials(username, password, chapChallenge, chapPassword, nasIpAddress,
+                rawPassword, rawChapPassword, rawChapChallenge);
     }
 
-    private Packet authenticateUser(String traceId, String username, String password,
-                                    String chapChallenge, String chapPassword, String nasIpAddress) throws InterruptedException {
-
-        UserDetails userDetails = authManagementServiceClient.authenticate(username, password, chapChallenge, chapPassword, nasIpAddress);
+    private Packet buildAuthenticationResponse(String traceId, String username, UserDetails userDetails) {
         logger.infof("[%s] Authorization result for user '%s': %s", traceId, username, userDetails.getIsAuthorized());
 
         if (!userDetails.getIsEnoughBalance()) {
@@ -159,31 +343,7 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
     }
 
     private Packet buildAccessAccept(UserDetails userDetails) {
-        List<Attribute<?>> attributes = new ArrayList<>();
-        attributes.add(new MessageAuthenticator());
-        attributes.add(new ReplyMessage(new TextData("Welcome, " + userDetails.getUsername() + "!")));
-        attributes.add(new UserName(new TextData(userDetails.getUsername())));
-
-        if (userDetails.getAttributes() != null) {
-            userDetails.getAttributes().forEach((key, value) -> {
-                switch (key.toUpperCase()) {
-                    case "SESSION_TIMEOUT":
-                        attributes.add(new SessionTimeout(new IntegerData(Integer.parseInt(value))));
-                        break;
-                    case "IDLE_TIMEOUT":
-                        attributes.add(new IdleTimeout(new IntegerData(Integer.parseInt(value))));
-                        break;
-                    default:
-                        break;
-                }
-            });
-        }
-        // Add Nokia vendor-specific attribute
-        if (userDetails.getRule() != null) {
-            attributes.add(NokiaDictionary.createAlcSubscProfStr(userDetails.getRule()));
-        }
-
-        return new AccessAccept(attributes);
+        return replyTemplateCache.accept(userDetails);
     }
 
     private static String bytesToHex(byte[] bytes) {
@@ -193,4 +353,9 @@ public class RadiusAuthenticationHandler implements RadiusServer.Handler {
         }
         return sb.toString();
     }
+
+    private record Credentials(String username, String password, String chapChallenge, String chapPassword,
+                               String nasIpAddress, byte[] rawPassword, byte[] rawChapPassword,
+                               byte[] rawChapChallenge) {
+    }
 }
\ No newline at end of file
@@ -1,12 +1,10 @@
 package com.csg.airtel.aaa4j.domain.service;
 
 import com.csg.airtel.aaa4j.domain.model.RadiusConfig;
+import com.csg.airtel.aaa4j.external.coa.CoaClientPool;
 import io.smallrye.mutiny.Uni;
-import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.aaa4j.radius.client.RadiusClient;
-import org.aaa4j.radius.client.RadiusClientException;
-import org.aaa4j.radius.client.clients.UdpRadiusClient;
+import jakarta.inject.Inject;
 import org.aaa4j.radius.core.attribute.Attribute;
 import org.aaa4j.radius.core.packet.Packet;
 import org.jboss.logging.Logger;
@@ -20,11 +18,21 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class RadiusClientService {
     private static final Logger logger = Logger.getLogger(RadiusClientService.class);
 
+    private static final int DISCONNECT_ACK = 41;
+    private static final int DISCONNECT_NAK = 42;
     private static final int COA_ACK = 44;
     private static final int COA_NAK = 45;
 
+    private final CoaClientPool coaClientPool;
+
+    @Inject
+    public RadiusClientService(CoaClientPool coaClientPool) {
+        this.coaClientPool = coaClientPool;
+    }
+
     /**
-     * Sends a COA (Change of Authorization) request to a RADIUS server reactively
+     * Sends a COA (Change of Authorization) or Disconnect request to a RADIUS server reactively,
+     * through the pooled client of that address; nothing blocks while the response is awaited
      *
      * @param attributes The list of RADIUS attributes
      * @param code The RADIUS packet code
@@ -35,47 +43,22 @@ public class RadiusClientService {
         logger.infof("Initiating COA request to RADIUS server at %s:%d",
                 radiusConfig.serverAddress(), radiusConfig.port());
 
-        return Uni.createFrom().item(() -> createRadiusClient(radiusConfig))
-                .chain(radiusClient -> sendCoaRequest(radiusClient, attributes, code))
+        return send(attributes, code, radiusConfig)
                 .chain(this::processResponse)
-                .onFailure(RadiusClientException.class)
-                .invoke(e -> logger.error("RADIUS client error while sending COA request", e))
                 .onFailure()
-                .invoke(e -> logger.error("Unexpected error during COA request", e))
+                .invoke(e -> logger.error("Error during COA request", e))
                 .replaceWithVoid();
     }
 
     /**
-     * Creates a RADIUS client with the given configuration
-     */
-    private RadiusClient createRadiusClient(RadiusConfig radiusConfig) {
-        return UdpRadiusClient.newBuilder()
-                .secret(radiusConfig.sharedSecret().getBytes(UTF_8))
-                .address(new InetSocketAddress(radiusConfig.serverAddress(), radiusConfig.port()))
-                .build();
-    }
-
-    /**
-     * Sends the COA request reactively
+     * Sends the request and returns the NAS's response packet, ACK or NAK
      */
-    private Uni<Packet> sendCoaRequest(RadiusClient radiusClient, List<Attribute<?>> attributes, int code) {
-        return Uni.createFrom().item(() -> {
-                    logger.infof("Processing for code: %s", code);
-                    Packet coaRequest = new Packet(code, attributes);
-                    logger.infof("Sending packet  with %s attributes", attributes.size());
-                    return coaRequest;
-                })
-                .chain(coaRequest ->
-                        Uni.createFrom().item(() -> {
-                            try {
-                                return radiusClient.send(coaRequest);
-                            } catch (RadiusClientException e) {
-                                logger.error("RADIUS client error while sending packet", e);
-                            }
-                            return null;
-                        })
-                )
-                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool()); // Execute blocking I/O on worker thread
+    public Uni<Packet> send(List<Attribute<?>> attributes, int code, RadiusConfig radiusConfig) {
+        return Uni.createFrom().deferred(() -> {
+            logger.debugf("Sending packet with code %d and %d attributes", code, attributes.size());
+            return coaClientPool.send(new InetSocketAddress(radiusConfig.serverAddress(), radiusConfig.port()),
+                    radiusConfig.sharedSecret().getBytes(UTF_8), new Packet(code, attributes));
+        });
     }
 
     /**
@@ -93,9 +76,9 @@ public class RadiusClientService {
                     logger.infof("Received RADIUS response with code: %d", responseCode);
 
                     switch (responseCode) {
-                        case COA_ACK ->
+                        case COA_ACK, DISCONNECT_ACK ->
                                 logger.info("COA request acknowledged successfully");
-                        case COA_NAK ->
+                        case COA_NAK, DISCONNECT_NAK ->
                                 logger.warn("COA request rejected by RADIUS server");
                         default ->
                                 logger.warnf("Unexpected response code: %d", responseCode);
@@ -1,7 +1,11 @@
 package com.csg.airtel.aaa4j.domain.service;
 
 import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
 import com.csg.airtel.aaa4j.domain.model.RadiusConfig;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -17,12 +21,16 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @ApplicationScoped
 public class ResponseHandler {
 
     private static final Logger log = Logger.getLogger(ResponseHandler.class);
 
     private final RadiusClientService radiusClientService;
+    private final SessionRegistry sessionRegistry;
+    private final NasClientRegistry nasClientRegistry;
 
     @ConfigProperty(name = "client.address")
     String serverAddress;
@@ -37,9 +45,12 @@ public class ResponseHandler {
     String sharedSecret;
 
     @Inject
-    public ResponseHandler(RadiusClientService radiusClientService) {
+    public ResponseHandler(RadiusClientService radiusClientService, SessionRegistry sessionRegistry,
+                           NasClientRegistry nasClientRegistry) {
         this.radiusClientService = Objects.requireNonNull(radiusClientService,
                 "radiusClientService cannot be null");
+        this.sessionRegistry = Objects.requireNonNull(sessionRegistry, "sessionRegistry cannot be null");
+        this.nasClientRegistry = Objects.requireNonNull(nasClientRegistry, "nasClientRegistry cannot be null");
         log.info("AccountResponseHandler initialized");
     }
 
@@ -73,10 +84,12 @@ public class ResponseHandler {
             log.infof("Initiating COA Disconnect request for sessionId: %s",
                     responseEvent.sessionId());
 
+            Map<String, String> qosParameters = responseEvent.qosParameters();
+            UserSession session = findSession(qosParameters);
             return radiusClientService.initiate(
-                    buildAttributes(responseEvent.qosParameters()),
+                    buildAttributes(session != null ? withSessionContext(qosParameters, session) : qosParameters),
                     40,
-                    new RadiusConfig(serverAddress, coaPort, sharedSecret)
+                    coaTarget(session)
             );
         } else {
             log.debug("COA action is FUP Apply, COA request");
@@ -102,6 +115,72 @@ public class ResponseHandler {
         return Uni.createFrom().voidItem();
     }
 
+    /**
+     * The active session of a disconnect that only names the user, when the user holds
+     * exactly one; otherwise {@code null}.
+     */
+    private UserSession findSession(Map<String, String> qosParameters) {
+        String username = parameter(qosParameters, "username");
+        if (username == null || parameter(qosParameters, "sessionId") != null) {
+            return null;
+        }
+        List<UserSession> sessions = sessionRegistry.findByUsername(username);
+        if (sessions.size() != 1) {
+            if (sessions.size() > 1) {
+                log.warnf("User %s holds %d active sessions, disconnect is sent without a session id",
+                        username, sessions.size());
+            }
+            return null;
+        }
+        return sessions.get(0);
+    }
+
+    /**
+     * Fills in the session id, NAS IP and Framed-IP of the disconnect from its session.
+     */
+    private Map<String, String> withSessionContext(Map<String, String> qosParameters, UserSession session) {
+        Map<String, String> enriched = new LinkedHashMap<>(qosParameters);
+        enriched.put("sessionId", session.getSessionId());
+        if (parameter(qosParameters, "nasIP") == null) {
+            enriched.put("nasIP", session.getNasIP());
+        }
+        if (parameter(qosParameters, "framedIP") == null && session.getFramedIPAddress() != null) {
+            enriched.put("framedIP", session.getFramedIPAddress());
+        }
+        return enriched;
+    }
+
+    /**
+     * The NAS serving the session, at the CoA port and secret of its client, as bulk jobs send
+     * them. Without a session, or for a NAS with no client, the configured {@code client.address}.
+     */
+    private RadiusConfig coaTarget(UserSession session) {
+        if (session == null || session.getNasIP() == null) {
+            return new RadiusConfig(serverAddress, coaPort, sharedSecret);
+        }
+        NasClient client;
+        try {
+            client = nasClientRegistry.find(InetAddress.getByName(session.getNasIP()));
+        } catch (UnknownHostException e) {
+            client = null;
+        }
+        if (client == null) {
+            log.warnf("No NAS client for %s, disconnect of session %s is sent to %s",
+                    session.getNasIP(), session.getSessionId(), serverAddress);
+            return new RadiusConfig(serverAddress, coaPort, sharedSecret);
+        }
+        return new RadiusConfig(session.getNasIP(), client.coaPort(), new String(client.secret(), UTF_8));
+    }
+
+    private static String parameter(Map<String, String> qosParameters, String name) {
+        for (Map.Entry<String, String> entry : qosParameters.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isBlank()) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     private List<Attribute<?>> buildAccountingAttributes(AccountingResponseEvent responseEvent) {
         List<Attribute<?>> attributes = new ArrayList<>();
         log.infof("Building AccountingResponse attributes for sessionId: %s", responseEvent.sessionId());
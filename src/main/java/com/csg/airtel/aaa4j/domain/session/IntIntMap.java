@@ -0,0 +1,108 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+/**
+ * Open-addressing map of int keys to int values, with linear probing and backward-shift
+ * deletion. Key 0 marks an empty entry and cannot be stored, which suits IPv4 addresses
+ * where 0.0.0.0 never identifies a session.
+ */
+final class IntIntMap {
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntMap(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return (long) keys.length * 2 * Integer.BYTES;
+    }
+
+    int get(int key, int missing) {
+        for (int i = mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return missing;
+    }
+
+    void put(int key, int value) {
+        int i = mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length * 3 / 4) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the key only while it still maps to {@code value}.
+     */
+    boolean remove(int key, int value) {
+        for (int i = mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                if (values[i] != value) {
+                    return false;
+                }
+                deleteAt(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deleteAt(int position) {
+        int hole = position;
+        for (int i = (position + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        // Addresses of one pool differ mostly in the low octets; spread them over the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
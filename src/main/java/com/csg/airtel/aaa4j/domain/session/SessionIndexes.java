@@ -0,0 +1,156 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Secondary indexes over {@link SessionTable} slots: username to the user's slots, IPv4
+ * Framed-IP to the slot holding it, and NAS IP to a {@link SlotBitmap} of its sessions.
+ * <p>
+ * A user's slots are an exact-size {@code int[]}, since users rarely hold more than a couple
+ * of sessions. When an address is handed to a new session before the old one stopped, the
+ * newer session owns it and the old session's removal leaves it in place.
+ * <p>
+ * Not thread-safe: {@link SessionRegistry} updates it together with the table.
+ */
+final class SessionIndexes {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> byUsername = new HashMap<>();
+    private final IntIntMap byFramedIp = new IntIntMap(1024);
+    private final Map<String, SlotBitmap> byNas = new HashMap<>();
+
+    void add(int slot, String username, String nasIp, int framedIp) {
+        addUsername(slot, username);
+        if (framedIp != 0) {
+            byFramedIp.put(framedIp, slot);
+        }
+        byNas.computeIfAbsent(nasIp, key -> new SlotBitmap()).add(slot);
+    }
+
+    void remove(int slot, String username, String nasIp, int framedIp) {
+        removeUserAndAddress(slot, username, framedIp);
+        SlotBitmap sessions = byNas.get(nasIp);
+        if (sessions != null) {
+            sessions.remove(slot);
+            if (sessions.isEmpty()) {
+                byNas.remove(nasIp);
+            }
+        }
+    }
+
+    /**
+     * Drops the NAS's bitmap whole and returns its slots; the caller removes each of them
+     * with {@link #removeUserAndAddress}.
+     */
+    int[] detachNas(String nasIp) {
+        SlotBitmap sessions = byNas.remove(nasIp);
+        if (sessions == null) {
+            return NONE;
+        }
+        int[] slots = new int[sessions.cardinality()];
+        int[] count = new int[1];
+        sessions.forEach(slot -> {
+            slots[count[0]++] = slot;
+            return true;
+        });
+        return slots;
+    }
+
+    void removeUserAndAddress(int slot, String username, int framedIp) {
+        removeUsername(slot, username);
+        if (framedIp != 0) {
+            byFramedIp.remove(framedIp, slot);
+        }
+    }
+
+    /**
+     * Re-indexes the username and Framed-IP of a session whose interim update changed them.
+     */
+    void update(int slot, String oldUsername, String newUsername, int oldFramedIp, int newFramedIp) {
+        if (!Objects.equals(oldUsername, newUsername)) {
+            removeUsername(slot, oldUsername);
+            addUsername(slot, newUsername);
+        }
+        if (oldFramedIp != newFramedIp) {
+            if (oldFramedIp != 0) {
+                byFramedIp.remove(oldFramedIp, slot);
+            }
+            if (newFramedIp != 0) {
+                byFramedIp.put(newFramedIp, slot);
+            }
+        }
+    }
+
+    int[] byUsername(String username) {
+        return username == null ? NONE : byUsername.getOrDefault(username, NONE);
+    }
+
+    /**
+     * Slot holding the address, or -1.
+     */
+    int byFramedIp(int framedIp) {
+        return framedIp == 0 ? -1 : byFramedIp.get(framedIp, -1);
+    }
+
+    int countByNas(String nasIp) {
+        SlotBitmap sessions = byNas.get(nasIp);
+        return sessions == null ? 0 : sessions.cardinality();
+    }
+
+    void forEachByNas(String nasIp, IntPredicate visitor) {
+        SlotBitmap sessions = byNas.get(nasIp);
+        if (sessions != null) {
+            sessions.forEach(visitor);
+        }
+    }
+
+    /**
+     * Footprint of the primitive structures; the username map's strings are not counted.
+     */
+    long bytes() {
+        long bytes = byFramedIp.bytes();
+        for (SlotBitmap sessions : byNas.values()) {
+            bytes += sessions.bytes();
+        }
+        return bytes;
+    }
+
+    private void addUsername(int slot, String username) {
+        if (username == null) {
+            return;
+        }
+        byUsername.merge(username, new int[]{slot}, (slots, added) -> {
+            int[] grown = Arrays.copyOf(slots, slots.length + 1);
+            grown[slots.length] = slot;
+            return grown;
+        });
+    }
+
+    private void removeUsername(int slot, String username) {
+        if (username == null) {
+            return;
+        }
+        int[] slots = byUsername.get(username);
+        if (slots == null) {
+            return;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == slot) {
+                if (slots.length == 1) {
+                    byUsername.remove(username);
+                } else {
+                    int[] shrunk = new int[slots.length - 1];
+                    System.arraycopy(slots, 0, shrunk, 0, i);
+                    System.arraycopy(slots, i + 1, shrunk, i, slots.length - i - 1);
+                    byUsername.put(username, shrunk);
+                }
+                return;
+            }
+        }
+    }
+}
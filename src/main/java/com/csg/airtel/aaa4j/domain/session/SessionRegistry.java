@@ -0,0 +1,345 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dedup.EventIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Active sessions as seen in accounting, kept in an off-heap {@link SessionTable} keyed by
+ * Acct-Session-Id and NAS IP.
+ * <p>
+ * {@code START} and {@code INTERIM_UPDATE} upsert the session, {@code STOP} removes it. A
+ * session first seen on an interim update, after a restart for instance, is added then.
+ * Accounting-On and Accounting-Off close every session of the NAS at once through
+ * {@link #closeNas}, walking its bitmap in {@link SessionIndexes} rather than the table.
+ * Updates and lookups take one lock; iteration takes it once per chunk of slots, so a
+ * maintenance scan does not hold up accounting.
+ * <p>
+ * {@link SessionIndexes} are updated under the same lock as the table, so lookups by
+ * username, Framed-IP or NAS always agree with it.
+ * <p>
+ * With interim coalescing on, an interim update of a tracked session is held back from Kafka
+ * while the session moved fewer than {@code minDeltaBytes} since its last published update
+ * and that update is less than the window old. Counters are cumulative, so the next published
+ * interim or the STOP carries the held-back usage. START, STOP and the first update seen for
+ * a session always go out. A session closed by a NAS reset gets no later event, so the
+ * octets it held back are handed back as its last interim when the NAS is closed, and at
+ * shutdown every session's held-back octets are handed back the same way. Sessions whose
+ * coalesced interims moved nothing have nothing to hand back.
+ */
+@ApplicationScoped
+public class SessionRegistry {
+
+    private static final Logger logger = Logger.getLogger(SessionRegistry.class);
+
+    private final boolean enabled;
+    private final boolean coalesceInterims;
+    private final long minDeltaBytes;
+    private final long windowMillis;
+    private final SessionTable table;
+    private final SessionIndexes indexes = new SessionIndexes();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter rejectedCounter;
+    private final Counter nasResetCounter;
+    private final Counter coalescedCounter;
+
+    @Inject
+    public SessionRegistry(RadiusServerConfig config, MeterRegistry meterRegistry) {
+        this(config.sessions().enabled(), config.sessions().maxSessions(),
+                config.sessions().interimCoalescing().enabled(),
+                config.sessions().interimCoalescing().minDeltaBytes(),
+                config.sessions().interimCoalescing().windowSeconds() * 1000L,
+                meterRegistry);
+    }
+
+    SessionRegistry(boolean enabled, int maxSessions, MeterRegistry meterRegistry) {
+        this(enabled, maxSessions, false, 0, 0, meterRegistry);
+    }
+
+    SessionRegistry(boolean enabled, int maxSessions, boolean coalesceInterims, long minDeltaBytes,
+                    long windowMillis, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.coalesceInterims = coalesceInterims;
+        this.minDeltaBytes = minDeltaBytes;
+        this.windowMillis = windowMillis;
+        this.table = new SessionTable(Math.max(1, maxSessions));
+        this.rejectedCounter = meterRegistry.counter("radius.sessions.rejected");
+        this.nasResetCounter = meterRegistry.counter("radius.sessions.nas.reset");
+        this.coalescedCounter = meterRegistry.counter("radius.sessions.interim.coalesced");
+        meterRegistry.gauge("radius.sessions.active", this, SessionRegistry::size);
+        meterRegistry.gauge("radius.sessions.offheap.bytes", this, registry -> registry.locked(table::offHeapBytes));
+        meterRegistry.gauge("radius.sessions.index.bytes", this,
+                registry -> registry.locked(() -> table.indexBytes() + indexes.bytes()));
+    }
+
+    /**
+     * Applies a session's accounting event to the table. Accounting-On/Off go through
+     * {@link #closeNas} instead and are ignored here.
+     *
+     * @return true if the event is an interim update coalesced into a later one, which the
+     * caller acknowledges without publishing
+     */
+    public boolean onAccounting(AccountingEvent request) {
+        if (!enabled || request.sessionId() == null) {
+            return false;
+        }
+        AccountingRequestDto.ActionType actionType = request.actionType();
+        if (actionType == AccountingRequestDto.ActionType.ACCOUNTING_ON
+                || actionType == AccountingRequestDto.ActionType.ACCOUNTING_OFF) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (actionType == AccountingRequestDto.ActionType.STOP) {
+                stop(request);
+                return false;
+            }
+            return upsert(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every session of the NAS in one pass under the lock, as on Accounting-On/Off.
+     *
+     * @param closedAt time of the reset, used as the time of the interims returned
+     * @return an interim with the last counters seen for every closed session that held back
+     * octets from coalesced interims, to be published with the reset; empty otherwise
+     */
+    public List<AccountingEvent> closeNas(String nasIp, Instant closedAt) {
+        if (!enabled || nasIp == null) {
+            return List.of();
+        }
+        List<AccountingEvent> heldBack = new ArrayList<>();
+        int closed;
+        lock.lock();
+        try {
+            int[] slots = indexes.detachNas(nasIp);
+            for (int slot : slots) {
+                if (hasHeldBackUsage(slot)) {
+                    heldBack.add(heldBackEvent(slot, closedAt));
+                }
+                indexes.removeUserAndAddress(slot, table.username(slot), table.framedIp(slot));
+                table.removeSlot(slot);
+            }
+            nasResetCounter.increment();
+            closed = slots.length;
+        } finally {
+            lock.unlock();
+        }
+        logger.infof("NAS %s reset, closed %d sessions, %d with held-back usage", nasIp, closed, heldBack.size());
+        return heldBack;
+    }
+
+    /**
+     * Marks every session's held-back octets as published and returns them as an interim with
+     * the session's last counters, so the usage survives a restart of this server.
+     */
+    public List<AccountingEvent> drainHeldBackUsage() {
+        List<AccountingEvent> heldBack = new ArrayList<>();
+        if (!enabled || !coalesceInterims) {
+            return heldBack;
+        }
+        for (int chunkStart = 0; chunkStart < locked(table::slotLimit); chunkStart += SessionTable.CHUNK_SLOTS) {
+            lock.lock();
+            try {
+                int end = Math.min(chunkStart + SessionTable.CHUNK_SLOTS, table.slotLimit());
+                for (int slot = chunkStart; slot < end; slot++) {
+                    if (table.isLive(slot) && hasHeldBackUsage(slot)) {
+                        heldBack.add(heldBackEvent(slot, Instant.ofEpochMilli(table.lastUpdateMillis(slot))));
+                        table.markPublished(slot);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return heldBack;
+    }
+
+    /**
+     * Whether the slot moved octets no published event carries yet. Lock held.
+     */
+    private boolean hasHeldBackUsage(int slot) {
+        return table.pendingOctets(slot) > 0;
+    }
+
+    /**
+     * Event carrying the slot's last counters, with its id derived from them like any other
+     * event so a second flush of the same update gets the same id. Lock held.
+     */
+    private AccountingEvent heldBackEvent(int slot, Instant timestamp) {
+        AccountingRequestDto.ActionType actionType = AccountingRequestDto.ActionType.INTERIM_UPDATE;
+        UserSession session = table.read(slot);
+        long inputBytes = session.getInputOctets();
+        long outputBytes = session.getOutputOctets();
+        int sessionTime = session.getSessionTime().intValue();
+        String eventId = EventIdGenerator.eventId(session.getNasIP(), session.getSessionId(), actionType,
+                inputBytes, outputBytes, sessionTime, table.lastUpdateMillis(slot) / 1000);
+        return new AccountingEvent(eventId, session.getSessionId(), session.getNasIP(), session.getUsername(),
+                actionType, (int) inputBytes, (int) outputBytes, sessionTime, timestamp, session.getNasPortId(),
+                session.getFramedIPAddress(), 0, (int) (inputBytes >>> 32), (int) (outputBytes >>> 32), null);
+    }
+
+    private boolean upsert(AccountingEvent request) {
+        int existing = table.find(request.sessionId(), request.nasIP());
+        String oldUsername = existing >= 0 ? table.username(existing) : null;
+        int oldFramedIp = existing >= 0 ? table.framedIp(existing) : 0;
+
+        int slot = table.upsert(request);
+        if (slot < 0) {
+            rejectedCounter.increment();
+            logger.debugf("Session %s on %s not tracked: oversized attributes or table full",
+                    request.sessionId(), request.nasIP());
+            return false;
+        }
+        if (existing < 0) {
+            indexes.add(slot, table.username(slot), request.nasIP(), table.framedIp(slot));
+        } else {
+            indexes.update(slot, oldUsername, table.username(slot), oldFramedIp, table.framedIp(slot));
+        }
+
+        if (existing >= 0 && request.actionType() == AccountingRequestDto.ActionType.INTERIM_UPDATE
+                && coalesceInterims
+                && table.pendingOctets(slot) < minDeltaBytes
+                && table.lastUpdateMillis(slot) - table.publishedAtMillis(slot) < windowMillis) {
+            coalescedCounter.increment();
+            return true;
+        }
+        table.markPublished(slot);
+        return false;
+    }
+
+    private void stop(AccountingEvent request) {
+        int slot = table.find(request.sessionId(), request.nasIP());
+        if (slot >= 0) {
+            indexes.remove(slot, table.username(slot), table.nasIp(slot), table.framedIp(slot));
+            table.remove(request.sessionId(), request.nasIP());
+        }
+    }
+
+    /**
+     * The session, or {@code null} if it is not active.
+     */
+    public UserSession find(String sessionId, String nasIp) {
+        lock.lock();
+        try {
+            int slot = table.find(sessionId, nasIp);
+            return slot < 0 ? null : table.read(slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isActive(String sessionId, String nasIp) {
+        lock.lock();
+        try {
+            return table.find(sessionId, nasIp) >= 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<UserSession> findByUsername(String username) {
+        lock.lock();
+        try {
+            int[] slots = indexes.byUsername(username);
+            List<UserSession> sessions = new ArrayList<>(slots.length);
+            for (int slot : slots) {
+                sessions.add(table.read(slot));
+            }
+            return sessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The session holding the IPv4 Framed-IP-Address, or {@code null}.
+     */
+    public UserSession findByFramedIp(String framedIp) {
+        int address = SessionTable.ipv4(framedIp, 0);
+        lock.lock();
+        try {
+            int slot = indexes.byFramedIp(address);
+            return slot < 0 ? null : table.read(slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} sessions on the NAS, in slot order.
+     */
+    public List<UserSession> findByNas(String nasIp, int limit) {
+        List<UserSession> sessions = new ArrayList<>(Math.min(limit, 1024));
+        if (limit <= 0) {
+            return sessions;
+        }
+        lock.lock();
+        try {
+            indexes.forEachByNas(nasIp, slot -> {
+                sessions.add(table.read(slot));
+                return sessions.size() < limit;
+            });
+            return sessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int countByNas(String nasIp) {
+        return locked(() -> indexes.countByNas(nasIp));
+    }
+
+    public int size() {
+        return locked(table::size);
+    }
+
+    /**
+     * Visits every active session. Weakly consistent: sessions added or removed during the
+     * scan may or may not be seen.
+     */
+    public void forEach(Consumer<UserSession> action) {
+        List<UserSession> sessions = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < locked(table::slotLimit); chunkStart += SessionTable.CHUNK_SLOTS) {
+            lock.lock();
+            try {
+                int end = Math.min(chunkStart + SessionTable.CHUNK_SLOTS, table.slotLimit());
+                for (int slot = chunkStart; slot < end; slot++) {
+                    if (table.isLive(slot)) {
+                        sessions.add(table.read(slot));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            sessions.forEach(action);
+            sessions.clear();
+        }
+    }
+
+    private <T> T locked(Supplier<T> read) {
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Active sessions stored off-heap in fixed-width slots.
+ * <p>
+ * Slots live in direct buffers of {@value #CHUNK_SLOTS} slots each, allocated as the table
+ * grows and reused through a free list, so the heap holds only the chunk references and the
+ * index. The index is an open-addressing {@code long[]} of {@code (key hash << 32) | slot + 1}
+ * with linear probing and backward-shift deletion: lookups compare the stored hash before
+ * touching the slot, and removals leave no tombstones behind.
+ * <p>
+ * A slot holds the counters and times as fixed fields and the strings as a length byte (0 for
+ * {@code null}, else length + 1) followed by UTF-8 bytes, within a fixed width per field.
+ * Sessions whose key or strings do not fit are not stored.
+ * <p>
+ * Each update also adds the traffic since the previous one to a pending total, kept until
+ * {@link #markPublished} along with the time of the last published update, so interim
+ * updates can be coalesced per session.
+ * <p>
+ * Not thread-safe: {@link SessionRegistry} serializes access.
+ */
+public final class SessionTable {
+
+    static final int SLOT_SIZE = 336;
+    static final int CHUNK_SLOTS = 1 << 14;
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_BYTES = CHUNK_SLOTS * SLOT_SIZE;
+
+    private static final int HASH = 0;
+    private static final int LIVE = 4;
+    private static final int FRAMED_IP = 8;
+    private static final int SESSION_TIME = 12;
+    private static final int START_TIME = 16;
+    private static final int LAST_UPDATE = 24;
+    private static final int INPUT_OCTETS = 32;
+    private static final int OUTPUT_OCTETS = 40;
+    private static final int SESSION_ID = 48;
+    private static final int SESSION_ID_WIDTH = 64;
+    private static final int NAS_IP = 112;
+    private static final int NAS_IP_WIDTH = 48;
+    private static final int USERNAME = 160;
+    private static final int USERNAME_WIDTH = 96;
+    private static final int NAS_PORT_ID = 256;
+    private static final int NAS_PORT_ID_WIDTH = 64;
+    private static final int PENDING_OCTETS = 320;
+    private static final int PUBLISHED_AT = 328;
+
+    private static final int MIN_INDEX_CAPACITY = 1024;
+
+    private final int maxSessions;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int nextSlot;
+
+    private long[] index = new long[MIN_INDEX_CAPACITY];
+    private int mask = MIN_INDEX_CAPACITY - 1;
+    private int size;
+
+    public SessionTable(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Slots handed out so far; every live slot is below this.
+     */
+    public int slotLimit() {
+        return nextSlot;
+    }
+
+    public long offHeapBytes() {
+        return (long) chunks.size() * CHUNK_BYTES;
+    }
+
+    public long indexBytes() {
+        return (long) index.length * Long.BYTES + (long) freeSlots.length * Integer.BYTES;
+    }
+
+    /**
+     * Slot of the session, or -1.
+     */
+    public int find(String sessionId, String nasIp) {
+        int position = position(hash(sessionId, nasIp), sessionId, nasIp);
+        return position < 0 ? -1 : slot(index[position]);
+    }
+
+    /**
+     * Inserts the session or updates its counters. A session first seen on an interim update
+     * gets a start time derived from its session time.
+     *
+     * @return the session's slot, or -1 if it has no session id, does not fit or the table is full
+     */
+    public int upsert(AccountingEvent request) {
+        String sessionId = request.sessionId();
+        String nasIp = request.nasIP();
+        if (sessionId == null || nasIp == null
+                || !fits(sessionId, SESSION_ID_WIDTH) || !fits(nasIp, NAS_IP_WIDTH)
+                || !fits(request.username(), USERNAME_WIDTH) || !fits(request.nasPortId(), NAS_PORT_ID_WIDTH)) {
+            return -1;
+        }
+        long now = request.timestamp() != null ? request.timestamp().toEpochMilli() : System.currentTimeMillis();
+        int hash = hash(sessionId, nasIp);
+        int position = position(hash, sessionId, nasIp);
+
+        int slot;
+        if (position >= 0) {
+            slot = slot(index[position]);
+        } else {
+            if (size >= maxSessions) {
+                return -1;
+            }
+            slot = allocate();
+            ByteBuffer chunk = chunk(slot);
+            int base = offset(slot);
+            chunk.putInt(base + HASH, hash);
+            chunk.putInt(base + LIVE, 1);
+            chunk.putInt(base + FRAMED_IP, 0);
+            chunk.putLong(base + START_TIME, now - Integer.toUnsignedLong(request.sessionTime()) * 1000L);
+            chunk.putLong(base + INPUT_OCTETS, 0);
+            chunk.putLong(base + OUTPUT_OCTETS, 0);
+            chunk.putLong(base + PENDING_OCTETS, 0);
+            chunk.putLong(base + PUBLISHED_AT, now);
+            writeString(chunk, base + SESSION_ID, sessionId);
+            writeString(chunk, base + NAS_IP, nasIp);
+            insert(((long) hash << 32) | (slot + 1L));
+        }
+
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        chunk.putInt(base + FRAMED_IP, ipv4(request.framedIPAddress(), chunk.getInt(base + FRAMED_IP)));
+        chunk.putInt(base + SESSION_TIME, request.sessionTime());
+        chunk.putLong(base + LAST_UPDATE, now);
+        long inputOctets = request.totalInputBytes();
+        long outputOctets = request.totalOutputBytes();
+        chunk.putLong(base + PENDING_OCTETS, chunk.getLong(base + PENDING_OCTETS)
+                + delta(chunk.getLong(base + INPUT_OCTETS), inputOctets)
+                + delta(chunk.getLong(base + OUTPUT_OCTETS), outputOctets));
+        chunk.putLong(base + INPUT_OCTETS, inputOctets);
+        chunk.putLong(base + OUTPUT_OCTETS, outputOctets);
+        if (request.username() != null || position < 0) {
+            writeString(chunk, base + USERNAME, request.username());
+        }
+        if (request.nasPortId() != null || position < 0) {
+            writeString(chunk, base + NAS_PORT_ID, request.nasPortId());
+        }
+        return slot;
+    }
+
+    /**
+     * Removes the session and frees its slot.
+     *
+     * @return the freed slot, or -1 if the session was not in the table
+     */
+    public int remove(String sessionId, String nasIp) {
+        if (sessionId == null || nasIp == null) {
+            return -1;
+        }
+        int position = position(hash(sessionId, nasIp), sessionId, nasIp);
+        if (position < 0) {
+            return -1;
+        }
+        int slot = slot(index[position]);
+        release(position, slot);
+        return slot;
+    }
+
+    /**
+     * Removes the session in a slot known to be live, finding its index entry by the stored
+     * hash without comparing keys.
+     */
+    public void removeSlot(int slot) {
+        long entry = ((long) chunk(slot).getInt(offset(slot) + HASH) << 32) | (slot + 1L);
+        for (int i = (int) (entry >>> 32) & mask; index[i] != 0; i = (i + 1) & mask) {
+            if (index[i] == entry) {
+                release(i, slot);
+                return;
+            }
+        }
+    }
+
+    private void release(int position, int slot) {
+        deleteAt(position);
+        chunk(slot).putInt(offset(slot) + LIVE, 0);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < nextSlot && chunk(slot).getInt(offset(slot) + LIVE) == 1;
+    }
+
+    /**
+     * Copies the slot onto the heap.
+     */
+    public UserSession read(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        UserSession session = new UserSession();
+        session.setSessionId(readString(chunk, base + SESSION_ID));
+        session.setNasIP(readString(chunk, base + NAS_IP));
+        session.setUsername(readString(chunk, base + USERNAME));
+        session.setNasPortId(readString(chunk, base + NAS_PORT_ID));
+        int framedIp = chunk.getInt(base + FRAMED_IP);
+        session.setFramedIPAddress(framedIp != 0 ? ipv4(framedIp) : null);
+        session.setInputOctets(chunk.getLong(base + INPUT_OCTETS));
+        session.setOutputOctets(chunk.getLong(base + OUTPUT_OCTETS));
+        session.setSessionTime(Integer.toUnsignedLong(chunk.getInt(base + SESSION_TIME)));
+        session.setStartTime(Instant.ofEpochMilli(chunk.getLong(base + START_TIME)));
+        session.setLastUpdateTime(Instant.ofEpochMilli(chunk.getLong(base + LAST_UPDATE)));
+        session.setStatus("ACTIVE");
+        return session;
+    }
+
+    public String username(int slot) {
+        return readString(chunk(slot), offset(slot) + USERNAME);
+    }
+
+    public String nasIp(int slot) {
+        return readString(chunk(slot), offset(slot) + NAS_IP);
+    }
+
+    /**
+     * IPv4 Framed-IP-Address as an int, 0 if none.
+     */
+    public int framedIp(int slot) {
+        return chunk(slot).getInt(offset(slot) + FRAMED_IP);
+    }
+
+    public long lastUpdateMillis(int slot) {
+        return chunk(slot).getLong(offset(slot) + LAST_UPDATE);
+    }
+
+    /**
+     * Input plus output octets since the last {@link #markPublished}.
+     */
+    public long pendingOctets(int slot) {
+        return chunk(slot).getLong(offset(slot) + PENDING_OCTETS);
+    }
+
+    public long publishedAtMillis(int slot) {
+        return chunk(slot).getLong(offset(slot) + PUBLISHED_AT);
+    }
+
+    /**
+     * Records the slot's current update as published: clears the pending octets and moves the
+     * published time to the last update.
+     */
+    public void markPublished(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        chunk.putLong(base + PENDING_OCTETS, 0);
+        chunk.putLong(base + PUBLISHED_AT, chunk.getLong(base + LAST_UPDATE));
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address without going through {@link java.net.InetAddress};
+     * returns {@code fallback} for null or anything else.
+     */
+    public static int ipv4(String address, int fallback) {
+        if (address == null) {
+            return fallback;
+        }
+        int value = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0, n = address.length(); i < n; i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                if (octet > 255) {
+                    return fallback;
+                }
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return fallback;
+            }
+        }
+        if (dots != 3 || digits == 0 || octet > 255) {
+            return fallback;
+        }
+        return (value << 8) | octet;
+    }
+
+    public static String ipv4(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+
+    /**
+     * Traffic between two readings of a counter. A counter that went backwards wrapped its 32-bit
+     * octets without the NAS sending Acct-*-Gigawords, so the difference is taken modulo 2^32.
+     */
+    static long delta(long previous, long current) {
+        if (current >= previous) {
+            return current - previous;
+        }
+        return (current - previous) & 0xFFFFFFFFL;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == chunks.size() * CHUNK_SLOTS) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_BYTES));
+        }
+        return nextSlot++;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks.get(slot >>> CHUNK_SHIFT);
+    }
+
+    private static int offset(int slot) {
+        return (slot & (CHUNK_SLOTS - 1)) * SLOT_SIZE;
+    }
+
+    private static int slot(long entry) {
+        return (int) entry - 1;
+    }
+
+    private int position(int hash, String sessionId, String nasIp) {
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long entry = index[i];
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == hash) {
+                int slot = slot(entry);
+                ByteBuffer chunk = chunk(slot);
+                int base = offset(slot);
+                if (matches(chunk, base + SESSION_ID, sessionId) && matches(chunk, base + NAS_IP, nasIp)) {
+                    return i;
+                }
+            }
+        }
+    }
+
+    private void insert(long entry) {
+        if (++size > index.length * 3 / 4) {
+            resize(index.length * 2);
+        }
+        place(index, mask, entry);
+    }
+
+    private static void place(long[] table, int mask, long entry) {
+        int i = (int) (entry >>> 32) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        int resizedMask = capacity - 1;
+        for (long entry : index) {
+            if (entry != 0) {
+                place(resized, resizedMask, entry);
+            }
+        }
+        index = resized;
+        mask = resizedMask;
+    }
+
+    /**
+     * Empties the position and shifts back any entry of the same probe run that would
+     * otherwise no longer be reachable from its home position.
+     */
+    private void deleteAt(int position) {
+        int hole = position;
+        for (int i = (position + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = (int) (index[i] >>> 32) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private static int hash(String sessionId, String nasIp) {
+        int h = sessionId.hashCode() * 31 + nasIp.hashCode();
+        // murmur3 finalizer: String hashes cluster in the low bits the index masks on
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean fits(String value, int width) {
+        if (value == null) {
+            return true;
+        }
+        if (value.length() >= width) {
+            return false;
+        }
+        return isAscii(value) || value.getBytes(StandardCharsets.UTF_8).length < width;
+    }
+
+    private static void writeString(ByteBuffer chunk, int offset, String value) {
+        if (value == null) {
+            chunk.put(offset, (byte) 0);
+            return;
+        }
+        if (isAscii(value)) {
+            chunk.put(offset, (byte) (value.length() + 1));
+            for (int i = 0, n = value.length(); i < n; i++) {
+                chunk.put(offset + 1 + i, (byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        chunk.put(offset, (byte) (bytes.length + 1));
+        chunk.put(offset + 1, bytes);
+    }
+
+    private static String readString(ByteBuffer chunk, int offset) {
+        int length = (chunk.get(offset) & 0xFF) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        chunk.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean matches(ByteBuffer chunk, int offset, String value) {
+        int length = (chunk.get(offset) & 0xFF) - 1;
+        if (isAscii(value)) {
+            if (length != value.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (chunk.get(offset + 1 + i) != (byte) value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(offset + 1 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Compressed set of session slots, split like a Roaring bitmap into blocks of 65536 slots.
+ * A block holds a sorted {@code char[]} of its low 16 bits while it has at most
+ * {@value #ARRAY_LIMIT} slots and an 8 KB bitmap beyond that, so a NAS with a few sessions
+ * costs a few bytes per session and a busy one a bit per slot.
+ */
+final class SlotBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+
+    private Block[] blocks = new Block[1];
+    private int cardinality;
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    long bytes() {
+        long bytes = (long) blocks.length * 8;
+        for (Block block : blocks) {
+            if (block != null) {
+                bytes += block.bits != null ? block.bits.length * 8L : block.array.length * 2L;
+            }
+        }
+        return bytes;
+    }
+
+    void add(int slot) {
+        int high = slot >>> 16;
+        if (high >= blocks.length) {
+            blocks = Arrays.copyOf(blocks, Math.max(high + 1, blocks.length * 2));
+        }
+        Block block = blocks[high];
+        if (block == null) {
+            block = new Block();
+            blocks[high] = block;
+        }
+        if (block.add((char) slot)) {
+            cardinality++;
+        }
+    }
+
+    void remove(int slot) {
+        int high = slot >>> 16;
+        if (high >= blocks.length || blocks[high] == null) {
+            return;
+        }
+        Block block = blocks[high];
+        if (block.remove((char) slot)) {
+            cardinality--;
+            if (block.size == 0) {
+                blocks[high] = null;
+            }
+        }
+    }
+
+    boolean contains(int slot) {
+        int high = slot >>> 16;
+        return high < blocks.length && blocks[high] != null && blocks[high].contains((char) slot);
+    }
+
+    /**
+     * Visits the slots in ascending order until the visitor returns false.
+     */
+    void forEach(IntPredicate visitor) {
+        for (int high = 0; high < blocks.length; high++) {
+            Block block = blocks[high];
+            if (block != null && !block.forEach(high << 16, visitor)) {
+                return;
+            }
+        }
+    }
+
+    private static final class Block {
+
+        private char[] array = new char[4];
+        private long[] bits;
+        private int size;
+
+        boolean add(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bits[low >>> 6] |= mask;
+                size++;
+                return true;
+            }
+            int position = Arrays.binarySearch(array, 0, size, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (size == ARRAY_LIMIT) {
+                toBits();
+                return add(low);
+            }
+            position = -position - 1;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, size * 2));
+            }
+            System.arraycopy(array, position, array, position + 1, size - position);
+            array[position] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bits[low >>> 6] &= ~mask;
+                // Back to an array only well below the limit, so a block at the edge does not flip-flop
+                if (--size < ARRAY_LIMIT / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int position = Arrays.binarySearch(array, 0, size, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(array, position + 1, array, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (bits != null) {
+                return (bits[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, size, low) >= 0;
+        }
+
+        boolean forEach(int base, IntPredicate visitor) {
+            if (bits == null) {
+                for (int i = 0; i < size; i++) {
+                    if (!visitor.test(base | array[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    int bit = Long.numberOfTrailingZeros(remaining);
+                    if (!visitor.test(base | (word << 6) | bit)) {
+                        return false;
+                    }
+                    remaining &= remaining - 1;
+                }
+            }
+            return true;
+        }
+
+        private void toBits() {
+            bits = new long[1024];
+            for (int i = 0; i < size; i++) {
+                bits[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            array = new char[ARRAY_LIMIT];
+            int count = 0;
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    array[count++] = (char) ((word << 6) | Long.numberOfTrailingZeros(remaining));
+                    remaining &= remaining - 1;
+                }
+            }
+            bits = null;
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package com.csg.airtel.aaa4j.domain.spool;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.common.constant.ResponseCodeEnum;
+import com.csg.airtel.aaa4j.domain.codec.AccountingEventCodec;
+import com.csg.airtel.aaa4j.domain.codec.WireReader;
+import com.csg.airtel.aaa4j.domain.codec.WireWriter;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.exception.BaseException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead spool for accounting events Kafka did not accept.
+ * <p>
+ * Events are appended to fixed-size, memory-mapped segment files {@code spool-<seq>.seg} as
+ * frames of {@code [length][CRC32C][codec version][AccountingEventCodec record]}. The
+ * length is written last, so a frame torn by a crash reads as the end of the segment; a zero
+ * length marks the end of the data. A separate checkpoint file holds the position up to which
+ * {@link SpoolReplayer} has delivered events; segments wholly before it are deleted.
+ * <p>
+ * Appends only touch the page cache. {@link #sync()} forces them and the checkpoint to disk
+ * and is called periodically by the replayer, so a power loss can cost the last interval,
+ * while a process crash loses nothing. Replay is at least once: events delivered after the
+ * last checkpoint are sent again after a restart.
+ * <p>
+ * All state is guarded by one lock; appends only happen while Kafka is failing and replay
+ * runs on a single thread, so it is not contended in practice.
+ */
+@ApplicationScoped
+public class AccountingSpool {
+
+    private static final Logger logger = Logger.getLogger(AccountingSpool.class);
+
+    static final int FRAME_HEADER = 8;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_SIZE = 20;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSegments;
+
+    private final AccountingEventCodec codec = new AccountingEventCodec();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WireWriter writer = new WireWriter(512);
+    private final WireReader reader = new WireReader();
+    private final CRC32C crc = new CRC32C();
+    private byte[] scratch = new byte[512];
+
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final Counter appendedCounter;
+    private final Counter droppedCounter;
+    private final Counter replayedCounter;
+    private final Counter corruptCounter;
+
+    private FileChannel checkpointChannel;
+    private long writeSeq;
+    private MappedByteBuffer writeSegment;
+    private long ackSeq;
+    private int ackOffset;
+    private long readSeq = -1;
+    private MappedByteBuffer readSegment;
+    private boolean dirty;
+
+    @Inject
+    public AccountingSpool(RadiusServerConfig config, MeterRegistry meterRegistry) {
+        this(config.accounting().spool().enabled(),
+                Paths.get(config.accounting().spool().directory()),
+                Math.max(1, config.accounting().spool().segmentSizeMb()) * 1024 * 1024,
+                config.accounting().spool().maxSizeMb() * 1024 * 1024,
+                meterRegistry);
+    }
+
+    AccountingSpool(boolean enabled, Path directory, int segmentSize, long maxBytes, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxBytes / segmentSize);
+        this.appendedCounter = meterRegistry.counter("accounting.spool.appended");
+        this.droppedCounter = meterRegistry.counter("accounting.spool.dropped");
+        this.replayedCounter = meterRegistry.counter("accounting.spool.replayed");
+        this.corruptCounter = meterRegistry.counter("accounting.spool.corrupt");
+        meterRegistry.gauge("accounting.spool.bytes", this, AccountingSpool::pendingBytes);
+        meterRegistry.gauge("accounting.spool.lag", pendingRecords);
+    }
+
+    @PostConstruct
+    void open() throws BaseException {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException | RuntimeException e) {
+            throw new BaseException(
+                    "Failed to open accounting spool in " + directory + ": " + e.getMessage(),
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.description(),
+                    Response.Status.INTERNAL_SERVER_ERROR,
+                    ResponseCodeEnum.EXCEPTION_SERVICE_LAYER.code(),
+                    e.getStackTrace()
+            );
+        } finally {
+            lock.unlock();
+        }
+        if (pendingRecords.get() > 0) {
+            logger.infof("Accounting spool holds %d events (%d bytes) to replay", pendingRecords.get(), pendingBytes());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (!enabled) {
+            return;
+        }
+        sync();
+        lock.lock();
+        try {
+            checkpointChannel.close();
+        } catch (IOException e) {
+            logger.warnf("Failed to close accounting spool checkpoint: %s", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the event; false if the spool is disabled, full or the write failed, in which
+     * case the event is counted as dropped.
+     */
+    public boolean append(AccountingEvent request) {
+        if (!enabled) {
+            droppedCounter.increment();
+            return false;
+        }
+        lock.lock();
+        try {
+            WireWriter out = writer.reset();
+            out.writeByte(codec.version());
+            codec.write(request, out);
+            int frameSize = FRAME_HEADER + out.size();
+            if (frameSize > segmentSize || (writeSegment.remaining() < frameSize && !roll())) {
+                droppedCounter.increment();
+                return false;
+            }
+            crc.reset();
+            out.update(crc);
+            int start = writeSegment.position();
+            writeSegment.putInt(start + 4, (int) crc.getValue());
+            writeSegment.position(start + FRAME_HEADER);
+            out.copyTo(writeSegment);
+            // The length goes in last: until then the frame reads as the end of the data
+            writeSegment.putInt(start, out.size());
+            dirty = true;
+            pendingRecords.incrementAndGet();
+            appendedCounter.increment();
+            return true;
+        } catch (RuntimeException e) {
+            logger.errorf(e, "Failed to spool accounting event for session %s", request.sessionId());
+            droppedCounter.increment();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code max} events from the replay position without consuming them;
+     * {@link #acknowledge} the batch once it has been delivered. Frames failing their
+     * checksum are counted and the rest of their segment is skipped.
+     */
+    public SpoolBatch read(int max) {
+        if (!enabled) {
+            return new SpoolBatch(List.of(), 0, 0);
+        }
+        lock.lock();
+        try {
+            List<AccountingEvent> requests = new ArrayList<>((int) Math.min(max, pendingRecords.get()));
+            long seq = ackSeq;
+            int offset = ackOffset;
+            while (requests.size() < max) {
+                ByteBuffer segment = segment(seq);
+                int limit = seq == writeSeq ? writeSegment.position() : segment.capacity();
+                int length = frameLength(segment, offset, limit);
+                if (length > 0) {
+                    AccountingEvent request = decode(segment, offset + FRAME_HEADER, length);
+                    if (request != null) {
+                        requests.add(request);
+                        offset += FRAME_HEADER + length;
+                        continue;
+                    }
+                    length = -1;
+                }
+                if (length < 0) {
+                    corruptCounter.increment();
+                    logger.errorf("Corrupt accounting spool frame in segment %d at %d, skipping the rest of the segment",
+                            seq, offset);
+                    offset = limit;
+                }
+                if (seq == writeSeq) {
+                    break;
+                }
+                seq++;
+                offset = 0;
+            }
+            return new SpoolBatch(requests, seq, offset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the replay position past a batch from {@link #read} and deletes segments it has
+     * left behind.
+     */
+    public void acknowledge(SpoolBatch batch) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (batch.endSeq() == ackSeq && batch.endOffset() == ackOffset) {
+                return;
+            }
+            for (long seq = ackSeq; seq < batch.endSeq(); seq++) {
+                if (seq == readSeq) {
+                    readSeq = -1;
+                    readSegment = null;
+                }
+                Files.deleteIfExists(segmentPath(seq));
+            }
+            ackSeq = batch.endSeq();
+            ackOffset = batch.endOffset();
+            writeCheckpoint();
+            replayedCounter.increment(batch.requests().size());
+            if (ackSeq == writeSeq && ackOffset == writeSegment.position()) {
+                // Also clears what corrupt frames left in the count
+                pendingRecords.set(0);
+            } else {
+                pendingRecords.addAndGet(-batch.requests().size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to advance accounting spool checkpoint", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces appended events and the checkpoint to disk.
+     */
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        MappedByteBuffer segment;
+        lock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            segment = writeSegment;
+            checkpointChannel.force(false);
+        } catch (IOException e) {
+            logger.warnf("Failed to sync accounting spool checkpoint: %s", e.getMessage());
+            return;
+        } finally {
+            lock.unlock();
+        }
+        // Outside the lock: msync can take a while and appends may keep going meanwhile
+        segment.force();
+    }
+
+    public long pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    /**
+     * Spool bytes between the replay and write positions, counting the unused tail of full segments.
+     */
+    public long pendingBytes() {
+        lock.lock();
+        try {
+            if (writeSegment == null) {
+                return 0;
+            }
+            return (writeSeq - ackSeq) * segmentSize + writeSegment.position() - ackOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments = listSegments();
+        long[] checkpoint = readCheckpoint();
+        if (segments.isEmpty()) {
+            writeSeq = checkpoint != null ? checkpoint[0] : 1;
+            writeSegment = map(writeSeq);
+            ackSeq = writeSeq;
+            ackOffset = 0;
+            writeCheckpoint();
+            return;
+        }
+        long oldest = segments.get(0);
+        writeSeq = segments.get(segments.size() - 1);
+        if (checkpoint != null && checkpoint[0] >= oldest && checkpoint[0] <= writeSeq
+                && checkpoint[1] >= 0 && checkpoint[1] <= segmentSize) {
+            ackSeq = checkpoint[0];
+            ackOffset = (int) checkpoint[1];
+        } else {
+            if (checkpoint != null) {
+                logger.warnf("Accounting spool checkpoint %d:%d does not match the segments, replaying from %d",
+                        checkpoint[0], checkpoint[1], oldest);
+            }
+            ackSeq = oldest;
+            ackOffset = 0;
+        }
+        for (long seq : segments) {
+            if (seq < ackSeq) {
+                Files.deleteIfExists(segmentPath(seq));
+            }
+        }
+        writeSegment = map(writeSeq);
+        writeSegment.position(recoverEnd(writeSegment));
+        pendingRecords.set(countFrames());
+    }
+
+    /**
+     * Finds the end of the valid frames in the last segment and clears anything after it, so
+     * a torn frame is not taken for data once new frames are written around it.
+     */
+    private int recoverEnd(ByteBuffer segment) {
+        int offset = 0;
+        int length;
+        while ((length = frameLength(segment, offset, segment.capacity())) > 0) {
+            offset += FRAME_HEADER + length;
+        }
+        if (length < 0) {
+            logger.warnf("Discarding torn accounting spool frame at %d in segment %d", offset, writeSeq);
+            for (int i = offset; i < segment.capacity(); i++) {
+                segment.put(i, (byte) 0);
+            }
+        }
+        return offset;
+    }
+
+    private long countFrames() throws IOException {
+        long count = 0;
+        for (long seq = ackSeq; seq <= writeSeq; seq++) {
+            if (!Files.exists(segmentPath(seq))) {
+                continue;
+            }
+            ByteBuffer segment = seq == writeSeq ? writeSegment : map(seq);
+            int limit = seq == writeSeq ? writeSegment.position() : segment.capacity();
+            int offset = seq == ackSeq ? ackOffset : 0;
+            int length;
+            while ((length = frameLength(segment, offset, limit)) > 0) {
+                offset += FRAME_HEADER + length;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Length of the payload of the frame at {@code offset}: 0 at the end of the data, -1 if
+     * the frame is torn or fails its checksum.
+     */
+    private int frameLength(ByteBuffer segment, int offset, int limit) {
+        if (limit - offset < FRAME_HEADER) {
+            return 0;
+        }
+        int length = segment.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < 0 || length > limit - offset - FRAME_HEADER) {
+            return -1;
+        }
+        crc.reset();
+        crc.update(segment.slice(offset + FRAME_HEADER, length));
+        return (int) crc.getValue() == segment.getInt(offset + 4) ? length : -1;
+    }
+
+    private AccountingEvent decode(ByteBuffer segment, int offset, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        segment.get(offset, scratch, 0, length);
+        WireReader in = reader.reset(scratch, length);
+        try {
+            return codec.read(in, in.readByte());
+        } catch (IllegalArgumentException e) {
+            logger.errorf("Undecodable accounting spool record: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean roll() {
+        if (writeSeq - ackSeq + 1 >= maxSegments) {
+            logger.errorf("Accounting spool is full (%d segments), dropping events", writeSeq - ackSeq + 1);
+            return false;
+        }
+        try {
+            MappedByteBuffer next = map(writeSeq + 1);
+            writeSegment.force();
+            writeSeq++;
+            writeSegment = next;
+            return true;
+        } catch (IOException e) {
+            logger.errorf(e, "Failed to create accounting spool segment %d", writeSeq + 1);
+            return false;
+        }
+    }
+
+    private ByteBuffer segment(long seq) {
+        if (seq == writeSeq) {
+            return writeSegment;
+        }
+        if (seq != readSeq) {
+            try {
+                readSegment = map(seq);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map accounting spool segment " + seq, e);
+            }
+            readSeq = seq;
+        }
+        return readSegment;
+    }
+
+    /**
+     * Maps the segment, creating it zero-filled at full size if it does not exist.
+     */
+    private MappedByteBuffer map(long seq) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        if (checkpointChannel.read(buffer, 0) < CHECKPOINT_SIZE) {
+            return null;
+        }
+        crc.reset();
+        crc.update(buffer.array(), 0, 16);
+        if ((int) crc.getValue() != buffer.getInt(16)) {
+            logger.warn("Accounting spool checkpoint fails its checksum, ignoring it");
+            return null;
+        }
+        return new long[]{buffer.getLong(0), buffer.getLong(8)};
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        buffer.putLong(ackSeq).putLong(ackOffset);
+        crc.reset();
+        crc.update(buffer.array(), 0, 16);
+        buffer.putInt((int) crc.getValue()).flip();
+        checkpointChannel.write(buffer, 0);
+        dirty = true;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("spool-") && name.endsWith(".seg"))
+                    .map(name -> Long.parseLong(name, 6, name.length() - 4, 10))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("spool-%020d.seg", seq));
+    }
+}
@@ -0,0 +1,16 @@
+package com.csg.airtel.aaa4j.domain.spool;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+
+import java.util.List;
+
+/**
+ * Events read from the {@link AccountingSpool}, with the position just past the last of them
+ * that {@link AccountingSpool#acknowledge} moves the replay checkpoint to.
+ */
+public record SpoolBatch(List<AccountingEvent> requests, long endSeq, int endOffset) {
+
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+}
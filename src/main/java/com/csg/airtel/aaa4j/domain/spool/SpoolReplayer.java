@@ -0,0 +1,154 @@
+package com.csg.airtel.aaa4j.domain.spool;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.producer.AccountingBatchSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the {@link AccountingSpool} back into Kafka on a dedicated thread.
+ * <p>
+ * Each round reads up to {@code batch-size} events, sends them through
+ * {@link AccountingBatchSender#replay} and acknowledges them in the spool only once Kafka has
+ * acked all of them. Rounds are paced to {@code rate-per-second}, so a large backlog drains
+ * alongside live traffic instead of competing with it. A failed round is retried after an
+ * exponential backoff, reset by the next success. The spool is also synced from here, every
+ * {@code sync-interval-ms}.
+ * <p>
+ * Replayed events may reach Kafka after newer live events of the same session; consumers
+ * order by the event timestamp.
+ */
+@ApplicationScoped
+@Startup
+public class SpoolReplayer {
+
+    private static final Logger logger = Logger.getLogger(SpoolReplayer.class);
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final AccountingSpool spool;
+    private final AccountingBatchSender batchSender;
+    private final int batchSize;
+    private final int ratePerSecond;
+    private final long timeoutMs;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long syncIntervalNanos;
+
+    private final AtomicLong backoffMs = new AtomicLong();
+    private long lastSync = System.nanoTime();
+
+    private volatile boolean running;
+    private Thread replayer;
+
+    @Inject
+    public SpoolReplayer(AccountingSpool spool, AccountingBatchSender batchSender, RadiusServerConfig config,
+                         MeterRegistry meterRegistry) {
+        RadiusServerConfig.SpoolConfig spoolConfig = config.accounting().spool();
+        this.spool = spool;
+        this.batchSender = batchSender;
+        this.batchSize = Math.max(1, spoolConfig.replay().batchSize());
+        this.ratePerSecond = Math.max(1, spoolConfig.replay().ratePerSecond());
+        this.timeoutMs = spoolConfig.replay().timeoutMs();
+        this.initialBackoffMs = Math.max(1, spoolConfig.replay().initialBackoffMs());
+        this.maxBackoffMs = Math.max(initialBackoffMs, spoolConfig.replay().maxBackoffMs());
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(spoolConfig.syncIntervalMs());
+        meterRegistry.gauge("accounting.spool.replay.backoff", backoffMs);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!spool.enabled()) {
+            return;
+        }
+        running = true;
+        replayer = new Thread(this::replayLoop, "accounting-spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (replayer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(replayer);
+        try {
+            replayer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void replayLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long waitNanos;
+            try {
+                waitNanos = replayOnce();
+            } catch (RuntimeException e) {
+                logger.errorf(e, "Accounting spool replay failed");
+                waitNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMs);
+            }
+            if (waitNanos > 0 && running) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Runs one replay round; returns how long to wait before the next, in nanoseconds.
+     */
+    long replayOnce() {
+        long start = System.nanoTime();
+        if (start - lastSync >= syncIntervalNanos) {
+            spool.sync();
+            lastSync = start;
+        }
+
+        SpoolBatch batch = spool.read(batchSize);
+        if (batch.isEmpty()) {
+            // Still moves the checkpoint past segments that held only corrupt frames
+            spool.acknowledge(batch);
+            return IDLE_POLL_NANOS;
+        }
+
+        try {
+            batchSender.replay(batch.requests()).toCompletableFuture().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            long backoff = backoffMs.updateAndGet(current -> current == 0
+                    ? initialBackoffMs
+                    : Math.min(current * 2, maxBackoffMs));
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            logger.warnf("Replay of %d spooled accounting events failed, retrying in %d ms: %s",
+                    batch.requests().size(), backoff, cause);
+            return TimeUnit.MILLISECONDS.toNanos(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+
+        spool.acknowledge(batch);
+        if (backoffMs.getAndSet(0) > 0) {
+            logger.infof("Accounting spool replay recovered, %d events left", spool.pendingRecords());
+        }
+        long paced = batch.requests().size() * 1_000_000_000L / ratePerSecond;
+        return Math.max(0, paced - (System.nanoTime() - start));
+    }
+
+    long backoffMs() {
+        return backoffMs.get();
+    }
+}
@@ -0,0 +1,256 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
+import com.csg.airtel.aaa4j.application.config.WebClientProvider;
+import com.csg.airtel.aaa4j.common.constant.AuthServiceConstants;
+import com.csg.airtel.aaa4j.common.util.TraceIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Gathers authentication calls into batch POSTs to the auth-management service.
+ * <p>
+ * Requests are held for at most {@code linger-ms} or until {@code max-size} are pending,
+ * then sent as one JSON array. Each element is the single-call body plus a
+ * {@code requestId}; the service answers with an array of user details carrying the same
+ * {@code requestId}s, in any order.
+ * <p>
+ * The batch call times out at the earliest deadline among its requests. If it times out,
+ * every request in it fails with a {@link TimeoutException}, whatever time it had left, so
+ * none of them is answered and the NAS retransmits; a single call would only repeat the load
+ * on a backend that is already too slow. A connection error fails the requests with its
+ * cause. Only a fast, decisive failure (a non-2xx status or an undecodable answer) sends each
+ * request whose deadline has not passed to its own single call with the time it has left;
+ * the same applies to a request missing from an otherwise good answer. Requests whose
+ * deadline has passed fail with a {@link TimeoutException}.
+ */
+@ApplicationScoped
+public class AuthBatcher {
+
+    private static final Logger logger = Logger.getLogger(AuthBatcher.class);
+
+    static final String REQUEST_ID = "requestId";
+
+    private final WebClientProvider webClientProvider;
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final String batchUrl;
+    private final int maxSize;
+    private final long lingerMs;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter fallbackCounter;
+    private final Counter expiredCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending> pending = new ArrayList<>();
+    private long lingerTimerId = -1;
+
+    @Inject
+    public AuthBatcher(WebClientProvider webClientProvider, Vertx vertx, AuthClientConfig config,
+                       MeterRegistry meterRegistry,
+                       @ConfigProperty(name = "auth.service.url") String authServiceUrl) {
+        AuthClientConfig.BatchConfig batchConfig = config.batch();
+        this.webClientProvider = webClientProvider;
+        this.vertx = vertx;
+        this.enabled = batchConfig.enabled();
+        this.batchUrl = batchConfig.url().orElse(authServiceUrl + "/batch");
+        this.maxSize = Math.max(1, batchConfig.maxSize());
+        this.lingerMs = Math.max(1, batchConfig.lingerMs());
+        this.batchSizeSummary = meterRegistry.summary("auth.batch.size");
+        this.fallbackCounter = meterRegistry.counter("auth.batch.fallbacks");
+        this.expiredCounter = meterRegistry.counter("auth.batch.expired");
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the request body for the next batch. {@code singleCall} is given the time left
+     * before {@code deadline} and used if the batch cannot answer for this request.
+     */
+    public Uni<UserDetails> submit(JsonObject body, Duration deadline,
+                                   Function<Duration, Uni<UserDetails>> singleCall) {
+        return Uni.createFrom().emitter(emitter -> enqueue(
+                new Pending(body, System.nanoTime() + deadline.toNanos(), singleCall, emitter)));
+    }
+
+    private void enqueue(Pending request) {
+        List<Pending> full = null;
+        lock.lock();
+        try {
+            pending.add(request);
+            if (pending.size() >= maxSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                lingerTimerId = vertx.setTimer(lingerMs, this::flushLingering);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    private void flushLingering(long timerId) {
+        List<Pending> batch;
+        lock.lock();
+        try {
+            // A size-triggered flush may already have taken the batch this timer was armed for
+            if (timerId != lingerTimerId || pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private List<Pending> takePending() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>(maxSize);
+        if (lingerTimerId >= 0) {
+            vertx.cancelTimer(lingerTimerId);
+            lingerTimerId = -1;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        batchSizeSummary.record(batch.size());
+
+        JsonArray requests = new JsonArray();
+        long now = System.nanoTime();
+        long timeoutMs = Long.MAX_VALUE;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending request = batch.get(i);
+            requests.add(request.body().copy().put(REQUEST_ID, String.valueOf(i)));
+            timeoutMs = Math.min(timeoutMs, request.remainingMs(now));
+        }
+        // Vert.x treats a zero timeout as none
+        timeoutMs = Math.max(1, timeoutMs);
+        long timeoutNanos = now + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        try {
+            webClientProvider.getClient()
+                    .postAbs(batchUrl)
+                    .timeout(timeoutMs)
+                    .putHeader(AuthServiceConstants.HEADER_TRACE_ID, TraceIdGenerator.generateTraceId())
+                    .putHeader("Content-Type", "application/json")
+                    .sendJson(requests, ar -> onBatchResponse(batch, timeoutNanos, ar));
+        } catch (RuntimeException e) {
+            fallBack(batch, e);
+        }
+    }
+
+    private void onBatchResponse(List<Pending> batch, long timeoutNanos, AsyncResult<HttpResponse<Buffer>> ar) {
+        if (ar.failed()) {
+            logger.warnf("Auth batch of %d failed: %s", batch.size(), ar.cause().getMessage());
+            long now = System.nanoTime();
+            // Vert.x reports its own timeout with an exception type that varies across versions
+            boolean timedOut = ar.cause() instanceof TimeoutException || now - timeoutNanos >= 0;
+            for (Pending request : batch) {
+                if (request.remainingMs(now) <= 0) {
+                    expire(request);
+                } else if (timedOut) {
+                    TimeoutException timeout = new TimeoutException("Auth batch timed out before this request's deadline");
+                    timeout.initCause(ar.cause());
+                    request.emitter().fail(timeout);
+                } else {
+                    request.emitter().fail(ar.cause());
+                }
+            }
+            return;
+        }
+        HttpResponse<Buffer> response = ar.result();
+        if (response.statusCode() / 100 != 2) {
+            fallBack(batch, new IllegalStateException("Batch endpoint returned HTTP " + response.statusCode()));
+            return;
+        }
+
+        Map<String, JsonObject> results = new HashMap<>();
+        try {
+            JsonArray answers = response.bodyAsJsonArray();
+            for (int i = 0; i < answers.size(); i++) {
+                JsonObject answer = answers.getJsonObject(i);
+                results.put(answer.getString(REQUEST_ID), answer);
+            }
+        } catch (RuntimeException e) {
+            fallBack(batch, e);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Pending request = batch.get(i);
+            JsonObject answer = results.get(String.valueOf(i));
+            if (answer == null) {
+                fallBack(request);
+                continue;
+            }
+            try {
+                answer.remove(REQUEST_ID);
+                request.emitter().complete(answer.mapTo(UserDetails.class));
+            } catch (RuntimeException e) {
+                request.emitter().fail(e);
+            }
+        }
+    }
+
+    private void fallBack(List<Pending> batch, Throwable cause) {
+        logger.warnf("Auth batch of %d failed, falling back to single calls: %s", batch.size(), cause.getMessage());
+        for (Pending request : batch) {
+            fallBack(request);
+        }
+    }
+
+    private void fallBack(Pending request) {
+        long remainingMs = request.remainingMs(System.nanoTime());
+        if (remainingMs <= 0) {
+            expire(request);
+            return;
+        }
+        fallbackCounter.increment();
+        request.singleCall().apply(Duration.ofMillis(remainingMs))
+                .subscribe().with(request.emitter()::complete, request.emitter()::fail);
+    }
+
+    private void expire(Pending request) {
+        expiredCounter.increment();
+        request.emitter().fail(new TimeoutException("Auth batch did not answer before the deadline"));
+    }
+
+    private record Pending(JsonObject body, long deadlineNanos, Function<Duration, Uni<UserDetails>> singleCall,
+                           UniEmitter<? super UserDetails> emitter) {
+
+        long remainingMs(long now) {
+            return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - now);
+        }
+    }
+}
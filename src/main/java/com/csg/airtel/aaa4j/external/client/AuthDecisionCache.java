@@ -0,0 +1,158 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of authorization decisions in front of the auth-management service.
+ * <p>
+ * Entries are keyed by {@link CredentialKey}. Accepts and rejects have separate TTLs, so a
+ * subscriber who just topped up is not kept out for long. A hit on an accept that is past
+ * the refresh-ahead point is answered from the cache and also starts one background reload
+ * using the credentials of that request, so busy subscribers never see a miss. Only real
+ * backend answers are cached; failures and timeouts are not.
+ * <p>
+ * Hit/miss, eviction and size metrics are published under {@code cache.*} with
+ * {@code cache=auth-decisions}, and backend load latency under {@code auth.cache.load}.
+ */
+@ApplicationScoped
+public class AuthDecisionCache {
+
+    private static final Logger logger = Logger.getLogger(AuthDecisionCache.class);
+
+    static final String CACHE_NAME = "auth-decisions";
+
+    private final boolean enabled;
+    private final Duration acceptTtl;
+    private final Duration rejectTtl;
+    private final long refreshAheadNanos;
+
+    private final Cache<CredentialKey, CachedDecision> cache;
+    private final Timer loadSuccessTimer;
+    private final Timer loadFailureTimer;
+
+    @Inject
+    public AuthDecisionCache(AuthClientConfig config, MeterRegistry meterRegistry) {
+        AuthClientConfig.CacheConfig cacheConfig = config.cache();
+        this.enabled = cacheConfig.enabled();
+        this.acceptTtl = Duration.ofSeconds(cacheConfig.acceptTtlSeconds());
+        this.rejectTtl = Duration.ofSeconds(cacheConfig.rejectTtlSeconds());
+        this.refreshAheadNanos = (long) (acceptTtl.toNanos() * cacheConfig.refreshAheadFactor());
+
+        // Caffeine's size-based eviction is W-TinyLFU: one-off usernames do not push out regulars
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.maxEntries())
+                .expireAfter(Expiry.writing((CredentialKey key, CachedDecision decision) -> decision.ttl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        this.loadSuccessTimer = meterRegistry.timer("auth.cache.load", "result", "success");
+        this.loadFailureTimer = meterRegistry.timer("auth.cache.load", "result", "failure");
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached decision for the key, or subscribes to {@code loader} and caches its
+     * result. A stale-but-valid accept is returned immediately while one reload runs behind it.
+     */
+    public Uni<UserDetails> get(CredentialKey key, Supplier<Uni<UserDetails>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CachedDecision cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return load(key, loader);
+        }
+
+        if (cached.refreshDue(System.nanoTime()) && cached.startRefresh()) {
+            load(key, loader).subscribe().with(
+                    refreshed -> logger.debugf("Refreshed cached decision for user %s", key.username()),
+                    failure -> {
+                        cached.refreshFailed();
+                        logger.debugf("Refresh-ahead failed for user %s: %s", key.username(), failure.getMessage());
+                    });
+        }
+        return Uni.createFrom().item(cached.userDetails());
+    }
+
+    public void invalidate(CredentialKey key) {
+        cache.invalidate(key);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Uni<UserDetails> load(CredentialKey key, Supplier<Uni<UserDetails>> loader) {
+        return Uni.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            return loader.get()
+                    .invoke(userDetails -> {
+                        loadSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        cache.put(key, decisionFor(userDetails));
+                    })
+                    .onFailure().invoke(() -> loadFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private CachedDecision decisionFor(UserDetails userDetails) {
+        long now = System.nanoTime();
+        boolean accepted = userDetails.getIsAuthorized() && userDetails.getIsActive() && userDetails.getIsEnoughBalance();
+        return accepted
+                ? new CachedDecision(userDetails, acceptTtl, now + refreshAheadNanos)
+                : new CachedDecision(userDetails, rejectTtl, Long.MAX_VALUE);
+    }
+
+    private static final class CachedDecision {
+        private final UserDetails userDetails;
+        private final Duration ttl;
+        private final long refreshAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedDecision(UserDetails userDetails, Duration ttl, long refreshAt) {
+            this.userDetails = userDetails;
+            this.ttl = ttl;
+            this.refreshAt = refreshAt;
+        }
+
+        UserDetails userDetails() {
+            return userDetails;
+        }
+
+        Duration ttl() {
+            return ttl;
+        }
+
+        boolean refreshDue(long now) {
+            return refreshAt != Long.MAX_VALUE && now - refreshAt >= 0;
+        }
+
+        boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        void refreshFailed() {
+            refreshing.set(false);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.csg.airtel.aaa4j.external.client;
 
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
 import com.csg.airtel.aaa4j.application.config.WebClientProvider;
 import com.csg.airtel.aaa4j.common.constant.AuthServiceConstants;
 import com.csg.airtel.aaa4j.common.util.TraceIdGenerator;
 import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
@@ -15,34 +18,104 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
-import java.util.concurrent.CompletableFuture;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 public class AuthManagementServiceClient {
 
     private final WebClientProvider webClientProvider;
+    private final AuthDecisionCache decisionCache;
+    private final AuthBatcher authBatcher;
+    private final SingleFlight<CredentialKey, UserDetails> singleFlight;
+    private final boolean coalesce;
     private static final Logger logger = LoggerFactory.getLogger(AuthManagementServiceClient.class);
 
+    /**
+     * Per-process salt for credential keys, so hashes are not comparable across nodes or restarts
+     */
+    private final byte[] credentialSalt = new byte[16];
+
     @Inject
-    public AuthManagementServiceClient(WebClientProvider webClientProvider) {
+    public AuthManagementServiceClient(WebClientProvider webClientProvider, AuthDecisionCache decisionCache,
+                                       AuthBatcher authBatcher, AuthClientConfig config, MeterRegistry meterRegistry) {
         this.webClientProvider = webClientProvider;
+        this.decisionCache = decisionCache;
+        this.authBatcher = authBatcher;
+        this.coalesce = config.coalesce();
+        this.singleFlight = new SingleFlight<>(meterRegistry.counter("auth.requests.coalesced"));
+        new SecureRandom().nextBytes(credentialSalt);
     }
 
+    /**
+     * Deadline for callers that do not derive one from the NAS retransmit budget.
+     */
+    static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(5);
+
     @ConfigProperty(name = "auth.service.url")
     String authServiceUrl; // Configurable endpoint
 
+    /**
+     * Blocking call bounded by {@link #DEFAULT_DEADLINE}.
+     */
     public UserDetails authenticate(String username, String password, String chapChallenge, String chapPassword, String nasIpAddress)  throws InterruptedException {
-        WebClient client = webClientProvider.getClient();
-        CompletableFuture<UserDetails> future = new CompletableFuture<>();
+        return authenticate(username, password, chapChallenge, chapPassword, nasIpAddress, DEFAULT_DEADLINE);
+    }
 
-        String traceId = MDC.get(AuthServiceConstants.TRACE_ID);
-        if (traceId == null || traceId.isBlank()) {
-            traceId = TraceIdGenerator.generateTraceId();
-            MDC.put(AuthServiceConstants.TRACE_ID, traceId);
+    /**
+     * Blocking call for callers that run on a worker thread. The thread is held for at most
+     * {@code deadline}. Returns {@code null} once the deadline has passed, as the caller should
+     * then not answer; any other failure yields an unauthorized user.
+     */
+    public UserDetails authenticate(String username, String password, String chapChallenge, String chapPassword,
+                                    String nasIpAddress, Duration deadline) throws InterruptedException {
+        String traceId = resolveTraceId();
+        try {
+            return authenticateAsync(username, password, chapChallenge, chapPassword, nasIpAddress, deadline)
+                    .subscribeAsCompletionStage()
+                    .get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                logger.warn("[{}] {}", traceId, e.getCause().getMessage());
+                return null;
+            }
+            logger.error("[{}] {}: {}", traceId, AuthServiceConstants.MSG_INTERNAL_ERROR, e.getMessage(), e);
+            return new UserDetails(username, false, false, false, null, null);
+        }
+    }
+
+    /**
+     * Non-blocking call. A cached decision completes immediately, and a call identical to one
+     * already in flight shares its result; otherwise (possibly batched with others) the returned Uni
+     * completes on the Vert.x event loop that received the response, or fails with a
+     * {@link TimeoutException} once {@code deadline} has passed. No thread waits on the backend
+     * in the meantime. Failures are propagated so the caller can decide between rejecting and
+     * not answering.
+     */
+    public Uni<UserDetails> authenticateAsync(String username, String password, String chapChallenge,
+                                              String chapPassword, String nasIpAddress, Duration deadline) {
+        String traceId = resolveTraceId();
+        JsonObject body = buildRequestBody(username, password, chapChallenge, chapPassword, nasIpAddress);
+        Supplier<Uni<UserDetails>> backendCall = authBatcher.enabled()
+                ? () -> withDeadline(authBatcher.submit(body, deadline,
+                        remaining -> callAuthService(traceId, username, body, remaining)), deadline)
+                : () -> callAuthService(traceId, username, body, deadline);
+
+        if (!decisionCache.enabled() && !coalesce) {
+            return backendCall.get();
         }
 
-        // Build JSON body
+        // One key for both the decision cache and coalescing of concurrent identical attempts
+        CredentialKey key = CredentialKey.of(credentialSalt, username, password, chapChallenge, chapPassword);
+        Supplier<Uni<UserDetails>> loader = coalesce ? () -> singleFlight.execute(key, backendCall) : backendCall;
+        return decisionCache.get(key, loader);
+    }
+
+    private static JsonObject buildRequestBody(String username, String password, String chapChallenge,
+                                               String chapPassword, String nasIpAddress) {
         JsonObject body = new JsonObject();
         body.put("username", username);
         if (password != null && !password.isBlank()) {
@@ -57,31 +130,58 @@ public class AuthManagementServiceClient {
         if (nasIpAddress != null && !nasIpAddress.isBlank()) {
             body.put("nasIpAddress", nasIpAddress);
         }
+        return body;
+    }
+
+    private Uni<UserDetails> callAuthService(String traceId, String username, JsonObject body, Duration deadline) {
+        WebClient client = webClientProvider.getClient();
 
-        // Make POST request with JSON body
-        client.postAbs(authServiceUrl)
+        // Make POST request with JSON body; the request timeout also releases the connection at the deadline
+        Uni<UserDetails> response = Uni.createFrom().emitter(emitter -> client.postAbs(authServiceUrl)
+                .timeout(deadline.toMillis())
                 .putHeader(AuthServiceConstants.HEADER_TRACE_ID, traceId)
                 .putHeader(AuthServiceConstants.HEADER_USER_NAME, username)
                 .putHeader("Content-Type", "application/json")
                 .sendJsonObject(body, ar -> {
                     if (ar.succeeded()) {
-                        HttpResponse<Buffer> response = ar.result();
-                        JsonObject json = response.bodyAsJsonObject();
-                        UserDetails user = json.mapTo(UserDetails.class);
-                        future.complete(user);
+                        HttpResponse<Buffer> httpResponse = ar.result();
+                        if (httpResponse.statusCode() / 100 != 2) {
+                            // Not a decision, so it must not be cached as a reject
+                            emitter.fail(new IllegalStateException(
+                                    "Auth service returned HTTP " + httpResponse.statusCode()));
+                            return;
+                        }
+                        try {
+                            JsonObject json = httpResponse.bodyAsJsonObject();
+                            emitter.complete(json.mapTo(UserDetails.class));
+                        } catch (RuntimeException e) {
+                            emitter.fail(e);
+                        }
                     } else {
-                        future.completeExceptionally(ar.cause());
+                        emitter.fail(ar.cause());
                     }
-                });
+                }));
 
-        try {
-            return future.get(); // Blocking, you can add timeout if needed
-        } catch (ExecutionException e) {
-            logger.error("[{}] {}: {}", traceId, AuthServiceConstants.MSG_INTERNAL_ERROR, e.getMessage(), e);
-            return new UserDetails(username, false, false, false, null, null);
-        } finally {
-            MDC.remove(AuthServiceConstants.TRACE_ID);
+        return withDeadline(response, deadline);
+    }
+
+    private static Uni<UserDetails> withDeadline(Uni<UserDetails> response, Duration deadline) {
+        return response
+                .ifNoItem().after(deadline)
+                .failWith(() -> new TimeoutException(
+                        String.format("Auth service did not answer within %d ms", deadline.toMillis())));
+    }
+
+    /**
+     * The caller's trace id, or a new one. The MDC is left as the caller set it: on the event
+     * loop nothing would remove an id put there for the next request.
+     */
+    private static String resolveTraceId() {
+        String traceId = MDC.get(AuthServiceConstants.TRACE_ID);
+        if (traceId == null || traceId.isBlank()) {
+            traceId = TraceIdGenerator.generateTraceId();
         }
+        return traceId;
     }
 
 }
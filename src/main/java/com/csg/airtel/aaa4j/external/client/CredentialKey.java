@@ -0,0 +1,50 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Identity of an authentication attempt: the username plus a salted SHA-256 of the
+ * credentials presented (PAP password, or CHAP challenge and response). Two attempts with
+ * the same key would get the same answer from the backend, so the key is used both for the
+ * decision cache and for coalescing concurrent calls. Credentials never appear in the key
+ * in clear.
+ */
+public record CredentialKey(String username, long credentialHashHigh, long credentialHashLow) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    public static CredentialKey of(byte[] salt, String username, String password, String chapChallenge,
+                                   String chapPassword) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        digest.update(salt);
+        update(digest, password);
+        update(digest, chapChallenge);
+        update(digest, chapPassword);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new CredentialKey(username, hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Length-prefixes each field so that different splits of the same characters never collide.
+     */
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
@@ -0,0 +1,64 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with the same key into one.
+ * <p>
+ * The first caller for a key starts the call; callers that arrive while it is in flight
+ * subscribe to the same result instead of starting their own. The key is released as soon
+ * as the call completes, so later callers start a fresh call (or hit a cache in front of
+ * this). Each subscriber gets its own copy of the shared future, so one subscriber
+ * cancelling does not cancel the call for the others.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public SingleFlight(Counter coalescedCounter) {
+        this.coalescedCounter = coalescedCounter;
+    }
+
+    public Uni<V> execute(K key, Supplier<Uni<V>> call) {
+        return Uni.createFrom().deferred(() -> {
+            CompletableFuture<V> existing = inFlight.get(key);
+            if (existing != null) {
+                coalescedCounter.increment();
+                return Uni.createFrom().completionStage(existing::copy);
+            }
+
+            CompletableFuture<V> created = new CompletableFuture<>();
+            existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                coalescedCounter.increment();
+                return Uni.createFrom().completionStage(existing::copy);
+            }
+
+            try {
+                call.get().subscribe().with(
+                        value -> {
+                            inFlight.remove(key, created);
+                            created.complete(value);
+                        },
+                        failure -> {
+                            inFlight.remove(key, created);
+                            created.completeExceptionally(failure);
+                        });
+            } catch (RuntimeException e) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(e);
+            }
+            return Uni.createFrom().completionStage(created::copy);
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
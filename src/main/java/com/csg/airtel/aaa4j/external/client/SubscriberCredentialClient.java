@@ -0,0 +1,100 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
+import com.csg.airtel.aaa4j.application.config.WebClientProvider;
+import com.csg.airtel.aaa4j.common.constant.AuthServiceConstants;
+import com.csg.airtel.aaa4j.common.util.TraceIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.SubscriberCredentials;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches and caches subscriber credential material for in-node verification.
+ * <p>
+ * Entries are loaded with {@code GET {url}/{username}} and kept for the profile TTL; once
+ * older than the refresh interval a lookup still returns the cached entry and reloads it in
+ * the background. Concurrent misses for one subscriber share a single fetch. A 404 means
+ * there is nothing to verify against locally and is not cached, so the caller falls back to
+ * the auth service. Cache metrics are published with {@code cache=subscriber-credentials}.
+ */
+@ApplicationScoped
+public class SubscriberCredentialClient {
+
+    static final String CACHE_NAME = "subscriber-credentials";
+
+    private final WebClientProvider webClientProvider;
+    private final boolean enabled;
+    private final String credentialsUrl;
+    private final long fetchTimeoutMs;
+    private final AsyncLoadingCache<String, SubscriberCredentials> cache;
+
+    @Inject
+    public SubscriberCredentialClient(WebClientProvider webClientProvider, AuthClientConfig config,
+                                      MeterRegistry meterRegistry,
+                                      @ConfigProperty(name = "auth.service.url") String authServiceUrl) {
+        AuthClientConfig.LocalVerifyConfig localVerify = config.localVerify();
+        this.webClientProvider = webClientProvider;
+        this.enabled = localVerify.enabled();
+        this.credentialsUrl = localVerify.url().orElse(authServiceUrl + "/credentials");
+        this.fetchTimeoutMs = localVerify.fetchTimeoutMs();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(localVerify.maxEntries())
+                .expireAfterWrite(Duration.ofSeconds(localVerify.profileTtlSeconds()))
+                .refreshAfterWrite(Duration.ofSeconds(localVerify.profileRefreshSeconds()))
+                .recordStats()
+                .buildAsync((username, executor) -> fetch(username));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the subscriber's credentials, or a {@code null} item if the service has none.
+     */
+    public Uni<SubscriberCredentials> get(String username) {
+        return Uni.createFrom().completionStage(() -> cache.get(username));
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    private CompletableFuture<SubscriberCredentials> fetch(String username) {
+        CompletableFuture<SubscriberCredentials> result = new CompletableFuture<>();
+        webClientProvider.getClient()
+                .getAbs(credentialsUrl + "/" + URLEncoder.encode(username, StandardCharsets.UTF_8))
+                .timeout(fetchTimeoutMs)
+                .putHeader(AuthServiceConstants.HEADER_TRACE_ID, TraceIdGenerator.generateTraceId())
+                .putHeader(AuthServiceConstants.HEADER_USER_NAME, username)
+                .send(ar -> {
+                    if (ar.failed()) {
+                        result.completeExceptionally(ar.cause());
+                    } else if (ar.result().statusCode() == 404) {
+                        result.complete(null);
+                    } else if (ar.result().statusCode() / 100 != 2) {
+                        result.completeExceptionally(new IllegalStateException(
+                                "Credential endpoint returned HTTP " + ar.result().statusCode()));
+                    } else {
+                        try {
+                            result.complete(ar.result().bodyAsJsonObject().mapTo(SubscriberCredentials.class));
+                        } catch (RuntimeException e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+                });
+        return result;
+    }
+}
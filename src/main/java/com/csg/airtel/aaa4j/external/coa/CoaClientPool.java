@@ -0,0 +1,107 @@
+package com.csg.airtel.aaa4j.external.coa;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.aaa4j.radius.core.packet.Packet;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Long-lived {@link NasCoaClient}s, one per destination NAS, opened on first use.
+ * <p>
+ * A single Vert.x periodic timer drives the retransmit wheels of all clients every
+ * {@code tick-ms}; an idle client returns from its tick straight away. Metrics, tagged with the
+ * NAS address: {@code radius.coa.inflight}, {@code radius.coa.latency},
+ * {@code radius.coa.retransmits}, {@code radius.coa.timeouts} and
+ * {@code radius.coa.responses.unmatched}.
+ */
+@ApplicationScoped
+public class CoaClientPool {
+
+    private final Vertx vertx;
+    private final RadiusServerConfig.CoaConfig config;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<InetSocketAddress, NasCoaClient> clients = new ConcurrentHashMap<>();
+    private long tickTimerId = -1;
+
+    @Inject
+    public CoaClientPool(Vertx vertx, RadiusServerConfig config, MeterRegistry meterRegistry) {
+        this(vertx, config.coa(), () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()), meterRegistry);
+    }
+
+    CoaClientPool(Vertx vertx, RadiusServerConfig.CoaConfig config, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.vertx = vertx;
+        this.config = config;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        tickTimerId = vertx.setPeriodic(Math.max(1, config.tickMs()), id -> tick());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (tickTimerId >= 0) {
+            vertx.cancelTimer(tickTimerId);
+            tickTimerId = -1;
+        }
+        for (NasCoaClient client : clients.values()) {
+            client.close();
+        }
+        clients.clear();
+    }
+
+    /**
+     * Sends a Disconnect or CoA request to the NAS. The Uni completes with the NAS's response
+     * packet whatever its code (ACK or NAK), and fails with a
+     * {@link java.util.concurrent.TimeoutException} if no response came after the last retransmit,
+     * or with a {@link java.util.concurrent.RejectedExecutionException} if too many requests to
+     * the NAS are already waiting for an Identifier.
+     */
+    public Uni<Packet> send(InetSocketAddress nasAddress, byte[] secret, Packet request) {
+        return Uni.createFrom().emitter(emitter -> client(nasAddress).send(request, secret, emitter));
+    }
+
+    /**
+     * Requests to the NAS awaiting a response
+     */
+    public int inFlight(InetSocketAddress nasAddress) {
+        NasCoaClient client = clients.get(nasAddress);
+        return client != null ? client.inFlight() : 0;
+    }
+
+    private NasCoaClient client(InetSocketAddress nasAddress) {
+        NasCoaClient client = clients.computeIfAbsent(nasAddress, this::open);
+        if (client.isClosed()) {
+            // Its sockets failed to bind; open a fresh one
+            clients.remove(nasAddress, client);
+            client = clients.computeIfAbsent(nasAddress, this::open);
+        }
+        return client;
+    }
+
+    private NasCoaClient open(InetSocketAddress nasAddress) {
+        return new NasCoaClient(vertx, nasAddress, config.socketsPerNas(), config.bindAddress(), config.timeoutMs(),
+                config.retransmits(), config.maxPending(), config.tickMs(), clock, meterRegistry);
+    }
+
+    private void tick() {
+        for (NasCoaClient client : clients.values()) {
+            client.tick();
+        }
+    }
+}
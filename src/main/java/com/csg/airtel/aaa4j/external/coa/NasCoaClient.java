@@ -0,0 +1,523 @@
+package com.csg.airtel.aaa4j.external.coa;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.datagram.DatagramPacket;
+import io.vertx.core.datagram.DatagramSocket;
+import io.vertx.core.datagram.DatagramSocketOptions;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.PacketCodecException;
+import org.aaa4j.radius.core.packet.PacketIdGenerator;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.jboss.logging.Logger;
+
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Long-lived CoA / Disconnect client for one NAS.
+ * <p>
+ * Owns a few UDP sockets bound once to ephemeral ports. Each socket has its own 8-bit
+ * Identifier space, so up to 256 requests per socket are in flight at a time; further requests
+ * wait in a bounded queue for an Identifier to come free. A response is matched to its request
+ * by the socket and Identifier it arrives on, and accepted only if its Response Authenticator
+ * was computed over that request's Request Authenticator, so a late answer to an earlier user
+ * of the Identifier is dropped. Unanswered requests are sent again, with the same bytes, every
+ * {@code timeout-ms} from a {@link TimerWheel}, and fail with a {@link TimeoutException} after
+ * the last retransmit.
+ * <p>
+ * Nothing blocks: callers get a {@code Uni} completed from the socket's event loop or the
+ * wheel's tick. State is guarded by one lock per NAS, held only for slot bookkeeping and
+ * encoding; sends, decoding and completions happen outside it.
+ */
+final class NasCoaClient {
+
+    private static final Logger logger = Logger.getLogger(NasCoaClient.class);
+
+    private static final int IDENTIFIERS = 256;
+    private static final int WHEEL_SIZE = 512;
+    private static final int ACCOUNTING_REQUEST = 4;
+    /**
+     * Room for the responses to a full Identifier space arriving together
+     */
+    private static final int RECEIVE_BUFFER_BYTES = 1 << 20;
+
+    private final InetSocketAddress nasAddress;
+    private final String nasHost;
+    private final long timeoutMs;
+    private final int retransmits;
+    private final int maxPending;
+    private final LongSupplier clock;
+    private final MeterRegistry meterRegistry;
+
+    private final AssignedIdentifier identifier = new AssignedIdentifier();
+    private final PacketCodec packetCodec =
+            new PacketCodec(new StandardDictionary(), new SecureRandomProvider(), identifier);
+    private final MessageDigest md5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Channel[] channels;
+    private final TimerWheel<Request> wheel;
+    private final ArrayDeque<Request> waiting = new ArrayDeque<>();
+    private int nextChannel;
+    private boolean closed;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Gauge inFlightGauge;
+    private final Timer latencyTimer;
+    private final Counter retransmitCounter;
+    private final Counter timeoutCounter;
+    private final Counter unmatchedCounter;
+
+    NasCoaClient(Vertx vertx, InetSocketAddress nasAddress, int sockets, String bindAddress, long timeoutMs,
+                 int retransmits, int maxPending, long tickMs, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.nasAddress = nasAddress;
+        this.nasHost = nasAddress.getAddress().getHostAddress();
+        this.timeoutMs = Math.max(1, timeoutMs);
+        this.retransmits = Math.max(0, retransmits);
+        this.maxPending = Math.max(0, maxPending);
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new TimerWheel<>(tickMs, WHEEL_SIZE, clock.getAsLong());
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+
+        Tags tags = Tags.of("nas", nasHost);
+        this.inFlightGauge = Gauge.builder("radius.coa.inflight", inFlight, AtomicInteger::get)
+                .tags(tags)
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("radius.coa.latency")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retransmitCounter = meterRegistry.counter("radius.coa.retransmits", tags);
+        this.timeoutCounter = meterRegistry.counter("radius.coa.timeouts", tags);
+        this.unmatchedCounter = meterRegistry.counter("radius.coa.responses.unmatched", tags);
+
+        this.channels = new Channel[Math.max(1, sockets)];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new Channel(vertx.createDatagramSocket(
+                    new DatagramSocketOptions().setReceiveBufferSize(RECEIVE_BUFFER_BYTES)));
+        }
+        // Bound after the array is complete: listen callbacks look at every channel
+        for (Channel channel : channels) {
+            channel.listen(bindAddress);
+        }
+    }
+
+    /**
+     * Sends the request and completes the emitter with the NAS's response, or fails it after
+     * the last retransmit, when the waiting queue is full or when the client is closed.
+     */
+    void send(Packet packet, byte[] secret, UniEmitter<? super Packet> emitter) {
+        Request request = new Request(packet, secret, emitter);
+        emitter.onTermination(() -> abandon(request));
+        Throwable failure = null;
+        lock.lock();
+        try {
+            if (closed) {
+                failure = new IllegalStateException("CoA client for " + nasAddress + " is closed");
+            } else if (!waiting.isEmpty() || !start(request)) {
+                if (waiting.size() >= maxPending) {
+                    failure = new RejectedExecutionException(
+                            "CoA requests to " + nasAddress + " already waiting (" + maxPending + ")");
+                } else {
+                    waiting.add(request);
+                }
+            }
+        } catch (PacketCodecException e) {
+            failure = e;
+        } finally {
+            request.done = failure != null;
+            lock.unlock();
+        }
+        if (failure != null) {
+            request.fail(failure);
+        } else if (request.channel != null) {
+            transmit(request);
+        }
+    }
+
+    /**
+     * Retransmits and expires requests whose deadline passed
+     */
+    void tick() {
+        if (inFlight.get() == 0) {
+            return;
+        }
+        List<Request> resend = new ArrayList<>();
+        List<Request> expired = new ArrayList<>();
+        List<Request> started;
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            wheel.advance(now, request -> {
+                if (request.attemptsLeft > 0) {
+                    request.attemptsLeft--;
+                    wheel.schedule(request, now + timeoutMs);
+                    resend.add(request);
+                } else {
+                    release(request);
+                    expired.add(request);
+                }
+            });
+            started = startWaiting();
+        } finally {
+            lock.unlock();
+        }
+        for (Request request : resend) {
+            retransmitCounter.increment();
+            transmit(request);
+        }
+        for (Request request : expired) {
+            timeoutCounter.increment();
+            request.fail(new TimeoutException("No response from NAS " + nasAddress + " after "
+                    + (retransmits + 1) + " attempts"));
+        }
+        transmitAll(started);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fails every outstanding request and closes the sockets
+     */
+    void close() {
+        List<Request> outstanding = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Channel channel : channels) {
+                for (Request request : channel.slots) {
+                    if (request != null) {
+                        release(request);
+                        outstanding.add(request);
+                    }
+                }
+            }
+            outstanding.addAll(waiting);
+            waiting.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (Request request : outstanding) {
+            request.fail(new IllegalStateException("CoA client for " + nasAddress + " is closed"));
+        }
+        for (Channel channel : channels) {
+            channel.socket.close();
+        }
+        meterRegistry.remove(inFlightGauge);
+        meterRegistry.remove(latencyTimer);
+    }
+
+    /**
+     * Takes an Identifier on a ready socket and encodes the request under it. Lock held.
+     *
+     * @return false if every Identifier of every ready socket is in use
+     */
+    private boolean start(Request request) throws PacketCodecException {
+        for (int i = 0; i < channels.length; i++) {
+            Channel channel = channels[(nextChannel + i) % channels.length];
+            if (!channel.ready || channel.used == IDENTIFIERS) {
+                continue;
+            }
+            nextChannel = (nextChannel + i + 1) % channels.length;
+            int id = channel.allocate(request);
+            try {
+                request.bytes = encode(request.packet, request.secret, id);
+            } catch (PacketCodecException | RuntimeException e) {
+                channel.free(id);
+                throw e;
+            }
+            request.channel = channel;
+            request.identifier = id;
+            request.authenticator = Arrays.copyOfRange(request.bytes, 4, 20);
+            request.startedAt = System.nanoTime();
+            request.attemptsLeft = retransmits;
+            wheel.schedule(request, clock.getAsLong() + timeoutMs);
+            inFlight.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts waiting requests while Identifiers are free. Lock held.
+     *
+     * @return the requests to transmit, or fail if they could not be encoded; null if none
+     */
+    private List<Request> startWaiting() {
+        List<Request> started = null;
+        while (!waiting.isEmpty()) {
+            Request request = waiting.peek();
+            try {
+                if (!start(request)) {
+                    break;
+                }
+            } catch (PacketCodecException | RuntimeException e) {
+                request.done = true;
+                request.failure = e;
+            }
+            waiting.poll();
+            if (started == null) {
+                started = new ArrayList<>();
+            }
+            started.add(request);
+        }
+        return started;
+    }
+
+    /**
+     * Encodes the request with the given Identifier. Disconnect and CoA requests (RFC 5176)
+     * carry MD5(packet with a zero Request Authenticator + secret), which the codec only
+     * computes for Accounting-Request; it is filled in here. Lock held.
+     */
+    private byte[] encode(Packet packet, byte[] secret, int id) throws PacketCodecException {
+        identifier.value = id;
+        byte[] bytes = packetCodec.encodeRequest(packet, secret, new byte[16]);
+        if (packet.getCode() != ACCOUNTING_REQUEST) {
+            md5.reset();
+            md5.update(bytes);
+            md5.update(secret);
+            System.arraycopy(md5.digest(), 0, bytes, 4, 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * Frees the request's Identifier and deadline. Lock held.
+     */
+    private void release(Request request) {
+        request.done = true;
+        if (request.channel != null) {
+            request.channel.free(request.identifier);
+            wheel.cancel(request);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void abandon(Request request) {
+        List<Request> started;
+        lock.lock();
+        try {
+            if (request.done) {
+                return;
+            }
+            if (request.channel != null) {
+                release(request);
+            } else {
+                request.done = true;
+                waiting.remove(request);
+            }
+            started = startWaiting();
+        } finally {
+            lock.unlock();
+        }
+        transmitAll(started);
+    }
+
+    private void onResponse(Channel channel, DatagramPacket datagram) {
+        if (datagram.sender().port() != nasAddress.getPort() || !nasHost.equals(datagram.sender().hostAddress())) {
+            unmatchedCounter.increment();
+            return;
+        }
+        byte[] bytes = datagram.data().getBytes();
+        if (bytes.length < 20) {
+            unmatchedCounter.increment();
+            return;
+        }
+        int id = bytes[1] & 0xFF;
+        Request request;
+        lock.lock();
+        try {
+            request = channel.slots[id];
+        } finally {
+            lock.unlock();
+        }
+        if (request == null) {
+            // Duplicate answer to a retransmitted request, or one that already timed out
+            unmatchedCounter.increment();
+            return;
+        }
+
+        Packet response;
+        try {
+            response = packetCodec.decodeResponse(bytes, request.secret, request.authenticator);
+        } catch (PacketCodecException e) {
+            unmatchedCounter.increment();
+            logger.debugf("Dropping CoA response from %s for Identifier %d: %s", nasAddress, id, e.getMessage());
+            return;
+        }
+
+        List<Request> started;
+        lock.lock();
+        try {
+            if (channel.slots[id] != request) {
+                unmatchedCounter.increment();
+                return;
+            }
+            release(request);
+            started = startWaiting();
+        } finally {
+            lock.unlock();
+        }
+        latencyTimer.record(System.nanoTime() - request.startedAt, TimeUnit.NANOSECONDS);
+        request.emitter.complete(response);
+        transmitAll(started);
+    }
+
+    private void onListening(Channel channel, AsyncResult<DatagramSocket> result) {
+        if (result.failed()) {
+            logger.errorf(result.cause(), "Failed to bind CoA socket for NAS %s", nasAddress);
+            close();
+            return;
+        }
+        List<Request> started;
+        lock.lock();
+        try {
+            channel.ready = true;
+            started = startWaiting();
+        } finally {
+            lock.unlock();
+        }
+        transmitAll(started);
+    }
+
+    private void transmitAll(List<Request> requests) {
+        if (requests == null) {
+            return;
+        }
+        for (Request request : requests) {
+            if (request.failure != null) {
+                request.fail(request.failure);
+            } else {
+                transmit(request);
+            }
+        }
+    }
+
+    private void transmit(Request request) {
+        request.channel.socket.send(Buffer.buffer(request.bytes), nasAddress.getPort(), nasHost)
+                .onFailure(e -> logger.warnf("Failed to send CoA request to %s: %s", nasAddress, e.getMessage()));
+    }
+
+    /**
+     * One socket and the requests in flight on it, indexed by Identifier
+     */
+    private final class Channel {
+
+        private final DatagramSocket socket;
+        private final Request[] slots = new Request[IDENTIFIERS];
+        private int used;
+        private int nextId;
+        private boolean ready;
+
+        Channel(DatagramSocket socket) {
+            this.socket = socket;
+            socket.handler(datagram -> onResponse(this, datagram));
+        }
+
+        void listen(String bindAddress) {
+            socket.listen(0, bindAddress).onComplete(result -> onListening(this, result));
+        }
+
+        /**
+         * Next free Identifier after the last one handed out, so a freed Identifier is reused
+         * as late as possible. Lock held; a free one exists.
+         */
+        int allocate(Request request) {
+            int id = nextId;
+            while (slots[id] != null) {
+                id = (id + 1) & (IDENTIFIERS - 1);
+            }
+            slots[id] = request;
+            used++;
+            nextId = (id + 1) & (IDENTIFIERS - 1);
+            return id;
+        }
+
+        void free(int id) {
+            if (slots[id] != null) {
+                slots[id] = null;
+                used--;
+            }
+        }
+    }
+
+    private static final class Request extends TimerWheel.Entry {
+
+        private final Packet packet;
+        private final byte[] secret;
+        private final UniEmitter<? super Packet> emitter;
+
+        private Channel channel;
+        private int identifier = -1;
+        private byte[] bytes;
+        private byte[] authenticator;
+        private long startedAt;
+        private int attemptsLeft;
+        private boolean done;
+        private Throwable failure;
+
+        Request(Packet packet, byte[] secret, UniEmitter<? super Packet> emitter) {
+            this.packet = packet;
+            this.secret = secret;
+            this.emitter = emitter;
+        }
+
+        void fail(Throwable failure) {
+            emitter.fail(failure);
+        }
+    }
+
+    /**
+     * Hands the codec the Identifier chosen by the client instead of a counter of its own.
+     * Only read while encoding, under the client lock.
+     */
+    private static final class AssignedIdentifier implements PacketIdGenerator {
+
+        private int value;
+
+        @Override
+        public int nextId() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.csg.airtel.aaa4j.external.coa;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for request deadlines. Not thread-safe; the owner serializes access.
+ * <p>
+ * Deadlines are kept in ticks of {@code tickMillis}, rounded up, in a ring of buckets indexed
+ * by tick. Entries link into their bucket intrusively, so scheduling and cancelling are O(1)
+ * and allocation-free, and advancing the wheel only visits the buckets of the ticks that
+ * passed. A deadline further out than one turn of the ring waits in its bucket until the
+ * turn it is due.
+ */
+final class TimerWheel<E extends TimerWheel.Entry> {
+
+    /**
+     * Something with a deadline on the wheel
+     */
+    abstract static class Entry {
+        long deadlineTick;
+        Entry prev;
+        Entry next;
+        int bucket = -1;
+
+        final boolean isScheduled() {
+            return bucket >= 0;
+        }
+    }
+
+    private final long tickMillis;
+    private final Entry[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param wheelSize buckets in the ring, rounded up to a power of two
+     */
+    TimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        int capacity = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.buckets = new Entry[capacity];
+        this.mask = capacity - 1;
+        this.currentTick = nowMillis / this.tickMillis;
+    }
+
+    /**
+     * Schedules the entry, moving it if it was already scheduled. A deadline that is not after
+     * the current tick fires on the next one.
+     */
+    void schedule(E entry, long deadlineMillis) {
+        cancel(entry);
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        int bucket = (int) (tick & mask);
+        entry.deadlineTick = tick;
+        entry.bucket = bucket;
+        entry.prev = null;
+        entry.next = buckets[bucket];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[bucket] = entry;
+        size++;
+    }
+
+    /**
+     * @return false if the entry was not scheduled
+     */
+    boolean cancel(E entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and hands every entry whose deadline has passed to
+     * {@code expired}, unscheduled, so the callback may schedule it again.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long nowMillis, Consumer<? super E> expired) {
+        long target = nowMillis / tickMillis;
+        if (target <= currentTick) {
+            return;
+        }
+        long ticks = Math.min(target - currentTick, buckets.length);
+        long from = currentTick;
+        // Entries rescheduled from the callback land after target
+        currentTick = target;
+        for (long tick = from + 1; tick <= from + ticks; tick++) {
+            Entry entry = buckets[(int) (tick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.deadlineTick <= target) {
+                    unlink(entry);
+                    expired.accept((E) entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+        size--;
+    }
+}
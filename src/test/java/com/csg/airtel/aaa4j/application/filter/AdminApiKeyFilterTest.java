@@ -0,0 +1,100 @@
+package com.csg.airtel.aaa4j.application.filter;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdminApiKeyFilterTest {
+
+    @Mock
+    private RadiusServerConfig config;
+    @Mock
+    private RadiusServerConfig.AdminConfig adminConfig;
+    @Mock
+    private ContainerRequestContext request;
+    @Mock
+    private UriInfo uriInfo;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.admin()).thenReturn(adminConfig);
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getUriInfo()).thenReturn(uriInfo);
+        when(uriInfo.getPath()).thenReturn("/admin/coa/bulk");
+    }
+
+    @Test
+    void filter_whenDisabled_shouldAnswerNotFound() {
+        when(adminConfig.enabled()).thenReturn(false);
+        when(adminConfig.apiKey()).thenReturn(Optional.of("k3y"));
+        when(request.getHeaderString(AdminApiKeyFilter.API_KEY_HEADER)).thenReturn("k3y");
+
+        new AdminApiKeyFilter(config).filter(request);
+
+        assertEquals(404, abortStatus());
+    }
+
+    @Test
+    void filter_withoutKey_shouldAnswerUnauthorized() {
+        enable("k3y");
+
+        new AdminApiKeyFilter(config).filter(request);
+
+        assertEquals(401, abortStatus());
+    }
+
+    @Test
+    void filter_withWrongKey_shouldAnswerUnauthorized() {
+        enable("k3y");
+        when(request.getHeaderString(AdminApiKeyFilter.API_KEY_HEADER)).thenReturn("k3z");
+
+        new AdminApiKeyFilter(config).filter(request);
+
+        assertEquals(401, abortStatus());
+    }
+
+    @Test
+    void filter_withConfiguredKey_shouldLetTheCallThrough() {
+        enable("k3y");
+        when(request.getHeaderString(AdminApiKeyFilter.API_KEY_HEADER)).thenReturn("k3y");
+
+        new AdminApiKeyFilter(config).filter(request);
+
+        verify(request, never()).abortWith(any());
+    }
+
+    @Test
+    void filter_whenEnabledWithoutConfiguredKey_shouldRefuseEveryCall() {
+        when(adminConfig.enabled()).thenReturn(true);
+        when(adminConfig.apiKey()).thenReturn(Optional.of(" "));
+        when(request.getHeaderString(AdminApiKeyFilter.API_KEY_HEADER)).thenReturn(" ");
+
+        new AdminApiKeyFilter(config).filter(request);
+
+        assertEquals(403, abortStatus());
+    }
+
+    private void enable(String apiKey) {
+        when(adminConfig.enabled()).thenReturn(true);
+        when(adminConfig.apiKey()).thenReturn(Optional.of(apiKey));
+    }
+
+    private int abortStatus() {
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(request).abortWith(response.capture());
+        return response.getValue().getStatus();
+    }
+}
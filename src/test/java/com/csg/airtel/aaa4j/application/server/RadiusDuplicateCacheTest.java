@@ -0,0 +1,141 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.aaa4j.radius.server.DuplicationStrategy.Result.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadiusDuplicateCacheTest {
+
+    private static final byte[] SECRET = "secret123".getBytes(UTF_8);
+    private static final int ACCESS_REQUEST = 1;
+    private static final int ACCESS_ACCEPT = 2;
+
+    private final PacketCodec codec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+    private final InetSocketAddress nas = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40000);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sameIdentifierAndAuthenticator_afterResponse_shouldReplayTheCachedResponse() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 100);
+        Packet request = request(7, 1);
+        Packet response = new Packet(ACCESS_ACCEPT);
+
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request, null).getState());
+        cache.handleResponse(nas, request, null, response);
+        cache.cacheResponseBytes(nas, request, new byte[]{1, 2, 3});
+
+        var replay = cache.handleRequest(nas, request(7, 1), null);
+        assertEquals(State.CACHED_RESPONSE, replay.getState());
+        assertSame(response, replay.getResponsePacket());
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.cachedResponseBytes(nas, request(7, 1)));
+        assertEquals(1.0, meterRegistry.get("radius.duplicate.hits").counter().count());
+    }
+
+    @Test
+    void sameIdentifierAndAuthenticator_whileInProgress_shouldAttachToTheOriginal() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 100);
+
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(7, 1), null).getState());
+        assertEquals(State.IN_PROGRESS_REQUEST, cache.handleRequest(nas, request(7, 1), null).getState());
+        assertEquals(1.0, meterRegistry.get("radius.duplicate.attached").counter().count());
+    }
+
+    @Test
+    void sameIdentifier_withDifferentAuthenticator_shouldBeANewRequest() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 100);
+        Packet first = request(7, 1);
+        cache.handleRequest(nas, first, null);
+        cache.handleResponse(nas, first, null, new Packet(ACCESS_ACCEPT));
+
+        // The NAS reused the Identifier for a different request
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(7, 2), null).getState());
+        assertNull(cache.cachedResponseBytes(nas, request(7, 2)));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void sameRequest_fromAnotherSourcePort_shouldBeANewRequest() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 100);
+        cache.handleRequest(nas, request(7, 1), null);
+
+        InetSocketAddress otherPort = new InetSocketAddress(nas.getAddress(), nas.getPort() + 1);
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(otherPort, request(7, 1), null).getState());
+    }
+
+    @Test
+    void unhandleRequest_shouldLetTheRetransmitThrough() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 100);
+        cache.handleRequest(nas, request(7, 1), null);
+
+        cache.unhandleRequest(nas, request(7, 1), null);
+
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(7, 1), null).getState());
+    }
+
+    @Test
+    void entry_afterTheWindow_shouldExpire() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofMillis(50), 100);
+        Packet request = request(7, 1);
+        cache.handleRequest(nas, request, null);
+        cache.handleResponse(nas, request, null, new Packet(ACCESS_ACCEPT));
+
+        Thread.sleep(100);
+
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(7, 1), null).getState());
+        // The sweep on that call removed the expired entry before the new one was added
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void fullCache_shouldStopTrackingNewRequests() throws Exception {
+        RadiusDuplicateCache cache = cache(Duration.ofSeconds(30), 2);
+        cache.handleRequest(nas, request(1, 1), null);
+        cache.handleRequest(nas, request(2, 1), null);
+
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(3, 1), null).getState());
+        // Not tracked, so its retransmit is handled again rather than growing the cache
+        assertEquals(State.NEW_REQUEST, cache.handleRequest(nas, request(3, 1), null).getState());
+
+        assertEquals(2, cache.size());
+        assertEquals(2.0, meterRegistry.get("radius.duplicate.overflow").counter().count());
+    }
+
+    private RadiusDuplicateCache cache(Duration window, int maxEntries) {
+        return new RadiusDuplicateCache("test", window, maxEntries, meterRegistry);
+    }
+
+    /**
+     * Decodes an Access-Request with the given Identifier and an authenticator filled with
+     * {@code authenticatorByte}, so the received fields are set as they are for a real packet.
+     */
+    private Packet request(int identifier, int authenticatorByte) throws Exception {
+        byte[] authenticator = new byte[16];
+        Arrays.fill(authenticator, (byte) authenticatorByte);
+        byte[] bytes = codec.encodeRequest(
+                new Packet(ACCESS_REQUEST, List.of(new UserName(new TextData("alice")))), SECRET, authenticator);
+        bytes[1] = (byte) identifier;
+        return codec.decodeRequest(bytes, SECRET);
+    }
+}
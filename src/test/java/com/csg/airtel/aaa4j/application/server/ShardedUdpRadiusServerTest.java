@@ -0,0 +1,156 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.aaa4j.radius.server.RadiusServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Binds the server on a loopback port and exchanges real datagrams with it.
+ */
+class ShardedUdpRadiusServerTest {
+
+    private static final byte[] SECRET = "secret123".getBytes(UTF_8);
+    private static final int ACCOUNTING_REQUEST = 4;
+    private static final int ACCOUNTING_RESPONSE = 5;
+
+    private final PacketCodec codec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private ShardedUdpRadiusServer server;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void singleShard_shouldAnswerRequests() throws Exception {
+        InetSocketAddress address = start(1, new AnsweringHandler());
+
+        assertEquals(1, server.getShardCount());
+        assertEquals(ACCOUNTING_RESPONSE, exchange(address, "s1").getCode());
+        assertEquals(1, handled.get());
+        assertEquals(1.0, meterRegistry.get("radius.listener.packets").tag("shard", "0").counter().count());
+    }
+
+    @Test
+    void severalShards_shouldAnswerRequestsOnEveryShard() throws Exception {
+        InetSocketAddress address = start(4, new AnsweringHandler());
+
+        // Each request comes from its own source port, so the kernel spreads them across shards
+        for (int i = 0; i < 20; i++) {
+            assertEquals(ACCOUNTING_RESPONSE, exchange(address, "s" + i).getCode());
+        }
+
+        assertEquals(4, server.getShardCount());
+        assertEquals(20, handled.get());
+        double received = meterRegistry.get("radius.listener.packets").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+        assertEquals(20.0, received);
+    }
+
+    @Test
+    void unknownClient_shouldBeDroppedWithoutReply() throws Exception {
+        InetSocketAddress address = start(2, new AnsweringHandler() {
+            @Override
+            public byte[] handleClient(InetAddress clientAddress) {
+                return null;
+            }
+        });
+
+        assertThrows(SocketTimeoutException.class, () -> exchange(address, "s1"));
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void stop_shouldReleaseThePort() throws Exception {
+        InetSocketAddress address = start(2, new AnsweringHandler());
+
+        server.stop();
+        assertFalse(server.isRunning());
+
+        // Rebinding the same port succeeds once every shard socket is closed
+        try (DatagramSocket socket = new DatagramSocket(address)) {
+            assertTrue(socket.isBound());
+        }
+    }
+
+    private InetSocketAddress start(int shards, RadiusServer.Handler handler) throws Exception {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), freePort());
+        server = ShardedUdpRadiusServer.newBuilder()
+                .name("test")
+                .bindAddress(address)
+                .shards(shards)
+                .workerThreads(2)
+                .queueCapacity(100)
+                .handler(handler)
+                .meterRegistry(meterRegistry)
+                .build();
+        server.start();
+        return address;
+    }
+
+    private Packet exchange(InetSocketAddress address, String sessionId) throws Exception {
+        byte[] request = codec.encodeRequest(
+                new Packet(ACCOUNTING_REQUEST, List.of(new AcctSessionId(new TextData(sessionId)))),
+                SECRET, new byte[16]);
+        try (DatagramSocket client = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            client.setSoTimeout(1000);
+            client.send(new DatagramPacket(request, request.length, address));
+
+            byte[] buffer = new byte[4096];
+            DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+            client.receive(reply);
+            return codec.decodeResponse(Arrays.copyOf(buffer, reply.getLength()), SECRET,
+                    Arrays.copyOfRange(request, 4, 20));
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return probe.getLocalPort();
+        }
+    }
+
+    private class AnsweringHandler implements RadiusServer.Handler {
+
+        @Override
+        public byte[] handleClient(InetAddress clientAddress) {
+            return SECRET;
+        }
+
+        @Override
+        public Packet handlePacket(InetAddress clientAddress, Packet requestPacket) {
+            handled.incrementAndGet();
+            return new Packet(ACCOUNTING_RESPONSE);
+        }
+
+        @Override
+        public void handleException(Exception exception) {
+            // Surfaced by the assertions instead
+        }
+    }
+}
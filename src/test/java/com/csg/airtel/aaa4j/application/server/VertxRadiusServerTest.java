@@ -0,0 +1,168 @@
+package com.csg.airtel.aaa4j.application.server;
+
+import com.csg.airtel.aaa4j.domain.service.AsyncRadiusHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the event-loop engine on a loopback port and exchanges real datagrams with it.
+ */
+class VertxRadiusServerTest {
+
+    private static final byte[] SECRET = "secret123".getBytes(UTF_8);
+    private static final int ACCOUNTING_REQUEST = 4;
+    private static final int ACCOUNTING_RESPONSE = 5;
+
+    private final PacketCodec codec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private Vertx vertx;
+    private VertxRadiusServer server;
+    private InetSocketAddress address;
+    private int clientPort;
+
+    /**
+     * What the handler answers for each request; set by each test before the first exchange
+     */
+    private volatile Function<Packet, CompletionStage<Packet>> behaviour;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), freePort());
+        clientPort = freePort();
+        server = VertxRadiusServer.newBuilder()
+                .name("test")
+                .vertx(vertx)
+                .bindAddress(address)
+                .sockets(1)
+                .handler(new AsyncRadiusHandler() {
+                    @Override
+                    public byte[] handleClient(InetAddress clientAddress) {
+                        return SECRET;
+                    }
+
+                    @Override
+                    public CompletionStage<Packet> handlePacketAsync(InetAddress clientAddress, Packet requestPacket) {
+                        handled.incrementAndGet();
+                        return behaviour.apply(requestPacket);
+                    }
+                })
+                .duplicationStrategy(new RadiusDuplicateCache("test", Duration.ofSeconds(30), 100, meterRegistry))
+                .meterRegistry(meterRegistry)
+                .build();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void asyncHandler_shouldReplyWhenItsStageCompletes() throws Exception {
+        // Completes on another thread after the event loop has returned from the datagram handler
+        behaviour = request -> CompletableFuture.supplyAsync(() -> new Packet(ACCOUNTING_RESPONSE),
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+
+        byte[] request = encode("s1");
+        Packet response = exchange(request);
+
+        assertEquals(ACCOUNTING_RESPONSE, response.getCode());
+        assertEquals(1, handled.get());
+        assertEquals(0.0, meterRegistry.get("radius.listener.inflight").gauge().value());
+    }
+
+    @Test
+    void retransmit_afterReply_shouldBeAnsweredFromTheCache() throws Exception {
+        behaviour = request -> CompletableFuture.completedFuture(new Packet(ACCOUNTING_RESPONSE));
+
+        byte[] request = encode("s1");
+        assertEquals(ACCOUNTING_RESPONSE, exchange(request).getCode());
+        assertEquals(ACCOUNTING_RESPONSE, exchange(request).getCode());
+
+        assertEquals(1, handled.get());
+        assertEquals(1.0, meterRegistry.get("radius.duplicate.hits").counter().count());
+    }
+
+    @Test
+    void nullResponse_shouldSendNothingAndLetTheRetransmitThrough() throws Exception {
+        behaviour = request -> CompletableFuture.completedFuture(null);
+
+        byte[] request = encode("s1");
+        assertThrows(SocketTimeoutException.class, () -> exchange(request));
+
+        // The dropped request is not cached, so the NAS retransmit reaches the handler again
+        behaviour = retransmit -> CompletableFuture.completedFuture(new Packet(ACCOUNTING_RESPONSE));
+        assertEquals(ACCOUNTING_RESPONSE, exchange(request).getCode());
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void failedStage_shouldSendNothing() throws Exception {
+        behaviour = request -> CompletableFuture.failedFuture(new IllegalStateException("backend down"));
+
+        assertThrows(SocketTimeoutException.class, () -> exchange(encode("s1")));
+        assertEquals(1, handled.get());
+        assertEquals(0.0, meterRegistry.get("radius.listener.inflight").gauge().value());
+    }
+
+    private byte[] encode(String sessionId) throws Exception {
+        return codec.encodeRequest(
+                new Packet(ACCOUNTING_REQUEST, List.of(new AcctSessionId(new TextData(sessionId)))),
+                SECRET, new byte[16]);
+    }
+
+    /**
+     * Sends the request from a fixed source port, so a second call with the same bytes is a
+     * retransmit in the server's eyes.
+     */
+    private Packet exchange(byte[] request) throws Exception {
+        try (DatagramSocket client = new DatagramSocket(null)) {
+            client.setReuseAddress(true);
+            client.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), clientPort));
+            client.setSoTimeout(1000);
+            client.send(new DatagramPacket(request, request.length, address));
+
+            byte[] buffer = new byte[4096];
+            DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+            client.receive(reply);
+            return codec.decodeResponse(Arrays.copyOf(buffer, reply.getLength()), SECRET,
+                    Arrays.copyOfRange(request, 4, 20));
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (DatagramSocket probe = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return probe.getLocalPort();
+        }
+    }
+}
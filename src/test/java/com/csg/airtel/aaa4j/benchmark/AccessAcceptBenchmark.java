@@ -0,0 +1,129 @@
+package com.csg.airtel.aaa4j.benchmark;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.csg.airtel.aaa4j.domain.reply.ReplyTemplate;
+import com.csg.airtel.aaa4j.domain.reply.ReplyTemplateCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aaa4j.radius.core.attribute.Attribute;
+import org.aaa4j.radius.core.attribute.IntegerData;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.IdleTimeout;
+import org.aaa4j.radius.core.attribute.attributes.MessageAuthenticator;
+import org.aaa4j.radius.core.attribute.attributes.ReplyMessage;
+import org.aaa4j.radius.core.attribute.attributes.SessionTimeout;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.PacketCodecException;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
+import org.mockito.Answers;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Access-Accept construction: the per-request builder the handler used before reply templates,
+ * against a compiled {@link ReplyTemplate}, alone and behind the {@link ReplyTemplateCache}
+ * profile lookup. The encode variants include the aaa4j codec so the saving can be seen
+ * against the whole reply path.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=AccessAcceptBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessAcceptBenchmark {
+
+    private static final byte[] SECRET = "sharedsecret".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] REQUEST_AUTHENTICATOR = new byte[16];
+
+    private UserDetails userDetails;
+    private VsaDefinition ruleAttribute;
+    private ReplyTemplate template;
+    private ReplyTemplateCache templateCache;
+    private PacketCodec codec;
+
+    @Setup
+    public void setUp() {
+        userDetails = new UserDetails("subscriber-0001@airtel", true, true, true, "GOLD_100M",
+                Map.of("SESSION_TIMEOUT", "86400", "IDLE_TIMEOUT", "1800"));
+        VendorDictionary dictionary = new VendorDictionary(
+                VendorDictionary.load(List.of("dictionary/dictionary.alcatel.sr")));
+        ruleAttribute = dictionary.require("Alc-Subsc-Prof-Str");
+        template = ReplyTemplate.compile(userDetails.getRule(), userDetails.getAttributes(), dictionary, ruleAttribute);
+        codec = new PacketCodec(new StandardDictionary());
+
+        RadiusServerConfig config = mock(RadiusServerConfig.class, Answers.RETURNS_DEEP_STUBS);
+        when(config.auth().replyTemplateCacheSize()).thenReturn(16);
+        when(config.auth().ruleAttribute()).thenReturn("Alc-Subsc-Prof-Str");
+        templateCache = new ReplyTemplateCache(config, dictionary, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Packet builder() {
+        return buildAccessAccept(userDetails);
+    }
+
+    @Benchmark
+    public Packet template() {
+        return template.accept(userDetails.getUsername());
+    }
+
+    @Benchmark
+    public Packet cachedTemplate() {
+        return templateCache.accept(userDetails);
+    }
+
+    @Benchmark
+    public byte[] builderEncoded() throws PacketCodecException {
+        return codec.encodeResponse(buildAccessAccept(userDetails), SECRET, 1, REQUEST_AUTHENTICATOR);
+    }
+
+    @Benchmark
+    public byte[] templateEncoded() throws PacketCodecException {
+        return codec.encodeResponse(templateCache.accept(userDetails), SECRET, 1, REQUEST_AUTHENTICATOR);
+    }
+
+    /**
+     * The handler's reply builder before templates.
+     */
+    private Packet buildAccessAccept(UserDetails userDetails) {
+        List<Attribute<?>> attributes = new ArrayList<>();
+        attributes.add(new MessageAuthenticator());
+        attributes.add(new ReplyMessage(new TextData("Welcome, " + userDetails.getUsername() + "!")));
+        attributes.add(new UserName(new TextData(userDetails.getUsername())));
+
+        if (userDetails.getAttributes() != null) {
+            userDetails.getAttributes().forEach((key, value) -> {
+                switch (key.toUpperCase()) {
+                    case "SESSION_TIMEOUT":
+                        attributes.add(new SessionTimeout(new IntegerData(Integer.parseInt(value))));
+                        break;
+                    case "IDLE_TIMEOUT":
+                        attributes.add(new IdleTimeout(new IntegerData(Integer.parseInt(value))));
+                        break;
+                    default:
+                        break;
+                }
+            });
+        }
+        if (userDetails.getRule() != null) {
+            attributes.add(ruleAttribute.attribute(userDetails.getRule()));
+        }
+
+        return new AccessAccept(attributes);
+    }
+}
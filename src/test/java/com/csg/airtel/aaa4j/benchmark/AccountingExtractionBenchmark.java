@@ -0,0 +1,160 @@
+package com.csg.airtel.aaa4j.benchmark;
+
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.packet.AttributeIndex;
+import org.aaa4j.radius.core.attribute.EnumData;
+import org.aaa4j.radius.core.attribute.IntegerData;
+import org.aaa4j.radius.core.attribute.Ipv4AddrData;
+import org.aaa4j.radius.core.attribute.StringData;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.TimeData;
+import org.aaa4j.radius.core.attribute.attributes.AcctDelayTime;
+import org.aaa4j.radius.core.attribute.attributes.AcctInputGigawords;
+import org.aaa4j.radius.core.attribute.attributes.AcctInputOctets;
+import org.aaa4j.radius.core.attribute.attributes.AcctInputPackets;
+import org.aaa4j.radius.core.attribute.attributes.AcctOutputGigawords;
+import org.aaa4j.radius.core.attribute.attributes.AcctOutputOctets;
+import org.aaa4j.radius.core.attribute.attributes.AcctOutputPackets;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionTime;
+import org.aaa4j.radius.core.attribute.attributes.AcctStatusType;
+import org.aaa4j.radius.core.attribute.attributes.CalledStationId;
+import org.aaa4j.radius.core.attribute.attributes.CallingStationId;
+import org.aaa4j.radius.core.attribute.attributes.EventTimestamp;
+import org.aaa4j.radius.core.attribute.attributes.FramedIpAddress;
+import org.aaa4j.radius.core.attribute.attributes.NasIdentifier;
+import org.aaa4j.radius.core.attribute.attributes.NasIpAddress;
+import org.aaa4j.radius.core.attribute.attributes.NasPort;
+import org.aaa4j.radius.core.attribute.attributes.NasPortId;
+import org.aaa4j.radius.core.attribute.attributes.NasPortType;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.packets.AccountingRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accounting attribute extraction from a decoded Interim-Update of a typical BNG: the
+ * {@code Packet.getAttribute(Class)} lookups the handler made before the attribute index,
+ * against one {@link AttributeIndex} pass and its accessors. Values are sunk into the
+ * blackhole instead of a DTO so only extraction is measured.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=AccountingExtractionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountingExtractionBenchmark {
+
+    private static final byte[] SECRET = "sharedsecret".getBytes(StandardCharsets.UTF_8);
+
+    private Packet packet;
+    private InetAddress clientAddress;
+
+    @Setup
+    public void setUp() throws Exception {
+        clientAddress = InetAddress.getByName("10.10.0.1");
+        VendorDictionary dictionary = new VendorDictionary(
+                VendorDictionary.load(List.of("dictionary/dictionary.alcatel.sr")));
+
+        Packet request = new AccountingRequest(List.of(
+                new AcctStatusType(new EnumData(3)),
+                new AcctSessionId(new TextData("0A0A0001-5F3E2B1C-000123")),
+                new UserName(new TextData("subscriber-0001@airtel")),
+                new NasIpAddress(new Ipv4AddrData((Inet4Address) clientAddress)),
+                new NasIdentifier(new TextData("bng-01.pop-a")),
+                new NasPort(new IntegerData(123456)),
+                new NasPortId(new TextData("1/1/3:100.200")),
+                new NasPortType(new EnumData(5)),
+                new CalledStationId(new TextData("00-11-22-33-44-55")),
+                new CallingStationId(new TextData("aa-bb-cc-dd-ee-ff")),
+                new FramedIpAddress(new Ipv4AddrData((Inet4Address) InetAddress.getByName("100.64.1.20"))),
+                new org.aaa4j.radius.core.attribute.attributes.Class(
+                        new StringData("profile=GOLD".getBytes(StandardCharsets.UTF_8))),
+                new AcctDelayTime(new IntegerData(0)),
+                new EventTimestamp(new TimeData(Instant.ofEpochSecond(1_700_000_000L))),
+                new AcctSessionTime(new IntegerData(3600)),
+                new AcctInputOctets(new IntegerData(123_456_789)),
+                new AcctOutputOctets(new IntegerData(987_654_321)),
+                new AcctInputPackets(new IntegerData(150_000)),
+                new AcctOutputPackets(new IntegerData(450_000)),
+                new AcctInputGigawords(new IntegerData(1)),
+                new AcctOutputGigawords(new IntegerData(4)),
+                dictionary.require("Alc-Subsc-Prof-Str").attribute("GOLD_100M"),
+                dictionary.require("Alc-SLA-Prof-Str").attribute("SLA_100M")));
+
+        // Decode the wire form so the benchmark sees the attribute types the server does
+        PacketCodec codec = new PacketCodec(new StandardDictionary());
+        packet = codec.decodeRequest(codec.encodeRequest(request, SECRET, new byte[16]), SECRET);
+    }
+
+    @Benchmark
+    public void getAttribute(Blackhole blackhole) {
+        blackhole.consume(packet.getAttribute(AcctStatusType.class).orElseThrow().getData().getValue());
+        blackhole.consume(packet.getAttribute(AcctSessionId.class)
+                .map(attr -> attr.getData().getValue()).orElse(null));
+        blackhole.consume(packet.getAttribute(NasIpAddress.class)
+                .map(attr -> attr.getData().getValue().getHostAddress()).orElse(clientAddress.getHostAddress()));
+        blackhole.consume(packet.getAttribute(UserName.class)
+                .map(attr -> attr.getData().getValue()).orElse(null));
+        blackhole.consume(packet.getAttribute(NasPortId.class)
+                .map(attr -> attr.getData().getValue()).orElse(null));
+        blackhole.consume(packet.getAttribute(NasIdentifier.class)
+                .map(attr -> attr.getData().getValue()).orElse(null));
+        blackhole.consume(packet.getAttribute(NasPortType.class)
+                .map(attr -> attr.getData().getValue()).orElse(null));
+        blackhole.consume(packet.getAttribute(AcctDelayTime.class)
+                .map(attr -> attr.getData().getValue()).orElse(0));
+        blackhole.consume(packet.getAttribute(EventTimestamp.class)
+                .map(attr -> attr.getData().getValue()).orElse(Instant.now()));
+
+        var framedIpAttr = packet.getAttribute(FramedIpAddress.class).orElse(null);
+        blackhole.consume(framedIpAttr != null ? framedIpAttr.getData().getValue().getHostAddress() : null);
+        var inputOctetsAttr = packet.getAttribute(AcctInputOctets.class).orElse(null);
+        blackhole.consume(inputOctetsAttr != null ? inputOctetsAttr.getData().getValue() : 0);
+        var outputOctetsAttr = packet.getAttribute(AcctOutputOctets.class).orElse(null);
+        blackhole.consume(outputOctetsAttr != null ? outputOctetsAttr.getData().getValue() : 0);
+        var sessionTimeAttr = packet.getAttribute(AcctSessionTime.class).orElse(null);
+        blackhole.consume(sessionTimeAttr != null ? sessionTimeAttr.getData().getValue() : 0);
+        var inputGigaWordsAttr = packet.getAttribute(AcctInputGigawords.class).orElse(null);
+        blackhole.consume(inputGigaWordsAttr != null ? inputGigaWordsAttr.getData().getValue() : 0);
+        var outputGigaWordsAttr = packet.getAttribute(AcctOutputGigawords.class).orElse(null);
+        blackhole.consume(outputGigaWordsAttr != null ? outputGigaWordsAttr.getData().getValue() : 0);
+    }
+
+    @Benchmark
+    public void attributeIndex(Blackhole blackhole) {
+        AttributeIndex attributes = AttributeIndex.of(packet);
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_STATUS_TYPE, -1));
+        blackhole.consume(attributes.text(AttributeIndex.ACCT_SESSION_ID, null));
+        InetAddress nasIp = attributes.address(AttributeIndex.NAS_IP_ADDRESS);
+        blackhole.consume(nasIp != null ? nasIp.getHostAddress() : clientAddress.getHostAddress());
+        blackhole.consume(attributes.text(AttributeIndex.USER_NAME, null));
+        blackhole.consume(attributes.text(AttributeIndex.NAS_PORT_ID, null));
+        blackhole.consume(attributes.text(AttributeIndex.NAS_IDENTIFIER, null));
+        blackhole.consume(attributes.integer(AttributeIndex.NAS_PORT_TYPE, -1));
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_DELAY_TIME, 0));
+        Instant eventTime = attributes.time(AttributeIndex.EVENT_TIMESTAMP, null);
+        blackhole.consume(eventTime != null ? eventTime : Instant.now());
+
+        InetAddress framedIp = attributes.address(AttributeIndex.FRAMED_IP_ADDRESS);
+        blackhole.consume(framedIp != null ? framedIp.getHostAddress() : null);
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_INPUT_OCTETS, 0));
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_OUTPUT_OCTETS, 0));
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_SESSION_TIME, 0));
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_INPUT_GIGAWORDS, 0));
+        blackhole.consume(attributes.integer(AttributeIndex.ACCT_OUTPUT_GIGAWORDS, 0));
+    }
+}
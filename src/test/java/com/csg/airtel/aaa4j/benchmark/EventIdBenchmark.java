@@ -0,0 +1,52 @@
+package com.csg.airtel.aaa4j.benchmark;
+
+import com.csg.airtel.aaa4j.domain.dedup.EventIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accounting event id generation: the content-derived {@link EventIdGenerator} id against a
+ * random UUID, which is what a producer would otherwise stamp on each event, and a name-based
+ * UUID over the same key, the JDK's deterministic alternative (MD5).
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=EventIdBenchmark}, adding
+ * {@code -prof gc} to the arguments to compare allocation per id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventIdBenchmark {
+
+    private static final String NAS_IP = "10.10.0.1";
+    private static final String SESSION_ID = "0A0A0001-5F3E2B1C-000123";
+
+    private long inputBytes;
+
+    @Benchmark
+    public String contentDerived() {
+        // A new counter value each call, as consecutive interims of a session would have
+        inputBytes++;
+        return EventIdGenerator.eventId(NAS_IP, SESSION_ID, AccountingRequestDto.ActionType.INTERIM_UPDATE,
+                inputBytes, 987_654_321L, 3600, 1_700_000_000L);
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String nameBasedUuid() {
+        inputBytes++;
+        String key = NAS_IP + '|' + SESSION_ID + '|' + 3 + '|' + inputBytes + '|' + 987_654_321L + '|' + 3600
+                + '|' + 1_700_000_000L;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
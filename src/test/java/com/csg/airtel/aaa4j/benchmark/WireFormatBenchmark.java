@@ -0,0 +1,96 @@
+package com.csg.airtel.aaa4j.benchmark;
+
+import com.csg.airtel.aaa4j.domain.codec.AccountingRequestCodec;
+import com.csg.airtel.aaa4j.domain.codec.AccountingRequestSerializer;
+import com.csg.airtel.aaa4j.domain.codec.WireDeserializer;
+import com.csg.airtel.aaa4j.domain.codec.WireSerializer;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accounting event serialization for the {@code accounting-events} channel: the Jackson
+ * {@code ObjectMapperSerializer} path against the binary wire format, each way. Record sizes
+ * are printed at setup, since JMH only reports time.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args=WireFormatBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+
+    private static final String TOPIC = "accounting";
+
+    private AccountingRequestDto request;
+    private ObjectMapperSerializer<AccountingRequestDto> jsonSerializer;
+    private ObjectMapperDeserializer<AccountingRequestDto> jsonDeserializer;
+    private WireSerializer<AccountingRequestDto> binarySerializer;
+    private WireDeserializer<AccountingRequestDto> binaryDeserializer;
+    private byte[] jsonRecord;
+    private byte[] binaryRecord;
+
+    @Setup
+    public void setUp() {
+        request = new AccountingRequestDto("5f0c2a1e-7d7e-4a4b-9a55-1f2e3d4c5b6a", "0A0A0001-5F3E2B1C-000123",
+                "10.10.0.1", "subscriber-0001@airtel", AccountingRequestDto.ActionType.INTERIM_UPDATE,
+                123_456_789, 987_654_321, 3600, Instant.ofEpochSecond(1_700_000_000L, 250_000_000),
+                "1/1/3:100.200", "100.64.1.20", 0, 1, 4, "bng-01.pop-a");
+
+        // Same settings as the Quarkus-managed mapper: ISO-8601 timestamps
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        jsonSerializer = new ObjectMapperSerializer<>(objectMapper);
+        jsonDeserializer = new ObjectMapperDeserializer<>(AccountingRequestDto.class, objectMapper);
+
+        binarySerializer = new AccountingRequestSerializer();
+        binarySerializer.configure(Map.of(WireSerializer.FORMAT_CONFIG, "binary"), false);
+        binaryDeserializer = new BinaryRequestDeserializer(objectMapper);
+
+        jsonRecord = jsonSerializer.serialize(TOPIC, request);
+        binaryRecord = binarySerializer.serialize(TOPIC, request);
+        System.out.printf("%nRecord size: JSON %d bytes, binary %d bytes%n", jsonRecord.length, binaryRecord.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public AccountingRequestDto deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonRecord);
+    }
+
+    @Benchmark
+    public AccountingRequestDto deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binaryRecord);
+    }
+
+    /**
+     * The service only consumes responses; downstream consumers would read requests like this.
+     */
+    private static final class BinaryRequestDeserializer extends WireDeserializer<AccountingRequestDto> {
+
+        BinaryRequestDeserializer(ObjectMapper objectMapper) {
+            super(new AccountingRequestCodec(),
+                    new ObjectMapperDeserializer<>(AccountingRequestDto.class, objectMapper));
+        }
+    }
+}
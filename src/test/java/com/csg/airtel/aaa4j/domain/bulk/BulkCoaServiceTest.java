@@ -0,0 +1,228 @@
+package com.csg.airtel.aaa4j.domain.bulk;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaType;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaCommand;
+import com.csg.airtel.aaa4j.domain.model.BulkCoaProgress;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
+import com.csg.airtel.aaa4j.external.coa.CoaClientPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.attribute.attributes.FramedIpAddress;
+import org.aaa4j.radius.core.packet.Packet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BulkCoaServiceTest {
+
+    private static final String NAS_1 = "10.0.0.1";
+    private static final String NAS_2 = "10.0.0.2";
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private Vertx vertx;
+    @Mock
+    private RadiusServerConfig.BulkConfig config;
+    @Mock
+    private SessionRegistry sessionRegistry;
+    @Mock
+    private NasClientRegistry nasClientRegistry;
+    @Mock
+    private CoaClientPool coaClientPool;
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final List<UniEmitter<? super Packet>> pending = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private BulkCoaService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(config.ratePerNas()).thenReturn(1000);
+        when(config.pacingTickMs()).thenReturn(10L);
+        when(config.maxTargets()).thenReturn(100);
+        when(config.retainedJobs()).thenReturn(10);
+        // The pacing timer is driven by hand through tick()
+        when(vertx.setPeriodic(anyLong(), any())).thenReturn(1L);
+        when(nasClientRegistry.find(InetAddress.getByName(NAS_1)))
+                .thenReturn(new NasClient("bng-1", NAS_1, SECRET, null, 3799, 2));
+        when(coaClientPool.send(any(), any(), any()))
+                .thenAnswer(invocation -> Uni.createFrom().<Packet>emitter(pending::add));
+
+        VendorDictionary dictionary = new VendorDictionary(List.of(
+                new VsaDefinition("Alc-Subsc-Prof-Str", 6527, 12, VsaType.STRING, Map.of())));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BulkCoaService(vertx, config, sessionRegistry, nasClientRegistry, coaClientPool, dictionary,
+                "Alc-Subsc-Prof-Str", clock::get, meterRegistry);
+    }
+
+    @Test
+    void submit_byNas_shouldHoldTheNasToItsConcurrencyAndTallyResults() {
+        when(sessionRegistry.findByNas(NAS_1, 101)).thenReturn(sessions(NAS_1, 5));
+
+        BulkCoaProgress started = service.submit(disconnect(NAS_1, null));
+
+        // coaConcurrency of the NAS client is 2
+        assertEquals(5, started.targets());
+        assertEquals(2, started.sent());
+        ArgumentCaptor<Packet> request = ArgumentCaptor.forClass(Packet.class);
+        verify(coaClientPool, times(2)).send(eq(new InetSocketAddress(NAS_1, 3799)), eq(SECRET), request.capture());
+        Packet first = request.getAllValues().get(0);
+        assertEquals(40, first.getCode());
+        assertEquals("s1", first.getAttribute(AcctSessionId.class).orElseThrow().getData().getValue());
+        assertTrue(first.getAttribute(FramedIpAddress.class).isPresent());
+
+        // Each response releases the next request without waiting for the pacing timer
+        pending.get(0).complete(new Packet(41));
+        assertEquals(3, service.progress(started.jobId()).sent());
+        pending.get(1).complete(new Packet(42));
+        pending.get(2).fail(new TimeoutException());
+        pending.get(3).complete(new Packet(41));
+        pending.get(4).fail(new IllegalStateException());
+
+        BulkCoaProgress done = service.progress(started.jobId());
+        assertEquals(BulkCoaProgress.State.COMPLETED, done.state());
+        assertEquals(5, done.sent());
+        assertEquals(2, done.acked());
+        assertEquals(1, done.naked());
+        assertEquals(1, done.timedOut());
+        assertEquals(1, done.failed());
+        assertNotNull(done.finishedAt());
+        assertEquals(2.0, meterRegistry.get("radius.coa.bulk.requests")
+                .tags("action", "disconnect", "result", "ack").counter().count());
+        assertEquals(0.0, meterRegistry.get("radius.coa.bulk.jobs.active").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_shouldPaceEachNasToItsRate() {
+        when(config.ratePerNas()).thenReturn(100);
+        when(nasClientRegistry.find(any())).thenReturn(new NasClient("bng", NAS_1, SECRET, null, 3799, 8));
+        when(sessionRegistry.findByNas(NAS_1, 101)).thenReturn(sessions(NAS_1, 10));
+        when(coaClientPool.send(any(), any(), any())).thenReturn(Uni.createFrom().item(new Packet(41)));
+
+        BulkCoaProgress started = service.submit(disconnect(NAS_1, null));
+        ArgumentCaptor<Handler<Long>> timer = ArgumentCaptor.forClass(Handler.class);
+        verify(vertx).setPeriodic(eq(10L), timer.capture());
+
+        // 100 requests per second is one per 10 ms tick, whatever the concurrency allows
+        assertEquals(1, started.sent());
+        clock.addAndGet(10);
+        timer.getValue().handle(1L);
+        assertEquals(2, service.progress(started.jobId()).sent());
+        clock.addAndGet(35);
+        timer.getValue().handle(1L);
+        // Idle credit is capped at one tick's worth, so a late tick does not burst
+        assertEquals(3, service.progress(started.jobId()).sent());
+    }
+
+    @Test
+    void submit_byUsernamesOnUnknownNas_shouldCountThemFailed() {
+        when(sessionRegistry.findByUsername("alice")).thenReturn(List.of(session("a1", "alice", NAS_1)));
+        when(sessionRegistry.findByUsername("bob")).thenReturn(List.of(session("b1", "bob", NAS_2)));
+
+        BulkCoaProgress started = service.submit(new BulkCoaCommand(BulkCoaCommand.Action.COA, null,
+                List.of("alice", "bob", "alice"), "FUP-1M", null, null));
+
+        // bob's NAS has no client; alice is listed twice but has one session
+        assertEquals(2, started.targets());
+        assertEquals(1, started.failed());
+        ArgumentCaptor<Packet> request = ArgumentCaptor.forClass(Packet.class);
+        verify(coaClientPool).send(any(), any(), request.capture());
+        assertEquals(43, request.getValue().getCode());
+        // User-Name, Acct-Session-Id, NAS-IP-Address, Framed-IP-Address and the rule
+        assertEquals(5, request.getValue().getAttributes().size());
+
+        pending.get(0).complete(new Packet(44));
+        BulkCoaProgress done = service.progress(started.jobId());
+        assertEquals(BulkCoaProgress.State.COMPLETED, done.state());
+        assertEquals(1, done.acked());
+    }
+
+    @Test
+    void submit_byUsernamesAndNas_shouldKeepOnlySessionsOnThatNas() {
+        when(sessionRegistry.findByUsername("alice"))
+                .thenReturn(List.of(session("a1", "alice", NAS_1), session("a2", "alice", NAS_2)));
+
+        BulkCoaProgress started = service.submit(new BulkCoaCommand(BulkCoaCommand.Action.DISCONNECT, NAS_1,
+                List.of("alice"), null, null, null));
+
+        assertEquals(1, started.targets());
+        assertEquals(0, started.failed());
+    }
+
+    @Test
+    void submit_whenCommandIsInvalid_shouldReject() {
+        when(sessionRegistry.findByNas(NAS_1, 101)).thenReturn(sessions(NAS_1, 101));
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(disconnect(null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(
+                new BulkCoaCommand(BulkCoaCommand.Action.COA, NAS_1, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.submit(
+                new BulkCoaCommand(BulkCoaCommand.Action.COA, NAS_1, null, null, Map.of("No-Such-Attr", "x"), null)));
+        // More sessions than max-targets
+        assertThrows(IllegalArgumentException.class, () -> service.submit(disconnect(NAS_1, null)));
+        assertTrue(service.jobs().isEmpty());
+    }
+
+    @Test
+    void cancel_shouldStopSendingButCountRequestsInFlight() {
+        when(sessionRegistry.findByNas(NAS_1, 101)).thenReturn(sessions(NAS_1, 5));
+        BulkCoaProgress started = service.submit(disconnect(NAS_1, null));
+
+        BulkCoaProgress cancelled = service.cancel(started.jobId());
+        pending.get(0).complete(new Packet(41));
+        pending.get(1).complete(new Packet(41));
+
+        assertEquals(BulkCoaProgress.State.CANCELLED, cancelled.state());
+        BulkCoaProgress after = service.progress(started.jobId());
+        assertEquals(2, after.sent());
+        assertEquals(2, after.acked());
+        verify(coaClientPool, times(2)).send(any(), any(), any());
+        assertNull(service.cancel("unknown"));
+    }
+
+    private static BulkCoaCommand disconnect(String nasIp, Integer ratePerNas) {
+        return new BulkCoaCommand(BulkCoaCommand.Action.DISCONNECT, nasIp, null, null, null, ratePerNas);
+    }
+
+    private static List<UserSession> sessions(String nasIp, int count) {
+        List<UserSession> sessions = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            sessions.add(session("s" + i, "user" + i, nasIp));
+        }
+        return sessions;
+    }
+
+    private static UserSession session(String sessionId, String username, String nasIp) {
+        UserSession session = new UserSession(sessionId, username, nasIp);
+        session.setFramedIPAddress("100.64.0." + (sessionId.hashCode() & 0x7F));
+        return session;
+    }
+}
@@ -0,0 +1,140 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountingCodecTest {
+
+    private final AccountingRequestCodec requestCodec = new AccountingRequestCodec();
+    private final AccountingResponseCodec responseCodec = new AccountingResponseCodec();
+    private final AccountingEventCodec eventCodec = new AccountingEventCodec();
+
+    @Test
+    void request_shouldRoundTrip() {
+        AccountingRequestDto request = new AccountingRequestDto("evt-1", "sess-1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 123_456_789, 987_654_321, 3600,
+                Instant.ofEpochSecond(1_700_000_000L, 123_000_000), "1/1/3:100.200", "100.64.1.20",
+                2, 1, 4, "bng-01");
+
+        assertEquals(request, roundTrip(request));
+    }
+
+    @Test
+    void request_withNullsAndUnsignedCounters_shouldRoundTrip() {
+        // Octet counters above 2^31 arrive as negative ints and must survive unchanged
+        AccountingRequestDto request = new AccountingRequestDto(null, "sess-1", null, "ünïcode",
+                AccountingRequestDto.ActionType.STOP, -1, Integer.MIN_VALUE, null, null, null, null,
+                null, 0, null, null);
+
+        assertEquals(request, roundTrip(request));
+    }
+
+    @Test
+    void request_withNasReset_shouldRoundTrip() {
+        AccountingRequestDto request = new AccountingRequestDto("evt-1", null, "10.0.0.1", null,
+                AccountingRequestDto.ActionType.ACCOUNTING_OFF, null, null, null,
+                Instant.ofEpochSecond(1_700_000_000L), null, null, 0, null, null, "bng-01");
+
+        assertEquals(request, roundTrip(request));
+    }
+
+    @Test
+    void event_shouldRoundTripWithCombinedTotals() {
+        // 0xFFFFFFFF octets with 2 gigawords is 3 * 2^32 - 1 bytes
+        AccountingEvent event = new AccountingEvent("evt-1", "sess-1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, -1, 987_654_321, 3600,
+                Instant.ofEpochSecond(1_700_000_000L, 123_000_000), "1/1/3:100.200", "100.64.1.20",
+                2, 2, 0, "bng-01");
+
+        WireWriter out = new WireWriter(16);
+        eventCodec.write(event, out);
+        AccountingEvent read = eventCodec.read(new WireReader(out.toByteArray()), AccountingEventCodec.VERSION);
+
+        assertEquals(event, read);
+        assertEquals(3L * (1L << 32) - 1, read.totalInputBytes());
+        assertEquals(987_654_321L, read.totalOutputBytes());
+    }
+
+    @Test
+    void eventCodec_shouldReadVersion1Records() {
+        AccountingRequestDto request = new AccountingRequestDto("evt-1", null, "10.0.0.1", null,
+                AccountingRequestDto.ActionType.ACCOUNTING_ON, null, null, null,
+                Instant.ofEpochSecond(1_700_000_000L), null, null, 0, null, null, "bng-01");
+        WireWriter out = new WireWriter(16);
+        requestCodec.write(request, out);
+
+        AccountingEvent event = eventCodec.read(new WireReader(out.toByteArray()), AccountingRequestCodec.VERSION);
+
+        assertEquals(AccountingRequestDto.ActionType.ACCOUNTING_ON, event.actionType());
+        assertEquals(0L, event.totalInputBytes());
+        // Back in version 1 form, Accounting-On has no counters again
+        assertEquals(request, event.toRequestDto());
+    }
+
+    @Test
+    void response_shouldRoundTrip() {
+        AccountingResponseEvent event = new AccountingResponseEvent("evt-1", AccountingResponseEvent.EventType.COA,
+                LocalDateTime.of(2026, 10, 16, 12, 30, 15, 500), "sess-1",
+                AccountingResponseEvent.ResponseAction.FUP_APPLY, "quota exhausted", -42L,
+                Map.of("rate", "1M", "profile", "FUP_1M"));
+
+        WireWriter out = new WireWriter(16);
+        responseCodec.write(event, out);
+
+        assertEquals(event, responseCodec.read(new WireReader(out.toByteArray()), AccountingResponseCodec.VERSION));
+    }
+
+    @Test
+    void response_withOnlyIdentifiers_shouldRoundTrip() {
+        AccountingResponseEvent event = new AccountingResponseEvent("evt-1", null, null, "sess-1", null, null,
+                null, null);
+
+        WireWriter out = new WireWriter(16);
+        responseCodec.write(event, out);
+
+        assertEquals(event, responseCodec.read(new WireReader(out.toByteArray()), AccountingResponseCodec.VERSION));
+    }
+
+    @Test
+    void read_withTruncatedRecord_shouldFail() {
+        WireWriter out = new WireWriter(16);
+        requestCodec.write(new AccountingRequestDto("evt-1", "sess-1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.START, 0, 0, 0, Instant.now(), null, null, 0, 0, 0, "nas"), out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> requestCodec.read(new WireReader(truncated), AccountingRequestCodec.VERSION));
+    }
+
+    @Test
+    void read_withUnknownVersion_shouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> requestCodec.read(new WireReader(new byte[]{0}), AccountingRequestCodec.VERSION + 1));
+    }
+
+    @Test
+    void writer_reset_shouldReuseBuffer() {
+        WireWriter out = new WireWriter(16);
+        out.writeString("x".repeat(100));
+
+        // Reset keeps the grown array and starts over
+        out.reset().writeVarInt(300);
+
+        assertArrayEquals(new byte[]{(byte) 0xAC, 0x02}, out.toByteArray());
+    }
+
+    private AccountingRequestDto roundTrip(AccountingRequestDto request) {
+        WireWriter out = new WireWriter(16);
+        requestCodec.write(request, out);
+        return requestCodec.read(new WireReader(out.toByteArray()), AccountingRequestCodec.VERSION);
+    }
+}
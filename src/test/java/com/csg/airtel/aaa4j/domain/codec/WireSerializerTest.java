@@ -0,0 +1,177 @@
+package com.csg.airtel.aaa4j.domain.codec;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireSerializerTest {
+
+    private static final String TOPIC = "accounting";
+
+    private ObjectMapper objectMapper;
+    private WireSerializer<AccountingRequestDto> serializer;
+    private WireDeserializer<AccountingRequestDto> deserializer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        serializer = new WireSerializer<>(new AccountingRequestCodec(), new ObjectMapperSerializer<>(objectMapper));
+        deserializer = new WireDeserializer<>(new AccountingRequestCodec(),
+                new ObjectMapperDeserializer<>(AccountingRequestDto.class, objectMapper));
+    }
+
+    @Test
+    void serialize_byDefault_shouldWriteJsonWithContentType() {
+        serializer.configure(Map.of(), false);
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize(TOPIC, headers, request());
+
+        assertEquals(WireFormat.JSON, serializer.format());
+        assertEquals((byte) '{', data[0]);
+        assertEquals("application/json", contentType(headers));
+        assertEquals(request(), deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void serialize_whenBinaryConfigured_shouldWriteSmallerBinaryRecord() throws Exception {
+        serializer.configure(Map.of(WireSerializer.FORMAT_CONFIG, "binary"), false);
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] data = serializer.serialize(TOPIC, headers, request());
+
+        assertEquals(WireFormat.MAGIC, data[0]);
+        assertEquals(WireFormat.BINARY.contentType(), contentType(headers));
+        assertTrue(data.length * 2 < objectMapper.writeValueAsBytes(request()).length);
+        assertEquals(request(), deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void deserialize_withoutHeaders_shouldDetectFormat() throws Exception {
+        serializer.configure(Map.of(WireSerializer.FORMAT_CONFIG, "binary"), false);
+        byte[] binary = serializer.serialize(TOPIC, request());
+        byte[] json = objectMapper.writeValueAsBytes(request());
+
+        // Producers that predate the header are told apart by the magic byte
+        assertEquals(request(), deserializer.deserialize(TOPIC, binary));
+        assertEquals(request(), deserializer.deserialize(TOPIC, json));
+    }
+
+    @Test
+    void deserialize_withCorruptBinaryRecord_shouldThrowSerializationException() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.CONTENT_TYPE_HEADER, WireFormat.BINARY.contentType().getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(TOPIC, headers, new byte[]{WireFormat.MAGIC, 9, 1}));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(TOPIC, headers, new byte[]{'{', '}'}));
+    }
+
+    @Test
+    void configure_withUnknownFormat_shouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> serializer.configure(Map.of(WireSerializer.FORMAT_CONFIG, "avro"), false));
+    }
+
+    @Test
+    void responseDeserializer_shouldReadBinaryResponses() {
+        AccountingResponseEvent event = new AccountingResponseEvent("evt-1", AccountingResponseEvent.EventType.COA,
+                LocalDateTime.of(2026, 10, 16, 12, 0), "sess-1", AccountingResponseEvent.ResponseAction.DISCONNECT,
+                "bye", 0L, Map.of());
+        WireWriter out = new WireWriter(64);
+        out.writeByte(WireFormat.MAGIC);
+        out.writeByte(AccountingResponseCodec.VERSION);
+        new AccountingResponseCodec().write(event, out);
+
+        try (AccountingResponseDeserializer responseDeserializer = new AccountingResponseDeserializer()) {
+            assertEquals(event, responseDeserializer.deserialize("accounting-response", out.toByteArray()));
+        }
+    }
+
+    @Test
+    void eventSerializer_byDefault_shouldPublishVersion1Schema() throws Exception {
+        AccountingEventSerializer eventSerializer = eventSerializer();
+        eventSerializer.configure(Map.of(), false);
+
+        byte[] data = eventSerializer.serialize(TOPIC, new RecordHeaders(), AccountingEvent.of(request()));
+
+        assertEquals(1, eventSerializer.schemaVersion());
+        assertEquals(request(), objectMapper.readValue(data, AccountingRequestDto.class));
+        assertFalse(objectMapper.readTree(data).has("totalInputBytes"));
+    }
+
+    @Test
+    void eventSerializer_withVersion2_shouldPublishTotals() throws Exception {
+        AccountingEventSerializer eventSerializer = eventSerializer();
+        eventSerializer.configure(Map.of(AccountingEventSerializer.SCHEMA_VERSION_CONFIG, "2"), false);
+
+        JsonNode json = objectMapper.readTree(eventSerializer.serialize(TOPIC, AccountingEvent.of(request())));
+
+        assertEquals(2, json.get("schemaVersion").asInt());
+        assertEquals((1L << 32) + 123_456_789, json.get("totalInputBytes").asLong());
+        assertEquals((4L << 32) + 987_654_321, json.get("totalOutputBytes").asLong());
+
+        // Binary version 2 records carry their schema version in the frame
+        eventSerializer.configure(Map.of(AccountingEventSerializer.SCHEMA_VERSION_CONFIG, "2",
+                WireSerializer.FORMAT_CONFIG, "binary"), false);
+        assertEquals(AccountingEventCodec.VERSION, eventSerializer.serialize(TOPIC, AccountingEvent.of(request()))[1]);
+    }
+
+    @Test
+    void eventSerializer_withVersion2_shouldWriteCountersUnsigned() throws Exception {
+        AccountingEventSerializer eventSerializer = eventSerializer();
+        eventSerializer.configure(Map.of(AccountingEventSerializer.SCHEMA_VERSION_CONFIG, "2"), false);
+        // 3_000_000_000 input octets, past Integer.MAX_VALUE, as the NAS sends them
+        AccountingEvent event = new AccountingEvent("evt-1", "sess-1", "10.10.0.1", "subscriber-0001@airtel",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, (int) 3_000_000_000L, -1, 3600,
+                Instant.ofEpochSecond(1_700_000_000L), null, null, 0, 0, 0, null);
+
+        byte[] data = eventSerializer.serialize(TOPIC, event);
+        JsonNode json = objectMapper.readTree(data);
+
+        assertEquals(3_000_000_000L, json.get("inputOctets").asLong());
+        assertEquals(4_294_967_295L, json.get("outputOctets").asLong());
+        assertEquals(3_000_000_000L, json.get("totalInputBytes").asLong());
+        assertEquals(event, objectMapper.readValue(data, AccountingEvent.class));
+    }
+
+    @Test
+    void eventSerializer_withUnknownSchemaVersion_shouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> eventSerializer()
+                .configure(Map.of(AccountingEventSerializer.SCHEMA_VERSION_CONFIG, "3"), false));
+    }
+
+    private AccountingEventSerializer eventSerializer() {
+        return new AccountingEventSerializer(
+                new WireSerializer<>(new AccountingRequestCodec(), new ObjectMapperSerializer<>(objectMapper)),
+                new WireSerializer<>(new AccountingEventCodec(), new ObjectMapperSerializer<>(objectMapper)));
+    }
+
+    private static String contentType(RecordHeaders headers) {
+        return new String(headers.lastHeader(WireFormat.CONTENT_TYPE_HEADER).value(), StandardCharsets.US_ASCII);
+    }
+
+    private static AccountingRequestDto request() {
+        return new AccountingRequestDto("evt-1", "0A0A0001-5F3E2B1C-000123", "10.10.0.1", "subscriber-0001@airtel",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 123_456_789, 987_654_321, 3600,
+                Instant.ofEpochSecond(1_700_000_000L), "1/1/3:100.200", "100.64.1.20", 0, 1, 4, "bng-01.pop-a");
+    }
+}
@@ -0,0 +1,125 @@
+package com.csg.airtel.aaa4j.domain.dedup;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountingDeduplicatorTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(120);
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private AccountingDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new AccountingDeduplicator(true, WINDOW, 1000, clock::get, meterRegistry);
+    }
+
+    @Test
+    void seen_shouldMatchRetransmitsOnly() {
+        assertFalse(handle(deduplicator, interim("s1", "10.0.0.1", 100, 0)));
+
+        // Retransmitted with a higher Acct-Delay-Time and the same Event-Timestamp and counters
+        assertTrue(handle(deduplicator, interim("s1", "10.0.0.1", 100, 5)));
+        // Next interim of the session, and the same session id on another NAS, are new
+        assertFalse(handle(deduplicator, interim("s1", "10.0.0.1", 200, 0)));
+        assertFalse(handle(deduplicator, interim("s1", "10.0.0.2", 100, 0)));
+
+        assertEquals(1.0, meterRegistry.get("radius.accounting.duplicates").tag("nas", "10.0.0.1").counter().count());
+        assertEquals(3.0, meterRegistry.get("radius.accounting.dedup.entries").gauge().value());
+    }
+
+    @Test
+    void seen_shouldRememberBetweenOneAndTwoWindows() {
+        handle(deduplicator, interim("s1", "10.0.0.1", 100, 0));
+
+        clock.addAndGet(WINDOW);
+        assertTrue(handle(deduplicator, interim("s1", "10.0.0.1", 100, 0)));
+
+        clock.addAndGet(WINDOW);
+        assertFalse(handle(deduplicator, interim("s1", "10.0.0.1", 100, 0)));
+    }
+
+    @Test
+    void seen_whenWindowFull_shouldRotateEarly() {
+        AccountingDeduplicator small = new AccountingDeduplicator(true, WINDOW, 2, clock::get, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(handle(small, interim("s" + i, "10.0.0.1", 100, 0)));
+        }
+
+        // Two early rotations; the oldest requests were forgotten but nothing new is reported seen
+        assertEquals(2.0, meterRegistry.get("radius.accounting.dedup.overflow").counter().count());
+        assertFalse(handle(small, interim("s0", "10.0.0.1", 100, 0)));
+        assertTrue(handle(small, interim("s4", "10.0.0.1", 100, 0)));
+    }
+
+    @Test
+    void seen_whenDisabled_shouldPassEverything() {
+        AccountingDeduplicator disabled = new AccountingDeduplicator(false, WINDOW, 1000, clock::get,
+                new SimpleMeterRegistry());
+
+        handle(disabled, interim("s1", "10.0.0.1", 100, 0));
+
+        assertFalse(handle(disabled, interim("s1", "10.0.0.1", 100, 0)));
+    }
+
+    @Test
+    void seen_withoutRecord_shouldLetTheRetransmitThrough() {
+        // The first attempt failed before it was queued, so it was never recorded
+        assertFalse(deduplicator.seen(interim("s1", "10.0.0.1", 100, 0)));
+
+        assertFalse(deduplicator.seen(interim("s1", "10.0.0.1", 100, 5)));
+        deduplicator.record(interim("s1", "10.0.0.1", 100, 5));
+        assertTrue(deduplicator.seen(interim("s1", "10.0.0.1", 100, 10)));
+    }
+
+    @Test
+    void seen_withoutEventTimestamp_shouldMatchRetransmitsByArrivalLessDelay() {
+        // Sent at 1_700_000_011, first on time and then again with a 5 s delay
+        long origin = EventIdGenerator.originSeconds(null, 0, Instant.ofEpochSecond(1_700_000_011L));
+        long retransmitOrigin = EventIdGenerator.originSeconds(null, 5, Instant.ofEpochSecond(1_700_000_016L));
+
+        assertFalse(handle(deduplicator, interim("s1", "10.0.0.1", 100, 0, origin)));
+        assertTrue(handle(deduplicator, interim("s1", "10.0.0.1", 100, 5, retransmitOrigin)));
+    }
+
+    /**
+     * Checks the request as the handler does, recording it when it is new.
+     */
+    private static boolean handle(AccountingDeduplicator deduplicator, AccountingEvent event) {
+        if (deduplicator.seen(event)) {
+            return true;
+        }
+        deduplicator.record(event);
+        return false;
+    }
+
+    /**
+     * Interim sent at a fixed Event-Timestamp; a retransmit keeps it and raises the delay.
+     */
+    private static AccountingEvent interim(String sessionId, String nasIp, int inputOctets, int delayTime) {
+        Instant eventTimestamp = Instant.ofEpochSecond(1_700_000_000L);
+        return interim(sessionId, nasIp, inputOctets, delayTime,
+                EventIdGenerator.originSeconds(eventTimestamp, delayTime, eventTimestamp.plusSeconds(delayTime)));
+    }
+
+    private static AccountingEvent interim(String sessionId, String nasIp, int inputOctets, int delayTime,
+                                           long originSeconds) {
+        String eventId = EventIdGenerator.eventId(nasIp, sessionId, AccountingRequestDto.ActionType.INTERIM_UPDATE,
+                inputOctets, 0, 60, originSeconds);
+        return new AccountingEvent(eventId, sessionId, nasIp, "alice", AccountingRequestDto.ActionType.INTERIM_UPDATE,
+                inputOctets, 0, 60, Instant.ofEpochSecond(1_700_000_000L), null, null, delayTime,
+                0, 0, "nas");
+    }
+}
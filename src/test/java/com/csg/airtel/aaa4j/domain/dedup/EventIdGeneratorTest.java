@@ -0,0 +1,83 @@
+package com.csg.airtel.aaa4j.domain.dedup;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIdGeneratorTest {
+
+    private static final AccountingRequestDto.ActionType INTERIM = AccountingRequestDto.ActionType.INTERIM_UPDATE;
+
+    @Test
+    void eventId_shouldBeStableAcrossReleases() {
+        // Consumers dedup on these ids, so the key layout and hash must not drift
+        assertEquals("aJbNegCljKQU0qT7ZIU2XQ",
+                EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1000, 2000, 60, 1_700_000_000L));
+    }
+
+    @Test
+    void eventId_shouldDependOnEveryKeyField() {
+        String id = EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1000, 2000, 60, 1_700_000_000L);
+
+        assertEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1000, 2000, 60, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.2", "sess-1", INTERIM, 1000, 2000, 60, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-2", INTERIM, 1000, 2000, 60, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-1", AccountingRequestDto.ActionType.STOP,
+                1000, 2000, 60, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1001, 2000, 60, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1000, 2000, 61, 1_700_000_000L));
+        assertNotEquals(id, EventIdGenerator.eventId("10.0.0.1", "sess-1", INTERIM, 1000, 2000, 60, 1_700_000_001L));
+        // Field boundaries are marked, so text cannot move from one field to the next
+        assertNotEquals(EventIdGenerator.eventId("10.0.0.1", "1sess", INTERIM, 0, 0, 0, 0),
+                EventIdGenerator.eventId("10.0.0.11", "sess", INTERIM, 0, 0, 0, 0));
+        assertNotEquals(EventIdGenerator.eventId(null, "sess", INTERIM, 0, 0, 0, 0),
+                EventIdGenerator.eventId("", "sess", INTERIM, 0, 0, 0, 0));
+    }
+
+    @Test
+    void eventId_shouldBeUrlSafeAndCarryTheFingerprint() {
+        String id = EventIdGenerator.eventId("10.0.0.1", "sëssion-ü", INTERIM, -1L, 1L << 40, -1, 0);
+
+        assertEquals(22, id.length());
+        assertTrue(id.matches("[A-Za-z0-9_-]+"));
+        byte[] hash = Base64.getUrlDecoder().decode(id);
+        assertEquals(16, hash.length);
+        assertEquals(EventIdGenerator.fingerprint("10.0.0.1", "sëssion-ü", INTERIM, -1L, 1L << 40, -1, 0),
+                ByteBuffer.wrap(hash).getLong());
+        assertEquals(ByteBuffer.wrap(hash).getLong(), EventIdGenerator.fingerprint(id));
+    }
+
+    @Test
+    void fingerprint_withForeignId_shouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> EventIdGenerator.fingerprint("evt"));
+        assertThrows(IllegalArgumentException.class, () -> EventIdGenerator.fingerprint("AAAAA+AAAAAAAAAAAAAAAA"));
+        assertThrows(IllegalArgumentException.class, () -> EventIdGenerator.fingerprint("AAAAAAAAA=AAAAAAAAAAAA"));
+    }
+
+    @Test
+    void originSeconds_withEventTimestamp_shouldIgnoreDelay() {
+        Instant eventTimestamp = Instant.ofEpochSecond(1_700_000_000L);
+
+        // RFC 2869: the retransmit keeps Event-Timestamp and arrives later with a higher delay
+        assertEquals(1_700_000_000L, EventIdGenerator.originSeconds(eventTimestamp, 0,
+                Instant.ofEpochSecond(1_700_000_001L)));
+        assertEquals(1_700_000_000L, EventIdGenerator.originSeconds(eventTimestamp, 5,
+                Instant.ofEpochSecond(1_700_000_006L)));
+    }
+
+    @Test
+    void originSeconds_withoutEventTimestamp_shouldBucketArrivalLessDelay() {
+        long first = EventIdGenerator.originSeconds(null, 0, Instant.ofEpochMilli(1_700_000_012_300L));
+        // Sent again 6.9 s later with the delay rounded to 6 s
+        long retransmit = EventIdGenerator.originSeconds(null, 6, Instant.ofEpochMilli(1_700_000_019_200L));
+
+        assertEquals(first, retransmit);
+        assertEquals(0, first % EventIdGenerator.ORIGIN_BUCKET_SECONDS);
+        assertNotEquals(first, EventIdGenerator.originSeconds(null, 0, Instant.ofEpochSecond(1_700_000_072L)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.csg.airtel.aaa4j.domain.dictionary;
+
+import com.csg.airtel.aaa4j.exception.BaseException;
+import org.aaa4j.radius.core.attribute.RawAttribute;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VendorDictionaryTest {
+
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    private VendorDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new VendorDictionary(VendorDictionary.load(List.of(
+                "dictionary/dictionary.alcatel.sr", "dictionary/dictionary.cisco", "dictionary/dictionary.huawei")));
+    }
+
+    @Test
+    void load_shouldIndexBundledVendors() {
+        VsaDefinition profile = dictionary.require("Alc-Subsc-Prof-Str");
+
+        assertEquals(6527, profile.vendorId());
+        assertEquals(12, profile.vendorType());
+        assertSame(profile, dictionary.definition(6527, 12));
+        assertEquals(VsaType.STRING, dictionary.require("Cisco-AVPair").type());
+        assertEquals(VsaType.INTEGER, dictionary.require("Huawei-Input-Average-Rate").type());
+        assertNull(dictionary.definition(6527, 250));
+        assertNull(dictionary.definition(4874, 1));
+    }
+
+    @Test
+    void value_shouldRoundTripThroughCodec() throws Exception {
+        Packet decoded = roundTrip(new AccessAccept(List.of(
+                dictionary.require("Alc-Subsc-Prof-Str").attribute("GOLD_100M"),
+                dictionary.require("Alc-Primary-Dns").attribute("10.0.0.53"),
+                dictionary.require("Huawei-Input-Average-Rate").attribute(102400),
+                dictionary.require("Cisco-AVPair").attribute("ip:addr-pool=pool1"))));
+
+        assertEquals("GOLD_100M", dictionary.value(decoded, dictionary.require("Alc-Subsc-Prof-Str")));
+        assertEquals(InetAddress.getByName("10.0.0.53"), dictionary.value(decoded, dictionary.require("Alc-Primary-Dns")));
+        assertEquals(102400L, dictionary.longValue(decoded, dictionary.require("Huawei-Input-Average-Rate"), -1));
+        assertEquals("ip:addr-pool=pool1", dictionary.value(decoded, dictionary.require("Cisco-AVPair")));
+        assertNull(dictionary.value(decoded, dictionary.require("Alc-SLA-Prof-Str")));
+    }
+
+    @Test
+    void values_shouldDecodeSeveralSubAttributesInOneVsa() {
+        // 6527: Alc-Subsc-Prof-Str "ab", Alc-SLA-Prof-Str "cd" and an unknown type 250
+        Packet packet = new AccessAccept(List.of(new RawAttribute(26, new byte[]{
+                0, 0, 0x19, 0x7f, 12, 4, 'a', 'b', 13, 4, 'c', 'd', (byte) 250, 3, 'x'})));
+
+        Map<String, Object> values = dictionary.values(packet);
+
+        assertEquals(Map.of("Alc-Subsc-Prof-Str", "ab", "Alc-SLA-Prof-Str", "cd"), values);
+    }
+
+    @Test
+    void attribute_shouldAcceptNamedValues() {
+        VsaDefinition cause = dictionary.require("Cisco-Disconnect-Cause");
+
+        Packet packet = new AccessAccept(List.of(cause.attribute("Idle-Timeout")));
+
+        assertEquals(21L, dictionary.longValue(packet, cause, -1));
+    }
+
+    @Test
+    void attribute_withValueNotFittingType_shouldFail() {
+        VsaDefinition rate = dictionary.require("Huawei-Input-Average-Rate");
+        VsaDefinition profile = dictionary.require("Alc-Subsc-Prof-Str");
+
+        assertThrows(IllegalArgumentException.class, () -> rate.attribute("fast"));
+        assertThrows(IllegalArgumentException.class, () -> rate.attribute(1L << 32));
+        assertThrows(IllegalArgumentException.class, () -> profile.attribute("x".repeat(248)));
+    }
+
+    @Test
+    void load_shouldFollowIncludesAndLetLaterDefinitionsWin(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("dictionary"), """
+                $INCLUDE dictionary.acme
+                VENDOR	Acme	4242
+                ATTRIBUTE	Acme-Plan	1	integer	Acme
+                """);
+        Files.writeString(dir.resolve("dictionary.acme"), """
+                VENDOR	Acme	4242
+                BEGIN-VENDOR	Acme
+                ATTRIBUTE	Acme-Plan	1	string
+                ATTRIBUTE	Acme-Secret	2	string	encrypt=2
+                END-VENDOR	Acme
+                """);
+
+        VendorDictionary acme = new VendorDictionary(VendorDictionary.load(List.of(dir.resolve("dictionary").toString())));
+
+        // Old-style vendor column after the include overrides the included definition
+        assertEquals(VsaType.INTEGER, acme.require("Acme-Plan").type());
+        assertTrue(acme.definition("Acme-Secret").isEmpty());
+    }
+
+    @Test
+    void load_withMalformedDictionary_shouldFailStartup(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("dictionary.bad");
+        Files.writeString(file, "BEGIN-VENDOR Nobody\n");
+
+        BaseException e = assertThrows(BaseException.class, () -> VendorDictionary.load(List.of(file.toString())));
+        assertTrue(e.getMessage().contains(":1:"));
+    }
+
+    private static Packet roundTrip(Packet packet) throws Exception {
+        PacketCodec codec = new PacketCodec(new StandardDictionary());
+        byte[] requestAuthenticator = new byte[16];
+        byte[] encoded = codec.encodeResponse(packet, SECRET, 1, requestAuthenticator);
+        return codec.decodeResponse(encoded, SECRET, requestAuthenticator);
+    }
+}
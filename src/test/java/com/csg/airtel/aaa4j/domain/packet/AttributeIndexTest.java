@@ -0,0 +1,97 @@
+package com.csg.airtel.aaa4j.domain.packet;
+
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.dictionary.VsaDefinition;
+import org.aaa4j.radius.core.attribute.EnumData;
+import org.aaa4j.radius.core.attribute.IntegerData;
+import org.aaa4j.radius.core.attribute.Ipv4AddrData;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.TimeData;
+import org.aaa4j.radius.core.attribute.attributes.AcctInputOctets;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.attribute.attributes.AcctStatusType;
+import org.aaa4j.radius.core.attribute.attributes.EventTimestamp;
+import org.aaa4j.radius.core.attribute.attributes.FramedIpAddress;
+import org.aaa4j.radius.core.attribute.attributes.ReplyMessage;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.packet.packets.AccountingRequest;
+import org.junit.jupiter.api.Test;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeIndexTest {
+
+    @Test
+    void of_shouldIndexFirstOccurrence() {
+        AttributeIndex index = AttributeIndex.of(new AccountingRequest(List.of(
+                new UserName(new TextData("alice")),
+                new UserName(new TextData("bob")))));
+
+        // Same attribute Packet.getAttribute would return
+        assertEquals("alice", index.text(AttributeIndex.USER_NAME, null));
+    }
+
+    @Test
+    void accessors_shouldReadTypedValues() throws Exception {
+        InetAddress framedIp = InetAddress.getByName("10.1.2.3");
+        Instant eventTime = Instant.ofEpochSecond(1_700_000_000L);
+
+        AttributeIndex index = AttributeIndex.of(new AccountingRequest(List.of(
+                new AcctSessionId(new TextData("sess-1")),
+                new AcctStatusType(new EnumData(3)),
+                new AcctInputOctets(new IntegerData(1000)),
+                new FramedIpAddress(new Ipv4AddrData((Inet4Address) framedIp)),
+                new EventTimestamp(new TimeData(eventTime)))));
+
+        // Enumerated and integer attributes are both read as int
+        assertEquals(3, index.integer(AttributeIndex.ACCT_STATUS_TYPE, -1));
+        assertEquals(1000, index.integer(AttributeIndex.ACCT_INPUT_OCTETS, 0));
+        assertEquals("sess-1", index.text(AttributeIndex.ACCT_SESSION_ID, null));
+        assertEquals(framedIp, index.address(AttributeIndex.FRAMED_IP_ADDRESS));
+        assertEquals(eventTime, index.time(AttributeIndex.EVENT_TIMESTAMP, null));
+        assertTrue(index.has(AttributeIndex.ACCT_STATUS_TYPE));
+    }
+
+    @Test
+    void accessors_whenAbsent_shouldReturnDefault() {
+        AttributeIndex index = AttributeIndex.of(new AccountingRequest(List.of(
+                new AcctSessionId(new TextData("sess-1")))));
+
+        assertFalse(index.has(AttributeIndex.USER_NAME));
+        assertNull(index.text(AttributeIndex.USER_NAME, null));
+        assertEquals(0, index.integer(AttributeIndex.ACCT_OUTPUT_OCTETS, 0));
+        assertNull(index.address(AttributeIndex.NAS_IP_ADDRESS));
+        assertNull(index.time(AttributeIndex.EVENT_TIMESTAMP, null));
+    }
+
+    @Test
+    void accessors_withUnindexedType_shouldFail() {
+        AttributeIndex index = AttributeIndex.of(new AccountingRequest(List.of(
+                new ReplyMessage(new TextData("ignored")))));
+
+        // Reply-Message (18) is not indexed, so asking for it is a programming error
+        assertThrows(IllegalArgumentException.class, () -> index.text(18, null));
+        assertThrows(IllegalArgumentException.class, () -> index.integer(300, 0));
+    }
+
+    @Test
+    void vendorValue_shouldDecodeThroughDictionary() {
+        VendorDictionary dictionary = new VendorDictionary(
+                VendorDictionary.load(List.of("dictionary/dictionary.alcatel.sr")));
+        VsaDefinition profile = dictionary.require("Alc-Subsc-Prof-Str");
+        VsaDefinition sla = dictionary.require("Alc-SLA-Prof-Str");
+
+        AttributeIndex index = AttributeIndex.of(new AccountingRequest(List.of(
+                new AcctSessionId(new TextData("sess-1")),
+                profile.attribute("GOLD_100M"))));
+
+        assertEquals("GOLD_100M", index.vendorValue(dictionary, profile));
+        assertNull(index.vendorValue(dictionary, sla));
+        assertNull(AttributeIndex.of(new AccountingRequest(List.of())).vendorValue(dictionary, profile));
+    }
+}
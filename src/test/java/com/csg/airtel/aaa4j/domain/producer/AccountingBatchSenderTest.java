@@ -0,0 +1,167 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.spool.AccountingSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AccountingBatchSenderTest {
+
+    @Mock
+    private Emitter<AccountingEvent> emitter;
+
+    @Mock
+    private AccountingSpool spool;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountingBatchSender sender;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        sender = new AccountingBatchSender(emitter, spool, meterRegistry);
+    }
+
+    @Test
+    void send_shouldGroupEventsByPartitionKey() {
+        List<PendingAccountingEvent> batch = List.of(pending("s1"), pending("s2"), pending("s1"));
+
+        sender.send(batch);
+
+        // Both s1 events go out back to back, keyed by session and NAS
+        List<Message<AccountingEvent>> messages = sentMessages(3);
+        assertEquals(List.of("s1", "s1", "s2"), messages.stream().map(m -> m.getPayload().sessionId()).toList());
+        assertEquals("s1-10.0.0.1", key(messages.get(0)));
+        assertEquals("s2-10.0.0.1", key(messages.get(2)));
+    }
+
+    @Test
+    void send_shouldCompleteWhenEveryEventIsAcked() {
+        CompletableFuture<Void> result = sender.send(List.of(pending("s1"), pending("s2"))).toCompletableFuture();
+        List<Message<AccountingEvent>> messages = sentMessages(2);
+
+        messages.get(0).ack();
+        assertFalse(result.isDone());
+
+        messages.get(1).ack();
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void send_whenAnEventIsNacked_shouldFail() {
+        CompletableFuture<Void> result = sender.send(List.of(pending("s1"), pending("s2"))).toCompletableFuture();
+        List<Message<AccountingEvent>> messages = sentMessages(2);
+
+        messages.get(0).ack();
+        messages.get(1).nack(new IllegalStateException("broker down"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1.0, meterRegistry.get("accounting.publish.failures").counter().count());
+    }
+
+    @Test
+    void send_whenAnEventIsNacked_shouldFailOnlyOnceEveryEventIsSettled() {
+        List<PendingAccountingEvent> batch = List.of(pending("s1"), pending("s2"));
+        CompletableFuture<Void> result = sender.send(batch).toCompletableFuture();
+        List<Message<AccountingEvent>> messages = sentMessages(2);
+
+        messages.get(0).nack(new IllegalStateException("broker down"));
+        assertFalse(result.isDone());
+
+        // The acked event is complete on its own, so the fallback will not spool it again
+        messages.get(1).ack();
+        assertTrue(result.isCompletedExceptionally());
+        assertFalse(batch.get(0).future().isDone());
+        assertTrue(batch.get(1).future().isDone());
+    }
+
+    @Test
+    void send_whenEmitterThrows_shouldFail() {
+        doThrow(new IllegalStateException("overflow")).when(emitter).send(any(Message.class));
+
+        CompletableFuture<Void> result = sender.send(List.of(pending("s1"))).toCompletableFuture();
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void replay_shouldSendRequestsKeyedLikeLiveEvents() {
+        CompletableFuture<Void> result = sender.replay(List.of(pending("s1").request())).toCompletableFuture();
+        List<Message<AccountingEvent>> messages = sentMessages(1);
+
+        assertEquals("s1-10.0.0.1", key(messages.get(0)));
+        messages.get(0).ack();
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    void fallbackSend_shouldSpoolBatchAndCompleteNormally() {
+        when(spool.append(any())).thenReturn(true);
+        List<PendingAccountingEvent> batch = List.of(pending("s1"), pending("s2"));
+
+        // Callers are not failed: the events wait in the spool for replay
+        CompletableFuture<Void> result = sender.fallbackSend(batch).toCompletableFuture();
+
+        assertTrue(result.isDone());
+        assertFalse(result.isCompletedExceptionally());
+        verify(spool).append(batch.get(0).request());
+        verify(spool).append(batch.get(1).request());
+        assertEquals(2.0, meterRegistry.get("accounting.publish.fallback").counter().count());
+    }
+
+    @Test
+    void fallbackSend_afterPartialNack_shouldSpoolOnlyUnackedEvents() {
+        when(spool.append(any())).thenReturn(true);
+        List<PendingAccountingEvent> batch = List.of(pending("s1"), pending("s2"), pending("s3"));
+        sender.send(batch);
+        List<Message<AccountingEvent>> messages = sentMessages(3);
+        messages.get(0).ack();
+        messages.get(1).nack(new IllegalStateException("broker down"));
+        messages.get(2).ack();
+
+        sender.fallbackSend(batch);
+
+        verify(spool).append(batch.get(1).request());
+        verify(spool, times(1)).append(any());
+        assertEquals(1.0, meterRegistry.get("accounting.publish.fallback").counter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Message<AccountingEvent>> sentMessages(int count) {
+        ArgumentCaptor<Message<AccountingEvent>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(emitter, times(count)).send(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String key(Message<AccountingEvent> message) {
+        return ((OutgoingKafkaRecordMetadata<String>) message.getMetadata(OutgoingKafkaRecordMetadata.class)
+                .orElseThrow()).getKey();
+    }
+
+    private static PendingAccountingEvent pending(String sessionId) {
+        AccountingEvent request = new AccountingEvent("trace", sessionId, "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.START, 0, 0, 0, Instant.now(), null, null, 0, 0, 0, "nas");
+        return new PendingAccountingEvent(request, System.nanoTime(), new CompletableFuture<>());
+    }
+}
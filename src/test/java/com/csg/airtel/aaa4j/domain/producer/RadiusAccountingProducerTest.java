@@ -0,0 +1,344 @@
+package com.csg.airtel.aaa4j.domain.producer;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RadiusAccountingProducerTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private RadiusServerConfig config;
+
+    @Mock
+    private AccountingBatchSender batchSender;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RadiusAccountingProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.accounting().publish().maxBatchSize()).thenReturn(2);
+        when(config.accounting().publish().scheduling()).thenReturn(RadiusServerConfig.PublishConfig.LaneScheduling.STRICT);
+        when(config.accounting().publish().interimOverflow())
+                .thenReturn(RadiusServerConfig.PublishConfig.InterimOverflow.COALESCE);
+        when(config.accounting().publish().lanes().sessionCapacity()).thenReturn(3);
+        when(config.accounting().publish().lanes().interimCapacity()).thenReturn(3);
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new RadiusAccountingProducer(batchSender, config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.shutdown();
+    }
+
+    @Test
+    void produceAccountingEvent_shouldCompleteFromBatchResult() throws Exception {
+        CompletableFuture<Void> batchResult = new CompletableFuture<>();
+        when(batchSender.send(any())).thenReturn(batchResult);
+        producer.start();
+
+        CompletableFuture<Void> future = producer.produceAccountingEvent(event("s1")).toCompletableFuture();
+
+        verify(batchSender, timeout(1000)).send(any());
+        assertFalse(future.isDone());
+
+        // The event's future follows its batch
+        batchResult.complete(null);
+        assertNull(future.get(1, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("accounting.publish.latency").timer().count());
+    }
+
+    @Test
+    void produceAccountingEvent_whenBatchFails_shouldFailEvents() {
+        when(batchSender.send(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+        producer.start();
+
+        CompletableFuture<Void> future = producer.produceAccountingEvent(event("s1")).toCompletableFuture();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void publisher_shouldDrainQueueInBatchesOfMaxSize() throws Exception {
+        List<List<String>> batches = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            List<PendingAccountingEvent> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(event -> event.request().sessionId()).toList());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Queue before the publisher starts so it finds a backlog
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String sessionId : List.of("s1", "s2", "s3")) {
+            futures.add(producer.produceAccountingEvent(event(sessionId)).toCompletableFuture());
+        }
+        assertEquals(3, producer.queueDepth());
+        producer.start();
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("s1", "s2"), List.of("s3")), batches);
+        assertEquals(0, producer.queueDepth());
+        assertEquals(2, meterRegistry.get("accounting.publish.batch.size").summary().count());
+    }
+
+    @Test
+    void produceAccountingEvent_whenInterimLaneFull_shouldShedInterimsOnly() {
+        // Publisher not started: nothing drains the queue
+        for (String sessionId : List.of("s1", "s2", "s3")) {
+            producer.produceAccountingEvent(event(sessionId));
+        }
+
+        CompletableFuture<Void> shed = producer.produceAccountingEvent(event("s4")).toCompletableFuture();
+        CompletableFuture<Void> stop = producer.produceAccountingEvent(
+                event("s5", AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture();
+
+        ExecutionException e = assertThrows(ExecutionException.class, shed::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertFalse(stop.isDone());
+        assertEquals(3, producer.laneDepth(PublishLane.INTERIM));
+        assertEquals(1, producer.laneDepth(PublishLane.SESSION));
+        assertEquals(1.0, meterRegistry.get("accounting.publish.shed").counter().count());
+        assertEquals(3.0, meterRegistry.get("accounting.publish.lane.depth").tag("lane", "interim").gauge().value());
+    }
+
+    @Test
+    void produceAccountingEvent_whenSessionLaneFull_shouldReject() {
+        for (String sessionId : List.of("s1", "s2", "s3")) {
+            producer.produceAccountingEvent(event(sessionId, AccountingRequestDto.ActionType.STOP, 1));
+        }
+
+        CompletableFuture<Void> rejected = producer.produceAccountingEvent(
+                event("s4", AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture();
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1.0, meterRegistry.get("accounting.publish.rejected").tag("lane", "session").counter().count());
+        assertEquals(0.0, meterRegistry.get("accounting.publish.rejected").tag("lane", "interim").counter().count());
+    }
+
+    @Test
+    void publisher_withStrictScheduling_shouldDrainSessionLaneFirst() throws Exception {
+        List<List<String>> batches = recordBatches();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(producer.produceAccountingEvent(event("interim")).toCompletableFuture());
+        futures.add(producer.produceAccountingEvent(
+                event("start", AccountingRequestDto.ActionType.START, 0)).toCompletableFuture());
+        futures.add(producer.produceAccountingEvent(
+                event("stop", AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture());
+        producer.start();
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of("start", "stop"), List.of("interim")), batches);
+    }
+
+    @Test
+    void publisher_shouldNeverPublishAStopAheadOfItsStart() throws Exception {
+        List<PendingAccountingEvent> published = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            published.addAll(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(producer.produceAccountingEvent(
+                event("s1", AccountingRequestDto.ActionType.START, 0)).toCompletableFuture());
+        futures.add(producer.produceAccountingEvent(event("s2", AccountingRequestDto.ActionType.ACCOUNTING_ON, 0))
+                .toCompletableFuture());
+        futures.add(producer.produceAccountingEvent(
+                event("s1", AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture());
+        producer.start();
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+        // One FIFO for every session event: published in arrival order
+        assertEquals(List.of(AccountingRequestDto.ActionType.START, AccountingRequestDto.ActionType.ACCOUNTING_ON,
+                        AccountingRequestDto.ActionType.STOP),
+                published.stream().map(event -> event.request().actionType()).toList());
+    }
+
+    @Test
+    void publisher_withWeightedScheduling_shouldShareBatchesByWeight() throws Exception {
+        when(config.accounting().publish().maxBatchSize()).thenReturn(6);
+        when(config.accounting().publish().scheduling()).thenReturn(RadiusServerConfig.PublishConfig.LaneScheduling.WEIGHTED);
+        when(config.accounting().publish().lanes().sessionWeight()).thenReturn(2);
+        when(config.accounting().publish().lanes().interimWeight()).thenReturn(1);
+        RadiusAccountingProducer weighted = new RadiusAccountingProducer(batchSender, config, new SimpleMeterRegistry());
+        List<List<String>> batches = recordBatches();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            futures.add(weighted.produceAccountingEvent(event("i" + i)).toCompletableFuture());
+            futures.add(weighted.produceAccountingEvent(
+                    event("s" + i, AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture());
+        }
+        weighted.start();
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+            // Two STOPs for every interim while both lanes have events, interleaved
+            assertEquals(List.of(List.of("s1", "i1", "s2", "s3", "i2", "i3")), batches);
+        } finally {
+            weighted.shutdown();
+        }
+    }
+
+    @Test
+    void produceAccountingEvent_shouldCoalesceQueuedInterimsOfASession() throws Exception {
+        List<PendingAccountingEvent> published = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            published.addAll(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        CompletableFuture<Void> first = producer.produceAccountingEvent(event("s1",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 100)).toCompletableFuture();
+        CompletableFuture<Void> second = producer.produceAccountingEvent(event("s1",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 200)).toCompletableFuture();
+        CompletableFuture<Void> other = producer.produceAccountingEvent(event("s2")).toCompletableFuture();
+        CompletableFuture<Void> stop = producer.produceAccountingEvent(event("s2",
+                AccountingRequestDto.ActionType.STOP, 300)).toCompletableFuture();
+
+        // The older interim gave way to the newer one, and s2's interim to its STOP
+        assertTrue(first.isDone());
+        assertTrue(other.isDone());
+        assertEquals(1, producer.laneDepth(PublishLane.INTERIM));
+        assertEquals(2.0, meterRegistry.get("accounting.publish.coalesced").counter().count());
+
+        producer.start();
+        CompletableFuture.allOf(second, stop).get(1, TimeUnit.SECONDS);
+        assertEquals(2, published.size());
+        assertEquals(AccountingRequestDto.ActionType.STOP, published.get(0).request().actionType());
+        assertEquals(200, published.get(1).request().inputOctets());
+    }
+
+    @Test
+    void produceAccountingEvent_withShedPolicy_shouldKeepQueuedInterimsUntilTheirStop() throws Exception {
+        when(config.accounting().publish().interimOverflow())
+                .thenReturn(RadiusServerConfig.PublishConfig.InterimOverflow.SHED);
+        SimpleMeterRegistry sheddingMeters = new SimpleMeterRegistry();
+        RadiusAccountingProducer shedding = new RadiusAccountingProducer(batchSender, config, sheddingMeters);
+        List<PendingAccountingEvent> published = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            published.addAll(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        CompletableFuture<Void> first = shedding.produceAccountingEvent(event("s1",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 100)).toCompletableFuture();
+        shedding.produceAccountingEvent(event("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 200));
+        CompletableFuture<Void> other = shedding.produceAccountingEvent(event("s2")).toCompletableFuture();
+        // Nothing is merged
+        assertEquals(3, shedding.laneDepth(PublishLane.INTERIM));
+
+        CompletableFuture<Void> stop = shedding.produceAccountingEvent(event("s1",
+                AccountingRequestDto.ActionType.STOP, 300)).toCompletableFuture();
+        assertEquals(2.0, sheddingMeters.get("accounting.publish.coalesced").counter().count());
+
+        shedding.start();
+        try {
+            CompletableFuture.allOf(first, other, stop).get(1, TimeUnit.SECONDS);
+            // s1's interims gave way to its STOP; s2's interim still goes out
+            assertEquals(List.of("s1", "s2"), published.stream().map(event -> event.request().sessionId()).toList());
+            assertEquals(AccountingRequestDto.ActionType.STOP, published.get(0).request().actionType());
+            assertEquals(0, shedding.laneDepth(PublishLane.INTERIM));
+        } finally {
+            shedding.shutdown();
+        }
+    }
+
+    @Test
+    void publisher_whileBatchInFlight_shouldLetStopsOvertakeQueuedInterims() throws Exception {
+        // One batch in flight (the default when unset); Kafka holds the first one
+        List<List<String>> batches = new ArrayList<>();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            List<PendingAccountingEvent> batch = invocation.getArgument(0);
+            synchronized (batches) {
+                batches.add(batch.stream().map(event -> event.request().sessionId()).toList());
+                CompletableFuture<Void> result = new CompletableFuture<>();
+                results.add(result);
+                return result;
+            }
+        });
+        producer.start();
+        producer.produceAccountingEvent(event("i1"));
+        verify(batchSender, timeout(1000)).send(any());
+
+        // Queued behind the pending batch, in lanes
+        producer.produceAccountingEvent(event("i2"));
+        producer.produceAccountingEvent(event("i3"));
+        CompletableFuture<Void> stop = producer.produceAccountingEvent(
+                event("s1", AccountingRequestDto.ActionType.STOP, 1)).toCompletableFuture();
+        Thread.sleep(100);
+        verify(batchSender, times(1)).send(any());
+        assertEquals(3, producer.queueDepth());
+
+        synchronized (batches) {
+            results.get(0).complete(null);
+        }
+        verify(batchSender, timeout(1000).times(2)).send(any());
+        synchronized (batches) {
+            results.get(1).complete(null);
+        }
+        stop.get(1, TimeUnit.SECONDS);
+        verify(batchSender, timeout(1000).times(3)).send(any());
+        synchronized (batches) {
+            results.get(2).complete(null);
+            assertEquals(List.of(List.of("i1"), List.of("s1", "i2"), List.of("i3")), batches);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shutdown_shouldPublishQueuedEvents() throws Exception {
+        when(batchSender.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        producer.start();
+        CompletableFuture<Void> future = producer.produceAccountingEvent(event("s1")).toCompletableFuture();
+
+        producer.shutdown();
+
+        assertNull(future.get(1, TimeUnit.SECONDS));
+        ArgumentCaptor<List<PendingAccountingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchSender).send(captor.capture());
+        assertEquals("s1", captor.getValue().get(0).request().sessionId());
+    }
+
+    private List<List<String>> recordBatches() {
+        List<List<String>> batches = new ArrayList<>();
+        when(batchSender.send(any())).thenAnswer(invocation -> {
+            List<PendingAccountingEvent> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(event -> event.request().sessionId()).toList());
+            return CompletableFuture.completedFuture(null);
+        });
+        return batches;
+    }
+
+    private static AccountingEvent event(String sessionId) {
+        return event(sessionId, AccountingRequestDto.ActionType.INTERIM_UPDATE, 1);
+    }
+
+    private static AccountingEvent event(String sessionId, AccountingRequestDto.ActionType actionType,
+                                         int inputOctets) {
+        return new AccountingEvent("trace", sessionId, "10.0.0.1", "alice", actionType, inputOctets, 2, 3,
+                Instant.now(), null, null, 0, 0, 0, "nas");
+    }
+}
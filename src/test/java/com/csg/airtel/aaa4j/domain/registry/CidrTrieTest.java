@@ -0,0 +1,91 @@
+package com.csg.airtel.aaa4j.domain.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CidrTrieTest {
+
+    @Test
+    void lookup_exactAddress_matchesOnlyThatAddress() throws Exception {
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("10.1.2.3", "nas-1")
+                .build();
+
+        assertEquals("nas-1", trie.lookup(InetAddress.getByName("10.1.2.3")));
+        assertNull(trie.lookup(InetAddress.getByName("10.1.2.4")));
+        assertNull(trie.lookup(InetAddress.getByName("10.1.3.3")));
+    }
+
+    @Test
+    void lookup_overlappingRanges_returnsLongestPrefix() throws Exception {
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("10.0.0.0/8", "wide")
+                .add("10.1.0.0/16", "region")
+                .add("10.1.2.0/23", "pop")
+                .add("10.1.2.3/32", "nas")
+                .build();
+
+        assertEquals("nas", trie.lookup(InetAddress.getByName("10.1.2.3")));
+        assertEquals("pop", trie.lookup(InetAddress.getByName("10.1.3.200")));
+        assertEquals("region", trie.lookup(InetAddress.getByName("10.1.4.1")));
+        assertEquals("wide", trie.lookup(InetAddress.getByName("10.200.0.1")));
+        assertNull(trie.lookup(InetAddress.getByName("11.0.0.1")));
+    }
+
+    @Test
+    void lookup_shorterPrefixAddedLater_doesNotOverrideLongerOne() throws Exception {
+        // Both prefixes expand into the same slot row; insertion order must not matter
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("192.168.1.128/25", "upper")
+                .add("192.168.1.0/24", "whole")
+                .build();
+
+        assertEquals("upper", trie.lookup(InetAddress.getByName("192.168.1.200")));
+        assertEquals("whole", trie.lookup(InetAddress.getByName("192.168.1.10")));
+    }
+
+    @Test
+    void lookup_defaultRoute_matchesEverything() throws Exception {
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("0.0.0.0/0", "any-v4")
+                .add("::/0", "any-v6")
+                .build();
+
+        assertEquals("any-v4", trie.lookup(InetAddress.getByName("203.0.113.9")));
+        assertEquals("any-v6", trie.lookup(InetAddress.getByName("2001:db8::1")));
+    }
+
+    @Test
+    void lookup_ipv6Range_doesNotLeakIntoIpv4() throws Exception {
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("2001:db8:100::/40", "v6-pop")
+                .build();
+
+        assertEquals("v6-pop", trie.lookup(InetAddress.getByName("2001:db8:1ff::1")));
+        assertNull(trie.lookup(InetAddress.getByName("2001:db8:200::1")));
+        assertNull(trie.lookup(InetAddress.getByName("32.1.13.184")));
+    }
+
+    @Test
+    void add_invalidDefinitions_throwIllegalArgumentException() {
+        CidrTrie.Builder<String> builder = CidrTrie.newBuilder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add("10.0.0.0/33", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("10.0.0.0/abc", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("nas.example.com", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(" ", "x"));
+    }
+
+    @Test
+    void size_countsAddedPrefixes() {
+        CidrTrie<String> trie = CidrTrie.<String>newBuilder()
+                .add("10.0.0.0/8", "a")
+                .add("10.0.0.1", "b")
+                .build();
+
+        assertEquals(2, trie.size());
+    }
+}
@@ -0,0 +1,201 @@
+package com.csg.airtel.aaa4j.domain.registry;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
+import com.csg.airtel.aaa4j.domain.model.NasClientDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.hash.HashCommands;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.inject.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NasClientRegistryTest {
+
+    @Mock
+    private RadiusServerConfig config;
+    @Mock
+    private RadiusServerConfig.ClientsConfig clientsConfig;
+    @Mock
+    private Instance<RedisDataSource> redisInstance;
+    @Mock
+    private RedisDataSource redisDataSource;
+    @Mock
+    private Vertx vertx;
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NasClientRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.clients()).thenReturn(clientsConfig);
+        when(config.sharedSecret()).thenReturn("shared");
+        when(clientsConfig.redisKey()).thenReturn("radius:nas-clients");
+        when(redisInstance.get()).thenReturn(redisDataSource);
+
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new NasClientRegistry(config, redisInstance, new ObjectMapper(), vertx, meterRegistry);
+    }
+
+    @Test
+    void reload_withSourceNone_shouldServeTheSharedSecretToAnyAddress() throws Exception {
+        when(clientsConfig.source()).thenReturn(RadiusServerConfig.ClientsConfig.Source.NONE);
+
+        registry.reload();
+
+        assertArrayEquals("shared".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("192.0.2.1")));
+        assertArrayEquals("shared".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("2001:db8::1")));
+    }
+
+    @Test
+    void reload_fromFile_shouldParseDefinitionsAndApplyDefaults() throws Exception {
+        useFile("""
+                [
+                  {"name": "bng-1", "address": "10.1.2.3", "secret": "s3cret", "vendor": "nokia",
+                   "coaPort": 1700, "coaConcurrency": 32},
+                  {"address": "10.2.0.0/16", "secret": "range"}
+                ]
+                """);
+
+        assertEquals(2, registry.reload());
+
+        NasClient exact = registry.find(InetAddress.getByName("10.1.2.3"));
+        assertEquals("bng-1", exact.name());
+        assertEquals("nokia", exact.vendor());
+        assertEquals(1700, exact.coaPort());
+        assertEquals(32, exact.coaConcurrency());
+        assertArrayEquals("s3cret".getBytes(UTF_8), exact.secret());
+
+        // Missing name, CoA port and concurrency fall back to the address and the defaults
+        NasClient range = registry.find(InetAddress.getByName("10.2.200.1"));
+        assertEquals("10.2.0.0/16", range.name());
+        assertEquals(NasClientRegistry.DEFAULT_COA_PORT, range.coaPort());
+        assertEquals(NasClientRegistry.DEFAULT_COA_CONCURRENCY, range.coaConcurrency());
+    }
+
+    @Test
+    void secretFor_shouldUseTheLongestMatchingPrefix() throws Exception {
+        useFile("""
+                [
+                  {"address": "10.0.0.0/8", "secret": "wide"},
+                  {"address": "10.1.0.0/16", "secret": "region"},
+                  {"address": "10.1.2.3", "secret": "nas"}
+                ]
+                """);
+        registry.reload();
+
+        assertArrayEquals("nas".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.3")));
+        assertArrayEquals("region".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.4")));
+        assertArrayEquals("wide".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.9.9.9")));
+    }
+
+    @Test
+    void secretFor_unknownAddress_shouldReturnNullAndCount() throws Exception {
+        useFile("""
+                [{"address": "10.1.2.3", "secret": "nas"}]
+                """);
+        registry.reload();
+
+        assertNull(registry.secretFor(InetAddress.getByName("192.0.2.1")));
+        assertEquals(1.0, meterRegistry.get("radius.clients.unknown").counter().count());
+    }
+
+    @Test
+    void reload_shouldReplaceTheTable() throws Exception {
+        Path file = useFile("""
+                [{"address": "10.1.2.3", "secret": "old"}]
+                """);
+        registry.reload();
+
+        Files.writeString(file, """
+                [{"address": "10.1.2.3", "secret": "new"}, {"address": "10.1.2.4", "secret": "added"}]
+                """);
+        assertEquals(2, registry.reload());
+
+        assertArrayEquals("new".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.3")));
+        assertArrayEquals("added".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.4")));
+        assertEquals(2.0, meterRegistry.get("radius.clients.size").gauge().value());
+    }
+
+    @Test
+    void reload_withInvalidDefinition_shouldKeepThePreviousTable() throws Exception {
+        Path file = useFile("""
+                [{"address": "10.1.2.3", "secret": "old"}]
+                """);
+        registry.reload();
+
+        Files.writeString(file, """
+                [{"address": "10.1.2.3", "secret": ""}]
+                """);
+        assertThrows(IllegalArgumentException.class, () -> registry.reload());
+
+        Files.writeString(file, """
+                [{"address": "not-an-address/99", "secret": "x"}]
+                """);
+        assertThrows(IllegalArgumentException.class, () -> registry.reload());
+
+        assertEquals(1, registry.size());
+        assertArrayEquals("old".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.3")));
+    }
+
+    @Test
+    void reload_fromFile_withoutPath_shouldFail() {
+        when(clientsConfig.source()).thenReturn(RadiusServerConfig.ClientsConfig.Source.FILE);
+        when(clientsConfig.filePath()).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.reload());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reload_fromRedis_shouldTakeTheAddressFromTheHashField() throws Exception {
+        when(clientsConfig.source()).thenReturn(RadiusServerConfig.ClientsConfig.Source.REDIS);
+        HashCommands<String, String, NasClientDefinition> hash = mock(HashCommands.class);
+        when(redisDataSource.hash(NasClientDefinition.class)).thenReturn(hash);
+        when(hash.hgetall("radius:nas-clients")).thenReturn(Map.of(
+                "10.1.2.3", new NasClientDefinition("bng-1", null, "from-field", null, null, null),
+                "10.5.0.0/16", new NasClientDefinition(null, "10.6.0.0/16", "own-address", null, null, null)));
+
+        assertEquals(2, registry.reload());
+
+        assertArrayEquals("from-field".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.1.2.3")));
+        // An address inside the definition wins over the hash field
+        assertArrayEquals("own-address".getBytes(UTF_8), registry.secretFor(InetAddress.getByName("10.6.1.1")));
+        assertNull(registry.find(InetAddress.getByName("10.5.1.1")));
+    }
+
+    @Test
+    void compile_shouldRejectMissingSecret() {
+        assertThrows(IllegalArgumentException.class, () -> NasClientRegistry.compile(
+                List.of(new NasClientDefinition("bng-1", "10.1.2.3", null, null, null, null))));
+    }
+
+    private Path useFile(String json) throws Exception {
+        Path file = tempDir.resolve("clients.json");
+        Files.writeString(file, json);
+        when(clientsConfig.source()).thenReturn(RadiusServerConfig.ClientsConfig.Source.FILE);
+        when(clientsConfig.filePath()).thenReturn(Optional.of(file.toString()));
+        return file;
+    }
+}
@@ -0,0 +1,120 @@
+package com.csg.airtel.aaa4j.domain.reply;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aaa4j.radius.core.attribute.attributes.IdleTimeout;
+import org.aaa4j.radius.core.attribute.attributes.SessionTimeout;
+import org.aaa4j.radius.core.attribute.attributes.UserName;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplyTemplateCacheTest {
+
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private RadiusServerConfig config;
+
+    private VendorDictionary dictionary;
+    private ReplyTemplateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(config.auth().replyTemplateCacheSize()).thenReturn(16);
+        when(config.auth().ruleAttribute()).thenReturn("Alc-Subsc-Prof-Str");
+        dictionary = new VendorDictionary(VendorDictionary.load(List.of("dictionary/dictionary.alcatel.sr")));
+        cache = new ReplyTemplateCache(config, dictionary, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void accept_shouldEncodeProfileAttributes() throws Exception {
+        UserDetails userDetails = new UserDetails("alice", true, true, true, null,
+                Map.of("session_timeout", "3600", "IDLE_TIMEOUT", "300", "UNRELATED", "x"));
+
+        // Round-trip through the codec: pre-encoded attributes decode as the standard types
+        Packet decoded = roundTrip(cache.accept(userDetails));
+
+        assertEquals(3600, decoded.getAttribute(SessionTimeout.class).orElseThrow().getData().getValue());
+        assertEquals(300, decoded.getAttribute(IdleTimeout.class).orElseThrow().getData().getValue());
+        assertEquals("alice", decoded.getAttribute(UserName.class).orElseThrow().getData().getValue());
+    }
+
+    @Test
+    void accept_shouldSendRuleAndNamedVendorAttributes() throws Exception {
+        UserDetails userDetails = new UserDetails("alice", true, true, true, "GOLD_100M",
+                Map.of("Alc-SLA-Prof-Str", "SLA_100M"));
+
+        Packet decoded = roundTrip(cache.accept(userDetails));
+
+        assertEquals("GOLD_100M", dictionary.value(decoded, dictionary.require("Alc-Subsc-Prof-Str")));
+        assertEquals("SLA_100M", dictionary.value(decoded, dictionary.require("Alc-SLA-Prof-Str")));
+    }
+
+    @Test
+    void accept_withSameProfile_shouldReuseTemplate() {
+        Map<String, String> profile = new HashMap<>(Map.of("SESSION_TIMEOUT", "3600"));
+
+        ReplyTemplate first = cache.template(null, profile);
+        ReplyTemplate second = cache.template(null, Map.of("SESSION_TIMEOUT", "3600"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void accept_whenCallerMutatesProfile_shouldNotCorruptCachedKey() {
+        Map<String, String> profile = new HashMap<>(Map.of("SESSION_TIMEOUT", "3600"));
+        ReplyTemplate first = cache.template(null, profile);
+
+        // The cache keeps its own copy, so a later change is a different profile
+        profile.put("SESSION_TIMEOUT", "60");
+
+        assertNotSame(first, cache.template(null, profile));
+        assertSame(first, cache.template(null, Map.of("SESSION_TIMEOUT", "3600")));
+    }
+
+    @Test
+    void accept_shouldPutPerUserAttributesInFrontOfProfile() {
+        ReplyTemplate template = cache.template(null, Map.of("SESSION_TIMEOUT", "3600"));
+
+        AccessAccept alice = template.accept("alice");
+        AccessAccept bob = template.accept("bob");
+
+        assertEquals(4, alice.getAttributes().size());
+        assertEquals("bob", bob.getAttribute(UserName.class).orElseThrow().getData().getValue());
+        assertSame(alice.getAttributes().get(3), bob.getAttributes().get(3));
+    }
+
+    @Test
+    void compile_withInvalidTimeout_shouldFail() {
+        // Validated once at compile time instead of on every reply
+        assertThrows(NumberFormatException.class,
+                () -> ReplyTemplate.compile(null, Map.of("SESSION_TIMEOUT", "forever"), dictionary,
+                        dictionary.require("Alc-Subsc-Prof-Str")));
+    }
+
+    private static Packet roundTrip(Packet packet) throws Exception {
+        PacketCodec codec = new PacketCodec(new StandardDictionary());
+        byte[] requestAuthenticator = new byte[16];
+        byte[] encoded = codec.encodeResponse(packet, SECRET, 1, requestAuthenticator);
+        return codec.decodeResponse(encoded, SECRET, requestAuthenticator);
+    }
+}
@@ -0,0 +1,136 @@
+package com.csg.airtel.aaa4j.domain.service;
+
+import com.csg.airtel.aaa4j.domain.model.SubscriberCredentials;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.csg.airtel.aaa4j.external.client.SubscriberCredentialClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocalCredentialVerifierTest {
+
+    private static final byte[] SALT = {1, 2, 3, 4};
+    private static final byte[] CHALLENGE = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private SubscriberCredentialClient credentialClient;
+
+    private MeterRegistry meterRegistry;
+    private LocalCredentialVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new LocalCredentialVerifier(credentialClient, meterRegistry);
+    }
+
+    @Test
+    void authenticate_withMatchingPapPassword_shouldAuthorize() throws Exception {
+        when(credentialClient.get("alice")).thenReturn(Uni.createFrom().item(credentials("secret", null)));
+
+        UserDetails result = verifier.authenticate("alice", "secret".getBytes(StandardCharsets.UTF_8), null, null)
+                .await().indefinitely();
+
+        assertTrue(result.getIsAuthorized());
+        assertEquals("gold", result.getRule());
+        assertEquals(1.0, meterRegistry.counter("auth.local.verifications", "result", "match").count());
+    }
+
+    @Test
+    void authenticate_withWrongPapPassword_shouldNotAuthorize() throws Exception {
+        when(credentialClient.get("alice")).thenReturn(Uni.createFrom().item(credentials("secret", null)));
+
+        UserDetails result = verifier.authenticate("alice", "guess".getBytes(StandardCharsets.UTF_8), null, null)
+                .await().indefinitely();
+
+        assertFalse(result.getIsAuthorized());
+        assertEquals(1.0, meterRegistry.counter("auth.local.verifications", "result", "mismatch").count());
+    }
+
+    @Test
+    void authenticate_withMatchingChapResponse_shouldAuthorize() throws Exception {
+        // RFC 1994: response = MD5(ident || secret || challenge)
+        when(credentialClient.get("alice")).thenReturn(Uni.createFrom().item(credentials(null, "chap-secret")));
+
+        UserDetails result = verifier.authenticate("alice", null, chapPassword((byte) 7, "chap-secret"), CHALLENGE)
+                .await().indefinitely();
+
+        assertTrue(result.getIsAuthorized());
+    }
+
+    @Test
+    void authenticate_withWrongChapResponse_shouldNotAuthorize() throws Exception {
+        when(credentialClient.get("alice")).thenReturn(Uni.createFrom().item(credentials(null, "chap-secret")));
+
+        UserDetails result = verifier.authenticate("alice", null, chapPassword((byte) 7, "other"), CHALLENGE)
+                .await().indefinitely();
+
+        assertFalse(result.getIsAuthorized());
+    }
+
+    @Test
+    void authenticate_withChapButNoChapSecret_shouldBeUnverifiable() throws Exception {
+        // Only a PAP hash is held, which cannot check a CHAP response
+        when(credentialClient.get("alice")).thenReturn(Uni.createFrom().item(credentials("secret", null)));
+
+        UserDetails result = verifier.authenticate("alice", null, chapPassword((byte) 7, "secret"), CHALLENGE)
+                .await().indefinitely();
+
+        assertNull(result);
+        assertEquals(1.0, meterRegistry.counter("auth.local.verifications", "result", "unverifiable").count());
+    }
+
+    @Test
+    void authenticate_withUnknownSubscriber_shouldBeUnverifiable() {
+        when(credentialClient.get("bob")).thenReturn(Uni.createFrom().nullItem());
+
+        UserDetails result = verifier.authenticate("bob", "pw".getBytes(StandardCharsets.UTF_8), null, null)
+                .await().indefinitely();
+
+        assertNull(result);
+    }
+
+    @Test
+    void verifyPap_withUnsupportedAlgorithm_shouldBeUnverifiable() {
+        SubscriberCredentials credentials = new SubscriberCredentials("alice", "NOPE-1", null, "00", null,
+                true, true, null, null);
+
+        assertNull(LocalCredentialVerifier.verifyPap(credentials, "pw".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static SubscriberCredentials credentials(String papPassword, String chapSecret) throws Exception {
+        String papHash = null;
+        if (papPassword != null) {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(SALT);
+            papHash = HexFormat.of().formatHex(sha256.digest(papPassword.getBytes(StandardCharsets.UTF_8)));
+        }
+        return new SubscriberCredentials("alice", "SHA-256", HexFormat.of().formatHex(SALT), papHash, chapSecret,
+                true, true, "gold", Map.of("SESSION_TIMEOUT", "3600"));
+    }
+
+    private static byte[] chapPassword(byte ident, String secret) throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(ident);
+        md5.update(secret.getBytes(StandardCharsets.UTF_8));
+        md5.update(CHALLENGE);
+        byte[] response = md5.digest();
+        byte[] chapPassword = new byte[17];
+        chapPassword[0] = ident;
+        System.arraycopy(response, 0, chapPassword, 1, 16);
+        return chapPassword;
+    }
+}
@@ -1,23 +1,35 @@
 package com.csg.airtel.aaa4j.domain.service;
 
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dedup.AccountingDeduplicator;
+import com.csg.airtel.aaa4j.domain.dedup.EventIdGenerator;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
 import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
 import com.csg.airtel.aaa4j.domain.producer.RadiusAccountingProducer;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aaa4j.radius.core.attribute.EnumData;
 import org.aaa4j.radius.core.attribute.Ipv4AddrData;
 import org.aaa4j.radius.core.attribute.IntegerData;
 import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.TimeData;
 import org.aaa4j.radius.core.attribute.attributes.*;
 import org.aaa4j.radius.core.packet.Packet;
 import org.aaa4j.radius.core.packet.packets.AccountingRequest;
 import org.aaa4j.radius.core.packet.packets.AccountingResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -32,6 +44,15 @@ class RadiusAccountingHandlerTest {
     @Mock
     private RadiusAccountingProducer accountingProducer;
 
+    @Mock
+    private NasClientRegistry nasClientRegistry;
+
+    @Mock
+    private SessionRegistry sessionRegistry;
+
+    @Mock
+    private AccountingDeduplicator deduplicator;
+
     @InjectMocks
     private RadiusAccountingHandler handler;
 
@@ -40,13 +61,33 @@ class RadiusAccountingHandlerTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        handler = new RadiusAccountingHandler(accountingProducer);
-        handler.sharedSecret = "sharedsecret";
+        handler = new RadiusAccountingHandler(accountingProducer, nasClientRegistry, sessionRegistry, deduplicator);
         clientAddress = InetAddress.getByName("127.0.0.1");
-        when(accountingProducer.produceAccountingEvent(any(AccountingRequestDto.class)))
+        when(nasClientRegistry.secretFor(clientAddress)).thenReturn("sharedsecret".getBytes());
+        when(accountingProducer.produceAccountingEvent(any(AccountingEvent.class)))
                 .thenReturn(CompletableFuture.completedFuture(null));
     }
 
+    private AccountingRequest accountingOn(String acctSessionId) {
+        return new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new AcctSessionId(new TextData(acctSessionId)),
+                new AcctStatusType(new EnumData(7)),
+                new NasIpAddress(new Ipv4AddrData((Inet4Address) clientAddress))
+        ));
+    }
+
+    private static AccountingRequest interimWithDelay(long eventTimestamp, int delayTime) {
+        return new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new AcctSessionId(new TextData("sess-interim")),
+                new AcctStatusType(new EnumData(3)),
+                new AcctInputOctets(new IntegerData(111)),
+                new AcctDelayTime(new IntegerData(delayTime)),
+                new EventTimestamp(new TimeData(Instant.ofEpochSecond(eventTimestamp)))
+        ));
+    }
+
     @Test
     void handleClient_ReturnSharedSecretBytes() {
         // Expect the configured shared secret to be returned for client-specific secret negotiation
@@ -100,6 +141,8 @@ class RadiusAccountingHandlerTest {
                         dto.username().equals("user1") &&
                         dto.actionType() == AccountingRequestDto.ActionType.START
         ));
+        // The same event feeds the active-session table
+        verify(sessionRegistry).onAccounting(argThat(dto -> dto.sessionId().equals("session123")));
     }
 
     @Test
@@ -148,10 +191,135 @@ class RadiusAccountingHandlerTest {
         ));
     }
 
+    @Test
+    void retransmitWithHigherDelayGetsSameEventId() {
+        // RFC 2869: the retransmit keeps Event-Timestamp and only raises Acct-Delay-Time
+        handler.handlePacket(clientAddress, interimWithDelay(1_700_000_060L, 0));
+        handler.handlePacket(clientAddress, interimWithDelay(1_700_000_060L, 5));
+
+        ArgumentCaptor<AccountingEvent> events = ArgumentCaptor.forClass(AccountingEvent.class);
+        verify(accountingProducer, times(2)).produceAccountingEvent(events.capture());
+        assertEquals(22, events.getAllValues().get(0).eventId().length());
+        assertEquals(events.getAllValues().get(0).eventId(), events.getAllValues().get(1).eventId());
+    }
+
+    @Test
+    void duplicateIsAcknowledgedWithoutPublishing() {
+        // A retransmit the deduplicator has seen is ACKed again but neither tracked nor published
+        when(deduplicator.seen(any(AccountingEvent.class))).thenReturn(true);
+        AccountingRequest request = new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new AcctSessionId(new TextData("sess-stop")),
+                new AcctStatusType(new EnumData(2)),
+                new AcctDelayTime(new IntegerData(5)),
+                new EventTimestamp(new TimeData(Instant.ofEpochSecond(1_700_000_005L)))
+        ));
+
+        Packet response = handler.handlePacket(clientAddress, request);
+
+        assertInstanceOf(AccountingResponse.class, response);
+        verify(deduplicator).seen(argThat(event -> event.eventId().equals(
+                EventIdGenerator.eventId("127.0.0.1", "sess-stop", AccountingRequestDto.ActionType.STOP, 0, 0, 0,
+                        1_700_000_005L))));
+        verify(deduplicator, never()).record(any());
+        verify(sessionRegistry, never()).onAccounting(any());
+        verify(accountingProducer, never()).produceAccountingEvent(any());
+    }
+
+    @Test
+    void coalescedInterimIsAcknowledgedWithoutPublishing() {
+        // The session registry held the interim back, so it is ACKed but not sent to Kafka
+        when(sessionRegistry.onAccounting(any(AccountingEvent.class))).thenReturn(true);
+        AccountingRequest request = new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new UserName(new TextData("user3")),
+                new AcctSessionId(new TextData("sess-interim")),
+                new AcctStatusType(new EnumData(3)),
+                new AcctInputOctets(new IntegerData(111))
+        ));
+
+        Packet response = handler.handlePacket(clientAddress, request);
+
+        assertInstanceOf(AccountingResponse.class, response);
+        verify(accountingProducer, never()).produceAccountingEvent(any());
+    }
+
+    @Test
+    void producesSingleNasResetEventOnAccountingOn() {
+        // Acct-Status-Type = 7 (Accounting-On) after a NAS reboot is one reset event, not a START
+        AccountingRequest request = new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new AcctSessionId(new TextData("00000000")),
+                new AcctStatusType(new EnumData(7)),
+                new NasIpAddress(new Ipv4AddrData((Inet4Address) clientAddress))
+        ));
+
+        Packet response = handler.handlePacket(clientAddress, request);
+
+        assertInstanceOf(AccountingResponse.class, response);
+        verify(accountingProducer, times(1)).produceAccountingEvent(argThat(dto ->
+                dto.sessionId() == null &&
+                        dto.nasIP().equals("127.0.0.1") &&
+                        dto.actionType() == AccountingRequestDto.ActionType.ACCOUNTING_ON
+        ));
+        verify(sessionRegistry).closeNas(eq("127.0.0.1"), any(Instant.class));
+        verify(sessionRegistry, never()).onAccounting(any());
+    }
+
+    @Test
+    void successiveAccountingOnPacketsGetDistinctEventIds() {
+        // Without Event-Timestamp, each reboot is still told apart by its packet's Acct-Session-Id
+        handler.handlePacket(clientAddress, accountingOn("5F3E0001"));
+        handler.handlePacket(clientAddress, accountingOn("5F3E0002"));
+        // Sent again at once: the same reboot, the same id
+        handler.handlePacket(clientAddress, accountingOn("5F3E0002"));
+
+        ArgumentCaptor<AccountingEvent> events = ArgumentCaptor.forClass(AccountingEvent.class);
+        verify(accountingProducer, times(3)).produceAccountingEvent(events.capture());
+        List<AccountingEvent> resets = events.getAllValues();
+        assertNull(resets.get(0).sessionId());
+        assertNotEquals(resets.get(0).eventId(), resets.get(1).eventId());
+        assertEquals(resets.get(1).eventId(), resets.get(2).eventId());
+    }
+
+    @Test
+    void publishesHeldBackUsageBeforeNasReset() {
+        // A session that held back octets gets its last counters out as an interim with the reset
+        AccountingEvent heldBack = new AccountingEvent("held", "sess-held", "127.0.0.1", "user1",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 0, 60, Instant.ofEpochSecond(1_700_000_060L),
+                null, null, 0, 0, 0, null);
+        when(sessionRegistry.closeNas(eq("127.0.0.1"), any(Instant.class))).thenReturn(List.of(heldBack));
+        AccountingRequest request = new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new AcctStatusType(new EnumData(7)),
+                new NasIpAddress(new Ipv4AddrData((Inet4Address) clientAddress))
+        ));
+
+        Packet response = handler.handlePacket(clientAddress, request);
+
+        assertInstanceOf(AccountingResponse.class, response);
+        InOrder inOrder = inOrder(accountingProducer);
+        inOrder.verify(accountingProducer).produceAccountingEvent(heldBack);
+        inOrder.verify(accountingProducer).produceAccountingEvent(argThat(dto ->
+                dto.actionType() == AccountingRequestDto.ActionType.ACCOUNTING_ON));
+    }
+
+    @Test
+    void onShutdown_publishesHeldBackUsage() {
+        AccountingEvent heldBack = new AccountingEvent("held", "sess-held", "127.0.0.1", "user1",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 0, 60, Instant.ofEpochSecond(1_700_000_060L),
+                null, null, 0, 0, 0, null);
+        when(sessionRegistry.drainHeldBackUsage()).thenReturn(List.of(heldBack));
+
+        handler.onShutdown(null);
+
+        verify(accountingProducer).produceAccountingEvent(heldBack);
+    }
+
     @Test
     void producerThrows_returnsNull() {
         // If downstream producer fails, handler should catch and return null (indicating failure)
-        when(accountingProducer.produceAccountingEvent(any(AccountingRequestDto.class)))
+        when(accountingProducer.produceAccountingEvent(any(AccountingEvent.class)))
                 .thenThrow(new RuntimeException("producer error"));
 
         AccountingRequest request = new AccountingRequest(List.of(
@@ -164,7 +332,45 @@ class RadiusAccountingHandlerTest {
         Packet response = handler.handlePacket(clientAddress, request);
 
         assertNull(response);
+        verify(deduplicator, never()).record(any());
     }
-}
 
+    @Test
+    void retransmitAfterFailureIsStillPublished() {
+        // Real deduplicator: a request that failed unACKed must not be taken for a retransmit
+        RadiusServerConfig config = mock(RadiusServerConfig.class, Answers.RETURNS_DEEP_STUBS);
+        when(config.accounting().dedup().enabled()).thenReturn(true);
+        when(config.accounting().dedup().windowSeconds()).thenReturn(120);
+        when(config.accounting().dedup().maxEntries()).thenReturn(1000);
+        RadiusAccountingHandler deduplicating = new RadiusAccountingHandler(accountingProducer, nasClientRegistry,
+                sessionRegistry, new AccountingDeduplicator(config, new SimpleMeterRegistry()));
+        when(sessionRegistry.onAccounting(any(AccountingEvent.class)))
+                .thenThrow(new IllegalStateException("registry error"))
+                .thenReturn(false);
+
+        assertNull(deduplicating.handlePacket(clientAddress, interimWithDelay(1_700_000_060L, 0)));
+        Packet response = deduplicating.handlePacket(clientAddress, interimWithDelay(1_700_000_060L, 3));
+
+        assertInstanceOf(AccountingResponse.class, response);
+        verify(accountingProducer, times(1)).produceAccountingEvent(any(AccountingEvent.class));
+        // Now that it went out, a further retransmit is a duplicate
+        deduplicating.handlePacket(clientAddress, interimWithDelay(1_700_000_060L, 6));
+        verify(accountingProducer, times(1)).produceAccountingEvent(any(AccountingEvent.class));
+    }
+
+    @Test
+    void handlePacketAsync_completesWithAccountingResponse() {
+        // The async entry point used by the event-loop engine should complete with the same response
+        AccountingRequest request = new AccountingRequest(List.of(
+                new MessageAuthenticator(),
+                new UserName(new TextData("user5")),
+                new AcctSessionId(new TextData("sess-async")),
+                new AcctStatusType(new EnumData(1))
+        ));
+
+        Packet response = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().join();
 
+        assertInstanceOf(AccountingResponse.class, response);
+        verify(accountingProducer, times(1)).produceAccountingEvent(any(AccountingEvent.class));
+    }
+}
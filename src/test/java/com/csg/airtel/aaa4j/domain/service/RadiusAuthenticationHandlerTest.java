@@ -1,21 +1,32 @@
 package com.csg.airtel.aaa4j.domain.service;
 
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.dictionary.VendorDictionary;
 import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.reply.ReplyTemplateCache;
 import com.csg.airtel.aaa4j.external.client.AuthManagementServiceClient;
 import org.aaa4j.radius.core.attribute.StringData;
 import org.aaa4j.radius.core.attribute.attributes.*;
 import org.aaa4j.radius.core.attribute.TextData;
 import org.aaa4j.radius.core.packet.Packet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.aaa4j.radius.core.packet.packets.AccessAccept;
 import org.aaa4j.radius.core.packet.packets.AccessReject;
 import org.aaa4j.radius.core.packet.packets.AccessRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.net.InetAddress;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +37,15 @@ class RadiusAuthenticationHandlerTest {
     @Mock
     private AuthManagementServiceClient authManagementServiceClient;
 
+    @Mock
+    private NasClientRegistry nasClientRegistry;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private RadiusServerConfig config;
+
+    @Mock
+    private LocalCredentialVerifier localCredentialVerifier;
+
     @InjectMocks
     private RadiusAuthenticationHandler handler;
 
@@ -34,9 +54,17 @@ class RadiusAuthenticationHandlerTest {
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
-        handler = new RadiusAuthenticationHandler(authManagementServiceClient);
+        when(config.auth().nasTimeoutMs()).thenReturn(3000);
+        when(config.auth().nasRetransmits()).thenReturn(2);
+        when(config.auth().backendDeadlineMarginMs()).thenReturn(500);
+        when(config.auth().replyTemplateCacheSize()).thenReturn(16);
+        when(config.auth().ruleAttribute()).thenReturn("Alc-Subsc-Prof-Str");
+        VendorDictionary dictionary = new VendorDictionary(
+                VendorDictionary.load(List.of("dictionary/dictionary.alcatel.sr")));
+        handler = new RadiusAuthenticationHandler(authManagementServiceClient, nasClientRegistry, config,
+                localCredentialVerifier, new ReplyTemplateCache(config, dictionary, new SimpleMeterRegistry()));
         clientAddress = InetAddress.getByName("127.0.0.1");
-        handler.sharedSecret = "test-secret";
+        when(nasClientRegistry.secretFor(clientAddress)).thenReturn("test-secret".getBytes());
     }
 
     @Test
@@ -45,6 +73,13 @@ class RadiusAuthenticationHandlerTest {
         assertArrayEquals("test-secret".getBytes(), result);
     }
 
+    @Test
+    void handleClient_withUnknownClient_shouldReturnNull() throws Exception {
+        // Registry has no entry for the address, so the listener drops the packet
+        byte[] result = handler.handleClient(InetAddress.getByName("192.0.2.1"));
+        assertNull(result);
+    }
+
     @Test
     void handlePacket_withNonAccessRequest_shouldReturnNull() {
         Packet nonAccessRequest = mock(Packet.class);
@@ -83,7 +118,7 @@ class RadiusAuthenticationHandlerTest {
         userDetails.setIsActive(false);
         userDetails.setIsAuthorized(true);
         
-        when(authManagementServiceClient.authenticate(eq("testuser"), any(), any(), any(), any()))
+        when(authManagementServiceClient.authenticate(eq("testuser"), any(), any(), any(), any(), any()))
             .thenReturn(userDetails);
         
         AccessRequest request = new AccessRequest(List.of(
@@ -103,7 +138,7 @@ class RadiusAuthenticationHandlerTest {
         userDetails.setIsActive(true);
         userDetails.setIsAuthorized(false);
         
-        when(authManagementServiceClient.authenticate(eq("testuser"), any(), any(), any(), any()))
+        when(authManagementServiceClient.authenticate(eq("testuser"), any(), any(), any(), any(), any()))
             .thenReturn(userDetails);
         
         AccessRequest request = new AccessRequest(List.of(
@@ -119,7 +154,7 @@ class RadiusAuthenticationHandlerTest {
 
     @Test
     void handlePacket_withInterruptedException_shouldReturnAccessReject() throws InterruptedException {
-        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any()))
+        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any(), any()))
             .thenThrow(new InterruptedException("Test interruption"));
         
         AccessRequest request = new AccessRequest(List.of(
@@ -136,7 +171,7 @@ class RadiusAuthenticationHandlerTest {
 
     @Test
     void handlePacket_withException_shouldReturnAccessReject() throws InterruptedException {
-        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any()))
+        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any(), any()))
             .thenThrow(new RuntimeException("Test exception"));
         
         AccessRequest request = new AccessRequest(List.of(
@@ -149,4 +184,212 @@ class RadiusAuthenticationHandlerTest {
         
         assertInstanceOf(AccessReject.class, result);
     }
+
+    @Test
+    void handlePacket_whenBackendMissesDeadline_shouldNotAnswer() throws InterruptedException {
+        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any(), any()))
+            .thenReturn(null);
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        assertNull(handler.handlePacket(clientAddress, request));
+    }
+
+    @Test
+    void constructor_shouldDeriveDeadlineFromNasRetransmitBudget() {
+        // 3000 ms x (2 retransmits + original) - 500 ms margin
+        assertEquals(Duration.ofMillis(8500), handler.backendDeadline);
+    }
+
+    @Test
+    void handlePacketAsync_withAuthorizedUser_shouldComposeOnBackendResult() throws Exception {
+        UserDetails userDetails = new UserDetails();
+        userDetails.setUsername("testuser");
+        userDetails.setIsActive(true);
+        userDetails.setIsAuthorized(true);
+        userDetails.setIsEnoughBalance(true);
+
+        when(authManagementServiceClient.authenticateAsync(eq("testuser"), any(), any(), any(), any(),
+                argThat(deadline -> deadline.compareTo(Duration.ofMillis(8500)) <= 0)))
+            .thenReturn(Uni.createFrom().item(userDetails));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertInstanceOf(AccessAccept.class, result);
+        verify(authManagementServiceClient, never()).authenticate(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handlePacketAsync_whenDeadlineExpires_shouldNotAnswer() throws Exception {
+        // The NAS has given up by the deadline, so no reply is sent
+        when(authManagementServiceClient.authenticateAsync(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().failure(new TimeoutException("deadline")));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertNull(result);
+    }
+
+    @Test
+    void handlePacketAsync_withBackendFailure_shouldReturnAccessReject() throws Exception {
+        when(authManagementServiceClient.authenticateAsync(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().failure(new RuntimeException("connection refused")));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertInstanceOf(AccessReject.class, result);
+    }
+
+    @Test
+    void handlePacketAsync_withLocallyVerifiedUser_shouldNotCallBackend() throws Exception {
+        UserDetails userDetails = new UserDetails("testuser", true, true, true, null, null);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(eq("testuser"), any(), any(), any()))
+            .thenReturn(Uni.createFrom().item(userDetails));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertInstanceOf(AccessAccept.class, result);
+        verify(authManagementServiceClient, never()).authenticateAsync(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handlePacketAsync_whenLocalCheckUnavailable_shouldFallBackToBackend() throws Exception {
+        // No credential material for the user: the auth service decides
+        UserDetails userDetails = new UserDetails("testuser", false, true, true, null, null);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().nullItem());
+        when(authManagementServiceClient.authenticateAsync(eq("testuser"), any(), any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().item(userDetails));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertInstanceOf(AccessReject.class, result);
+        verify(authManagementServiceClient).authenticateAsync(eq("testuser"), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handlePacket_whenCredentialFetchFails_shouldFallBackToBackend() throws Exception {
+        UserDetails userDetails = new UserDetails("testuser", true, true, true, null, null);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().failure(new RuntimeException("connection refused")));
+        when(authManagementServiceClient.authenticate(eq("testuser"), any(), any(), any(), any(), any()))
+            .thenReturn(userDetails);
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacket(clientAddress, request);
+
+        assertInstanceOf(AccessAccept.class, result);
+    }
+
+    @Test
+    void handlePacketAsync_afterSlowLocalCheck_shouldGiveBackendOnlyTheTimeLeft() throws Exception {
+        UserDetails userDetails = new UserDetails("testuser", true, true, true, null, null);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().<UserDetails>nullItem().onItem().delayIt().by(Duration.ofMillis(300)));
+        when(authManagementServiceClient.authenticateAsync(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().item(userDetails));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        // One deadline from packet arrival: the 300 ms spent locally comes out of the backend's share
+        ArgumentCaptor<Duration> deadline = ArgumentCaptor.forClass(Duration.class);
+        verify(authManagementServiceClient).authenticateAsync(any(), any(), any(), any(), any(), deadline.capture());
+        assertTrue(deadline.getValue().toMillis() <= 8200, "backend got " + deadline.getValue());
+        assertInstanceOf(AccessAccept.class, result);
+    }
+
+    @Test
+    void handlePacketAsync_whenLocalCheckUsesWholeDeadline_shouldNotAnswerOrCallBackend() throws Exception {
+        when(config.auth().nasTimeoutMs()).thenReturn(100);
+        when(config.auth().nasRetransmits()).thenReturn(0);
+        when(config.auth().backendDeadlineMarginMs()).thenReturn(0);
+        RadiusAuthenticationHandler shortDeadline = new RadiusAuthenticationHandler(authManagementServiceClient,
+                nasClientRegistry, config, localCredentialVerifier, handler.replyTemplateCache);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().<UserDetails>nullItem().onItem().delayIt().by(Duration.ofMillis(500)));
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = shortDeadline.handlePacketAsync(clientAddress, request).toCompletableFuture().get();
+
+        assertNull(result);
+        verify(authManagementServiceClient, never()).authenticateAsync(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handlePacket_afterSlowLocalCheck_shouldGiveBackendOnlyTheTimeLeft() throws Exception {
+        UserDetails userDetails = new UserDetails("testuser", true, true, true, null, null);
+        when(localCredentialVerifier.enabled()).thenReturn(true);
+        when(localCredentialVerifier.authenticate(any(), any(), any(), any()))
+            .thenReturn(Uni.createFrom().<UserDetails>nullItem().onItem().delayIt().by(Duration.ofMillis(300)));
+        when(authManagementServiceClient.authenticate(any(), any(), any(), any(), any(), any()))
+            .thenReturn(userDetails);
+
+        AccessRequest request = new AccessRequest(List.of(
+            new MessageAuthenticator(),
+            new UserName(new TextData("testuser")),
+                new UserPassword(new StringData("pw".getBytes()))
+        ));
+
+        Packet result = handler.handlePacket(clientAddress, request);
+
+        ArgumentCaptor<Duration> deadline = ArgumentCaptor.forClass(Duration.class);
+        verify(authManagementServiceClient).authenticate(any(), any(), any(), any(), any(), deadline.capture());
+        assertTrue(deadline.getValue().toMillis() <= 8200, "backend got " + deadline.getValue());
+        assertInstanceOf(AccessAccept.class, result);
+    }
 }
@@ -1,7 +1,11 @@
 package com.csg.airtel.aaa4j.domain.service;
 
 import com.csg.airtel.aaa4j.domain.model.AccountingResponseEvent;
+import com.csg.airtel.aaa4j.domain.model.NasClient;
 import com.csg.airtel.aaa4j.domain.model.RadiusConfig;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import com.csg.airtel.aaa4j.domain.registry.NasClientRegistry;
+import com.csg.airtel.aaa4j.domain.session.SessionRegistry;
 import io.smallrye.mutiny.Uni;
 import org.aaa4j.radius.core.attribute.Attribute;
 import org.aaa4j.radius.core.attribute.attributes.*;
@@ -9,6 +13,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +26,12 @@ class ResponseHandlerTest {
     @Mock
     private RadiusClientService radiusClientService;
 
+    @Mock
+    private SessionRegistry sessionRegistry;
+
+    @Mock
+    private NasClientRegistry nasClientRegistry;
+
     @InjectMocks
     private ResponseHandler responseHandler;
 
@@ -59,10 +71,53 @@ class ResponseHandlerTest {
         Uni<Void> result = responseHandler.processAccountingResponse(event);
         result.await().indefinitely();
 
+        // No session found, so the configured CoA target is used
         verify(radiusClientService, times(1))
-                .initiate(anyList(), eq(40), any(RadiusConfig.class));
+                .initiate(anyList(), eq(40), eq(new RadiusConfig("127.0.0.1", 3799, "secret123")));
+    }
+
+
+    @Test
+    void coaDisconnectFillsSessionFromActiveSessions() throws Exception {
+        AccountingResponseEvent event = mock(AccountingResponseEvent.class);
+
+        when(event.eventType()).thenReturn(AccountingResponseEvent.EventType.COA);
+        when(event.action()).thenReturn(AccountingResponseEvent.ResponseAction.DISCONNECT);
+        when(event.qosParameters()).thenReturn(Map.of("username", "john"));
+        UserSession session = new UserSession("S1", "john", "10.0.0.1");
+        session.setFramedIPAddress("100.64.1.20");
+        when(sessionRegistry.findByUsername("john")).thenReturn(List.of(session));
+        when(nasClientRegistry.find(InetAddress.getByName("10.0.0.1"))).thenReturn(new NasClient("bng-1",
+                "10.0.0.1", "nas-secret".getBytes(StandardCharsets.UTF_8), "cisco", 1700, 4));
+        when(radiusClientService.initiate(anyList(), anyInt(), any(RadiusConfig.class)))
+                .thenReturn(Uni.createFrom().voidItem());
+
+        responseHandler.processAccountingResponse(event).await().indefinitely();
+
+        // Only the username was given; the session table supplies the rest, and the disconnect
+        // goes to the session's NAS with its client's port and secret
+        verify(radiusClientService).initiate(argThat(list ->
+                        list.stream().anyMatch(a -> a instanceof AcctSessionId)
+                                && list.stream().anyMatch(a -> a instanceof NasIpAddress)
+                                && list.stream().anyMatch(a -> a instanceof FramedIpAddress)),
+                eq(40), eq(new RadiusConfig("10.0.0.1", 1700, "nas-secret")));
     }
 
+    @Test
+    void coaDisconnectWithoutNasClient_shouldFallBackToConfiguredAddress() {
+        AccountingResponseEvent event = mock(AccountingResponseEvent.class);
+
+        when(event.eventType()).thenReturn(AccountingResponseEvent.EventType.COA);
+        when(event.action()).thenReturn(AccountingResponseEvent.ResponseAction.DISCONNECT);
+        when(event.qosParameters()).thenReturn(Map.of("username", "john"));
+        when(sessionRegistry.findByUsername("john")).thenReturn(List.of(new UserSession("S1", "john", "10.0.0.9")));
+        when(radiusClientService.initiate(anyList(), anyInt(), any(RadiusConfig.class)))
+                .thenReturn(Uni.createFrom().voidItem());
+
+        responseHandler.processAccountingResponse(event).await().indefinitely();
+
+        verify(radiusClientService).initiate(anyList(), eq(40), eq(new RadiusConfig("127.0.0.1", 3799, "secret123")));
+    }
 
     // TEST: COA EVENT with FUP (should not call initiate)
 
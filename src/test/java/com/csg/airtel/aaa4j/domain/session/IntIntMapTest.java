@@ -0,0 +1,50 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+
+    @Test
+    void put_shouldGrowAndKeepEntries() {
+        IntIntMap map = new IntIntMap(16);
+        // A /16 pool: consecutive addresses, including ones with the sign bit set
+        for (int i = 1; i <= 65_536; i++) {
+            map.put(0xC0A80000 + i, i);
+        }
+
+        assertEquals(65_536, map.size());
+        assertEquals(1, map.get(0xC0A80001, -1));
+        assertEquals(65_536, map.get(0xC0A80000 + 65_536, -1));
+        assertEquals(-1, map.get(0x0A000001, -1));
+    }
+
+    @Test
+    void remove_shouldOnlyRemoveMatchingValue() {
+        IntIntMap map = new IntIntMap(16);
+        map.put(42, 1);
+        map.put(42, 2);
+
+        // The address moved to slot 2; the stale owner cannot remove it
+        assertFalse(map.remove(42, 1));
+        assertTrue(map.remove(42, 2));
+        assertEquals(-1, map.get(42, -1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void remove_shouldKeepCollidingKeysReachable() {
+        IntIntMap map = new IntIntMap(16);
+        for (int key = 1; key <= 1_000; key++) {
+            map.put(key, key);
+        }
+        for (int key = 1; key <= 1_000; key += 3) {
+            assertTrue(map.remove(key, key));
+        }
+
+        for (int key = 1; key <= 1_000; key++) {
+            assertEquals((key - 1) % 3 == 0 ? -1 : key, map.get(key, -1));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new SessionRegistry(true, 10, meterRegistry);
+    }
+
+    @Test
+    void onAccounting_shouldFollowSessionLifecycle() {
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.START, 0));
+        assertTrue(registry.isActive("s1", "10.0.0.1"));
+
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 1000));
+        assertEquals(1000L, registry.find("s1", "10.0.0.1").getInputOctets());
+
+        // STOP removes it; a STOP for an unknown session is ignored
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.STOP, 2000));
+        registry.onAccounting(event("s2", AccountingRequestDto.ActionType.STOP, 0));
+        assertNull(registry.find("s1", "10.0.0.1"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void onAccounting_whenTableFull_shouldCountRejected() {
+        for (int i = 0; i < 11; i++) {
+            registry.onAccounting(event("s" + i, AccountingRequestDto.ActionType.START, 0));
+        }
+
+        assertEquals(10, registry.size());
+        assertEquals(1.0, meterRegistry.get("radius.sessions.rejected").counter().count());
+    }
+
+    @Test
+    void onAccounting_whenDisabled_shouldNotTrack() {
+        SessionRegistry disabled = new SessionRegistry(false, 10, new SimpleMeterRegistry());
+
+        disabled.onAccounting(event("s1", AccountingRequestDto.ActionType.START, 0));
+
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void forEach_shouldVisitActiveSessions() {
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.START, 0));
+        registry.onAccounting(event("s2", AccountingRequestDto.ActionType.START, 0));
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.STOP, 0));
+
+        List<String> visited = new ArrayList<>();
+        registry.forEach(session -> visited.add(session.getSessionId()));
+
+        assertEquals(List.of("s2"), visited);
+    }
+
+    @Test
+    void metrics_shouldReportFootprint() {
+        registry.onAccounting(event("s1", AccountingRequestDto.ActionType.START, 0));
+
+        assertEquals(1.0, meterRegistry.get("radius.sessions.active").gauge().value());
+        assertEquals((double) SessionTable.CHUNK_SLOTS * SessionTable.SLOT_SIZE,
+                meterRegistry.get("radius.sessions.offheap.bytes").gauge().value());
+        assertTrue(meterRegistry.get("radius.sessions.index.bytes").gauge().value() > 0);
+    }
+
+    @Test
+    void indexes_shouldFollowStartInterimAndStop() {
+        registry.onAccounting(session("s1", "10.0.0.1", "alice", "100.64.1.20", AccountingRequestDto.ActionType.START));
+        registry.onAccounting(session("s2", "10.0.0.2", "alice", "100.64.1.21", AccountingRequestDto.ActionType.START));
+        registry.onAccounting(session("s3", "10.0.0.1", "bob", null, AccountingRequestDto.ActionType.START));
+
+        assertEquals(2, registry.findByUsername("alice").size());
+        assertEquals("s2", registry.findByFramedIp("100.64.1.21").getSessionId());
+        assertEquals(2, registry.countByNas("10.0.0.1"));
+        assertEquals(List.of("s1"), registry.findByNas("10.0.0.1", 1).stream().map(UserSession::getSessionId).toList());
+
+        // An interim update assigning bob an address indexes it
+        registry.onAccounting(session("s3", "10.0.0.1", "bob", "100.64.1.30",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE));
+        assertEquals("s3", registry.findByFramedIp("100.64.1.30").getSessionId());
+
+        registry.onAccounting(session("s1", "10.0.0.1", "alice", null, AccountingRequestDto.ActionType.STOP));
+        assertEquals(List.of("s2"), registry.findByUsername("alice").stream().map(UserSession::getSessionId).toList());
+        assertNull(registry.findByFramedIp("100.64.1.20"));
+        assertEquals(1, registry.countByNas("10.0.0.1"));
+    }
+
+    @Test
+    void findByFramedIp_whenAddressReassigned_shouldReturnNewerSession() {
+        registry.onAccounting(session("old", "10.0.0.1", "alice", "100.64.1.20", AccountingRequestDto.ActionType.START));
+        registry.onAccounting(session("new", "10.0.0.1", "bob", "100.64.1.20", AccountingRequestDto.ActionType.START));
+
+        // The stale session's STOP must not unmap the address from its new holder
+        registry.onAccounting(session("old", "10.0.0.1", "alice", null, AccountingRequestDto.ActionType.STOP));
+
+        assertEquals("new", registry.findByFramedIp("100.64.1.20").getSessionId());
+    }
+
+    @Test
+    void closeNas_shouldCloseOnlyThatNas() {
+        registry.onAccounting(session("s1", "10.0.0.1", "alice", "100.64.1.20", AccountingRequestDto.ActionType.START));
+        registry.onAccounting(session("s2", "10.0.0.1", "bob", "100.64.1.21", AccountingRequestDto.ActionType.START));
+        registry.onAccounting(session("s3", "10.0.0.2", "alice", "100.64.1.22", AccountingRequestDto.ActionType.START));
+
+        assertTrue(registry.closeNas("10.0.0.1", Instant.ofEpochSecond(1_700_000_100L)).isEmpty());
+
+        assertEquals(1, registry.size());
+        assertEquals(0, registry.countByNas("10.0.0.1"));
+        assertNull(registry.findByFramedIp("100.64.1.20"));
+        assertEquals(List.of("s3"), registry.findByUsername("alice").stream().map(UserSession::getSessionId).toList());
+        assertTrue(registry.findByUsername("bob").isEmpty());
+        assertEquals(1.0, meterRegistry.get("radius.sessions.nas.reset").counter().count());
+    }
+
+    @Test
+    void closeNas_withLargeNas_shouldLeaveTableConsistent() {
+        SessionRegistry large = new SessionRegistry(true, 200_000, new SimpleMeterRegistry());
+        for (int i = 0; i < 100_000; i++) {
+            large.onAccounting(session("a-" + i, "10.0.0.1", "user-" + i, null, AccountingRequestDto.ActionType.START));
+            large.onAccounting(session("b-" + i, "10.0.0.2", "user-" + i, null, AccountingRequestDto.ActionType.START));
+        }
+
+        assertTrue(large.closeNas("10.0.0.1", Instant.ofEpochSecond(1_700_000_100L)).isEmpty());
+
+        // The other NAS's sessions are all still reachable by key and by user
+        assertEquals(100_000, large.size());
+        assertTrue(large.isActive("b-99999", "10.0.0.2"));
+        assertFalse(large.isActive("a-99999", "10.0.0.1"));
+        assertEquals(1, large.findByUsername("user-500").size());
+        assertEquals(0, large.countByNas("10.0.0.1"));
+        large.closeNas("10.0.0.1", Instant.ofEpochSecond(1_700_000_100L));
+        assertEquals(100_000, large.size());
+    }
+
+    @Test
+    void onAccounting_withAccountingOn_shouldNotCloseSessions() {
+        registry.onAccounting(session("s1", "10.0.0.1", "alice", null, AccountingRequestDto.ActionType.START));
+
+        assertFalse(registry.onAccounting(session(null, "10.0.0.1", null, null, AccountingRequestDto.ActionType.ACCOUNTING_ON)));
+        assertTrue(registry.isActive("s1", "10.0.0.1"));
+    }
+
+    @Test
+    void closeNas_withCoalescedInterim_shouldReturnHeldBackOctetsAsInterim() {
+        SessionRegistry coalescing = new SessionRegistry(true, 10, true, 1000, 300_000, meterRegistry);
+        coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.START, 0, 0));
+        assertTrue(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 60)));
+        // s2's coalesced interim moved nothing, so it has nothing held back
+        coalescing.onAccounting(interim("s2", AccountingRequestDto.ActionType.START, 0, 0));
+        assertTrue(coalescing.onAccounting(interim("s2", AccountingRequestDto.ActionType.INTERIM_UPDATE, 0, 60)));
+
+        Instant resetAt = Instant.ofEpochSecond(1_700_000_100L);
+        List<AccountingEvent> heldBack = coalescing.closeNas("10.0.0.1", resetAt);
+
+        assertEquals(1, heldBack.size());
+        AccountingEvent update = heldBack.get(0);
+        assertEquals("s1", update.sessionId());
+        assertEquals(AccountingRequestDto.ActionType.INTERIM_UPDATE, update.actionType());
+        assertEquals(400, update.inputOctets());
+        assertEquals(400L, update.totalInputBytes());
+        assertEquals(60, update.sessionTime());
+        assertEquals(resetAt, update.timestamp());
+        assertNotNull(update.eventId());
+        assertEquals(0, coalescing.size());
+    }
+
+    @Test
+    void closeNas_withLargeIdleNas_shouldReturnOnlySessionsWithHeldBackOctets() {
+        SessionRegistry large = new SessionRegistry(true, 200_000, true, 1000, 300_000, new SimpleMeterRegistry());
+        for (int i = 0; i < 100_000; i++) {
+            large.onAccounting(interim("idle-" + i, AccountingRequestDto.ActionType.START, 0, 0));
+            // Idle: coalesced, but nothing moved
+            assertTrue(large.onAccounting(interim("idle-" + i, AccountingRequestDto.ActionType.INTERIM_UPDATE, 0, 60)));
+        }
+        for (int i = 0; i < 10; i++) {
+            large.onAccounting(interim("busy-" + i, AccountingRequestDto.ActionType.START, 0, 0));
+            assertTrue(large.onAccounting(interim("busy-" + i, AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 60)));
+        }
+
+        List<AccountingEvent> heldBack = large.closeNas("10.0.0.1", Instant.ofEpochSecond(1_700_000_100L));
+
+        // One reset for 100k sessions adds ten interims, nowhere near a lane's capacity, and no STOPs
+        assertEquals(10, heldBack.size());
+        assertTrue(heldBack.stream().allMatch(event ->
+                event.actionType() == AccountingRequestDto.ActionType.INTERIM_UPDATE));
+        assertEquals(0, large.size());
+    }
+
+    @Test
+    void drainHeldBackUsage_shouldReturnEachHeldBackUpdateOnce() {
+        SessionRegistry coalescing = new SessionRegistry(true, 10, true, 1000, 300_000, meterRegistry);
+        coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.START, 0, 0));
+        assertTrue(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 60)));
+        coalescing.onAccounting(interim("s2", AccountingRequestDto.ActionType.START, 0, 0));
+
+        List<AccountingEvent> heldBack = coalescing.drainHeldBackUsage();
+
+        assertEquals(1, heldBack.size());
+        assertEquals("s1", heldBack.get(0).sessionId());
+        assertEquals(AccountingRequestDto.ActionType.INTERIM_UPDATE, heldBack.get(0).actionType());
+        assertEquals(400, heldBack.get(0).inputOctets());
+        assertTrue(coalescing.drainHeldBackUsage().isEmpty());
+        assertTrue(coalescing.isActive("s1", "10.0.0.1"));
+    }
+
+    @Test
+    void onAccounting_withCoalescing_shouldHoldBackSmallInterimsWithinWindow() {
+        SessionRegistry coalescing = new SessionRegistry(true, 10, true, 1000, 300_000, meterRegistry);
+
+        assertFalse(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.START, 0, 0)));
+        // 400 bytes in a minute: held back
+        assertTrue(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 400, 60)));
+        // 1200 bytes since the START: published, and the next delta starts from here
+        assertFalse(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 1200, 120)));
+        assertTrue(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 1300, 180)));
+        // Idle, but the window since the last published update has passed
+        assertFalse(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 1300, 420)));
+        // STOP always goes out
+        assertFalse(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.STOP, 1310, 430)));
+
+        assertEquals(2.0, meterRegistry.get("radius.sessions.interim.coalesced").counter().count());
+    }
+
+    @Test
+    void onAccounting_withCoalescing_shouldPublishFirstInterimOfUnknownSession() {
+        SessionRegistry coalescing = new SessionRegistry(true, 10, true, 1000, 300_000, meterRegistry);
+
+        assertFalse(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 10, 60)));
+        assertTrue(coalescing.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 20, 120)));
+    }
+
+    @Test
+    void onAccounting_withoutCoalescing_shouldPublishEveryInterim() {
+        registry.onAccounting(interim("s1", AccountingRequestDto.ActionType.START, 0, 0));
+
+        assertFalse(registry.onAccounting(interim("s1", AccountingRequestDto.ActionType.INTERIM_UPDATE, 0, 60)));
+    }
+
+    private static AccountingEvent interim(String sessionId, AccountingRequestDto.ActionType actionType,
+                                                int inputOctets, int seconds) {
+        return new AccountingEvent("evt", sessionId, "10.0.0.1", "alice", actionType, inputOctets, 0, seconds,
+                Instant.ofEpochSecond(1_700_000_000L + seconds), null, null, 0, 0, 0, "nas");
+    }
+
+    private static AccountingEvent session(String sessionId, String nasIp, String username, String framedIp,
+                                                AccountingRequestDto.ActionType actionType) {
+        return new AccountingEvent("evt", sessionId, nasIp, username, actionType, 0, 0, 0,
+                Instant.ofEpochSecond(1_700_000_000L), null, framedIp, 0, 0, 0, "nas");
+    }
+
+    private static AccountingEvent event(String sessionId, AccountingRequestDto.ActionType actionType,
+                                              int inputOctets) {
+        return new AccountingEvent("evt", sessionId, "10.0.0.1", "alice", actionType, inputOctets, 0, 0,
+                Instant.ofEpochSecond(1_700_000_000L), null, null, 0, 0, 0, "nas");
+    }
+}
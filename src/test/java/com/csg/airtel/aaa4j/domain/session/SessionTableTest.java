@@ -0,0 +1,152 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.model.UserSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTableTest {
+
+    private static final Instant NOW = Instant.ofEpochSecond(1_700_000_000L);
+
+    private final SessionTable table = new SessionTable(100_000);
+
+    @Test
+    void upsert_shouldStoreSessionOffHeap() {
+        int slot = table.upsert(start("s1", "10.0.0.1", "alice"));
+
+        UserSession session = table.read(slot);
+        assertEquals(slot, table.find("s1", "10.0.0.1"));
+        assertEquals("s1", session.getSessionId());
+        assertEquals("10.0.0.1", session.getNasIP());
+        assertEquals("alice", session.getUsername());
+        assertEquals("100.64.1.20", session.getFramedIPAddress());
+        assertEquals(NOW, session.getStartTime());
+        assertEquals(SessionTable.CHUNK_SLOTS * (long) SessionTable.SLOT_SIZE, table.offHeapBytes());
+    }
+
+    @Test
+    void upsert_withInterim_shouldUpdateCountersInPlace() {
+        int slot = table.upsert(start("s1", "10.0.0.1", "alice"));
+
+        // 2 gigawords + 5 octets, and an octet count above 2^31 that arrives as a negative int
+        int updated = table.upsert(new AccountingEvent("evt", "s1", "10.0.0.1", null,
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 5, -1, 600, NOW.plusSeconds(600),
+                null, null, 0, 2, 0, "nas"));
+
+        UserSession session = table.read(slot);
+        assertEquals(slot, updated);
+        assertEquals(1, table.size());
+        assertEquals((2L << 32) + 5, session.getInputOctets());
+        assertEquals(0xFFFFFFFFL, session.getOutputOctets());
+        assertEquals(600L, session.getSessionTime());
+        assertEquals("alice", session.getUsername());
+        assertEquals(NOW, session.getStartTime());
+        assertEquals(NOW.plusSeconds(600), session.getLastUpdateTime());
+    }
+
+    @Test
+    void upsert_withInterimForUnknownSession_shouldDeriveStartTime() {
+        int slot = table.upsert(new AccountingEvent("evt", "s1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 0, 0, 300, NOW, null, null, 0, 0, 0, "nas"));
+
+        assertEquals(NOW.minusSeconds(300), table.read(slot).getStartTime());
+    }
+
+    @Test
+    void sameSessionIdOnDifferentNas_shouldBeDistinctSessions() {
+        int first = table.upsert(start("s1", "10.0.0.1", "alice"));
+        int second = table.upsert(start("s1", "10.0.0.2", "bob"));
+
+        assertNotEquals(first, second);
+        assertEquals("bob", table.read(table.find("s1", "10.0.0.2")).getUsername());
+    }
+
+    @Test
+    void remove_shouldKeepOtherSessionsReachableAndReuseSlots() {
+        // Enough sessions to resize the index several times and build long probe runs
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(table.upsert(start("session-" + i, "10.0.0.1", "user-" + i)) >= 0);
+        }
+        int removed = 0;
+        for (int i = 0; i < 50_000; i += 2) {
+            assertTrue(table.remove("session-" + i, "10.0.0.1") >= 0);
+            removed++;
+        }
+
+        assertEquals(50_000 - removed, table.size());
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i % 2 == 1, table.find("session-" + i, "10.0.0.1") >= 0, "session-" + i);
+        }
+        assertEquals(-1, table.remove("session-0", "10.0.0.1"));
+
+        // Freed slots are handed out again before the table grows
+        int limit = table.slotLimit();
+        table.upsert(start("new", "10.0.0.1", "carol"));
+        assertEquals(limit, table.slotLimit());
+    }
+
+    @Test
+    void upsert_whenOversizedOrFull_shouldReject() {
+        SessionTable small = new SessionTable(1);
+
+        assertEquals(-1, small.upsert(start("x".repeat(64), "10.0.0.1", "alice")));
+        assertEquals(-1, small.upsert(start("s1", "10.0.0.1", "ü".repeat(48))));
+        assertTrue(small.upsert(start("s1", "10.0.0.1", "alice")) >= 0);
+        assertEquals(-1, small.upsert(start("s2", "10.0.0.1", "bob")));
+    }
+
+    @Test
+    void upsert_withUtf8Key_shouldFindIt() {
+        int slot = table.upsert(start("sëssion", "10.0.0.1", "ünïcode"));
+
+        assertEquals(slot, table.find("sëssion", "10.0.0.1"));
+        assertEquals("ünïcode", table.username(slot));
+    }
+
+    @Test
+    void upsert_shouldAccumulatePendingOctetsUntilPublished() {
+        int slot = table.upsert(start("s1", "10.0.0.1", "alice"));
+        table.upsert(new AccountingEvent("evt", "s1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 100, 50, 60, NOW.plusSeconds(60),
+                null, null, 0, 0, 0, "nas"));
+        table.upsert(new AccountingEvent("evt", "s1", "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 300, 50, 120, NOW.plusSeconds(120),
+                null, null, 0, 0, 0, "nas"));
+
+        assertEquals(350L, table.pendingOctets(slot));
+
+        table.markPublished(slot);
+        assertEquals(0L, table.pendingOctets(slot));
+        assertEquals(NOW.plusSeconds(120).toEpochMilli(), table.publishedAtMillis(slot));
+    }
+
+    @Test
+    void delta_shouldHandleGigawordsAndUnreportedWrap() {
+        // Gigawords carried: the combined 64-bit counter just grows
+        assertEquals(0x20L, SessionTable.delta(0xFFFFFFF0L, (1L << 32) | 0x10L));
+        // No Gigawords: the 32-bit counter wrapped past zero
+        assertEquals(0x20L, SessionTable.delta(0xFFFFFFF0L, 0x10L));
+        assertEquals(0L, SessionTable.delta(500L, 500L));
+    }
+
+    @Test
+    void ipv4_shouldParseDottedQuadsOnly() {
+        assertEquals(0x64400114, SessionTable.ipv4("100.64.1.20", 0));
+        assertEquals("100.64.1.20", SessionTable.ipv4(0x64400114));
+        assertEquals(-1, SessionTable.ipv4("255.255.255.255", 0));
+        assertEquals(0, SessionTable.ipv4("256.1.1.1", 0));
+        assertEquals(0, SessionTable.ipv4("2001:db8::1", 0));
+        assertEquals(0, SessionTable.ipv4("1.2.3", 0));
+        assertEquals(0, SessionTable.ipv4("1.2.3.4.", 0));
+    }
+
+    private static AccountingEvent start(String sessionId, String nasIp, String username) {
+        return new AccountingEvent("evt", sessionId, nasIp, username, AccountingRequestDto.ActionType.START,
+                0, 0, 0, NOW, "1/1/3:100.200", "100.64.1.20", 0, 0, 0, "nas");
+    }
+}
@@ -0,0 +1,72 @@
+package com.csg.airtel.aaa4j.domain.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotBitmapTest {
+
+    @Test
+    void add_shouldKeepSlotsInOrderAcrossBlocks() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.add(70_000);
+        bitmap.add(5);
+        bitmap.add(65_535);
+        bitmap.add(5);
+
+        List<Integer> slots = new ArrayList<>();
+        bitmap.forEach(slot -> slots.add(slot));
+
+        assertEquals(List.of(5, 65_535, 70_000), slots);
+        assertEquals(3, bitmap.cardinality());
+    }
+
+    @Test
+    void denseBlock_shouldSwitchToBitsAndBack() {
+        SlotBitmap bitmap = new SlotBitmap();
+        for (int slot = 0; slot < 10_000; slot++) {
+            bitmap.add(slot * 2);
+        }
+        // Past 4096 entries a block is an 8 KB bitmap
+        assertTrue(bitmap.bytes() < 10_000 * 2);
+        assertTrue(bitmap.contains(19_998));
+        assertFalse(bitmap.contains(19_999));
+
+        for (int slot = 0; slot < 9_000; slot++) {
+            bitmap.remove(slot * 2);
+        }
+
+        List<Integer> slots = new ArrayList<>();
+        bitmap.forEach(slot -> slots.add(slot));
+        assertEquals(1_000, bitmap.cardinality());
+        assertEquals(1_000, slots.size());
+        assertEquals(18_000, slots.get(0));
+    }
+
+    @Test
+    void forEach_shouldStopWhenVisitorDeclines() {
+        SlotBitmap bitmap = new SlotBitmap();
+        for (int slot = 0; slot < 100; slot++) {
+            bitmap.add(slot);
+        }
+
+        List<Integer> slots = new ArrayList<>();
+        bitmap.forEach(slot -> slots.add(slot) && slots.size() < 10);
+
+        assertEquals(10, slots.size());
+    }
+
+    @Test
+    void remove_lastSlot_shouldEmptyBitmap() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.add(200_000);
+        bitmap.remove(200_000);
+        bitmap.remove(1);
+
+        assertTrue(bitmap.isEmpty());
+        assertFalse(bitmap.contains(200_000));
+    }
+}
@@ -0,0 +1,214 @@
+package com.csg.airtel.aaa4j.domain.spool;
+
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountingSpoolTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountingSpool spool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        spool = open(16 * SEGMENT_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        spool.close();
+    }
+
+    @Test
+    void append_thenRead_shouldReturnEventsInOrder() {
+        assertTrue(spool.append(event("s1")));
+        assertTrue(spool.append(event("s2")));
+
+        SpoolBatch batch = spool.read(10);
+
+        assertEquals(List.of(event("s1"), event("s2")), batch.requests());
+        assertEquals(2, spool.pendingRecords());
+        assertEquals(2.0, meterRegistry.get("accounting.spool.appended").counter().count());
+    }
+
+    @Test
+    void read_withoutAcknowledge_shouldReturnSameEventsAgain() {
+        spool.append(event("s1"));
+        spool.append(event("s2"));
+        spool.append(event("s3"));
+
+        // Reading does not consume; only an acknowledgement moves the replay position
+        assertEquals(2, spool.read(2).requests().size());
+        SpoolBatch batch = spool.read(2);
+        spool.acknowledge(batch);
+
+        assertEquals(List.of(event("s3")), spool.read(10).requests());
+        assertEquals(1, spool.pendingRecords());
+    }
+
+    @Test
+    void acknowledge_shouldDeleteReplayedSegments() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            assertTrue(spool.append(event("session-" + i)));
+        }
+        assertTrue(segmentCount() > 1);
+
+        SpoolBatch batch = spool.read(100);
+        spool.acknowledge(batch);
+
+        assertEquals(40, batch.requests().size());
+        assertEquals("session-39", batch.requests().get(39).sessionId());
+        assertEquals(1, segmentCount());
+        assertEquals(0, spool.pendingRecords());
+        assertEquals(0, spool.pendingBytes());
+        assertEquals(40.0, meterRegistry.get("accounting.spool.replayed").counter().count());
+    }
+
+    @Test
+    void open_afterRestart_shouldResumeFromCheckpoint() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            spool.append(event("session-" + i));
+        }
+        spool.acknowledge(spool.read(12));
+        spool.close();
+
+        spool = open(16 * SEGMENT_SIZE);
+
+        // Acknowledged events are not replayed again, the rest are, in order
+        SpoolBatch batch = spool.read(100);
+        assertEquals(18, spool.pendingRecords());
+        assertEquals(18, batch.requests().size());
+        assertEquals("session-12", batch.requests().get(0).sessionId());
+
+        // New events go after the recovered ones
+        assertTrue(spool.append(event("after-restart")));
+        assertEquals(19, spool.read(100).requests().size());
+    }
+
+    @Test
+    void open_withTornTail_shouldKeepCompleteFrames() throws Exception {
+        spool.append(event("s1"));
+        spool.append(event("s2"));
+        spool.close();
+
+        // A crash mid-append leaves a length but no valid payload behind the last frame
+        Path segment = segments().get(0);
+        long end;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            end = endOfFrames(file);
+            file.seek(end);
+            file.writeInt(100);
+            file.writeInt(12345);
+        }
+
+        spool = open(16 * SEGMENT_SIZE);
+        spool.append(event("s3"));
+
+        assertEquals(List.of(event("s1"), event("s2"), event("s3")), spool.read(10).requests());
+    }
+
+    @Test
+    void read_withCorruptFrame_shouldSkipRestOfSegment() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            spool.append(event("session-" + i));
+        }
+        spool.close();
+
+        // Flip a payload byte of the first frame of the first segment
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(AccountingSpool.FRAME_HEADER + 4);
+            int value = file.read();
+            file.seek(AccountingSpool.FRAME_HEADER + 4);
+            file.write(value ^ 0xFF);
+        }
+        spool = open(16 * SEGMENT_SIZE);
+
+        SpoolBatch batch = spool.read(100);
+
+        assertFalse(batch.requests().isEmpty());
+        assertTrue(batch.requests().size() < 40);
+        assertEquals("session-39", batch.requests().get(batch.requests().size() - 1).sessionId());
+        assertEquals(1.0, meterRegistry.get("accounting.spool.corrupt").counter().count());
+    }
+
+    @Test
+    void append_whenFull_shouldDropEvents() throws Exception {
+        spool.close();
+        spool = open(2 * SEGMENT_SIZE);
+
+        int appended = 0;
+        while (spool.append(event("session-" + appended))) {
+            appended++;
+        }
+
+        // Two segments' worth fit, the rest is dropped until replay frees space
+        assertTrue(appended > 10);
+        assertEquals(1.0, meterRegistry.get("accounting.spool.dropped").counter().count());
+        spool.acknowledge(spool.read(appended));
+        assertTrue(spool.append(event("after-replay")));
+    }
+
+    @Test
+    void append_whenDisabled_shouldDropEvents() {
+        AccountingSpool disabled = new AccountingSpool(false, directory.resolve("off"), SEGMENT_SIZE,
+                SEGMENT_SIZE, new SimpleMeterRegistry());
+
+        assertFalse(disabled.append(event("s1")));
+        assertTrue(disabled.read(10).isEmpty());
+        assertFalse(Files.exists(directory.resolve("off")));
+    }
+
+    private AccountingSpool open(long maxBytes) throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        AccountingSpool opened = new AccountingSpool(true, directory, SEGMENT_SIZE, maxBytes, meterRegistry);
+        opened.open();
+        return opened;
+    }
+
+    private static long endOfFrames(RandomAccessFile file) throws Exception {
+        long offset = 0;
+        while (true) {
+            file.seek(offset);
+            int length = file.readInt();
+            if (length == 0) {
+                return offset;
+            }
+            offset += AccountingSpool.FRAME_HEADER + length;
+        }
+    }
+
+    private long segmentCount() throws Exception {
+        return segments().size();
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static AccountingEvent event(String sessionId) {
+        return new AccountingEvent("evt-" + sessionId, sessionId, "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.INTERIM_UPDATE, 1000, 2000, 60,
+                Instant.ofEpochSecond(1_700_000_000L), "1/1/3:100.200", "100.64.1.20", 0, 0, 0, "bng-01");
+    }
+}
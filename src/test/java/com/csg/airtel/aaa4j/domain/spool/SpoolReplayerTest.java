@@ -0,0 +1,121 @@
+package com.csg.airtel.aaa4j.domain.spool;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import com.csg.airtel.aaa4j.domain.model.AccountingEvent;
+import com.csg.airtel.aaa4j.domain.model.AccountingRequestDto;
+import com.csg.airtel.aaa4j.domain.producer.AccountingBatchSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SpoolReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private RadiusServerConfig config;
+
+    @Mock
+    private AccountingBatchSender batchSender;
+
+    private AccountingSpool spool;
+    private SpoolReplayer replayer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(config.accounting().spool().replay().batchSize()).thenReturn(2);
+        when(config.accounting().spool().replay().ratePerSecond()).thenReturn(1000);
+        when(config.accounting().spool().replay().timeoutMs()).thenReturn(1000L);
+        when(config.accounting().spool().replay().initialBackoffMs()).thenReturn(100L);
+        when(config.accounting().spool().replay().maxBackoffMs()).thenReturn(300L);
+        when(config.accounting().spool().syncIntervalMs()).thenReturn(1000L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        spool = new AccountingSpool(true, directory, 4096, 4096 * 4, meterRegistry);
+        spool.open();
+        replayer = new SpoolReplayer(spool, batchSender, config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayer.shutdown();
+        spool.close();
+    }
+
+    @Test
+    void replayOnce_whenSent_shouldAcknowledgeAndPace() {
+        when(batchSender.replay(any())).thenReturn(CompletableFuture.completedFuture(null));
+        spool.append(event("s1"));
+        spool.append(event("s2"));
+        spool.append(event("s3"));
+
+        long waitNanos = replayer.replayOnce();
+
+        // Two events at 1000/s leave up to 2 ms until the next round
+        verify(batchSender).replay(List.of(event("s1"), event("s2")));
+        assertEquals(1, spool.pendingRecords());
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(2));
+    }
+
+    @Test
+    void replayOnce_whenFailing_shouldKeepEventsAndBackOff() {
+        when(batchSender.replay(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+        spool.append(event("s1"));
+
+        // Backoff doubles up to the maximum
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), replayer.replayOnce());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), replayer.replayOnce());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), replayer.replayOnce());
+        assertEquals(1, spool.pendingRecords());
+
+        // The first success resets it
+        when(batchSender.replay(any())).thenReturn(CompletableFuture.completedFuture(null));
+        replayer.replayOnce();
+        assertEquals(0, replayer.backoffMs());
+        assertEquals(0, spool.pendingRecords());
+    }
+
+    @Test
+    void replayOnce_whenEmpty_shouldNotSend() {
+        assertTrue(replayer.replayOnce() > 0);
+
+        verify(batchSender, never()).replay(any());
+    }
+
+    @Test
+    void start_shouldDrainSpoolInBackground() {
+        when(batchSender.replay(any())).thenReturn(CompletableFuture.completedFuture(null));
+        for (int i = 0; i < 5; i++) {
+            spool.append(event("session-" + i));
+        }
+
+        replayer.start();
+
+        // Batches of two: 2 + 2 + 1, and nothing further once the spool is empty
+        verify(batchSender, timeout(2000).times(3)).replay(any());
+        verify(batchSender, after(300).times(3)).replay(any());
+        assertEquals(0, spool.pendingRecords());
+    }
+
+    private static AccountingEvent event(String sessionId) {
+        return new AccountingEvent("evt-" + sessionId, sessionId, "10.0.0.1", "alice",
+                AccountingRequestDto.ActionType.START, 0, 0, 0, Instant.ofEpochSecond(1_700_000_000L),
+                null, null, 0, 0, 0, "bng-01");
+    }
+}
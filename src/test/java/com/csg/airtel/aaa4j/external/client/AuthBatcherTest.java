@@ -0,0 +1,206 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
+import com.csg.airtel.aaa4j.application.config.WebClientProvider;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the batcher against a local stub of the auth-management service.
+ */
+class AuthBatcherTest {
+
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    @Mock
+    private WebClientProvider webClientProvider;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private AuthClientConfig config;
+
+    private Vertx vertx;
+    private WebClient webClient;
+    private HttpServer stubServer;
+    private MeterRegistry meterRegistry;
+    private String baseUrl;
+
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final AtomicBoolean batchEndpointFails = new AtomicBoolean();
+    private final AtomicLong batchDelayMs = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        vertx = Vertx.vertx();
+        webClient = WebClient.create(vertx);
+        meterRegistry = new SimpleMeterRegistry();
+        when(webClientProvider.getClient()).thenReturn(webClient);
+        when(config.batch().enabled()).thenReturn(true);
+        when(config.batch().url()).thenReturn(Optional.empty());
+        when(config.batch().lingerMs()).thenReturn(20L);
+
+        // Stub: authorizes users whose password is "good", answering batches in reverse order
+        stubServer = vertx.createHttpServer().requestHandler(request -> request.body().onSuccess(body -> {
+            if (request.path().endsWith("/batch")) {
+                batchCalls.incrementAndGet();
+                if (batchEndpointFails.get()) {
+                    request.response().setStatusCode(500).end();
+                    return;
+                }
+                JsonArray answers = new JsonArray();
+                JsonArray requests = body.toJsonArray();
+                for (int i = requests.size() - 1; i >= 0; i--) {
+                    JsonObject item = requests.getJsonObject(i);
+                    answers.add(decide(item).put(AuthBatcher.REQUEST_ID, item.getString(AuthBatcher.REQUEST_ID)));
+                }
+                long delayMs = batchDelayMs.get();
+                if (delayMs > 0) {
+                    vertx.setTimer(delayMs, id -> request.response()
+                            .putHeader("Content-Type", "application/json").end(answers.encode()));
+                    return;
+                }
+                request.response().putHeader("Content-Type", "application/json").end(answers.encode());
+            } else {
+                singleCalls.incrementAndGet();
+                request.response().putHeader("Content-Type", "application/json").end(decide(body.toJsonObject()).encode());
+            }
+        })).listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        baseUrl = "http://localhost:" + stubServer.actualPort() + "/api/users/authenticate";
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_fullBatch_shouldSendOnePostAndDemultiplexAnswers() throws Exception {
+        when(config.batch().maxSize()).thenReturn(3);
+        AuthBatcher batcher = new AuthBatcher(webClientProvider, vertx, config, meterRegistry, baseUrl);
+
+        List<CompletableFuture<UserDetails>> results = List.of(
+                submit(batcher, "alice", "good"),
+                submit(batcher, "bob", "bad"),
+                submit(batcher, "carol", "good"));
+
+        assertTrue(results.get(0).get(5, TimeUnit.SECONDS).getIsAuthorized());
+        assertFalse(results.get(1).get(5, TimeUnit.SECONDS).getIsAuthorized());
+        assertEquals("carol", results.get(2).get(5, TimeUnit.SECONDS).getUsername());
+        assertEquals(1, batchCalls.get());
+        assertEquals(3.0, meterRegistry.summary("auth.batch.size").totalAmount());
+    }
+
+    @Test
+    void submit_partialBatch_shouldBeSentAfterLinger() throws Exception {
+        when(config.batch().maxSize()).thenReturn(64);
+        AuthBatcher batcher = new AuthBatcher(webClientProvider, vertx, config, meterRegistry, baseUrl);
+
+        CompletableFuture<UserDetails> result = submit(batcher, "dave", "good");
+
+        assertTrue(result.get(5, TimeUnit.SECONDS).getIsAuthorized());
+        assertEquals(1, batchCalls.get());
+    }
+
+    @Test
+    void submit_batchEndpointError_shouldFallBackToSingleCalls() throws Exception {
+        when(config.batch().maxSize()).thenReturn(2);
+        batchEndpointFails.set(true);
+        AuthBatcher batcher = new AuthBatcher(webClientProvider, vertx, config, meterRegistry, baseUrl);
+
+        CompletableFuture<UserDetails> first = submit(batcher, "erin", "good");
+        CompletableFuture<UserDetails> second = submit(batcher, "frank", "bad");
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).getIsAuthorized());
+        assertFalse(second.get(5, TimeUnit.SECONDS).getIsAuthorized());
+        assertEquals(2.0, meterRegistry.counter("auth.batch.fallbacks").count());
+        assertEquals(2, singleCalls.get());
+    }
+
+    @Test
+    void submit_batchTimesOutAtTheDeadline_shouldFailWithoutSingleCalls() throws Exception {
+        when(config.batch().maxSize()).thenReturn(2);
+        batchDelayMs.set(1000);
+        AuthBatcher batcher = new AuthBatcher(webClientProvider, vertx, config, meterRegistry, baseUrl);
+
+        CompletableFuture<UserDetails> first = submit(batcher, "erin", "good", Duration.ofMillis(200));
+        CompletableFuture<UserDetails> second = submit(batcher, "frank", "good", Duration.ofMillis(200));
+
+        // Nobody waits for an answer past the deadline, so the backend is not asked again
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, singleCalls.get());
+        assertEquals(0.0, meterRegistry.counter("auth.batch.fallbacks").count());
+        assertEquals(2.0, meterRegistry.counter("auth.batch.expired").count());
+    }
+
+    @Test
+    void submit_batchTimesOut_shouldTimeOutLongerDeadlinesToo() throws Exception {
+        when(config.batch().maxSize()).thenReturn(3);
+        batchDelayMs.set(1000);
+        AuthBatcher batcher = new AuthBatcher(webClientProvider, vertx, config, meterRegistry, baseUrl);
+
+        CompletableFuture<UserDetails> tight = submit(batcher, "erin", "good", Duration.ofMillis(200));
+        CompletableFuture<UserDetails> looser = submit(batcher, "frank", "good", Duration.ofMillis(2000));
+        CompletableFuture<UserDetails> loose = submit(batcher, "grace", "good", DEADLINE);
+
+        // Every request must see a timeout, so none of them is rejected while the others go unanswered
+        for (CompletableFuture<UserDetails> result : List.of(tight, looser, loose)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+        assertEquals(0, singleCalls.get());
+        assertEquals(0.0, meterRegistry.counter("auth.batch.fallbacks").count());
+        assertEquals(1.0, meterRegistry.counter("auth.batch.expired").count());
+    }
+
+    private CompletableFuture<UserDetails> submit(AuthBatcher batcher, String username, String password) {
+        return submit(batcher, username, password, DEADLINE);
+    }
+
+    private CompletableFuture<UserDetails> submit(AuthBatcher batcher, String username, String password,
+                                                  Duration deadline) {
+        JsonObject body = new JsonObject().put("username", username).put("password", password);
+        Function<Duration, Uni<UserDetails>> singleCall = remaining -> Uni.createFrom().completionStage(() -> webClient
+                .postAbs(baseUrl)
+                .timeout(remaining.toMillis())
+                .sendJsonObject(body)
+                .map(response -> response.bodyAsJsonObject().mapTo(UserDetails.class))
+                .toCompletionStage());
+        return batcher.submit(body, deadline, singleCall).subscribeAsCompletionStage();
+    }
+
+    private static JsonObject decide(JsonObject request) {
+        boolean good = "good".equals(request.getString("password"));
+        return JsonObject.mapFrom(new UserDetails(request.getString("username"), good, true, true, null, null));
+    }
+}
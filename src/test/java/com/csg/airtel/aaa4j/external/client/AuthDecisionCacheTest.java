@@ -0,0 +1,138 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
+import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthDecisionCacheTest {
+
+    private static final byte[] SALT = "test-salt".getBytes();
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private AuthClientConfig config;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(config.cache().enabled()).thenReturn(true);
+        when(config.cache().maxEntries()).thenReturn(1000L);
+        when(config.cache().acceptTtlSeconds()).thenReturn(300);
+        when(config.cache().rejectTtlSeconds()).thenReturn(5);
+        when(config.cache().refreshAheadFactor()).thenReturn(0.8);
+    }
+
+    @Test
+    void get_sameCredentialsTwice_shouldCallBackendOnce() {
+        AuthDecisionCache cache = new AuthDecisionCache(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CredentialKey key = CredentialKey.of(SALT, "user1", "secret", null, null);
+
+        UserDetails first = cache.get(key, backend(calls, accepted("user1"))).await().atMost(Duration.ofSeconds(1));
+        UserDetails second = cache.get(key, backend(calls, accepted("user1"))).await().atMost(Duration.ofSeconds(1));
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void get_rejectDecision_shouldBeCachedToo() {
+        AuthDecisionCache cache = new AuthDecisionCache(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CredentialKey key = CredentialKey.of(SALT, "user2", "wrong", null, null);
+
+        cache.get(key, backend(calls, new UserDetails("user2", false, true, true, null, null))).await().indefinitely();
+        UserDetails result = cache.get(key, backend(calls, accepted("user2"))).await().indefinitely();
+
+        // The short-lived negative entry answers the retry
+        assertFalse(result.getIsAuthorized());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_backendFailure_shouldNotBeCached() {
+        AuthDecisionCache cache = new AuthDecisionCache(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CredentialKey key = CredentialKey.of(SALT, "user3", "secret", null, null);
+
+        Supplier<Uni<UserDetails>> failing = () -> {
+            calls.incrementAndGet();
+            return Uni.createFrom().failure(new IllegalStateException("down"));
+        };
+        assertThrows(IllegalStateException.class, () -> cache.get(key, failing).await().indefinitely());
+
+        UserDetails result = cache.get(key, backend(calls, accepted("user3"))).await().indefinitely();
+
+        assertTrue(result.getIsAuthorized());
+        assertEquals(2, calls.get());
+        assertEquals(1, meterRegistry.get("auth.cache.load").tag("result", "failure").timer().count());
+    }
+
+    @Test
+    void get_pastRefreshAheadPoint_shouldServeCachedAndReloadInBackground() {
+        // Refresh point at zero age: every hit is past it
+        when(config.cache().refreshAheadFactor()).thenReturn(0.0);
+        AuthDecisionCache cache = new AuthDecisionCache(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CredentialKey key = CredentialKey.of(SALT, "user4", "secret", null, null);
+
+        UserDetails original = cache.get(key, backend(calls, accepted("user4"))).await().indefinitely();
+        UserDetails refreshed = accepted("user4");
+        UserDetails hit = cache.get(key, backend(calls, refreshed)).await().indefinitely();
+
+        assertSame(original, hit);
+        assertEquals(2, calls.get());
+        assertSame(refreshed, cache.get(key, () -> Uni.createFrom().failure(new AssertionError())).await().indefinitely());
+    }
+
+    @Test
+    void get_whenDisabled_shouldAlwaysCallBackend() {
+        when(config.cache().enabled()).thenReturn(false);
+        AuthDecisionCache cache = new AuthDecisionCache(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        CredentialKey key = CredentialKey.of(SALT, "user5", "secret", null, null);
+
+        cache.get(key, backend(calls, accepted("user5"))).await().indefinitely();
+        cache.get(key, backend(calls, accepted("user5"))).await().indefinitely();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void credentialKey_shouldDependOnAllCredentialFields() {
+        assertEquals(CredentialKey.of(SALT, "user", "pw", null, null), CredentialKey.of(SALT, "user", "pw", null, null));
+        assertNotEquals(CredentialKey.of(SALT, "user", "pw", null, null), CredentialKey.of(SALT, "user", "pw2", null, null));
+        assertNotEquals(CredentialKey.of(SALT, "user", null, "ab", "cd"), CredentialKey.of(SALT, "user", null, "abc", "d"));
+        assertNotEquals(CredentialKey.of(SALT, "user", "pw", null, null), CredentialKey.of(SALT, "other", "pw", null, null));
+        assertNotEquals(CredentialKey.of(SALT, "user", "pw", null, null),
+                CredentialKey.of("other-salt".getBytes(), "user", "pw", null, null));
+    }
+
+    private static Supplier<Uni<UserDetails>> backend(AtomicInteger calls, UserDetails answer) {
+        return () -> {
+            calls.incrementAndGet();
+            return Uni.createFrom().item(answer);
+        };
+    }
+
+    private static UserDetails accepted(String username) {
+        return new UserDetails(username, true, true, true, null, null);
+    }
+}
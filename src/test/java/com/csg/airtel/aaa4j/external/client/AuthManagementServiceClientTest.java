@@ -1,7 +1,11 @@
 package com.csg.airtel.aaa4j.external.client;
 
+import com.csg.airtel.aaa4j.application.config.AuthClientConfig;
 import com.csg.airtel.aaa4j.application.config.WebClientProvider;
+import com.csg.airtel.aaa4j.common.constant.AuthServiceConstants;
 import com.csg.airtel.aaa4j.domain.model.UserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
@@ -13,6 +17,13 @@ import org.junit.jupiter.api.*;
 import org.mockito.*;
 import org.slf4j.MDC;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +42,18 @@ class AuthManagementServiceClientTest {
     @Mock
     private HttpResponse<Buffer> httpResponse;
 
+    @Mock
+    private AuthDecisionCache decisionCache;
+
+    @Mock
+    private AuthBatcher authBatcher;
+
+    @Mock
+    private AuthClientConfig config;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AuthManagementServiceClient authClient;
 
@@ -52,6 +75,7 @@ class AuthManagementServiceClientTest {
         // Given
         String username = "user2";
         when(webClient.postAbs(anyString())).thenReturn(httpRequest);
+        when(httpRequest.timeout(anyLong())).thenReturn(httpRequest);
         when(httpRequest.putHeader(anyString(), anyString())).thenReturn(httpRequest);
 
         doAnswer(invocation -> {
@@ -78,4 +102,77 @@ class AuthManagementServiceClientTest {
         verify(httpRequest, atLeastOnce()).sendJsonObject(any(), any());
     }
 
+    @Test
+    void testAuthenticate_noResponseBeforeDeadline_shouldReturnNullAndKeepCallerTraceId() throws Exception {
+        // Given a backend that never answers, called from a handler that set its trace id
+        when(webClient.postAbs(anyString())).thenReturn(httpRequest);
+        when(httpRequest.timeout(anyLong())).thenReturn(httpRequest);
+        when(httpRequest.putHeader(anyString(), anyString())).thenReturn(httpRequest);
+        MDC.put(AuthServiceConstants.TRACE_ID, "handler-trace");
+
+        // When
+        UserDetails result = authClient.authenticate("user4", "pass", null, null, null, Duration.ofMillis(50));
+
+        // Then no decision, so the caller does not answer, and its trace id is still in place
+        assertNull(result);
+        assertEquals("handler-trace", MDC.get(AuthServiceConstants.TRACE_ID));
+    }
+
+    @Test
+    void testAuthenticateAsync_withoutCallerTraceId_shouldNotLeaveOneInMdc() {
+        when(webClient.postAbs(anyString())).thenReturn(httpRequest);
+        when(httpRequest.timeout(anyLong())).thenReturn(httpRequest);
+        when(httpRequest.putHeader(anyString(), anyString())).thenReturn(httpRequest);
+
+        authClient.authenticateAsync("user5", "pass", null, null, null, Duration.ofMillis(50));
+
+        assertNull(MDC.get(AuthServiceConstants.TRACE_ID));
+    }
+
+    @Test
+    void testAuthenticateAsync_noResponseBeforeDeadline_shouldFailWithTimeout() {
+        // Given a backend that never answers
+        when(webClient.postAbs(anyString())).thenReturn(httpRequest);
+        when(httpRequest.timeout(anyLong())).thenReturn(httpRequest);
+        when(httpRequest.putHeader(anyString(), anyString())).thenReturn(httpRequest);
+
+        // When
+        CompletableFuture<UserDetails> result = authClient
+                .authenticateAsync("user3", "pass", null, null, null, Duration.ofMillis(50))
+                .subscribeAsCompletionStage();
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        verify(httpRequest).timeout(50L);
+    }
+
+    @Test
+    void testAuthenticateAsync_concurrentIdenticalCalls_shouldShareOneBackendCall() {
+        // Given coalescing enabled and a backend that has not answered yet
+        when(config.coalesce()).thenReturn(true);
+        AuthManagementServiceClient coalescingClient =
+                new AuthManagementServiceClient(webClientProvider, decisionCache, authBatcher, config, meterRegistry);
+        coalescingClient.authServiceUrl = authClient.authServiceUrl;
+        when(decisionCache.get(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(webClient.postAbs(anyString())).thenReturn(httpRequest);
+        when(httpRequest.timeout(anyLong())).thenReturn(httpRequest);
+        when(httpRequest.putHeader(anyString(), anyString())).thenReturn(httpRequest);
+
+        // When
+        CompletableFuture<UserDetails> first = coalescingClient
+                .authenticateAsync("user4", "pass", null, null, null, Duration.ofSeconds(5))
+                .subscribeAsCompletionStage();
+        CompletableFuture<UserDetails> second = coalescingClient
+                .authenticateAsync("user4", "pass", null, null, null, Duration.ofSeconds(5))
+                .subscribeAsCompletionStage();
+
+        // Then
+        verify(httpRequest, times(1)).sendJsonObject(any(), any());
+        assertEquals(1.0, meterRegistry.counter("auth.requests.coalesced").count());
+        first.cancel(false);
+        second.cancel(false);
+    }
+
 }
@@ -0,0 +1,97 @@
+package com.csg.airtel.aaa4j.external.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private Counter coalesced;
+    private SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        coalesced = new SimpleMeterRegistry().counter("coalesced");
+        singleFlight = new SingleFlight<>(coalesced);
+    }
+
+    @Test
+    void execute_concurrentCallsWithSameKey_shouldShareOneCall() throws Exception {
+        CompletableFuture<String> backend = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.execute("user", () -> {
+            calls.incrementAndGet();
+            return Uni.createFrom().completionStage(backend);
+        }).subscribeAsCompletionStage();
+        CompletableFuture<String> second = singleFlight.execute("user", () -> {
+            calls.incrementAndGet();
+            return Uni.createFrom().item("other");
+        }).subscribeAsCompletionStage();
+
+        backend.complete("decision");
+
+        assertEquals("decision", first.get(1, TimeUnit.SECONDS));
+        assertEquals("decision", second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1.0, coalesced.count());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void execute_afterCompletion_shouldStartNewCall() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("user", () -> Uni.createFrom().item(String.valueOf(calls.incrementAndGet())))
+                .await().indefinitely();
+        String second = singleFlight.execute("user", () -> Uni.createFrom().item(String.valueOf(calls.incrementAndGet())))
+                .await().indefinitely();
+
+        assertEquals("2", second);
+        assertEquals(0.0, coalesced.count());
+    }
+
+    @Test
+    void execute_failure_shouldReachEveryWaiterUnwrapped() {
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("user",
+                () -> Uni.createFrom().completionStage(backend)).subscribeAsCompletionStage();
+        CompletableFuture<String> second = singleFlight.execute("user",
+                () -> Uni.createFrom().item("unused")).subscribeAsCompletionStage();
+
+        backend.completeExceptionally(new TimeoutException("deadline"));
+
+        // Callers distinguish deadline expiry by exception type, so it must not arrive wrapped
+        ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, firstFailure.getCause());
+        assertInstanceOf(TimeoutException.class, secondFailure.getCause());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void execute_oneWaiterCancelling_shouldNotCancelOthers() throws Exception {
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("user",
+                () -> Uni.createFrom().completionStage(backend)).subscribeAsCompletionStage();
+        CompletableFuture<String> second = singleFlight.execute("user",
+                () -> Uni.createFrom().item("unused")).subscribeAsCompletionStage();
+
+        first.cancel(false);
+        backend.complete("decision");
+
+        assertEquals("decision", second.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,217 @@
+package com.csg.airtel.aaa4j.external.coa;
+
+import com.csg.airtel.aaa4j.application.config.RadiusServerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.datagram.DatagramPacket;
+import io.vertx.core.datagram.DatagramSocket;
+import io.vertx.core.datagram.DatagramSocketOptions;
+import org.aaa4j.radius.core.attribute.TextData;
+import org.aaa4j.radius.core.attribute.attributes.AcctSessionId;
+import org.aaa4j.radius.core.dictionary.dictionaries.StandardDictionary;
+import org.aaa4j.radius.core.packet.Packet;
+import org.aaa4j.radius.core.packet.PacketCodec;
+import org.aaa4j.radius.core.util.SecureRandomProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the pool against a stub NAS on a local datagram socket.
+ */
+class CoaClientPoolTest {
+
+    private static final byte[] SECRET = "secret123".getBytes(UTF_8);
+    private static final int DISCONNECT_REQUEST = 40;
+    private static final int DISCONNECT_ACK = 41;
+
+    @Mock
+    private RadiusServerConfig.CoaConfig config;
+
+    private Vertx vertx;
+    private SimpleMeterRegistry meterRegistry;
+    private CoaClientPool pool;
+    private DatagramSocket nas;
+    private InetSocketAddress nasAddress;
+    private final PacketCodec codec = new PacketCodec(new StandardDictionary(), new SecureRandomProvider());
+
+    private final List<byte[]> received = new CopyOnWriteArrayList<>();
+    /**
+     * What the stub NAS does with each request; answers straight away unless a test changes it
+     */
+    private volatile BiConsumer<DatagramPacket, byte[]> behaviour = (datagram, bytes) -> answer(datagram, bytes);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(config.socketsPerNas()).thenReturn(1);
+        when(config.bindAddress()).thenReturn("127.0.0.1");
+        // Generous, so a slow first run is not retransmitted; the retransmit tests shorten it
+        when(config.timeoutMs()).thenReturn(5000L);
+        when(config.retransmits()).thenReturn(2);
+        when(config.maxPending()).thenReturn(1000);
+        when(config.tickMs()).thenReturn(10L);
+
+        vertx = Vertx.vertx();
+        nas = vertx.createDatagramSocket(new DatagramSocketOptions().setReceiveBufferSize(1 << 20));
+        nas.handler(datagram -> {
+            byte[] bytes = datagram.data().getBytes();
+            received.add(bytes);
+            behaviour.accept(datagram, bytes);
+        });
+        nas.listen(0, "127.0.0.1").toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        nasAddress = new InetSocketAddress("127.0.0.1", nas.localAddress().port());
+
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new CoaClientPool(vertx, config, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()), meterRegistry);
+        pool.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.shutdown();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void send_shouldCompleteWithTheNasResponse() throws Exception {
+        Packet response = await(pool.send(nasAddress, SECRET, disconnect("s1")));
+
+        assertEquals(DISCONNECT_ACK, response.getCode());
+        // RFC 5176 Request Authenticator: MD5 over the packet with a zero authenticator, then the secret
+        byte[] request = received.get(0);
+        assertEquals(DISCONNECT_REQUEST, request[0] & 0xFF);
+        assertArrayEquals(requestAuthenticator(request), Arrays.copyOfRange(request, 4, 20));
+        assertEquals(1, meterRegistry.get("radius.coa.latency").tag("nas", "127.0.0.1").timer().count());
+        assertEquals(0, pool.inFlight(nasAddress));
+    }
+
+    @Test
+    void send_whenFirstCopyIsLost_shouldRetransmitTheSameRequest() throws Exception {
+        when(config.timeoutMs()).thenReturn(200L);
+        behaviour = (datagram, bytes) -> {
+            if (received.size() > 1) {
+                answer(datagram, bytes);
+            }
+        };
+
+        Packet response = await(pool.send(nasAddress, SECRET, disconnect("s1")));
+
+        assertEquals(DISCONNECT_ACK, response.getCode());
+        // Same Identifier and authenticator on every copy
+        assertTrue(received.size() >= 2);
+        for (byte[] copy : received) {
+            assertArrayEquals(received.get(0), copy);
+        }
+        assertEquals(received.size() - 1, meterRegistry.get("radius.coa.retransmits").counter().count());
+    }
+
+    @Test
+    void send_whenNasNeverAnswers_shouldTimeOutAfterTheLastRetransmit() {
+        when(config.timeoutMs()).thenReturn(200L);
+        behaviour = (datagram, bytes) -> {
+            // Silent NAS
+        };
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> await(pool.send(nasAddress, SECRET, disconnect("s1"))));
+
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(3, received.size());
+        assertEquals(1.0, meterRegistry.get("radius.coa.timeouts").counter().count());
+        assertEquals(0, pool.inFlight(nasAddress));
+    }
+
+    @Test
+    void send_shouldDropResponsesThatDoNotMatchTheRequestAuthenticator() throws Exception {
+        behaviour = (datagram, bytes) -> {
+            // A stale answer for an earlier request that used the same Identifier, then the real one
+            byte[] stale = Arrays.copyOf(bytes, bytes.length);
+            stale[4] ^= 1;
+            answer(datagram, stale);
+            answer(datagram, bytes);
+        };
+
+        Packet response = await(pool.send(nasAddress, SECRET, disconnect("s1")));
+
+        assertEquals(DISCONNECT_ACK, response.getCode());
+        assertEquals(1.0, meterRegistry.get("radius.coa.responses.unmatched").counter().count());
+    }
+
+    @Test
+    void send_beyondTheIdentifierSpace_shouldWaitForAFreeIdentifier() throws Exception {
+        behaviour = (datagram, bytes) -> {
+            if (received.size() == 256) {
+                // Every Identifier of the socket is in use: answer them all at once
+                for (byte[] request : received) {
+                    answer(datagram, request);
+                }
+            } else if (received.size() > 256) {
+                answer(datagram, bytes);
+            }
+        };
+
+        List<CompletableFuture<Packet>> responses = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            responses.add(pool.send(nasAddress, SECRET, disconnect("s" + i)).subscribeAsCompletionStage());
+        }
+
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals(300, received.size());
+        Set<Integer> firstIdentifiers = new HashSet<>();
+        for (byte[] request : received.subList(0, 256)) {
+            firstIdentifiers.add(request[1] & 0xFF);
+        }
+        assertEquals(256, firstIdentifiers.size());
+        assertEquals(0.0, meterRegistry.get("radius.coa.retransmits").counter().count());
+    }
+
+    private void answer(DatagramPacket datagram, byte[] request) {
+        try {
+            byte[] response = codec.encodeResponse(new Packet(DISCONNECT_ACK), SECRET, request[1] & 0xFF,
+                    Arrays.copyOfRange(request, 4, 20));
+            nas.send(Buffer.buffer(response), datagram.sender().port(), datagram.sender().hostAddress());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] requestAuthenticator(byte[] request) throws Exception {
+        byte[] zeroed = Arrays.copyOf(request, request.length);
+        Arrays.fill(zeroed, 4, 20, (byte) 0);
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(zeroed);
+        md5.update(SECRET);
+        return md5.digest();
+    }
+
+    private static Packet disconnect(String sessionId) {
+        return new Packet(DISCONNECT_REQUEST, List.of(new AcctSessionId(new TextData(sessionId))));
+    }
+
+    private static Packet await(Uni<Packet> response) throws Exception {
+        return response.subscribeAsCompletionStage().get(5, TimeUnit.SECONDS);
+    }
+}
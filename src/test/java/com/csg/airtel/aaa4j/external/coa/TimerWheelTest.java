@@ -0,0 +1,91 @@
+package com.csg.airtel.aaa4j.external.coa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void advance_shouldExpireEntriesOnceTheirDeadlinePassed() {
+        TimerWheel<Timeout> wheel = new TimerWheel<>(10, 8, 0);
+        Timeout early = new Timeout("early");
+        Timeout late = new Timeout("late");
+        wheel.schedule(early, 25);
+        wheel.schedule(late, 55);
+        List<String> expired = new ArrayList<>();
+
+        // Deadlines round up to the next tick: 25 ms fires at 30 ms
+        wheel.advance(29, timeout -> expired.add(timeout.name));
+        assertEquals(List.of(), expired);
+        wheel.advance(30, timeout -> expired.add(timeout.name));
+        assertEquals(List.of("early"), expired);
+        wheel.advance(100, timeout -> expired.add(timeout.name));
+        assertEquals(List.of("early", "late"), expired);
+        assertEquals(0, wheel.size());
+        assertFalse(early.isScheduled());
+    }
+
+    @Test
+    void advance_shouldKeepDeadlinesBeyondOneTurnUntilDue() {
+        TimerWheel<Timeout> wheel = new TimerWheel<>(10, 8, 0);
+        Timeout far = new Timeout("far");
+        // 8 buckets of 10 ms: 250 ms shares a bucket with 10 ms, 90 ms, 170 ms
+        wheel.schedule(far, 250);
+        List<String> expired = new ArrayList<>();
+
+        for (long now = 10; now < 250; now += 10) {
+            wheel.advance(now, timeout -> expired.add(timeout.name));
+        }
+        assertEquals(List.of(), expired);
+        wheel.advance(250, timeout -> expired.add(timeout.name));
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void cancel_shouldRemoveTheEntry() {
+        TimerWheel<Timeout> wheel = new TimerWheel<>(10, 8, 0);
+        Timeout first = new Timeout("first");
+        Timeout second = new Timeout("second");
+        wheel.schedule(first, 20);
+        wheel.schedule(second, 20);
+
+        assertTrue(wheel.cancel(first));
+        assertFalse(wheel.cancel(first));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(1000, timeout -> expired.add(timeout.name));
+        assertEquals(List.of("second"), expired);
+    }
+
+    @Test
+    void advance_shouldLetTheCallbackRescheduleTheEntry() {
+        TimerWheel<Timeout> wheel = new TimerWheel<>(10, 8, 0);
+        Timeout retried = new Timeout("retried");
+        wheel.schedule(retried, 20);
+        List<Long> firedAt = new ArrayList<>();
+
+        for (long now = 10; now <= 100; now += 10) {
+            long at = now;
+            wheel.advance(now, timeout -> {
+                firedAt.add(at);
+                // Retransmit: due again 30 ms later
+                wheel.schedule(timeout, at + 30);
+            });
+        }
+
+        assertEquals(List.of(20L, 50L, 80L), firedAt);
+        assertEquals(1, wheel.size());
+    }
+
+    private static final class Timeout extends TimerWheel.Entry {
+        private final String name;
+
+        Timeout(String name) {
+            this.name = name;
+        }
+    }
+}